@@ -5,10 +5,12 @@ import java.util.List;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.compiere.model.I_C_BankStatementLine;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.banking.BankStatementLineId;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.template.IRowsData;
 import de.metas.ui.web.view.template.SynchronizedRowsIndexHolder;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -63,6 +65,18 @@ public class BankStatementLineRows implements IRowsData<BankStatementLineRow>
 		return rowsHolder.getDocumentId2TopLevelRows();
 	}
 
+	@Override
+	public ImmutableMap<DocumentId, BankStatementLineRow> getDocumentId2AllRows()
+	{
+		return rowsHolder.getDocumentId2AllRows();
+	}
+
+	@Override
+	public ImmutableList<BankStatementLineRow> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return rowsHolder.getTopLevelRowsSorted(orderBy);
+	}
+
 	@Override
 	public DocumentIdsSelection getDocumentIdsToInvalidate(@NonNull final TableRecordReferenceSet recordRefs)
 	{
@@ -6,9 +6,12 @@ import java.util.Map;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.compiere.model.I_C_Payment;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.payment.PaymentId;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.template.IRowsData;
 import de.metas.ui.web.view.template.SynchronizedRowsIndexHolder;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -63,6 +66,18 @@ public class PaymentToReconcileRows implements IRowsData<PaymentToReconcileRow>
 		return rowsHolder.getDocumentId2TopLevelRows();
 	}
 
+	@Override
+	public ImmutableMap<DocumentId, PaymentToReconcileRow> getDocumentId2AllRows()
+	{
+		return rowsHolder.getDocumentId2AllRows();
+	}
+
+	@Override
+	public ImmutableList<PaymentToReconcileRow> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return rowsHolder.getTopLevelRowsSorted(orderBy);
+	}
+
 	@Override
 	public DocumentIdsSelection getDocumentIdsToInvalidate(TableRecordReferenceSet recordRefs)
 	{
@@ -49,6 +49,15 @@ public class ETagResponseEntityBuilder<T extends ETagAware, R>
 		return new ETagResponseEntityBuilder<>(request, etagAware, () -> etagAware);
 	}
 
+	/**
+	 * @param result supplier of the actual result; it's called only if the client does not already have the version identified by given etag.
+	 */
+	public static final <R> ETagResponseEntityBuilder<ETagAware, R> ofETag(final WebRequest request, @NonNull final ETag etag, final Supplier<R> result)
+	{
+		final ETagAware etagAware = () -> etag;
+		return new ETagResponseEntityBuilder<>(request, etagAware, result);
+	}
+
 	private final WebRequest request;
 	private final T etagAware;
 	private final Supplier<R> result;
@@ -36,6 +36,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
@@ -77,6 +78,7 @@ import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.ui.web.window.model.DocumentCollection;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceFactory;
+import de.metas.ui.web.window.model.lookup.LookupValuesL2Cache;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.GuavaCollectors;
@@ -294,10 +296,13 @@ public class DebugRestController
 	{
 		userSession.assertLoggedIn();
 
-		return LookupDataSourceFactory.instance.getCacheStats()
+		final ImmutableList.Builder<String> result = ImmutableList.builder();
+		result.add("L2: " + LookupValuesL2Cache.instance.getStats());
+		LookupDataSourceFactory.instance.getCacheStats()
 				.stream()
 				.map(stats -> stats.toString())
-				.collect(GuavaCollectors.toImmutableList());
+				.forEach(result::add);
+		return result.build();
 	}
 
 	@RequestMapping(value = "/eventBus/postEvent", method = RequestMethod.GET)
@@ -0,0 +1,201 @@
+package de.metas.ui.web.devices;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.IAutoCloseable;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.websocket.WebSocketPushProducer;
+import de.metas.ui.web.window.datatypes.Values;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Publishes the values of a device (e.g. a scale), but only when they change.
+ * <p>
+ * The devices can only be polled, so we poll them often while the value is changing (e.g. while something is put on the scale)
+ * and we back off step by step while the value is stable.
+ */
+@ToString(of = "deviceId")
+final class DeviceWebSocketProducer implements WebSocketPushProducer
+{
+	private static final Logger logger = LogManager.getLogger(DeviceWebSocketProducer.class);
+
+	private static final Duration DEFAULT_MinPollInterval = Duration.ofMillis(100);
+	private static final Duration DEFAULT_MaxPollInterval = Duration.ofMillis(1000);
+
+	private final String deviceId;
+	private final Supplier<Object> deviceValueSupplier;
+	private final Duration minPollInterval;
+	private final Duration maxPollInterval;
+
+	@Builder
+	private DeviceWebSocketProducer(
+			@NonNull final String deviceId,
+			@NonNull final Supplier<Object> deviceValueSupplier,
+			@Nullable final Duration minPollInterval,
+			@Nullable final Duration maxPollInterval)
+	{
+		Check.assumeNotEmpty(deviceId, "deviceId is not empty");
+		this.deviceId = deviceId;
+		this.deviceValueSupplier = deviceValueSupplier;
+		this.minPollInterval = minPollInterval != null ? minPollInterval : DEFAULT_MinPollInterval;
+		this.maxPollInterval = maxPollInterval != null ? maxPollInterval : DEFAULT_MaxPollInterval;
+		Check.assume(this.minPollInterval.compareTo(this.maxPollInterval) <= 0, "minPollInterval={} shall not be greater than maxPollInterval={}", this.minPollInterval, this.maxPollInterval);
+	}
+
+	@Override
+	public Object produceEvent(@NonNull final JSONOptions jsonOpts)
+	{
+		final Object valueJson = Values.valueToJsonObject(deviceValueSupplier.get(), jsonOpts);
+		return JSONDeviceValueChangedEvent.of(deviceId, valueJson);
+	}
+
+	@Override
+	public IAutoCloseable startProducing(@NonNull final Consumer<Object> eventsSink, @NonNull final ScheduledExecutorService executor)
+	{
+		final DeviceValuesPoller poller = new DeviceValuesPoller(eventsSink, executor);
+		poller.start();
+		return poller::stop;
+	}
+
+	/**
+	 * @return poll interval to be used after current poll: the minimum one if the value changed, else the double of current one, but not more than the maximum one.
+	 */
+	@VisibleForTesting
+	static Duration computeNextPollInterval(
+			@NonNull final Duration currentPollInterval,
+			final boolean valueChanged,
+			@NonNull final Duration minPollInterval,
+			@NonNull final Duration maxPollInterval)
+	{
+		if (valueChanged)
+		{
+			return minPollInterval;
+		}
+
+		final Duration nextPollInterval = currentPollInterval.multipliedBy(2);
+		return nextPollInterval.compareTo(maxPollInterval) > 0 ? maxPollInterval : nextPollInterval;
+	}
+
+	private static boolean isSameValue(@Nullable final Object valueJson1, @Nullable final Object valueJson2)
+	{
+		if (valueJson1 instanceof BigDecimal && valueJson2 instanceof BigDecimal)
+		{
+			return ((BigDecimal)valueJson1).compareTo((BigDecimal)valueJson2) == 0;
+		}
+		return Objects.equals(valueJson1, valueJson2);
+	}
+
+	private final class DeviceValuesPoller
+	{
+		private final Consumer<Object> eventsSink;
+		private final ScheduledExecutorService executor;
+
+		private boolean stopped = false;
+		private ScheduledFuture<?> nextPoll;
+
+		// accessed only from poll(), which is never running concurrently
+		private boolean firstPoll = true;
+		private Object lastValueJson = null;
+		private Duration pollInterval = minPollInterval;
+
+		private DeviceValuesPoller(
+				@NonNull final Consumer<Object> eventsSink,
+				@NonNull final ScheduledExecutorService executor)
+		{
+			this.eventsSink = eventsSink;
+			this.executor = executor;
+		}
+
+		public void start()
+		{
+			schedulePoll(Duration.ZERO);
+			logger.trace("{}: started polling", DeviceWebSocketProducer.this);
+		}
+
+		public synchronized void stop()
+		{
+			stopped = true;
+			if (nextPoll != null)
+			{
+				nextPoll.cancel(false);
+				nextPoll = null;
+			}
+			logger.trace("{}: stopped polling", DeviceWebSocketProducer.this);
+		}
+
+		private synchronized void schedulePoll(@NonNull final Duration delay)
+		{
+			if (stopped)
+			{
+				return;
+			}
+
+			nextPoll = executor.schedule(this::poll, delay.toMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		private void poll()
+		{
+			boolean valueChanged = false;
+			try
+			{
+				final Object valueJson = Values.valueToJsonObject(deviceValueSupplier.get(), JSONOptions.newInstance());
+				if (firstPoll || !isSameValue(lastValueJson, valueJson))
+				{
+					firstPoll = false;
+					lastValueJson = valueJson;
+					valueChanged = true;
+
+					eventsSink.accept(JSONDeviceValueChangedEvent.of(deviceId, valueJson));
+				}
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("{}: Failed acquiring device value. Ignored.", DeviceWebSocketProducer.this, ex);
+			}
+			finally
+			{
+				pollInterval = computeNextPollInterval(pollInterval, valueChanged, minPollInterval, maxPollInterval);
+				schedulePoll(pollInterval);
+			}
+		}
+	}
+}
@@ -7,12 +7,9 @@ import de.metas.device.adempiere.IDevicesHubFactory;
 import de.metas.ui.web.websocket.WebSocketConfig;
 import de.metas.ui.web.websocket.WebSocketProducer;
 import de.metas.ui.web.websocket.WebSocketProducerFactory;
-import de.metas.ui.web.window.datatypes.Values;
-import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
-import lombok.ToString;
 
 /*
  * #%L
@@ -37,7 +34,7 @@ import lombok.ToString;
  */
 
 /**
- * Creates {@link WebSocketProducer} instances which are reading {@link AttributeDeviceAccessor#acquireValue()} and creates {@link JSONDeviceValueChangedEvent}.
+ * Creates {@link DeviceWebSocketProducer} instances which are reading {@link AttributeDeviceAccessor#acquireValue()} and publish a {@link JSONDeviceValueChangedEvent} when the value changed.
  *
  * @author metas-dev <dev@metasfresh.com>
  *
@@ -79,35 +76,22 @@ public class DeviceWebSocketProducerFactory implements WebSocketProducerFactory
 	public WebSocketProducer createProducer(final String topicName)
 	{
 		final String deviceId = extractDeviceIdFromTopicName(topicName);
-		return new DeviceWebSocketProducer(deviceId);
+		return DeviceWebSocketProducer.builder()
+				.deviceId(deviceId)
+				.deviceValueSupplier(() -> acquireDeviceValue(deviceId))
+				.build();
 	}
 
-	@ToString
-	private static final class DeviceWebSocketProducer implements WebSocketProducer
+	private static Object acquireDeviceValue(@NonNull final String deviceId)
 	{
-		private final String deviceId;
-
-		public DeviceWebSocketProducer(final String deviceId)
+		final AttributeDeviceAccessor deviceAccessor = Services.get(IDevicesHubFactory.class)
+				.getDefaultAttributesDevicesHub()
+				.getAttributeDeviceAccessorById(deviceId);
+		if (deviceAccessor == null)
 		{
-			Check.assumeNotEmpty(deviceId, "deviceId is not empty");
-			this.deviceId = deviceId;
+			throw new RuntimeException("Device accessor no longer exists for: " + deviceId);
 		}
 
-		@Override
-		public Object produceEvent(@NonNull final JSONOptions jsonOpts)
-		{
-			final AttributeDeviceAccessor deviceAccessor = Services.get(IDevicesHubFactory.class)
-					.getDefaultAttributesDevicesHub()
-					.getAttributeDeviceAccessorById(deviceId);
-			if (deviceAccessor == null)
-			{
-				throw new RuntimeException("Device accessor no longer exists for: " + deviceId);
-			}
-
-			final Object valueObj = deviceAccessor.acquireValue();
-			final Object valueJson = Values.valueToJsonObject(valueObj, jsonOpts);
-
-			return JSONDeviceValueChangedEvent.of(deviceId, valueJson);
-		}
+		return deviceAccessor.acquireValue();
 	}
 }
@@ -0,0 +1,118 @@
+package de.metas.ui.web.document.filter.provider.fullTextSearch;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import de.metas.util.NumberUtils;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Fetches the hits using the elasticsearch scroll API.
+ * <p>
+ * NOTE: because we are not sorting, the scroll returns the hits ordered by relevance score.
+ */
+final class ElasticsearchHitsSource implements FullTextSearchHitsSource
+{
+	private static final Logger logger = LogManager.getLogger(ElasticsearchHitsSource.class);
+
+	private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+	private final Client elasticsearchClient;
+	private final String esIndexName;
+	private final String esKeyColumnName;
+
+	public ElasticsearchHitsSource(@NonNull final FullTextSearchFilterContext context)
+	{
+		this.elasticsearchClient = context.getElasticsearchClient();
+		this.esIndexName = context.getEsIndexName();
+		this.esKeyColumnName = context.getEsKeyColumnName();
+	}
+
+	@Override
+	public HitsPage firstPage(@NonNull final QueryBuilder query, final int pageSize)
+	{
+		final SearchResponse searchResponse = elasticsearchClient.prepareSearch(esIndexName)
+				.setQuery(query)
+				.setFetchSource(new String[] { esKeyColumnName }, null)
+				.setSize(pageSize)
+				.setScroll(SCROLL_KEEP_ALIVE)
+				.setExplain(logger.isTraceEnabled())
+				.get();
+		logger.trace("ES response: {}", searchResponse);
+
+		return toHitsPage(searchResponse);
+	}
+
+	@Override
+	public HitsPage nextPage(@NonNull final String scrollId)
+	{
+		final SearchResponse searchResponse = elasticsearchClient.prepareSearchScroll(scrollId)
+				.setScroll(SCROLL_KEEP_ALIVE)
+				.get();
+		logger.trace("ES response: {}", searchResponse);
+
+		return toHitsPage(searchResponse);
+	}
+
+	@Override
+	public void release(@NonNull final String scrollId)
+	{
+		try
+		{
+			elasticsearchClient.prepareClearScroll()
+					.addScrollId(scrollId)
+					.get();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed clearing scroll {}. Ignored.", scrollId, ex);
+		}
+	}
+
+	private HitsPage toHitsPage(final SearchResponse searchResponse)
+	{
+		final ImmutableList<Hit> hits = Stream.of(searchResponse.getHits().getHits())
+				.map(hit -> Hit.of(extractId(hit), hit.getScore()))
+				.collect(ImmutableList.toImmutableList());
+
+		return new HitsPage(searchResponse.getScrollId(), hits);
+	}
+
+	private int extractId(final SearchHit hit)
+	{
+		final Map<String, Object> source = hit.getSource();
+		return NumberUtils.asInt(source.get(esKeyColumnName), -1);
+	}
+}
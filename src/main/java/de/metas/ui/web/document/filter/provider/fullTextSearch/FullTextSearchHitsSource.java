@@ -0,0 +1,80 @@
+package de.metas.ui.web.document.filter.provider.fullTextSearch;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.elasticsearch.index.query.QueryBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Fetches all hits of a full text search query, page by page, most relevant first.
+ */
+interface FullTextSearchHitsSource
+{
+	HitsPage firstPage(QueryBuilder query, int pageSize);
+
+	/**
+	 * @return next page or empty page if there are no more hits
+	 */
+	HitsPage nextPage(String scrollId);
+
+	/**
+	 * Releases the resources kept by the search engine for given scroll.
+	 */
+	void release(String scrollId);
+
+	@Value
+	class HitsPage
+	{
+		@Nullable
+		String scrollId;
+		@NonNull
+		ImmutableList<Hit> hits;
+
+		public HitsPage(@Nullable final String scrollId, @NonNull final List<Hit> hits)
+		{
+			this.scrollId = scrollId;
+			this.hits = ImmutableList.copyOf(hits);
+		}
+
+		public boolean isEmpty()
+		{
+			return hits.isEmpty();
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	class Hit
+	{
+		/** record ID or <code>-1</code> if the hit could not be mapped to a record */
+		int recordId;
+		float score;
+	}
+}
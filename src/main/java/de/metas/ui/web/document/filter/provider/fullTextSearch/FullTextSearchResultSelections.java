@@ -0,0 +1,218 @@
+package de.metas.ui.web.document.filter.provider.fullTextSearch;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
+import de.metas.ui.web.document.filter.DocumentFilter;
+import de.metas.ui.web.document.filter.provider.fullTextSearch.FullTextSearchHitsSource.Hit;
+import de.metas.ui.web.document.filter.provider.fullTextSearch.FullTextSearchHitsSource.HitsPage;
+import de.metas.ui.web.view.SqlViewSelectionToDeleteHelper;
+import de.metas.util.Services;
+import de.metas.util.lang.UIDStringUtil;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Fetches the most relevant full text search hits (up to the <code>...fullTextSearch.MaxHits</code> sysconfig) and saves their record IDs to {@link I_T_WEBUI_ViewSelection}, ordered by relevance,
+ * so they can be joined by the view SQL.
+ * <p>
+ * The selections are kept as long as the view's filter is alive, so the same search is not executed again when the view is ordered, counted etc.
+ * After that, they are scheduled to be deleted.
+ */
+final class FullTextSearchResultSelections
+{
+	public static final transient FullTextSearchResultSelections instance = new FullTextSearchResultSelections(
+			ElasticsearchHitsSource::new,
+			new SqlSelectionLinesWriter());
+
+	private static final Logger logger = LogManager.getLogger(FullTextSearchResultSelections.class);
+
+	@VisibleForTesting
+	static final int PAGE_SIZE = 1000;
+
+	private static final String SYSCONFIG_MaxHits = "de.metas.ui.web.document.filter.provider.fullTextSearch.MaxHits";
+	private static final int DEFAULT_MaxHits = 10000;
+
+	private final Function<FullTextSearchFilterContext, FullTextSearchHitsSource> hitsSourceFactory;
+	private final SelectionLinesWriter selectionLinesWriter;
+
+	/**
+	 * Result selections by the full text search filter instance.
+	 * The filter is held by the view, so the selection is kept as long as the view is alive and it's deleted after the view was discarded.
+	 */
+	private final Cache<DocumentFilter, FullTextSearchResultSelection> selectionsByFilter = CacheBuilder.newBuilder()
+			.weakKeys()
+			.<DocumentFilter, FullTextSearchResultSelection> removalListener(this::onSelectionRemoved)
+			.build();
+
+	@VisibleForTesting
+	FullTextSearchResultSelections(
+			@NonNull final Function<FullTextSearchFilterContext, FullTextSearchHitsSource> hitsSourceFactory,
+			@NonNull final SelectionLinesWriter selectionLinesWriter)
+	{
+		this.hitsSourceFactory = hitsSourceFactory;
+		this.selectionLinesWriter = selectionLinesWriter;
+	}
+
+	public FullTextSearchResultSelection getOrCreate(
+			@NonNull final DocumentFilter filter,
+			@NonNull final FullTextSearchFilterContext context,
+			@NonNull final String text)
+	{
+		try
+		{
+			return selectionsByFilter.get(filter, () -> create(context, text, getMaxHits()));
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause() != null ? ex.getCause() : ex);
+		}
+	}
+
+	private static int getMaxHits()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxHits, DEFAULT_MaxHits);
+	}
+
+	private void onSelectionRemoved(final RemovalNotification<DocumentFilter, FullTextSearchResultSelection> notification)
+	{
+		final FullTextSearchResultSelection selection = notification.getValue();
+		if (selection != null && !selection.isEmpty())
+		{
+			SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(ImmutableSet.of(selection.getSelectionId()));
+		}
+	}
+
+	/**
+	 * @param maxHits how many (most relevant) hits to save; the others are ignored
+	 */
+	@VisibleForTesting
+	FullTextSearchResultSelection create(@NonNull final FullTextSearchFilterContext context, @NonNull final String text, final int maxHits)
+	{
+		final QueryBuilder query = QueryBuilders.multiMatchQuery(text, context.getEsSearchFieldNamesAsArray());
+		logger.trace("ES query: {}", query);
+
+		final String selectionId = UIDStringUtil.createRandomUUID();
+		final FullTextSearchHitsSource hitsSource = hitsSourceFactory.apply(context);
+		final HashSet<Integer> recordIdsSeen = new HashSet<>();
+		int linesCount = 0;
+
+		HitsPage page = hitsSource.firstPage(query, PAGE_SIZE);
+		try
+		{
+			while (!page.isEmpty() && linesCount < maxHits)
+			{
+				final ImmutableList<Integer> recordIds = page.getHits()
+						.stream()
+						.map(Hit::getRecordId)
+						.filter(recordId -> recordId >= 0)
+						.filter(recordIdsSeen::add)
+						.limit(maxHits - linesCount)
+						.collect(ImmutableList.toImmutableList());
+				if (!recordIds.isEmpty())
+				{
+					selectionLinesWriter.insert(selectionId, linesCount + 1, recordIds);
+					linesCount += recordIds.size();
+				}
+
+				if (page.getScrollId() == null || linesCount >= maxHits)
+				{
+					break;
+				}
+				page = hitsSource.nextPage(page.getScrollId());
+			}
+		}
+		finally
+		{
+			if (page.getScrollId() != null)
+			{
+				hitsSource.release(page.getScrollId());
+			}
+		}
+
+		logger.trace("Saved {} record IDs to selection {}", linesCount, selectionId);
+		return new FullTextSearchResultSelection(selectionId, linesCount);
+	}
+
+	@Value
+	static class FullTextSearchResultSelection
+	{
+		@NonNull
+		String selectionId;
+		int size;
+
+		public boolean isEmpty()
+		{
+			return size <= 0;
+		}
+	}
+
+	@FunctionalInterface
+	interface SelectionLinesWriter
+	{
+		/**
+		 * @param firstLine line of the first record ID; the following ones are incremented by one
+		 */
+		void insert(String selectionId, int firstLine, List<Integer> recordIds);
+	}
+
+	private static final class SqlSelectionLinesWriter implements SelectionLinesWriter
+	{
+		@Override
+		public void insert(@NonNull final String selectionId, final int firstLine, @NonNull final List<Integer> recordIds)
+		{
+			final String sql = "INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+					+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+					+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+					+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_IntKey1
+					+ ")"
+					+ "\n SELECT ?, ? + t.ord - 1, t.id"
+					+ "\n FROM unnest(?::integer[]) WITH ORDINALITY AS t(id, ord)";
+			final String recordIdsArray = recordIds.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+
+			DB.executeUpdateEx(sql, new Object[] { selectionId, firstLine, recordIdsArray }, ITrx.TRXNAME_None);
+		}
+	}
+}
@@ -1,28 +1,22 @@
 package de.metas.ui.web.document.filter.provider.fullTextSearch;
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Stream;
+import java.util.Optional;
 
 import org.compiere.util.DB;
-import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.client.Client;
-import org.elasticsearch.index.query.QueryBuilder;
-import org.elasticsearch.index.query.QueryBuilders;
-import org.elasticsearch.search.SearchHit;
 import org.slf4j.Logger;
 
-import com.google.common.collect.ImmutableList;
 import com.jgoodies.common.base.Objects;
 
 import de.metas.logging.LogManager;
+import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
 import de.metas.ui.web.document.filter.DocumentFilter;
+import de.metas.ui.web.document.filter.provider.fullTextSearch.FullTextSearchResultSelections.FullTextSearchResultSelection;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverter;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
 import de.metas.ui.web.document.filter.sql.SqlParamsCollector;
 import de.metas.ui.web.window.model.sql.SqlOptions;
 import de.metas.util.Check;
-import de.metas.util.NumberUtils;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -74,48 +68,70 @@ public class FullTextSearchSqlDocumentFilterConverter implements SqlDocumentFilt
 			final SqlOptions sqlOpts,
 			final SqlDocumentFilterConverterContext context)
 	{
-		final String text = filter.getParameterValueAsString(PARAM_SearchText);
-		if (Check.isEmpty(text, true))
+		final FullTextSearchResultSelection selection = getResultSelection(filter).orElse(null);
+		if (selection == null)
 		{
 			return "1=1";
 		}
-
-		final FullTextSearchFilterContext ftsContext = filter.getParameterValueAs(PARAM_Context);
-		Check.assumeNotNull(ftsContext, "Parameter ftsContext is not null"); // shall not happen
-		logger.trace("context: {}", ftsContext);
-		final Client elasticsearchClient = ftsContext.getElasticsearchClient();
-		final String esIndexName = ftsContext.getEsIndexName();
-		final String keyColumnName = ftsContext.getKeyColumnName();
-		final String esKeyColumnName = ftsContext.getEsKeyColumnName();
-
-		final QueryBuilder query = QueryBuilders.multiMatchQuery(text, ftsContext.getEsSearchFieldNamesAsArray());
-		logger.trace("ES query: {}", query);
-
-		final SearchResponse searchResponse = elasticsearchClient.prepareSearch(esIndexName)
-				.setQuery(query)
-				.setExplain(logger.isTraceEnabled())
-				.get();
-		logger.trace("ES response: {}", searchResponse);
-
-		final List<Integer> recordIds = Stream.of(searchResponse.getHits().getHits())
-				.map(hit -> extractId(hit, esKeyColumnName))
-				.filter(id -> id >= 0)
-				.distinct()
-				.collect(ImmutableList.toImmutableList());
-		logger.trace("Record IDs: {}", recordIds);
-		if (recordIds.isEmpty())
+		if (selection.isEmpty())
 		{
 			return "1=0";
 		}
 
-		final String keyColumnNameFQ = sqlOpts.getTableNameOrAlias() + "." + keyColumnName;
-		return DB.buildSqlList(keyColumnNameFQ, recordIds, null);
+		final FullTextSearchFilterContext ftsContext = getContext(filter);
+		final String keyColumnNameFQ = sqlOpts.getTableNameOrAlias() + "." + ftsContext.getKeyColumnName();
+		return "EXISTS (SELECT 1 FROM " + I_T_WEBUI_ViewSelection.Table_Name + " fts"
+				+ " WHERE fts." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=" + sqlParamsOut.placeholder(selection.getSelectionId())
+				+ " AND fts." + I_T_WEBUI_ViewSelection.COLUMNNAME_IntKey1 + "=" + keyColumnNameFQ
+				+ ")";
+	}
+
+	@Override
+	public boolean isDependingOnOtherTables(@NonNull final DocumentFilter filter)
+	{
+		// the matching records are selected from the full text search index
+		return true;
+	}
+
+	@Override
+	public Optional<String> getSqlRelevanceRank(@NonNull final DocumentFilter filter, @NonNull final String tableNameOrAlias)
+	{
+		if (!canConvert(filter.getFilterId()))
+		{
+			return Optional.empty();
+		}
+
+		final FullTextSearchResultSelection selection = getResultSelection(filter).orElse(null);
+		if (selection == null || selection.isEmpty())
+		{
+			return Optional.empty();
+		}
+
+		final FullTextSearchFilterContext ftsContext = getContext(filter);
+		final String keyColumnNameFQ = tableNameOrAlias + "." + ftsContext.getKeyColumnName();
+		return Optional.of("(SELECT fts." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " FROM " + I_T_WEBUI_ViewSelection.Table_Name + " fts"
+				+ " WHERE fts." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=" + DB.TO_STRING(selection.getSelectionId())
+				+ " AND fts." + I_T_WEBUI_ViewSelection.COLUMNNAME_IntKey1 + "=" + keyColumnNameFQ
+				+ ")");
 	}
 
-	private int extractId(final SearchHit hit, final String esKeyColumnName)
+	private Optional<FullTextSearchResultSelection> getResultSelection(final DocumentFilter filter)
 	{
-		final Map<String, Object> source = hit.getSource();
-		return NumberUtils.asInt(source.get(esKeyColumnName), -1);
+		final String text = filter.getParameterValueAsString(PARAM_SearchText);
+		if (Check.isEmpty(text, true))
+		{
+			return Optional.empty();
+		}
+
+		final FullTextSearchFilterContext ftsContext = getContext(filter);
+		return Optional.of(FullTextSearchResultSelections.instance.getOrCreate(filter, ftsContext, text));
 	}
 
+	private static FullTextSearchFilterContext getContext(final DocumentFilter filter)
+	{
+		final FullTextSearchFilterContext ftsContext = filter.getParameterValueAs(PARAM_Context);
+		Check.assumeNotNull(ftsContext, "Parameter ftsContext is not null"); // shall not happen
+		logger.trace("context: {}", ftsContext);
+		return ftsContext;
+	}
 }
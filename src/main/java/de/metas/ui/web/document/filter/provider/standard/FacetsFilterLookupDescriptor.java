@@ -1,6 +1,7 @@
 package de.metas.ui.web.document.filter.provider.standard;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -12,6 +13,7 @@ import org.compiere.util.DisplayType;
 
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.i18n.IMsgBL;
 import de.metas.i18n.TranslatableStrings;
@@ -19,6 +21,8 @@ import de.metas.ui.web.view.DefaultView;
 import de.metas.ui.web.view.IViewDataRepository;
 import de.metas.ui.web.view.IViewsRepository;
 import de.metas.ui.web.view.ViewEvaluationCtx;
+import de.metas.ui.web.view.ViewFieldValueCounts;
+import de.metas.ui.web.view.ViewFieldValueCounts.ValueCount;
 import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.window.datatypes.LookupValue;
 import de.metas.ui.web.window.datatypes.LookupValue.StringLookupValue;
@@ -59,6 +63,9 @@ import lombok.NonNull;
 
 final class FacetsFilterLookupDescriptor extends SimpleLookupDescriptorTemplate
 {
+	/** Lookup value attribute: how many rows of the view have this facet value */
+	public static final String ATTRIBUTE_Count = "count";
+
 	private final IMsgBL msgBL = Services.get(IMsgBL.class);
 	private final IViewsRepository viewsRepository;
 
@@ -69,7 +76,8 @@ final class FacetsFilterLookupDescriptor extends SimpleLookupDescriptorTemplate
 	private final DocumentFieldWidgetType fieldWidgetType;
 	@Getter
 	private final boolean numericKey;
-	private final int maxFacetsToFetch;
+	/** All facet fields of the view (including this one), because they are fetched together */
+	private final ImmutableMap<String, Integer> maxFacetsToFetchByFieldName;
 	private final LookupDescriptor fieldLookupDescriptor;
 
 	@Builder
@@ -80,10 +88,11 @@ final class FacetsFilterLookupDescriptor extends SimpleLookupDescriptorTemplate
 			@NonNull final String fieldName,
 			@NonNull final DocumentFieldWidgetType fieldWidgetType,
 			final boolean numericKey,
-			final int maxFacetsToFetch,
+			@NonNull final ImmutableMap<String, Integer> maxFacetsToFetchByFieldName,
 			@Nullable final LookupDescriptor fieldLookupDescriptor)
 	{
-		Check.assumeGreaterThanZero(maxFacetsToFetch, "maxFacetsToFetch");
+		Check.assume(maxFacetsToFetchByFieldName.containsKey(fieldName), "maxFacetsToFetchByFieldName shall contain {}: {}", fieldName, maxFacetsToFetchByFieldName);
+		maxFacetsToFetchByFieldName.values().forEach(maxFacetsToFetch -> Check.assumeGreaterThanZero(maxFacetsToFetch, "maxFacetsToFetch"));
 
 		this.viewsRepository = viewsRepository;
 
@@ -91,7 +100,7 @@ final class FacetsFilterLookupDescriptor extends SimpleLookupDescriptorTemplate
 		this.fieldName = fieldName;
 		this.fieldWidgetType = fieldWidgetType;
 		this.numericKey = numericKey;
-		this.maxFacetsToFetch = maxFacetsToFetch;
+		this.maxFacetsToFetchByFieldName = maxFacetsToFetchByFieldName;
 		this.fieldLookupDescriptor = fieldLookupDescriptor;
 	}
 
@@ -153,11 +162,13 @@ final class FacetsFilterLookupDescriptor extends SimpleLookupDescriptorTemplate
 		final ViewEvaluationCtx viewEvalCtx = view.getViewEvaluationCtx();
 		final String selectionId = view.getDefaultSelectionBeforeFacetsFiltering().getSelectionId();
 
-		List<Object> rawValues = viewDataRepository.retrieveFieldValues(
+		// NOTE: the values of all facet fields are fetched and cached in one go, so the other facets of this view won't hit the database
+		final ViewFieldValueCounts allValueCounts = viewDataRepository.retrieveFieldValueCounts(
 				viewEvalCtx,
 				selectionId,
-				fieldName,
-				maxFacetsToFetch);
+				maxFacetsToFetchByFieldName);
+
+		List<ValueCount> valueCounts = allValueCounts.getValueCounts(fieldName);
 
 		boolean valuesAreOrdered = false;
 		if (fieldWidgetType.isDateOrTime()
@@ -165,14 +176,14 @@ final class FacetsFilterLookupDescriptor extends SimpleLookupDescriptorTemplate
 		{
 			// in case of date/time/numeric fields we shall order them by their value
 			// and not alphabetically by their string representation
-			rawValues = rawValues.stream()
-					.sorted()
+			valueCounts = valueCounts.stream()
+					.sorted(Comparator.comparing(ValueCount::getValue, FacetsFilterLookupDescriptor::compareRawFieldValues))
 					.collect(ImmutableList.toImmutableList());
 			valuesAreOrdered = true;
 		}
 
-		final LookupValuesList lookupValues = rawValues.stream()
-				.map(this::convertRawFieldValueToLookupValue)
+		final LookupValuesList lookupValues = valueCounts.stream()
+				.map(this::convertValueCountToLookupValue)
 				.filter(Objects::nonNull)
 				.distinct()
 				.collect(LookupValuesList.collect())
@@ -190,6 +201,21 @@ final class FacetsFilterLookupDescriptor extends SimpleLookupDescriptorTemplate
 		return DefaultView.cast(viewsRepository.getView(viewId));
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compareRawFieldValues(final Object fieldValue1, final Object fieldValue2)
+	{
+		return ((Comparable)fieldValue1).compareTo(fieldValue2);
+	}
+
+	@Nullable
+	private LookupValue convertValueCountToLookupValue(@NonNull final ValueCount valueCount)
+	{
+		final LookupValue lookupValue = convertRawFieldValueToLookupValue(valueCount.getValue());
+		return lookupValue != null
+				? lookupValue.withAttribute(ATTRIBUTE_Count, valueCount.getCount())
+				: null;
+	}
+
 	private LookupValue convertRawFieldValueToLookupValue(final Object fieldValue)
 	{
 		if (fieldValue == null)
@@ -13,6 +13,7 @@ import org.adempiere.service.ISysConfigBL;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
@@ -138,11 +139,17 @@ public class StandardDocumentFilterDescriptorsProviderFactory implements Documen
 
 		//
 		// Facet filters
+		// NOTE: all facets are fetched together, in one go
+		final ImmutableMap<String, Integer> maxFacetsToFetchByFieldName = fieldsForFacetFiltering.stream()
+				.collect(ImmutableMap.toImmutableMap(
+						StandardDocumentFilterDescriptorsProviderFactory::extractFacetFieldName,
+						field -> getMaxFacetsToFetch(field)));
+
 		final ArrayList<DocumentFilterDescriptor> facetFilters = new ArrayList<>();
 		for (DocumentFieldDescriptor field : fieldsForFacetFiltering)
 		{
 			final int sortNo = facetFilters.size() + 1;
-			final DocumentFilterDescriptor facetFilter = createFacetFilter(field, sortNo);
+			final DocumentFilterDescriptor facetFilter = createFacetFilter(field, sortNo, maxFacetsToFetchByFieldName);
 			facetFilters.add(facetFilter);
 		}
 
@@ -213,9 +220,12 @@ public class StandardDocumentFilterDescriptorsProviderFactory implements Documen
 		}
 	}
 
-	private DocumentFilterDescriptor createFacetFilter(@NonNull final DocumentFieldDescriptor field, final int sortNo)
+	private DocumentFilterDescriptor createFacetFilter(
+			@NonNull final DocumentFieldDescriptor field,
+			final int sortNo,
+			@NonNull final ImmutableMap<String, Integer> maxFacetsToFetchByFieldName)
 	{
-		final FacetsFilterLookupDescriptor facetsLookupDescriptor = createFacetsFilterLookupDescriptor(field);
+		final FacetsFilterLookupDescriptor facetsLookupDescriptor = createFacetsFilterLookupDescriptor(field, maxFacetsToFetchByFieldName);
 
 		return DocumentFilterDescriptor.builder()
 				.setFilterId(facetsLookupDescriptor.getFilterId())
@@ -234,12 +244,18 @@ public class StandardDocumentFilterDescriptorsProviderFactory implements Documen
 				.build();
 	}
 
-	private FacetsFilterLookupDescriptor createFacetsFilterLookupDescriptor(final DocumentFieldDescriptor field)
+	private static String extractFacetFieldName(@NonNull final DocumentFieldDescriptor field)
+	{
+		return field.getDataBinding().get().getColumnName();
+	}
+
+	private FacetsFilterLookupDescriptor createFacetsFilterLookupDescriptor(
+			@NonNull final DocumentFieldDescriptor field,
+			@NonNull final ImmutableMap<String, Integer> maxFacetsToFetchByFieldName)
 	{
-		final String columnName = field.getDataBinding().get().getColumnName();
+		final String columnName = extractFacetFieldName(field);
 		final String filterId = FACET_FILTER_ID_PREFIX + columnName;
 
-		final DocumentFieldDefaultFilterDescriptor fieldFilteringInfo = field.getDefaultFilterInfo();
 		final DocumentFieldWidgetType fieldWidgetType = extractFilterWidgetType(field);
 		final LookupDescriptor fieldLookupDescriptor = field.getLookupDescriptorForFiltering().orElse(null);
 
@@ -259,11 +275,16 @@ public class StandardDocumentFilterDescriptorsProviderFactory implements Documen
 				.fieldName(columnName)
 				.fieldWidgetType(fieldWidgetType)
 				.numericKey(numericKey)
-				.maxFacetsToFetch(fieldFilteringInfo.getMaxFacetsToFetch().orElse(getMaxFacetsToFetch()))
+				.maxFacetsToFetchByFieldName(maxFacetsToFetchByFieldName)
 				.fieldLookupDescriptor(fieldLookupDescriptor)
 				.build();
 	}
 
+	private int getMaxFacetsToFetch(@NonNull final DocumentFieldDescriptor field)
+	{
+		return field.getDefaultFilterInfo().getMaxFacetsToFetch().orElse(getMaxFacetsToFetch());
+	}
+
 	private int getMaxFacetsToFetch()
 	{
 		return sysConfigs.getIntValue(SYSCONFIG_MAX_FACETS_TO_FETCH, SYSCONFIG_FACETS_TO_FETCH_DEFAULT);
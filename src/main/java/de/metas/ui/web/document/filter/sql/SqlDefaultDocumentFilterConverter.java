@@ -117,6 +117,32 @@ import lombok.NonNull;
 		return sql.toString();
 	}
 
+	@Override
+	public boolean isDependingOnOtherTables(@NonNull final DocumentFilter filter)
+	{
+		return filter.getParameters().stream().anyMatch(this::isDependingOnOtherTables);
+	}
+
+	private boolean isDependingOnOtherTables(final DocumentFilterParam filterParam)
+	{
+		// SQL filters might use any table
+		if (filterParam.isSqlFilter())
+		{
+			return true;
+		}
+
+		final SqlEntityFieldBinding fieldBinding = getParameterBinding(filterParam.getFieldName());
+
+		// Labels are stored in their own table
+		if (fieldBinding.getWidgetType() == DocumentFieldWidgetType.Labels)
+		{
+			return true;
+		}
+
+		// Virtual columns might use any table
+		return fieldBinding.isVirtualColumn();
+	}
+
 	/** Build document filter parameter where clause */
 	private String buildSqlWhereClause(final SqlParamsCollector sqlParams, final String filterId, final DocumentFilterParam filterParam, final SqlOptions sqlOpts)
 	{
@@ -1,5 +1,7 @@
 package de.metas.ui.web.document.filter.sql;
 
+import java.util.Optional;
+
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.IQueryFilter;
@@ -44,6 +46,9 @@ import lombok.NonNull;
  */
 public interface SqlDocumentFilterConverter
 {
+	/** Pseudo field name which can be used to order by relevance (most relevant first, when ascending), see {@link #getSqlRelevanceRank(DocumentFilter, String)} */
+	String ORDERBY_FIELDNAME_RelevanceRank = "FullTextSearchRelevanceRank";
+
 	/** @return true if the filter identified by <code>filterId</code> can be converted to SQL by this converter */
 	boolean canConvert(final String filterId);
 
@@ -90,6 +95,28 @@ public interface SqlDocumentFilterConverter
 		return sqlWhereClauseBuilder.toString();
 	}
 
+	/**
+	 * @return SQL expression which evaluates to the relevance rank of the record (1 = most relevant) or {@link Optional#empty()} if given filter does not rank the records it matches
+	 */
+	default Optional<String> getSqlRelevanceRank(@NonNull final DocumentFilter filter, @NonNull final String tableNameOrAlias)
+	{
+		return Optional.empty();
+	}
+
+	/**
+	 * @return true if the records matched by given filter might change when other tables than the filtered table are changed (e.g. the filter's SQL is using sub queries).
+	 *         If not sure, return true.
+	 */
+	default boolean isDependingOnOtherTables(@NonNull final DocumentFilter filter)
+	{
+		return true;
+	}
+
+	/* final */ default boolean isDependingOnOtherTables(@NonNull final DocumentFilterList filters)
+	{
+		return filters.stream().anyMatch(this::isDependingOnOtherTables);
+	}
+
 	default <T> IQueryFilter<T> createQueryFilter(
 			@NonNull final DocumentFilterList filters,
 			@NonNull final SqlOptions sqlOpts,
@@ -1,5 +1,7 @@
 package de.metas.ui.web.document.filter.sql;
 
+import java.util.Optional;
+
 import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.window.model.sql.SqlOptions;
 import lombok.NonNull;
@@ -64,11 +66,27 @@ import lombok.ToString;
 			@NonNull final SqlDocumentFilterConverterContext context)
 	{
 		// Find the effective converter to be used for given filter
-		final String filterId = filter.getFilterId();
-		final SqlDocumentFilterConverter effectiveConverter = converters.getConverterOrDefault(filterId, defaultConverter);
+		final SqlDocumentFilterConverter effectiveConverter = getEffectiveConverter(filter);
 
 		// Convert the filter to SQL using the effective converter
 		final String sqlFilter = effectiveConverter.getSql(sqlParamsOut, filter, sqlOpts, context);
 		return sqlFilter;
 	}
+
+	@Override
+	public Optional<String> getSqlRelevanceRank(@NonNull final DocumentFilter filter, @NonNull final String tableNameOrAlias)
+	{
+		return getEffectiveConverter(filter).getSqlRelevanceRank(filter, tableNameOrAlias);
+	}
+
+	@Override
+	public boolean isDependingOnOtherTables(@NonNull final DocumentFilter filter)
+	{
+		return getEffectiveConverter(filter).isDependingOnOtherTables(filter);
+	}
+
+	private SqlDocumentFilterConverter getEffectiveConverter(@NonNull final DocumentFilter filter)
+	{
+		return converters.getConverterOrDefault(filter.getFilterId(), defaultConverter);
+	}
 }
@@ -0,0 +1,117 @@
+package de.metas.ui.web.document.geo_location;
+
+import java.math.BigDecimal;
+
+import de.metas.location.geocoding.GeographicalCoordinates;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Latitude/longitude rectangle, in degrees.
+ * <p>
+ * NOTE: boxes crossing the antimeridian are not supported; in that case the whole longitude range is used.
+ */
+@Value
+public class GeoBoundingBox
+{
+	public static final double EARTH_RADIUS_KM = 6371;
+
+	private static final double MIN_LATITUDE = -90;
+	private static final double MAX_LATITUDE = 90;
+	private static final double MIN_LONGITUDE = -180;
+	private static final double MAX_LONGITUDE = 180;
+
+	double minLatitude;
+	double maxLatitude;
+	double minLongitude;
+	double maxLongitude;
+
+	@Builder
+	private GeoBoundingBox(
+			final double minLatitude,
+			final double maxLatitude,
+			final double minLongitude,
+			final double maxLongitude)
+	{
+		Check.assume(minLatitude <= maxLatitude, "minLatitude={} <= maxLatitude={}", minLatitude, maxLatitude);
+		Check.assume(minLongitude <= maxLongitude, "minLongitude={} <= maxLongitude={}", minLongitude, maxLongitude);
+
+		this.minLatitude = Math.max(minLatitude, MIN_LATITUDE);
+		this.maxLatitude = Math.min(maxLatitude, MAX_LATITUDE);
+		this.minLongitude = Math.max(minLongitude, MIN_LONGITUDE);
+		this.maxLongitude = Math.min(maxLongitude, MAX_LONGITUDE);
+	}
+
+	/**
+	 * @return smallest box which contains all points which are at most <code>distanceInKm</code> away from <code>center</code>.
+	 * @see <a href="http://janmatuschek.de/LatitudeLongitudeBoundingCoordinates">Finding Points Within a Distance of a Latitude/Longitude Using Bounding Coordinates</a>
+	 */
+	public static GeoBoundingBox ofCenterAndDistance(@NonNull final GeographicalCoordinates center, final double distanceInKm)
+	{
+		Check.assume(distanceInKm >= 0, "distanceInKm >= 0 but it was {}", distanceInKm);
+
+		final double latitude = center.getLatitude().doubleValue();
+		final double longitude = center.getLongitude().doubleValue();
+		final double angularDistance = distanceInKm / EARTH_RADIUS_KM;
+		final double deltaLatitude = Math.toDegrees(angularDistance);
+
+		final double minLatitude = latitude - deltaLatitude;
+		final double maxLatitude = latitude + deltaLatitude;
+		if (minLatitude <= MIN_LATITUDE || maxLatitude >= MAX_LATITUDE)
+		{
+			// a pole is within the distance
+			return new GeoBoundingBox(minLatitude, maxLatitude, MIN_LONGITUDE, MAX_LONGITUDE);
+		}
+
+		final double deltaLongitude = Math.toDegrees(Math.asin(Math.sin(angularDistance) / Math.cos(Math.toRadians(latitude))));
+		final double minLongitude = longitude - deltaLongitude;
+		final double maxLongitude = longitude + deltaLongitude;
+		if (minLongitude < MIN_LONGITUDE || maxLongitude > MAX_LONGITUDE)
+		{
+			// crossing the antimeridian
+			return new GeoBoundingBox(minLatitude, maxLatitude, MIN_LONGITUDE, MAX_LONGITUDE);
+		}
+
+		return new GeoBoundingBox(minLatitude, maxLatitude, minLongitude, maxLongitude);
+	}
+
+	public boolean isFullLongitudeRange()
+	{
+		return minLongitude <= MIN_LONGITUDE && maxLongitude >= MAX_LONGITUDE;
+	}
+
+	public boolean contains(final double latitude, final double longitude)
+	{
+		return latitude >= minLatitude && latitude <= maxLatitude
+				&& longitude >= minLongitude && longitude <= maxLongitude;
+	}
+
+	public boolean contains(@NonNull final BigDecimal latitude, @NonNull final BigDecimal longitude)
+	{
+		return contains(latitude.doubleValue(), longitude.doubleValue());
+	}
+}
@@ -1,5 +1,7 @@
 package de.metas.ui.web.document.geo_location;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.Optional;
 
 import org.adempiere.exceptions.AdempiereException;
@@ -10,6 +12,7 @@ import org.compiere.model.I_C_BPartner_Location;
 import org.compiere.model.I_C_Location;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.jgoodies.common.base.Objects;
 
 import de.metas.location.CountryId;
@@ -65,6 +68,9 @@ public class GeoLocationFilterConverter implements SqlDocumentFilterConverter
 	static final String PARAM_Distance = "Distance";
 	static final String PARAM_VisitorsAddress = "VisitorsAddress";
 
+	/** Decimals of the bounding box coordinates; the box is rounded outwards, so it stays a superset of the distance circle */
+	private static final int BOUNDING_BOX_PRECISION = 6;
+
 	private final static Logger logger = LogManager.getLogger(GeoLocationFilterConverter.class);
 
 	private GeoLocationFilterConverter()
@@ -162,25 +168,52 @@ public class GeoLocationFilterConverter implements SqlDocumentFilterConverter
 		return visitorAddressQuery;
 	}
 
+	/**
+	 * The bounding box condition is evaluated first and can use an index on {@link I_C_Location#COLUMNNAME_Latitude}/{@link I_C_Location#COLUMNNAME_Longitude},
+	 * so <code>geographical_distance</code> is computed only for the locations which are roughly nearby.
+	 */
 	@NonNull
-	@SuppressWarnings("SameParameterValue")
-	private static String sqlGeographicalDistance(
+	@VisibleForTesting
+	static String sqlGeographicalDistance(
 			@NonNull final SqlParamsCollector sqlParamsOut,
 			@NonNull final String locationTableAlias,
 			@NonNull final GeographicalCoordinates addressCoordinates,
 			final int distanceInKm)
 	{
-		return "geographical_distance("
+		final GeoBoundingBox boundingBox = GeoBoundingBox.ofCenterAndDistance(addressCoordinates, distanceInKm);
+
+		final StringBuilder sql = new StringBuilder();
+		sql.append(locationTableAlias).append(".").append(I_C_Location.COLUMNNAME_Latitude)
+				.append(" BETWEEN ").append(sqlParamsOut.placeholder(roundDown(boundingBox.getMinLatitude())))
+				.append(" AND ").append(sqlParamsOut.placeholder(roundUp(boundingBox.getMaxLatitude())));
+		if (!boundingBox.isFullLongitudeRange())
+		{
+			sql.append(" AND ").append(locationTableAlias).append(".").append(I_C_Location.COLUMNNAME_Longitude)
+					.append(" BETWEEN ").append(sqlParamsOut.placeholder(roundDown(boundingBox.getMinLongitude())))
+					.append(" AND ").append(sqlParamsOut.placeholder(roundUp(boundingBox.getMaxLongitude())));
+		}
+
+		sql.append(" AND geographical_distance(")
 				//
-				+ locationTableAlias + "." + I_C_Location.COLUMNNAME_Latitude
-				+ "," + locationTableAlias + "." + I_C_Location.COLUMNNAME_Longitude
+				.append(locationTableAlias).append(".").append(I_C_Location.COLUMNNAME_Latitude)
+				.append(",").append(locationTableAlias).append(".").append(I_C_Location.COLUMNNAME_Longitude)
 				//
-				+ "," + sqlParamsOut.placeholder(addressCoordinates.getLatitude())
-				+ "," + sqlParamsOut.placeholder(addressCoordinates.getLongitude())
+				.append(",").append(sqlParamsOut.placeholder(addressCoordinates.getLatitude()))
+				.append(",").append(sqlParamsOut.placeholder(addressCoordinates.getLongitude()))
 				//
-				+ ") <= " + sqlParamsOut.placeholder(distanceInKm)
-		//
-		;
+				.append(") <= ").append(sqlParamsOut.placeholder(distanceInKm));
+
+		return sql.toString();
+	}
+
+	private static BigDecimal roundDown(final double degrees)
+	{
+		return BigDecimal.valueOf(degrees).setScale(BOUNDING_BOX_PRECISION, RoundingMode.FLOOR);
+	}
+
+	private static BigDecimal roundUp(final double degrees)
+	{
+		return BigDecimal.valueOf(degrees).setScale(BOUNDING_BOX_PRECISION, RoundingMode.CEILING);
 	}
 
 	private Optional<GeographicalCoordinates> getAddressCoordinates(final DocumentFilter filter)
@@ -0,0 +1,207 @@
+package de.metas.ui.web.document.geo_location;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import de.metas.ui.web.document.geo_location.json.JsonViewRowGeoLocation;
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable index of geocoded view rows, which are bucketed by a grid of fixed size latitude/longitude cells.
+ * <p>
+ * Used to answer bounding box queries (e.g. the map's viewport) without scanning and without going to database again.
+ * The results are returned in the order the locations were added (i.e. view order).
+ */
+@ToString(exclude = { "locationsByCellId", "locations" })
+final class GeoLocationsGridIndex
+{
+	public static final double DEFAULT_CELL_SIZE_IN_DEGREES = 0.5;
+
+	private final double cellSizeInDegrees;
+	private final ImmutableListMultimap<CellId, IndexedLocation> locationsByCellId;
+	private final ImmutableList<JsonViewRowGeoLocation> locations;
+
+	private GeoLocationsGridIndex(
+			final double cellSizeInDegrees,
+			@NonNull final List<JsonViewRowGeoLocation> locations)
+	{
+		Check.assume(cellSizeInDegrees > 0, "cellSizeInDegrees > 0 but it was {}", cellSizeInDegrees);
+		this.cellSizeInDegrees = cellSizeInDegrees;
+
+		final ImmutableListMultimap.Builder<CellId, IndexedLocation> locationsByCellId = ImmutableListMultimap.builder();
+		for (int seqNo = 0; seqNo < locations.size(); seqNo++)
+		{
+			final JsonViewRowGeoLocation location = locations.get(seqNo);
+			final double latitude = location.getLatitude().doubleValue();
+			final double longitude = location.getLongitude().doubleValue();
+			locationsByCellId.put(
+					toCellId(latitude, longitude),
+					new IndexedLocation(seqNo, latitude, longitude, location));
+		}
+		this.locationsByCellId = locationsByCellId.build();
+		this.locations = ImmutableList.copyOf(locations);
+	}
+
+	public static GeoLocationsGridIndex of(@NonNull final List<JsonViewRowGeoLocation> locations)
+	{
+		return new GeoLocationsGridIndex(DEFAULT_CELL_SIZE_IN_DEGREES, locations);
+	}
+
+	public static GeoLocationsGridIndex of(final double cellSizeInDegrees, @NonNull final List<JsonViewRowGeoLocation> locations)
+	{
+		return new GeoLocationsGridIndex(cellSizeInDegrees, locations);
+	}
+
+	@FunctionalInterface
+	public interface PageLoader
+	{
+		/**
+		 * @return geocoded rows of given page, in view order
+		 */
+		List<JsonViewRowGeoLocation> loadPage(int firstRow, int pageLength);
+	}
+
+	/**
+	 * Creates the index from all rows, which are loaded page by page.
+	 *
+	 * @param rowsCount how many rows there are to load (e.g. the view's size)
+	 */
+	public static GeoLocationsGridIndex ofAllPages(final long rowsCount, final int pageLength, @NonNull final PageLoader pageLoader)
+	{
+		Check.assumeGreaterThanZero(pageLength, "pageLength");
+
+		final List<JsonViewRowGeoLocation> locations = new ArrayList<>();
+		for (long firstRow = 0; firstRow < rowsCount; firstRow += pageLength)
+		{
+			locations.addAll(pageLoader.loadPage((int)firstRow, pageLength));
+		}
+
+		return of(locations);
+	}
+
+	public int size()
+	{
+		return locations.size();
+	}
+
+	public ImmutableList<JsonViewRowGeoLocation> getAll(final int limit)
+	{
+		return limit > 0 && limit < locations.size()
+				? locations.subList(0, limit)
+				: locations;
+	}
+
+	/**
+	 * @param limit max number of locations to return; if <= 0 then all matching locations are returned
+	 * @return locations inside given box, in view order
+	 */
+	public ImmutableList<JsonViewRowGeoLocation> query(@NonNull final GeoBoundingBox boundingBox, final int limit)
+	{
+		final CellId minCellId = toCellId(boundingBox.getMinLatitude(), boundingBox.getMinLongitude());
+		final CellId maxCellId = toCellId(boundingBox.getMaxLatitude(), boundingBox.getMaxLongitude());
+
+		final List<IndexedLocation> result = new ArrayList<>();
+		final long cellsToScan = (long)(maxCellId.getLatitudeIndex() - minCellId.getLatitudeIndex() + 1) * (maxCellId.getLongitudeIndex() - minCellId.getLongitudeIndex() + 1);
+		if (cellsToScan <= locationsByCellId.keySet().size())
+		{
+			for (int latitudeIndex = minCellId.getLatitudeIndex(); latitudeIndex <= maxCellId.getLatitudeIndex(); latitudeIndex++)
+			{
+				for (int longitudeIndex = minCellId.getLongitudeIndex(); longitudeIndex <= maxCellId.getLongitudeIndex(); longitudeIndex++)
+				{
+					collectContained(locationsByCellId.get(new CellId(latitudeIndex, longitudeIndex)), boundingBox, result);
+				}
+			}
+		}
+		else
+		{
+			// the box is covering more cells than we have => scan only the non empty ones
+			for (final Map.Entry<CellId, Collection<IndexedLocation>> cell : locationsByCellId.asMap().entrySet())
+			{
+				if (cell.getKey().isBetween(minCellId, maxCellId))
+				{
+					collectContained(cell.getValue(), boundingBox, result);
+				}
+			}
+		}
+
+		return result.stream()
+				.sorted(Comparator.comparing(IndexedLocation::getSeqNo))
+				.limit(limit > 0 ? limit : Long.MAX_VALUE)
+				.map(IndexedLocation::getLocation)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static void collectContained(
+			final Collection<IndexedLocation> locations,
+			final GeoBoundingBox boundingBox,
+			final List<IndexedLocation> result)
+	{
+		for (final IndexedLocation location : locations)
+		{
+			if (boundingBox.contains(location.getLatitude(), location.getLongitude()))
+			{
+				result.add(location);
+			}
+		}
+	}
+
+	private CellId toCellId(final double latitude, final double longitude)
+	{
+		return new CellId(
+				(int)Math.floor(latitude / cellSizeInDegrees),
+				(int)Math.floor(longitude / cellSizeInDegrees));
+	}
+
+	@Value
+	private static class CellId
+	{
+		int latitudeIndex;
+		int longitudeIndex;
+
+		boolean isBetween(final CellId min, final CellId max)
+		{
+			return latitudeIndex >= min.latitudeIndex && latitudeIndex <= max.latitudeIndex
+					&& longitudeIndex >= min.longitudeIndex && longitudeIndex <= max.longitudeIndex;
+		}
+	}
+
+	@Value
+	private static class IndexedLocation
+	{
+		int seqNo;
+		double latitude;
+		double longitude;
+		JsonViewRowGeoLocation location;
+	}
+}
@@ -7,6 +7,7 @@ import com.google.common.collect.ImmutableSetMultimap;
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.GeographicalCoordinatesWithBPartnerLocationId;
 import de.metas.bpartner.service.IBPartnerDAO;
+import de.metas.cache.CCache;
 import de.metas.location.GeographicalCoordinatesWithLocationId;
 import de.metas.location.ILocationDAO;
 import de.metas.location.LocationId;
@@ -29,7 +30,9 @@ import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
 import org.slf4j.Logger;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -37,6 +40,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -70,15 +74,25 @@ public class ViewGeoLocationsRestController
 	private static final String PARAM_ViewId = "viewId";
 	static final String ENDPOINT = ViewRestController.ENDPOINT + "/{" + PARAM_ViewId + "}/geoLocations";
 
+	private static final String SYSCONFIG_DefaultLimit = "de.metas.ui.web.document.geo_location.ViewGeoLocations.DefaultLimit";
 	private static final int DEFAULT_LIMIT = 500;
 
+	/** how many view rows are loaded at once when indexing all geocoded rows of a view */
+	private static final int INDEX_PAGE_LENGTH = 1000;
+
 	private static final Logger logger = LogManager.getLogger(ViewGeoLocationsRestController.class);
 	private final ILocationDAO locationsRepo = Services.get(ILocationDAO.class);
 	private final IBPartnerDAO bpartnersRepo = Services.get(IBPartnerDAO.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 	private final UserSession userSession;
 	private final GeoLocationDocumentService geoLocationDocumentService;
 	private final IViewsRepository viewsRepo;
 
+	/**
+	 * Geocoded rows of recently requested views, so the map can be moved and zoomed without loading the view rows again
+	 */
+	private final CCache<ViewGeoLocationsIndexKey, GeoLocationsGridIndex> geoLocationsIndexes = CCache.newLRUCache("ViewGeoLocationsIndex", 100, 2);
+
 	public ViewGeoLocationsRestController(
 			@NonNull final UserSession userSession,
 			@NonNull final GeoLocationDocumentService geoLocationDocumentService,
@@ -98,21 +112,29 @@ public class ViewGeoLocationsRestController
 	public JsonViewGeoLocationsResult getAll(
 			@PathVariable(PARAM_WindowId) final String windowIdStr,
 			@PathVariable(PARAM_ViewId) final String viewIdStr,
-			@RequestParam(value = "limit", required = false, defaultValue = "0") final int limit)
+			@RequestParam(value = "limit", required = false, defaultValue = "0") final int limit,
+			@RequestParam(value = "minLatitude", required = false) final Double minLatitude,
+			@RequestParam(value = "maxLatitude", required = false) final Double maxLatitude,
+			@RequestParam(value = "minLongitude", required = false) final Double minLongitude,
+			@RequestParam(value = "maxLongitude", required = false) final Double maxLongitude)
 	{
 		userSession.assertLoggedIn();
 
 		final ViewId viewId = ViewId.of(windowIdStr, viewIdStr);
-		final int limitEffective = limit > 0 ? limit : DEFAULT_LIMIT;
+		final int limitEffective = limit > 0 ? limit : getDefaultLimit();
 
+		final GeoBoundingBox boundingBox = createBoundingBoxOrNull(minLatitude, maxLatitude, minLongitude, maxLongitude);
+
+		// include the view version so that a changed view is not served from the cached index
 		final IView view = viewsRepo.getView(viewId);
-		final ImmutableSet<String> viewFieldNames = getViewFieldNames(view);
-		final GeoLocationDocumentDescriptor geoLocationDescriptor = geoLocationDocumentService.getGeoLocationDocumentDescriptor(viewFieldNames);
+		final ViewGeoLocationsIndexKey indexKey = ViewGeoLocationsIndexKey.of(viewId, view.getVersion());
+		final GeoLocationsGridIndex index = geoLocationsIndexes.getOrLoad(indexKey, () -> retrieveGeoLocationsIndex(view));
 
-		final ViewRowsOrderBy orderBy = ViewRowsOrderBy.of(view.getDefaultOrderBys(), newJsonOpts());
-		final ViewResult rows = view.getPage(0, limitEffective, orderBy);
+		// NOTE: the index has all geocoded rows of the view, so the limit is applied after filtering by the bounding box
 
-		final List<JsonViewRowGeoLocation> geoLocations = retrieveGeoLocations(rows, geoLocationDescriptor);
+		final List<JsonViewRowGeoLocation> geoLocations = boundingBox != null
+				? index.query(boundingBox, limitEffective)
+				: index.getAll(limitEffective);
 
 		return JsonViewGeoLocationsResult.builder()
 				.viewId(viewId.toJson())
@@ -120,6 +142,61 @@ public class ViewGeoLocationsRestController
 				.build();
 	}
 
+	@Nullable
+	private static GeoBoundingBox createBoundingBoxOrNull(
+			final Double minLatitude,
+			final Double maxLatitude,
+			final Double minLongitude,
+			final Double maxLongitude)
+	{
+		if (minLatitude == null || maxLatitude == null || minLongitude == null || maxLongitude == null)
+		{
+			return null;
+		}
+		if (minLatitude > maxLatitude)
+		{
+			throw new InvalidGeoBoundingBoxException("Latitude", minLatitude, maxLatitude);
+		}
+		if (minLongitude > maxLongitude)
+		{
+			// NOTE: boxes crossing the antimeridian are not supported; the frontend shall send the full longitude range instead
+			throw new InvalidGeoBoundingBoxException("Longitude", minLongitude, maxLongitude);
+		}
+
+		return GeoBoundingBox.builder()
+				.minLatitude(minLatitude)
+				.maxLatitude(maxLatitude)
+				.minLongitude(minLongitude)
+				.maxLongitude(maxLongitude)
+				.build();
+	}
+
+	private int getDefaultLimit()
+	{
+		final int defaultLimit = sysConfigBL.getIntValue(SYSCONFIG_DefaultLimit, DEFAULT_LIMIT);
+		return defaultLimit > 0 ? defaultLimit : DEFAULT_LIMIT;
+	}
+
+	private GeoLocationsGridIndex retrieveGeoLocationsIndex(@NonNull final IView view)
+	{
+		final ImmutableSet<String> viewFieldNames = getViewFieldNames(view);
+		final GeoLocationDocumentDescriptor geoLocationDescriptor = geoLocationDocumentService.getGeoLocationDocumentDescriptor(viewFieldNames);
+
+		final ViewRowsOrderBy orderBy = ViewRowsOrderBy.of(view.getDefaultOrderBys(), newJsonOpts());
+		return GeoLocationsGridIndex.ofAllPages(
+				view.size(),
+				INDEX_PAGE_LENGTH,
+				(firstRow, pageLength) -> retrieveGeoLocations(view.getPage(firstRow, pageLength, orderBy), geoLocationDescriptor));
+	}
+
+	@Value(staticConstructor = "of")
+	private static class ViewGeoLocationsIndexKey
+	{
+		@NonNull
+		ViewId viewId;
+		long viewVersion;
+	}
+
 	private ImmutableSet<String> getViewFieldNames(final IView view)
 	{
 		final ViewLayout viewLayout = viewsRepo.getViewLayout(view.getViewId().getWindowId(), view.getViewType(), view.getProfileId());
@@ -35,6 +35,7 @@ import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.view.ViewResult;
 import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.event.ViewChangesCollector;
+import de.metas.ui.web.view.event.ViewChangesVersions;
 import de.metas.ui.web.view.json.JSONViewDataType;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -361,12 +362,17 @@ public class HUEditorView implements IView
 
 	public boolean addHUId(@NonNull final HuId huIdToAdd)
 	{
-		return rowsBuffer.addHUIds(ImmutableSet.of(huIdToAdd));
+		return addHUIds(ImmutableSet.of(huIdToAdd));
 	}
 
 	public boolean addHUIds(final Collection<HuId> huIdsToAdd)
 	{
-		return rowsBuffer.addHUIds(huIdsToAdd);
+		final boolean changed = rowsBuffer.addHUIds(huIdsToAdd);
+		if (changed)
+		{
+			ViewChangesVersions.instance.incrementVersion(getViewId());
+		}
+		return changed;
 	}
 
 	public void removeHUsAndInvalidate(final Collection<I_M_HU> husToRemove)
@@ -385,7 +391,12 @@ public class HUEditorView implements IView
 
 	public boolean removeHUIds(final Collection<HuId> huIdsToRemove)
 	{
-		return rowsBuffer.removeHUIds(huIdsToRemove);
+		final boolean changed = rowsBuffer.removeHUIds(huIdsToRemove);
+		if (changed)
+		{
+			ViewChangesVersions.instance.incrementVersion(getViewId());
+		}
+		return changed;
 	}
 
 	private static final Set<HuId> extractHUIds(final Collection<I_M_HU> hus)
@@ -2,7 +2,6 @@ package de.metas.ui.web.handlingunits;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -25,6 +24,7 @@ import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.handlingunits.HUIdsFilterHelper.HUIdsFilterData;
 import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.view.ViewRowsOrderBy;
+import de.metas.ui.web.view.template.SortedRowsCache;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.model.DocumentQueryOrderByList;
@@ -164,18 +164,20 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 				? orderBys
 				: orderBys.withOrderBys(defaultOrderBys);
 
-		Stream<HUEditorRow> stream = getRows().stream()
-				.skip(firstRow)
-				.limit(pageLength)
-				.filter(HUEditorRowFilters.toPredicate(filter));
+		final ImmutableList<HUEditorRow> sortedRows = getRows().getSortedRows(orderBysEffective);
 
-		final Comparator<HUEditorRow> comparator = orderBysEffective.toComparatorOrNull();
-		if (comparator != null)
+		// Fast path: the page is a slice of the presorted rows
+		if (HUEditorRowFilter.ALL.equals(filter))
 		{
-			stream = stream.sorted(comparator);
+			final int fromIndex = Math.min(Math.max(firstRow, 0), sortedRows.size());
+			final int toIndex = (int)Math.min((long)fromIndex + Math.max(pageLength, 0), sortedRows.size());
+			return sortedRows.subList(fromIndex, toIndex).stream();
 		}
 
-		return stream;
+		return sortedRows.stream()
+				.filter(HUEditorRowFilters.toPredicate(filter))
+				.skip(firstRow)
+				.limit(pageLength);
 	}
 
 	@Override
@@ -262,6 +264,9 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 		/** "rowId" to "parent's rowId" mapping */
 		private final ImmutableMap<HUEditorRowId, HUEditorRowId> rowId2parentId;
 
+		/** Top level rows, sorted by given order by. Built lazily, on first page request */
+		private final SortedRowsCache<HUEditorRow> sortedRowsCache = SortedRowsCache.newInstance();
+
 		public IndexedHUEditorRows(@NonNull final List<HUEditorRow> rows)
 		{
 			this.rows = ImmutableList.copyOf(rows);
@@ -335,6 +340,16 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 			return rows.stream();
 		}
 
+		public ImmutableList<HUEditorRow> getSortedRows(@NonNull final ViewRowsOrderBy orderBy)
+		{
+			if (orderBy.isEmpty())
+			{
+				return rows;
+			}
+
+			return sortedRowsCache.getTopLevelRowsSorted(orderBy, () -> rows);
+		}
+
 		public Stream<HUEditorRow> streamRecursive()
 		{
 			return stream()
@@ -1,8 +1,12 @@
 package de.metas.ui.web.handlingunits;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.handlingunits.HuId;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
@@ -14,6 +18,7 @@ import de.metas.ui.web.view.descriptor.SqlViewRowIdsConverter;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.model.DocumentQueryOrderByList;
 import de.metas.util.collections.PagedIterator.Page;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -65,6 +70,36 @@ public interface HUEditorViewRepository
 	 */
 	HUEditorRow retrieveForHUId(HuId huId);
 
+	/**
+	 * Retrieves the {@link HUEditorRow} hierarchies for given M_HU_IDs in one go, using {@link #retrieveHUEditorRows(Set, HUEditorRowFilter)}.
+	 * The HUs which are not top level HUs are retrieved one by one, using {@link #retrieveForHUId(HuId)}.
+	 *
+	 * @return rows indexed by M_HU_ID
+	 */
+	default ImmutableMap<HuId, HUEditorRow> retrieveForHUIds(@NonNull final Set<HuId> huIds)
+	{
+		if (huIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final Map<HuId, HUEditorRow> rowsByHUId = new HashMap<>(huIds.size());
+		for (final HUEditorRow row : retrieveHUEditorRows(huIds, HUEditorRowFilter.ALL))
+		{
+			rowsByHUId.put(row.getHuId(), row);
+		}
+
+		for (final HuId huId : huIds)
+		{
+			if (!rowsByHUId.containsKey(huId))
+			{
+				rowsByHUId.put(huId, retrieveForHUId(huId));
+			}
+		}
+
+		return ImmutableMap.copyOf(rowsByHUId);
+	}
+
 	Set<HuId> retrieveHUIdsEffective(HUIdsFilterData huIdsFilter,
 			DocumentFilterList filters,
 			SqlDocumentFilterConverterContext context);
@@ -81,6 +116,6 @@ public interface HUEditorViewRepository
 
 	SqlViewRowIdsConverter getRowIdsConverter();
 
-	/** Caches the given {@code huIds} in one go. Advised to use this prior to repeated invocations of {@link #retrieveForHUId(HuId)}. */
+	/** Caches the given {@code huIds} and their included HUs in one go. Advised to use this prior to repeated invocations of {@link #retrieveForHUId(HuId)}. */
 	void warmUp(Set<HuId> huIds);
 }
@@ -10,6 +10,7 @@ import de.metas.handlingunits.IHandlingUnitsBL;
 import de.metas.handlingunits.IHandlingUnitsDAO;
 import de.metas.handlingunits.exceptions.HUException;
 import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Item;
 import de.metas.handlingunits.model.I_M_Locator;
 import de.metas.handlingunits.model.I_M_Warehouse;
 import de.metas.handlingunits.model.X_M_HU;
@@ -53,6 +54,8 @@ import de.metas.util.Services;
 import de.metas.util.collections.PagedIterator.Page;
 import lombok.Builder;
 import lombok.NonNull;
+import org.adempiere.ad.dao.IQuery;
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.service.IADReferenceDAO;
 import org.adempiere.ad.trx.api.ITrx;
@@ -107,6 +110,9 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 
 	private static final transient Logger logger = LogManager.getLogger(SqlHUEditorViewRepository.class);
 
+	/** Safety limit for the HU levels to be warmed up (usually we have LU / TU / VHU) */
+	private static final int MAX_HU_LEVELS = 10;
+
 	private final WindowId windowId;
 
 	private final HUEditorRowAttributesProvider attributesProvider;
@@ -159,10 +165,11 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 	@Override
 	public List<HUEditorRow> retrieveHUEditorRows(@NonNull final Set<HuId> huIds, @NonNull final HUEditorRowFilter filter)
 	{
-		huReservationService.warmup(huIds);
+		final List<I_M_HU> topLevelHUs = retrieveTopLevelHUs(huIds, filter);
+		warmUpIncludedHUs(extractHUIds(topLevelHUs));
 
 		final HuId topLevelHUId = null;
-		return retrieveTopLevelHUs(huIds, filter)
+		return topLevelHUs
 				.stream()
 				.map(hu -> createHUEditorRow(hu, topLevelHUId))
 				.collect(GuavaCollectors.toImmutableList());
@@ -663,7 +670,58 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 	public void warmUp(@NonNull final Set<HuId> huIds)
 	{
 		InterfaceWrapperHelper.loadByRepoIdAwares(huIds, I_M_HU.class); // caches the given HUs with one SQL query
-		huReservationService.warmup(huIds);
+		warmUpIncludedHUs(huIds);
+	}
+
+	/**
+	 * Caches the whole HU subtree of given HUs, using one SQL query per HU level instead of one per HU,
+	 * and warms up the reservations of all those HUs (we need them for each row, including the included ones).
+	 */
+	private void warmUpIncludedHUs(@NonNull final Set<HuId> huIds)
+	{
+		if (huIds.isEmpty())
+		{
+			return;
+		}
+
+		final Set<HuId> subtreeHUIds = new LinkedHashSet<>(huIds);
+		Set<HuId> currentLevelHUIds = huIds;
+		for (int level = 1; level <= MAX_HU_LEVELS && !currentLevelHUIds.isEmpty(); level++)
+		{
+			final Set<HuId> includedHUIds = retrieveIncludedHUIds(currentLevelHUIds)
+					.stream()
+					.filter(subtreeHUIds::add)
+					.collect(ImmutableSet.toImmutableSet());
+			if (!includedHUIds.isEmpty())
+			{
+				InterfaceWrapperHelper.loadByRepoIdAwares(includedHUIds, I_M_HU.class); // caches the included HUs with one SQL query
+			}
+
+			currentLevelHUIds = includedHUIds;
+		}
+
+		huReservationService.warmup(subtreeHUIds);
+	}
+
+	private static Set<HuId> retrieveIncludedHUIds(@NonNull final Set<HuId> parentHUIds)
+	{
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+		final IQuery<I_M_HU_Item> parentItemsQuery = queryBL.createQueryBuilderOutOfTrx(I_M_HU_Item.class)
+				.addInArrayFilter(I_M_HU_Item.COLUMN_M_HU_ID, parentHUIds)
+				.create();
+
+		return queryBL.createQueryBuilderOutOfTrx(I_M_HU.class)
+				.addInSubQueryFilter(I_M_HU.COLUMN_M_HU_Item_Parent_ID, I_M_HU_Item.COLUMN_M_HU_Item_ID, parentItemsQuery)
+				.create()
+				.listIds(HuId::ofRepoId);
+	}
+
+	private static ImmutableSet<HuId> extractHUIds(@NonNull final List<I_M_HU> hus)
+	{
+		return hus.stream()
+				.map(hu -> HuId.ofRepoId(hu.getM_HU_ID()))
+				.collect(ImmutableSet.toImmutableSet());
 	}
 
 }
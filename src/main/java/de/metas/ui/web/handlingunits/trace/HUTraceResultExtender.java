@@ -1,5 +1,7 @@
 package de.metas.ui.web.handlingunits.trace;
 
+import java.util.Optional;
+
 import de.metas.handlingunits.trace.HUTraceEventQuery;
 import de.metas.handlingunits.trace.HUTraceRepository;
 import de.metas.process.PInstanceId;
@@ -80,4 +82,21 @@ final class HUTraceResultExtender implements SqlDocumentFilterConverter
 			return String.format(WHERE_IN_T_SELECTION, sqlPlaceHolder);
 		}
 	}
+
+	@Override
+	public Optional<String> getSqlRelevanceRank(@NonNull final DocumentFilter filter, @NonNull final String tableNameOrAlias)
+	{
+		return !filter.hasParameters()
+				? converter.getSqlRelevanceRank(filter, tableNameOrAlias)
+				: Optional.empty();
+	}
+
+	@Override
+	public boolean isDependingOnOtherTables(@NonNull final DocumentFilter filter)
+	{
+		// the trace events are selected into T_Selection
+		return !filter.hasParameters()
+				? converter.isDependingOnOtherTables(filter)
+				: true;
+	}
 }
@@ -1,29 +1,49 @@
 package de.metas.ui.web.material.adapter;
 
 import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.mm.attributes.api.AttributesKeys;
 import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
 import org.compiere.model.I_C_UOM;
+import org.slf4j.Logger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimaps;
+
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.logging.LogManager;
+import de.metas.material.cockpit.model.I_MD_Stock;
 
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseQuery;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseResult;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseResultGroup;
+import de.metas.material.dispo.commons.repository.atp.BPartnerClassifier;
+import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.product.IProductBL;
 import de.metas.product.ProductId;
 import de.metas.quantity.Quantity;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.AvailableToPromiseResultForWebuiBuilder;
+import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -50,12 +70,153 @@ import lombok.NonNull;
 @Service
 public class AvailableToPromiseAdapter
 {
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseAdapter.class);
+
 	private final IProductBL productsService = Services.get(IProductBL.class);
 	private final AvailableToPromiseRepository availableToPromiseRepository;
 
+	/**
+	 * Short living cache of the ATP groups of one product, for the predefined storage attribute keys.
+	 * Needed because the product lookups are asking for the ATP on each keystroke.
+	 */
+	private final CCache<ProductATPKey, ImmutableList<Group>> productATPGroupsCache = CCache.<ProductATPKey, ImmutableList<Group>> builder()
+			.cacheName(AvailableToPromiseAdapter.class.getSimpleName() + "#ProductATPGroups")
+			.tableName(I_MD_Candidate.Table_Name)
+			.additionalTableNameToResetFor(I_MD_Stock.Table_Name)
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(10000)
+			.expireMinutes(1)
+			.build();
+
+	private final Executor async;
+	private final Set<ProductATPKey> productATPKeysLoadingAsync = ConcurrentHashMap.newKeySet();
+
 	public AvailableToPromiseAdapter(@NonNull final AvailableToPromiseRepository stockRepository)
 	{
 		this.availableToPromiseRepository = stockRepository;
+
+		final CustomizableThreadFactory asyncThreadFactory = new CustomizableThreadFactory(AvailableToPromiseAdapter.class.getSimpleName());
+		asyncThreadFactory.setDaemon(true);
+		async = Executors.newSingleThreadExecutor(asyncThreadFactory);
+	}
+
+	/**
+	 * Gets the ATP groups of given products, for the predefined storage attribute keys.
+	 * <p>
+	 * The groups are cached for a short time. The ones which are not cached are retrieved in one query.
+	 */
+	public List<Group> retrieveAvailableStockGroups(
+			@NonNull final Set<ProductId> productIds,
+			@NonNull final ZonedDateTime date,
+			@NonNull final BPartnerClassifier bpartner)
+	{
+		final ImmutableList.Builder<Group> result = ImmutableList.builder();
+
+		final HashSet<ProductId> productIdsToLoad = new HashSet<>();
+		for (final ProductId productId : productIds)
+		{
+			final ImmutableList<Group> groups = productATPGroupsCache.get(ProductATPKey.of(productId, date, bpartner));
+			if (groups != null)
+			{
+				result.addAll(groups);
+			}
+			else
+			{
+				productIdsToLoad.add(productId);
+			}
+		}
+
+		result.addAll(retrieveAndCacheAvailableStockGroups(productIdsToLoad, date, bpartner));
+
+		return result.build();
+	}
+
+	/**
+	 * Gets the ATP groups of given products but only those which are already cached.
+	 * The ATP of the other products is loaded asynchronously, so it will be available for the next call.
+	 */
+	public List<Group> getCachedAvailableStockGroupsAndLoadOthersAsync(
+			@NonNull final Set<ProductId> productIds,
+			@NonNull final ZonedDateTime date,
+			@NonNull final BPartnerClassifier bpartner)
+	{
+		final ImmutableList.Builder<Group> result = ImmutableList.builder();
+
+		final HashSet<ProductId> productIdsToLoad = new HashSet<>();
+		for (final ProductId productId : productIds)
+		{
+			final ProductATPKey key = ProductATPKey.of(productId, date, bpartner);
+			final ImmutableList<Group> groups = productATPGroupsCache.get(key);
+			if (groups != null)
+			{
+				result.addAll(groups);
+			}
+			else if (productATPKeysLoadingAsync.add(key))
+			{
+				productIdsToLoad.add(productId);
+			}
+		}
+
+		if (!productIdsToLoad.isEmpty())
+		{
+			async.execute(() -> {
+				try
+				{
+					retrieveAndCacheAvailableStockGroups(productIdsToLoad, date, bpartner);
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed loading ATP for {}, {}, {}. Ignored.", productIdsToLoad, date, bpartner, ex);
+				}
+				finally
+				{
+					productIdsToLoad.forEach(productId -> productATPKeysLoadingAsync.remove(ProductATPKey.of(productId, date, bpartner)));
+				}
+			});
+		}
+
+		return result.build();
+	}
+
+	private List<Group> retrieveAndCacheAvailableStockGroups(
+			@NonNull final Set<ProductId> productIds,
+			@NonNull final ZonedDateTime date,
+			@NonNull final BPartnerClassifier bpartner)
+	{
+		if (productIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final List<Group> groups = retrieveAvailableStockGroupsFromRepository(productIds, date, bpartner);
+
+		final ImmutableListMultimap<ProductId, Group> groupsByProductId = Multimaps.index(groups, Group::getProductId);
+		for (final ProductId productId : productIds)
+		{
+			productATPGroupsCache.put(ProductATPKey.of(productId, date, bpartner), groupsByProductId.get(productId));
+		}
+
+		return groups;
+	}
+
+	@VisibleForTesting
+	List<Group> retrieveAvailableStockGroupsFromRepository(
+			@NonNull final Set<ProductId> productIds,
+			@NonNull final ZonedDateTime date,
+			@NonNull final BPartnerClassifier bpartner)
+	{
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productIds(productIds.stream().map(ProductId::getRepoId).collect(ImmutableSet.toImmutableSet()))
+				.storageAttributesKeyPatterns(getPredefinedStorageAttributeKeys())
+				.date(date)
+				.bpartner(bpartner)
+				.build();
+
+		return availableToPromiseRepository.retrieveAvailableStock(query)
+				.getResultGroups()
+				.stream()
+				.map(this::createClientResultGroup)
+				.collect(ImmutableList.toImmutableList());
 	}
 
 	@NonNull
@@ -134,4 +295,15 @@ public class AvailableToPromiseAdapter
 	{
 		return availableToPromiseRepository.getPredefinedStorageAttributeKeys();
 	}
+
+	@Value(staticConstructor = "of")
+	private static class ProductATPKey
+	{
+		@NonNull
+		ProductId productId;
+		@NonNull
+		ZonedDateTime date;
+		@NonNull
+		BPartnerClassifier bpartner;
+	}
 }
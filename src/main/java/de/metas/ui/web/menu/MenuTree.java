@@ -1,12 +1,14 @@
 package de.metas.ui.web.menu;
 
-import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
+import org.adempiere.util.lang.ExtendedMemorizingSupplier;
 import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
@@ -15,6 +17,7 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 
 import de.metas.logging.LogManager;
@@ -65,6 +68,8 @@ public final class MenuTree
 	private final ListMultimap<ArrayKey, MenuNode> nodesByTypeAndElementId;
 	private final ListMultimap<String, MenuNode> nodesByMainTableName;
 
+	private final ExtendedMemorizingSupplier<MenuTreeSearchIndex> searchIndexSupplier = ExtendedMemorizingSupplier.of(() -> MenuTreeSearchIndex.of(getRootNode()));
+
 	private MenuTree(final long version, final MenuNode rootNode)
 	{
 		super();
@@ -243,8 +248,9 @@ public final class MenuTree
 			throw new IllegalArgumentException("Invalid name query '" + nameQuery + "'");
 		}
 
-		final String nameQueryLC = nameQuery.toLowerCase();
-		logger.trace("Filtering using nameQueryLC={}", nameQueryLC);
+		final ImmutableSet<String> matchingNodeIds = getSearchIndex().getMatchingNodeIds(nameQuery);
+		final Set<String> matchingPathsNodeIds = getPathsNodeIds(matchingNodeIds);
+		logger.trace("Filtering using nameQuery={}: matchingNodeIds={}", nameQuery, matchingNodeIds);
 
 		return getRootNode()
 				.deepCopy(node -> {
@@ -254,7 +260,7 @@ public final class MenuTree
 						return MenuNodeFilterResolution.Accept;
 					}
 
-					final boolean matches = matchesNameQuery(node, nameQueryLC);
+					final boolean matches = matchingNodeIds.contains(node.getId());
 					if (matches)
 					{
 						logger.trace("Filter: accept node because matches: {}", node);
@@ -263,6 +269,12 @@ public final class MenuTree
 
 					if (node.isGroupingNode())
 					{
+						if (!matchingPathsNodeIds.contains(node.getId()))
+						{
+							// there are no matching nodes below it, so don't bother walking it
+							return MenuNodeFilterResolution.Reject;
+						}
+
 						logger.trace("Filter: accept node (if has children!) because does matches and it's a groupping node: {}", node);
 						return MenuNodeFilterResolution.AcceptIfHasChildren;
 					}
@@ -279,18 +291,26 @@ public final class MenuTree
 				});
 	}
 
-	private static final boolean matchesNameQuery(final MenuNode node, final String nameQueryLC)
+	private MenuTreeSearchIndex getSearchIndex()
 	{
-		final String captionNorm = stripDiacritics(node.getCaption().toLowerCase());
-		final String queryNorm = stripDiacritics(nameQueryLC);
-		return captionNorm.indexOf(queryNorm) >= 0;
+		return searchIndexSupplier.get();
 	}
 
-	private static final String stripDiacritics(final String string)
+	/**
+	 * @return given node IDs and the IDs of all their parents
+	 */
+	private Set<String> getPathsNodeIds(final Set<String> nodeIds)
 	{
-		String s = Normalizer.normalize(string, Normalizer.Form.NFD);
-		s = s.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
-		return s;
+		final Set<String> pathsNodeIds = new HashSet<>();
+		for (final String nodeId : nodeIds)
+		{
+			MenuNode node = nodesById.get(nodeId);
+			while (node != null && pathsNodeIds.add(node.getId()))
+			{
+				node = node.getParent();
+			}
+		}
+		return pathsNodeIds;
 	}
 
 	public MenuNode getRootNodeWithFavoritesOnly(@NonNull final MenuNodeFavoriteProvider menuNodeFavoriteProvider)
@@ -0,0 +1,134 @@
+package de.metas.ui.web.menu;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Set;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.model.lookup.TrigramIndex;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable trigram index of a {@link MenuTree}'s node captions, used to answer name queries without walking the whole tree.
+ * <p>
+ * A node matches a query if its normalized caption contains the normalized query (see {@link #normalize(String)}).
+ * Each matching caption has all the trigrams of the query, so the index only narrows the candidates, which are then checked using the same "contains" rule.
+ */
+final class MenuTreeSearchIndex
+{
+	public static MenuTreeSearchIndex of(@NonNull final MenuNode rootNode)
+	{
+		return new MenuTreeSearchIndex(rootNode);
+	}
+
+	private final ImmutableList<MenuNode> nodes;
+	private final ImmutableList<String> captionsNorm;
+	private final TrigramIndex trigramIndex;
+
+	private MenuTreeSearchIndex(@NonNull final MenuNode rootNode)
+	{
+		final ImmutableList.Builder<MenuNode> nodes = ImmutableList.builder();
+		final ImmutableList.Builder<String> captionsNorm = ImmutableList.builder();
+		final TrigramIndex.Builder trigramIndex = TrigramIndex.builder();
+		final int[] nextPosition = new int[] { 0 };
+		rootNode.iterate(node -> {
+			if (node.isRoot())
+			{
+				return;
+			}
+
+			final String captionNorm = normalize(node.getCaption());
+			final int position = nextPosition[0]++;
+			nodes.add(node);
+			captionsNorm.add(captionNorm);
+			trigramIndex.add(position, captionNorm);
+		});
+		this.nodes = nodes.build();
+		this.captionsNorm = captionsNorm.build();
+		this.trigramIndex = trigramIndex.build();
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("nodesCount", nodes.size())
+				.add("trigramsCount", trigramIndex.getTrigramsCount())
+				.toString();
+	}
+
+	/**
+	 * @return lower case string, without diacritics
+	 */
+	public static String normalize(final String string)
+	{
+		if (string == null)
+		{
+			return "";
+		}
+
+		final String stringNorm = Normalizer.normalize(string.toLowerCase(), Normalizer.Form.NFD);
+		return stringNorm.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+	}
+
+	/**
+	 * @return IDs of the nodes (excluding the root node) whose caption contains given name query
+	 */
+	public ImmutableSet<String> getMatchingNodeIds(@NonNull final String nameQuery)
+	{
+		final String nameQueryNorm = normalize(nameQuery);
+
+		final Set<String> queryTrigrams = TrigramIndex.extractTrigrams(nameQueryNorm);
+		if (queryTrigrams.isEmpty())
+		{
+			// query too short to be looked up in index
+			final ImmutableSet.Builder<String> result = ImmutableSet.builder();
+			for (int position = 0, size = nodes.size(); position < size; position++)
+			{
+				if (captionsNorm.get(position).contains(nameQueryNorm))
+				{
+					result.add(nodes.get(position).getId());
+				}
+			}
+			return result.build();
+		}
+
+		return Arrays.stream(trigramIndex.getIdsHavingAllTrigrams(queryTrigrams))
+				.filter(position -> captionsNorm.get(position).contains(nameQueryNorm))
+				.mapToObj(position -> nodes.get(position).getId())
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	@VisibleForTesting
+	int countCandidates(@NonNull final String nameQuery)
+	{
+		final Set<String> queryTrigrams = TrigramIndex.extractTrigrams(normalize(nameQuery));
+		return queryTrigrams.isEmpty() ? nodes.size() : trigramIndex.getIdsHavingAllTrigrams(queryTrigrams).length;
+	}
+}
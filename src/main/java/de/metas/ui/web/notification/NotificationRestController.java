@@ -17,6 +17,7 @@ import com.google.common.base.Splitter;
 import de.metas.notification.UserNotificationsList;
 import de.metas.ui.web.config.WebConfig;
 import de.metas.ui.web.notification.json.JSONNotificationsList;
+import de.metas.ui.web.notification.json.JSONNotificationsPage;
 import de.metas.ui.web.session.UserSession;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.user.UserId;
@@ -80,6 +81,21 @@ public class NotificationRestController
 		return JSONNotificationsList.of(notifications, jsonOpts);
 	}
 
+	@GetMapping("/page")
+	public JSONNotificationsPage getNotificationsPage(
+			@RequestParam(name = "firstRow", defaultValue = "0") final int firstRow,
+			@RequestParam(name = "pageSize", defaultValue = "20") final int pageSize //
+	)
+	{
+		userSession.assertLoggedIn();
+
+		final UserId adUserId = userSession.getLoggedUserId();
+		final UserNotificationsPage page = userNotificationsService.getNotificationsPage(adUserId, firstRow, pageSize);
+
+		final JSONOptions jsonOpts = JSONOptions.of(userSession);
+		return JSONNotificationsPage.of(page, jsonOpts);
+	}
+
 	@GetMapping("/unreadCount")
 	public int getNotificationsUnreadCount()
 	{
@@ -0,0 +1,145 @@
+package de.metas.ui.web.notification;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.notification.UserNotification;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Unread and total notifications counters of a user.
+ * <p>
+ * The counters are adjusted in memory on each change which was done through {@link UserNotificationsQueue}
+ * and they are reloaded from database after <code>reconcileInterval</code>, to fix the changes which were done bypassing the queue.
+ * <p>
+ * All the <code>on...</code> methods shall be called after the change was saved to database.
+ * If the counters have to be (re)loaded at that point, the change is not applied again because the loaded counters already include it.
+ */
+final class UserNotificationsCounters
+{
+	private final Supplier<Counts> countsLoader;
+	private final long reconcileIntervalNanos;
+
+	private Counts counts = null;
+	private long countsLoadedNanos = 0;
+
+	@Builder
+	private UserNotificationsCounters(
+			@NonNull final Supplier<Counts> countsLoader,
+			@NonNull final Duration reconcileInterval)
+	{
+		this.countsLoader = countsLoader;
+		this.reconcileIntervalNanos = reconcileInterval.toNanos();
+	}
+
+	public synchronized Counts getCounts()
+	{
+		return adjust(0, 0);
+	}
+
+	public int getUnreadCount()
+	{
+		return getCounts().getUnreadCount();
+	}
+
+	public synchronized Counts onAdded(final boolean read)
+	{
+		return adjust(read ? 0 : 1, 1);
+	}
+
+	public synchronized Counts onMarkedAsRead()
+	{
+		return adjust(-1, 0);
+	}
+
+	public synchronized void onAllMarkedAsRead()
+	{
+		if (counts != null)
+		{
+			counts = Counts.of(0, counts.getTotalCount());
+		}
+	}
+
+	public synchronized void onDeleted()
+	{
+		// we don't know if the deleted notification was read or not, so reload the counters
+		counts = null;
+	}
+
+	public synchronized void onAllDeleted()
+	{
+		setCounts(Counts.ZERO);
+	}
+
+	/**
+	 * Sets the counters from all the notifications of the user, which were just loaded.
+	 */
+	public synchronized Counts onAllLoaded(@NonNull final List<UserNotification> notifications)
+	{
+		final int unreadCount = (int)notifications.stream().filter(UserNotification::isNotRead).count();
+		return setCounts(Counts.of(unreadCount, notifications.size()));
+	}
+
+	private Counts adjust(final int unreadDelta, final int totalDelta)
+	{
+		final long now = System.nanoTime();
+		if (counts == null || now - countsLoadedNanos >= reconcileIntervalNanos)
+		{
+			counts = countsLoader.get();
+			countsLoadedNanos = now;
+		}
+		else if (unreadDelta != 0 || totalDelta != 0)
+		{
+			counts = Counts.of(
+					Math.max(counts.getUnreadCount() + unreadDelta, 0),
+					Math.max(counts.getTotalCount() + totalDelta, 0));
+		}
+
+		return counts;
+	}
+
+	@VisibleForTesting
+	synchronized Counts setCounts(@NonNull final Counts counts)
+	{
+		this.counts = counts;
+		countsLoadedNanos = System.nanoTime();
+		return counts;
+	}
+
+	@Value(staticConstructor = "of")
+	public static class Counts
+	{
+		public static final Counts ZERO = of(0, 0);
+
+		int unreadCount;
+		int totalCount;
+	}
+}
@@ -1,17 +1,22 @@
 package de.metas.ui.web.notification;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.adempiere.service.ISysConfigBL;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.logging.LogManager;
 import de.metas.notification.INotificationRepository;
 import de.metas.notification.UserNotification;
 import de.metas.notification.UserNotificationsList;
+import de.metas.ui.web.notification.UserNotificationsCounters.Counts;
 import de.metas.ui.web.notification.json.JSONNotification;
 import de.metas.ui.web.notification.json.JSONNotificationEvent;
 import de.metas.ui.web.websocket.WebSocketConfig;
@@ -19,6 +24,7 @@ import de.metas.ui.web.websocket.WebsocketSender;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.user.UserId;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.Builder;
 import lombok.NonNull;
 
@@ -48,12 +54,19 @@ public class UserNotificationsQueue
 {
 	private static final Logger logger = LogManager.getLogger(UserNotificationsQueue.class);
 
+	private static final String SYSCONFIG_CountersReconcileIntervalSeconds = "de.metas.ui.web.notification.UserNotificationsQueue.CountersReconcileIntervalSeconds";
+	private static final int DEFAULT_CountersReconcileIntervalSeconds = 60;
+
+	@VisibleForTesting
+	static final int MAX_PAGE_SIZE = 100;
+
 	private final UserId userId;
 	private JSONOptions jsonOptions;
 
 	private final Set<String> activeSessions = ConcurrentHashMap.newKeySet();
 
 	private final INotificationRepository notificationsRepo;
+	private final UserNotificationsCounters counters;
 
 	private final WebsocketSender websocketSender;
 	private final String websocketEndpoint;
@@ -68,6 +81,10 @@ public class UserNotificationsQueue
 		this.userId = userId;
 		this.jsonOptions = jsonOptions;
 		this.notificationsRepo = notificationsRepo;
+		this.counters = UserNotificationsCounters.builder()
+				.countsLoader(() -> Counts.of(notificationsRepo.getUnreadCountByUserId(userId), notificationsRepo.getTotalCountByUserId(userId)))
+				.reconcileInterval(getCountersReconcileInterval())
+				.build();
 
 		this.websocketSender = websocketSender;
 		websocketEndpoint = WebSocketConfig.buildNotificationsTopicName(userId);
@@ -75,6 +92,12 @@ public class UserNotificationsQueue
 		logger.trace("Created notifications queue: {}", this); // keep it last
 	}
 
+	private static Duration getCountersReconcileInterval()
+	{
+		final int seconds = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_CountersReconcileIntervalSeconds, DEFAULT_CountersReconcileIntervalSeconds);
+		return Duration.ofSeconds(seconds);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -101,23 +124,54 @@ public class UserNotificationsQueue
 
 	public UserNotificationsList getNotificationsAsList(final int limit)
 	{
-		final List<UserNotification> notifications = notificationsRepo.getByUserId(userId, limit);
-		final boolean fullyLoaded = limit <= 0 || notifications.size() <= limit;
+		// Load one more notification, to know if we loaded all of them
+		final List<UserNotification> notificationsPlusOne = notificationsRepo.getByUserId(userId, limit > 0 ? limit + 1 : limit);
+		final boolean fullyLoaded = limit <= 0 || notificationsPlusOne.size() <= limit;
+		final List<UserNotification> notifications = fullyLoaded ? notificationsPlusOne : notificationsPlusOne.subList(0, limit);
+
+		final Counts counts = fullyLoaded
+				? counters.onAllLoaded(notifications)
+				: counters.getCounts();
 
-		final int totalCount;
-		final int unreadCount;
-		if (fullyLoaded)
+		return UserNotificationsList.of(notifications, counts.getTotalCount(), counts.getUnreadCount());
+	}
+
+	/**
+	 * Returns the given page of notifications (newest first).
+	 * <p>
+	 * NOTE: this is offset paging, because {@link INotificationRepository} has no query for the notifications older than a given one.
+	 * So the previous pages are loaded too, and the pages are shifted when notifications are added meanwhile.
+	 *
+	 * @param firstRow how many (newest) notifications to skip
+	 * @param pageSize how many notifications to return; it's capped to {@value #MAX_PAGE_SIZE}
+	 */
+	public UserNotificationsPage getNotificationsPage(final int firstRow, final int pageSize)
+	{
+		if (firstRow < 0)
 		{
-			totalCount = notifications.size();
-			unreadCount = (int)notifications.stream().filter(UserNotification::isNotRead).count();
+			throw new InvalidNotificationsPageException("firstRow shall be greater than or equal to zero but it was " + firstRow);
 		}
-		else
+		if (pageSize <= 0)
 		{
-			totalCount = notificationsRepo.getTotalCountByUserId(userId);
-			unreadCount = notificationsRepo.getUnreadCountByUserId(userId);
+			throw new InvalidNotificationsPageException("pageSize shall be greater than zero but it was " + pageSize);
 		}
+		final int pageSizeEffective = Math.min(pageSize, MAX_PAGE_SIZE);
+
+		// Load one more notification, to know if there is a next page
+		final List<UserNotification> notifications = notificationsRepo.getByUserId(userId, firstRow + pageSizeEffective + 1);
+		final boolean hasMorePages = notifications.size() > firstRow + pageSizeEffective;
+		final List<UserNotification> pageNotifications = notifications.subList(
+				Math.min(firstRow, notifications.size()),
+				Math.min(firstRow + pageSizeEffective, notifications.size()));
 
-		return UserNotificationsList.of(notifications, totalCount, unreadCount);
+		final Counts counts = counters.getCounts();
+		return UserNotificationsPage.builder()
+				.notifications(ImmutableList.copyOf(pageNotifications))
+				.firstRow(firstRow)
+				.hasMorePages(hasMorePages)
+				.totalCount(counts.getTotalCount())
+				.unreadCount(counts.getUnreadCount())
+				.build();
 	}
 
 	public void addActiveSessionId(final String sessionId)
@@ -143,26 +197,30 @@ public class UserNotificationsQueue
 		final UserId adUserId = getUserId();
 		Check.assume(notification.getRecipientUserId() == adUserId.getRepoId(), "notification's recipient user ID shall be {}: {}", adUserId, notification);
 
+		final int unreadCount = counters.onAdded(notification.isRead()).getUnreadCount();
+
 		final JSONNotification jsonNotification = JSONNotification.of(notification, jsonOptions);
-		fireEventOnWebsocket(JSONNotificationEvent.eventNew(jsonNotification, getUnreadCount()));
+		fireEventOnWebsocket(JSONNotificationEvent.eventNew(jsonNotification, unreadCount));
 	}
 
 	public void markAsRead(final String notificationId)
 	{
-		notificationsRepo.markAsReadById(Integer.parseInt(notificationId));
-		fireEventOnWebsocket(JSONNotificationEvent.eventRead(notificationId, getUnreadCount()));
+		final boolean marked = notificationsRepo.markAsReadById(Integer.parseInt(notificationId));
+		final int unreadCount = marked ? counters.onMarkedAsRead().getUnreadCount() : counters.getUnreadCount();
+		fireEventOnWebsocket(JSONNotificationEvent.eventRead(notificationId, unreadCount));
 	}
 
 	public void markAllAsRead()
 	{
 		logger.trace("Marking all notifications as read (if any) for {}...", this);
 		notificationsRepo.markAllAsReadByUserId(getUserId());
+		counters.onAllMarkedAsRead();
 		fireEventOnWebsocket(JSONNotificationEvent.eventReadAll());
 	}
 
 	public int getUnreadCount()
 	{
-		return notificationsRepo.getUnreadCountByUserId(getUserId());
+		return counters.getUnreadCount();
 	}
 
 	public void setLanguage(@NonNull final String adLanguage)
@@ -172,13 +230,18 @@ public class UserNotificationsQueue
 
 	public void delete(final String notificationId)
 	{
-		notificationsRepo.deleteById(Integer.parseInt(notificationId));
+		final boolean deleted = notificationsRepo.deleteById(Integer.parseInt(notificationId));
+		if (deleted)
+		{
+			counters.onDeleted();
+		}
 		fireEventOnWebsocket(JSONNotificationEvent.eventDeleted(notificationId, getUnreadCount()));
 	}
 
 	public void deleteAll()
 	{
 		notificationsRepo.deleteAllByUserId(getUserId());
+		counters.onAllDeleted();
 		fireEventOnWebsocket(JSONNotificationEvent.eventDeletedAll());
 	}
 
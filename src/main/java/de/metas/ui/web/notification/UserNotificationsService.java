@@ -126,6 +126,11 @@ public class UserNotificationsService
 		return getNotificationsQueue(adUserId).getNotificationsAsList(limit);
 	}
 
+	public UserNotificationsPage getNotificationsPage(final UserId adUserId, final int firstRow, final int pageSize)
+	{
+		return getNotificationsQueue(adUserId).getNotificationsPage(firstRow, pageSize);
+	}
+
 	private void forwardEventToNotificationsQueues(final IEventBus eventBus, final Event event)
 	{
 		logger.trace("Got event from {}: {}", eventBus, event);
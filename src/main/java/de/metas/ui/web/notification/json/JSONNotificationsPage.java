@@ -0,0 +1,68 @@
+package de.metas.ui.web.notification.json;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.notification.UserNotificationsPage;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+@Value
+public class JSONNotificationsPage
+{
+	public static JSONNotificationsPage of(@NonNull final UserNotificationsPage page, @NonNull final JSONOptions jsonOpts)
+	{
+		return new JSONNotificationsPage(page, jsonOpts);
+	}
+
+	@JsonProperty("totalCount")
+	int totalCount;
+	@JsonProperty("unreadCount")
+	int unreadCount;
+	@JsonProperty("notifications")
+	List<JSONNotification> notifications;
+
+	@JsonProperty("firstRow")
+	int firstRow;
+	@JsonProperty("hasMorePages")
+	boolean hasMorePages;
+
+	private JSONNotificationsPage(@NonNull final UserNotificationsPage page, @NonNull final JSONOptions jsonOpts)
+	{
+		totalCount = page.getTotalCount();
+		unreadCount = page.getUnreadCount();
+		notifications = page.getNotifications()
+				.stream()
+				.map(notification -> JSONNotification.of(notification, jsonOpts))
+				.collect(ImmutableList.toImmutableList());
+
+		firstRow = page.getFirstRow();
+		hasMorePages = page.isHasMorePages();
+	}
+}
@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
@@ -23,7 +24,9 @@ import de.metas.order.OrderLineId;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.view.IEditableView.RowEditingContext;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.template.IEditableRowsData;
+import de.metas.ui.web.view.template.SortedRowsCache;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.json.JSONDocumentChangedEvent;
@@ -66,6 +69,9 @@ class PricingConditionsRowData implements IEditableRowsData<PricingConditionsRow
 
 	private final ImmutableList<DocumentId> rowIds; // used to preserve the order
 	private final ConcurrentMap<DocumentId, PricingConditionsRow> rowsById;
+	/** Shared with {@link #allRowsData}; incremented after a row was changed */
+	private final AtomicLong rowsVersion;
+	private final SortedRowsCache<PricingConditionsRow> sortedRowsCache = SortedRowsCache.newInstance();
 	private final DocumentId editableRowId;
 
 	@Getter
@@ -87,6 +93,7 @@ class PricingConditionsRowData implements IEditableRowsData<PricingConditionsRow
 				.collect(ImmutableList.toImmutableList());
 		this.rowsById = stream(editableRow, rows)
 				.collect(Collectors.toConcurrentMap(PricingConditionsRow::getId, Function.identity()));
+		this.rowsVersion = new AtomicLong(0);
 
 		this.editableRowId = editableRow != null ? editableRow.getId() : null;
 		
@@ -102,6 +109,7 @@ class PricingConditionsRowData implements IEditableRowsData<PricingConditionsRow
 		this.orderLineId = allRowsData.getOrderLineId();
 
 		this.rowsById = allRowsData.rowsById;
+		this.rowsVersion = allRowsData.rowsVersion;
 		final ImmutableSet<DocumentId> rowIdsNotOrdered = allRowsData.rowsById.values()
 				.stream()
 				.filter(PricingConditionsViewFilters.isEditableRowOrMatching(filters))
@@ -154,6 +162,25 @@ class PricingConditionsRowData implements IEditableRowsData<PricingConditionsRow
 				.collect(ImmutableList.toImmutableList());
 	}
 
+	@Override
+	public ImmutableList<PricingConditionsRow> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return sortedRowsCache.getTopLevelRowsSorted(orderBy, rowsVersion.get(), this::getTopLevelRows);
+	}
+
+	@Override
+	public PricingConditionsRow getById(@NonNull final DocumentId rowId) throws EntityNotFoundException
+	{
+		final PricingConditionsRow row = rowsById.get(rowId);
+		if (row == null)
+		{
+			throw new EntityNotFoundException("Row not found")
+					.appendParametersToMessage()
+					.setParameter("rowId", rowId);
+		}
+		return row;
+	}
+
 	@Override
 	public Collection<PricingConditionsRow> getAllRows()
 	{
@@ -186,6 +213,7 @@ class PricingConditionsRowData implements IEditableRowsData<PricingConditionsRow
 
 			return mapper.apply(oldRow);
 		});
+		rowsVersion.incrementAndGet();
 	}
 
 	@Override
@@ -31,6 +31,7 @@ import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvider;
 import de.metas.ui.web.view.IEditableView;
 import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.event.ViewChangesVersions;
 import de.metas.ui.web.view.template.AbstractCustomView;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
@@ -135,6 +136,7 @@ public class PricingConditionsView extends AbstractCustomView<PricingConditionsR
 	public void patchEditableRow(@NonNull final PricingConditionsRowChangeRequest request)
 	{
 		rowsData.patchEditableRow(request);
+		ViewChangesVersions.instance.incrementVersion(getViewId());
 	}
 
 	@Override
@@ -29,6 +29,7 @@ import de.metas.ui.web.order.products_proposal.service.Order;
 import de.metas.ui.web.view.IEditableView;
 import de.metas.ui.web.view.ViewHeaderProperties;
 import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.event.ViewChangesVersions;
 import de.metas.ui.web.view.template.AbstractCustomView;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
@@ -179,6 +180,7 @@ public class ProductsProposalView extends AbstractCustomView<ProductsProposalRow
 	public void patchViewRow(@NonNull final DocumentId rowId, @NonNull final ProductsProposalRowChangeRequest request)
 	{
 		rowsData.patchRow(rowId, request);
+		ViewChangesVersions.instance.incrementVersion(getViewId());
 	}
 
 	public void removeRowsByIds(final Set<DocumentId> rowIds)
@@ -3,14 +3,17 @@ package de.metas.ui.web.payment_allocation;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.compiere.model.I_C_Invoice;
 
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.invoice.InvoiceId;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.template.IRowsData;
 import de.metas.ui.web.view.template.SynchronizedRowsIndexHolder;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -68,6 +71,18 @@ public class InvoiceRows implements IRowsData<InvoiceRow>
 		return rowsHolder.getDocumentId2TopLevelRows();
 	}
 
+	@Override
+	public ImmutableMap<DocumentId, InvoiceRow> getDocumentId2AllRows()
+	{
+		return rowsHolder.getDocumentId2AllRows();
+	}
+
+	@Override
+	public ImmutableList<InvoiceRow> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return rowsHolder.getTopLevelRowsSorted(orderBy);
+	}
+
 	@Override
 	public DocumentIdsSelection getDocumentIdsToInvalidate(final TableRecordReferenceSet recordRefs)
 	{
@@ -80,17 +95,21 @@ public class InvoiceRows implements IRowsData<InvoiceRow>
 	@Override
 	public void invalidateAll()
 	{
-		invalidate(DocumentIdsSelection.ALL);
+		reloadRows(DocumentIdsSelection.ALL);
 	}
 
 	@Override
-	public void invalidate(final DocumentIdsSelection rowIds)
+	public void reloadRows(@NonNull final Set<DocumentId> rowIds)
 	{
-		final ImmutableSet<InvoiceId> invoiceIds = rowsHolder
-				.getRecordIdsToRefresh(rowIds, InvoiceRow::convertDocumentIdToInvoiceId);
+		reloadRows(DocumentIdsSelection.of(rowIds));
+	}
 
-		final List<InvoiceRow> newRows = repository.getInvoiceRowsListByInvoiceId(invoiceIds, evaluationDate);
-		rowsHolder.compute(rows -> rows.replacingRows(rowIds, newRows));
+	private void reloadRows(@NonNull final DocumentIdsSelection rowIds)
+	{
+		rowsHolder.reloadRows(
+				rowIds,
+				InvoiceRow::convertDocumentIdToInvoiceId,
+				invoiceIds -> repository.getInvoiceRowsListByInvoiceId(invoiceIds, evaluationDate));
 	}
 
 	public void addInvoice(@NonNull final InvoiceId invoiceId)
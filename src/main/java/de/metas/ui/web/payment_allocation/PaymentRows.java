@@ -2,15 +2,17 @@ package de.metas.ui.web.payment_allocation;
 
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Set;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.compiere.model.I_C_Payment;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
 
 import de.metas.payment.PaymentId;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.template.IRowsData;
 import de.metas.ui.web.view.template.SynchronizedRowsIndexHolder;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -68,6 +70,18 @@ public class PaymentRows implements IRowsData<PaymentRow>
 		return rowsHolder.getDocumentId2TopLevelRows();
 	}
 
+	@Override
+	public ImmutableMap<DocumentId, PaymentRow> getDocumentId2AllRows()
+	{
+		return rowsHolder.getDocumentId2AllRows();
+	}
+
+	@Override
+	public ImmutableList<PaymentRow> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return rowsHolder.getTopLevelRowsSorted(orderBy);
+	}
+
 	@Override
 	public DocumentIdsSelection getDocumentIdsToInvalidate(final TableRecordReferenceSet recordRefs)
 	{
@@ -80,18 +94,21 @@ public class PaymentRows implements IRowsData<PaymentRow>
 	@Override
 	public void invalidateAll()
 	{
-		invalidate(DocumentIdsSelection.ALL);
-		// nothing
+		reloadRows(DocumentIdsSelection.ALL);
 	}
 
 	@Override
-	public void invalidate(final DocumentIdsSelection rowIds)
+	public void reloadRows(@NonNull final Set<DocumentId> rowIds)
 	{
-		final ImmutableSet<PaymentId> paymentIds = rowsHolder
-				.getRecordIdsToRefresh(rowIds, PaymentRow::convertDocumentIdToPaymentId);
+		reloadRows(DocumentIdsSelection.of(rowIds));
+	}
 
-		final List<PaymentRow> newRows = repository.getPaymentRowsListByPaymentId(paymentIds, evaluationDate);
-		rowsHolder.compute(rows -> rows.replacingRows(rowIds, newRows));
+	private void reloadRows(@NonNull final DocumentIdsSelection rowIds)
+	{
+		rowsHolder.reloadRows(
+				rowIds,
+				PaymentRow::convertDocumentIdToPaymentId,
+				paymentIds -> repository.getPaymentRowsListByPaymentId(paymentIds, evaluationDate));
 	}
 
 	public void addPayment(@NonNull final PaymentId paymentId)
@@ -73,6 +73,12 @@ class PickingTerminalViewInvalidationAdvisor implements IViewInvalidationAdvisor
 				ShipmentScheduleId.toIntSet(shipmentScheduleIds));
 	}
 
+	@Override
+	public Set<String> getInvalidatingTableNamesOrNull(final IView view)
+	{
+		return ImmutableSet.of(I_M_ShipmentSchedule.Table_Name, I_M_Picking_Candidate.Table_Name);
+	}
+
 	private Set<ShipmentScheduleId> extractShipmentScheduleIds(final TableRecordReferenceSet recordRefs)
 	{
 		if (recordRefs.isEmpty())
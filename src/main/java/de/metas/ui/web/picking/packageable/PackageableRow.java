@@ -118,6 +118,11 @@ public final class PackageableRow implements IViewRow
 		return DocumentId.of(shipmentScheduleId.getRepoId());
 	}
 
+	public static ShipmentScheduleId convertRowIdToShipmentScheduleId(final DocumentId rowId)
+	{
+		return rowId.toId(ShipmentScheduleId::ofRepoId);
+	}
+
 	public static TableRecordReference createTableRecordReferenceFromShipmentScheduleId(final ShipmentScheduleId shipmentScheduleId)
 	{
 		return TableRecordReference.of(I_M_Packageable_V.Table_Name, shipmentScheduleId);
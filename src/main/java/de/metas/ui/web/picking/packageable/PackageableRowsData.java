@@ -2,20 +2,19 @@ package de.metas.ui.web.picking.packageable;
 
 import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.function.Function;
 
-import org.adempiere.util.lang.ExtendedMemorizingSupplier;
-import org.adempiere.util.lang.impl.TableRecordReference;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableListMultimap;
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.inoutcandidate.api.ShipmentScheduleId;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.template.IRowsData;
+import de.metas.ui.web.view.template.SynchronizedRowsIndexHolder;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import lombok.NonNull;
@@ -46,9 +45,11 @@ import lombok.ToString;
 @ToString
 final class PackageableRowsData implements IRowsData<PackageableRow>
 {
-	public static PackageableRowsData ofSupplier(final Supplier<List<PackageableRow>> rowsSupplier)
+	public static PackageableRowsData of(
+			@NonNull final Set<ShipmentScheduleId> shipmentScheduleIds,
+			@NonNull final Function<Set<ShipmentScheduleId>, List<PackageableRow>> rowsLoader)
 	{
-		return new PackageableRowsData(rowsSupplier);
+		return new PackageableRowsData(shipmentScheduleIds, rowsLoader);
 	}
 
 	public static PackageableRowsData cast(final IRowsData<PackageableRow> rowsData)
@@ -56,49 +57,75 @@ final class PackageableRowsData implements IRowsData<PackageableRow>
 		return (PackageableRowsData)rowsData;
 	}
 
-	public static final PackageableRowsData EMPTY = new PackageableRowsData(ImmutableList::of);
+	public static final PackageableRowsData EMPTY = new PackageableRowsData(ImmutableSet.of(), shipmentScheduleIds -> ImmutableList.of());
 
-	private final ExtendedMemorizingSupplier<Map<DocumentId, PackageableRow>> topLevelRows;
+	private final ImmutableSet<ShipmentScheduleId> shipmentScheduleIds;
+	private final Function<Set<ShipmentScheduleId>, List<PackageableRow>> rowsLoader;
 
-	private final ImmutableListMultimap<TableRecordReference, DocumentId> initialDocumentIdsByRecordRef;
+	/**
+	 * NOTE: the rows index also remembers the initial rows.
+	 * We use them to figure out what we can invalidate,
+	 * because we want to cover the case of rows which just vanished (e.g. everything was delivered)
+	 * and the case of rows which appeared back (e.g. the picking candidate was reactivated so we still have QtyToDeliver).
+	 */
+	private final SynchronizedRowsIndexHolder<PackageableRow> rowsHolder;
 
-	private PackageableRowsData(@NonNull final Supplier<List<PackageableRow>> rowsSupplier)
+	private PackageableRowsData(
+			@NonNull final Set<ShipmentScheduleId> shipmentScheduleIds,
+			@NonNull final Function<Set<ShipmentScheduleId>, List<PackageableRow>> rowsLoader)
 	{
-		topLevelRows = ExtendedMemorizingSupplier.of(() -> Maps.uniqueIndex(rowsSupplier.get(), PackageableRow::getId));
-
-		//
-		// Remember initial rows
-		// We will use this map to figure out what we can invalidate,
-		// because we want to cover the case of rows which just vanished (e.g. everything was delivered)
-		// and the case of rows which appeared back (e.g. the picking candidate was reactivated so we still have QtyToDeliver).
-		initialDocumentIdsByRecordRef = getAllRows()
-				.stream()
-				.collect(ImmutableListMultimap.toImmutableListMultimap(PackageableRow::getTableRecordReference, PackageableRow::getId));
+		this.shipmentScheduleIds = ImmutableSet.copyOf(shipmentScheduleIds);
+		this.rowsLoader = rowsLoader;
+		rowsHolder = SynchronizedRowsIndexHolder.of(loadRows(this.shipmentScheduleIds));
+	}
+
+	private List<PackageableRow> loadRows(final Set<ShipmentScheduleId> shipmentScheduleIds)
+	{
+		return !shipmentScheduleIds.isEmpty()
+				? rowsLoader.apply(shipmentScheduleIds)
+				: ImmutableList.of();
 	}
 
 	@Override
 	public Map<DocumentId, PackageableRow> getDocumentId2TopLevelRows()
 	{
-		return topLevelRows.get();
+		return rowsHolder.getDocumentId2TopLevelRows();
+	}
+
+	@Override
+	public Map<DocumentId, PackageableRow> getDocumentId2AllRows()
+	{
+		return rowsHolder.getDocumentId2AllRows();
+	}
+
+	@Override
+	public ImmutableList<PackageableRow> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return rowsHolder.getTopLevelRowsSorted(orderBy);
 	}
 
 	@Override
 	public void invalidateAll()
 	{
-		topLevelRows.forget();
+		final List<PackageableRow> newRows = loadRows(shipmentScheduleIds);
+		rowsHolder.compute(rows -> rows.replacingRows(DocumentIdsSelection.ALL, newRows));
 	}
 
 	@Override
-	public DocumentIdsSelection getDocumentIdsToInvalidate(final TableRecordReferenceSet recordRefs)
+	public void reloadRows(@NonNull final Set<DocumentId> rowIds)
 	{
-		return recordRefs.streamIds(I_M_ShipmentSchedule.Table_Name, ShipmentScheduleId::ofRepoId)
-				.flatMap(this::streamDocumentIdsForShipmentScheduleId)
-				.collect(DocumentIdsSelection.toDocumentIdsSelection());
+		rowsHolder.reloadRows(
+				DocumentIdsSelection.of(rowIds),
+				PackageableRow::convertRowIdToShipmentScheduleId,
+				this::loadRows);
 	}
 
-	private Stream<DocumentId> streamDocumentIdsForShipmentScheduleId(final ShipmentScheduleId shipmentScheduleId)
+	@Override
+	public DocumentIdsSelection getDocumentIdsToInvalidate(final TableRecordReferenceSet recordRefs)
 	{
-		final TableRecordReference recordRefEffective = PackageableRow.createTableRecordReferenceFromShipmentScheduleId(shipmentScheduleId);
-		return initialDocumentIdsByRecordRef.get(recordRefEffective).stream();
+		return recordRefs.streamIds(I_M_ShipmentSchedule.Table_Name, ShipmentScheduleId::ofRepoId)
+				.map(PackageableRow::createRowIdFromShipmentScheduleId)
+				.filter(rowsHolder.isRelevantForRefreshingByDocumentId())
+				.collect(DocumentIdsSelection.toDocumentIdsSelection());
 	}
 }
@@ -12,7 +12,6 @@ import org.springframework.stereotype.Component;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
 
 import de.metas.inoutcandidate.api.IPackagingDAO;
 import de.metas.inoutcandidate.api.Packageable;
@@ -113,7 +112,8 @@ public class PackageableRowsRepository
 			return PackageableRowsData.EMPTY;
 		}
 
-		final Set<ShipmentScheduleId> shipmentScheduleIdsCopy = ImmutableSet.copyOf(shipmentScheduleIds);
-		return PackageableRowsData.ofSupplier(() -> retrieveRowsByShipmentScheduleIds(viewId, shipmentScheduleIdsCopy));
+		return PackageableRowsData.of(
+				shipmentScheduleIds,
+				shipmentScheduleIdsToLoad -> retrieveRowsByShipmentScheduleIds(viewId, shipmentScheduleIdsToLoad));
 	}
 }
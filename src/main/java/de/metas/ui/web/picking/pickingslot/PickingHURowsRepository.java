@@ -1,6 +1,6 @@
 package de.metas.ui.web.picking.pickingslot;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -187,11 +187,9 @@ public class PickingHURowsRepository
 
 	private ListMultimap<PickingSlotId, PickedHUEditorRow> retrievePickedHUsIndexedByPickingSlotId(@NonNull final List<PickingCandidate> pickingCandidates)
 	{
-		final HUEditorViewRepository huEditorRepo = getHUEditorViewRepository();
-
-		final Map<HuId, PickedHUEditorRow> huId2huRow = new HashMap<>();
-
-		final ImmutableListMultimap.Builder<PickingSlotId, PickedHUEditorRow> builder = ImmutableListMultimap.builder();
+		//
+		// Collect the picked HUs, first picking candidate wins
+		final Map<HuId, PickingCandidate> pickingCandidatesByHUId = new LinkedHashMap<>();
 		for (final PickingCandidate pickingCandidate : pickingCandidates)
 		{
 			if (pickingCandidate.isRejectedToPick())
@@ -205,7 +203,7 @@ public class PickingHURowsRepository
 				logger.warn("Skip {} because huId is null", huId);
 				continue;
 			}
-			if (huId2huRow.containsKey(huId))
+			if (pickingCandidatesByHUId.containsKey(huId))
 			{
 				continue;
 			}
@@ -218,13 +216,22 @@ public class PickingHURowsRepository
 				continue;
 			}
 
-			final HUEditorRow huEditorRow = huEditorRepo.retrieveForHUId(huId);
+			pickingCandidatesByHUId.put(huId, pickingCandidate);
+		}
+
+		//
+		// Load all picked HUs in one go
+		final HUEditorViewRepository huEditorRepo = getHUEditorViewRepository();
+		final Map<HuId, HUEditorRow> huEditorRowsByHUId = huEditorRepo.retrieveForHUIds(pickingCandidatesByHUId.keySet());
+
+		final ImmutableListMultimap.Builder<PickingSlotId, PickedHUEditorRow> builder = ImmutableListMultimap.builder();
+		pickingCandidatesByHUId.forEach((huId, pickingCandidate) -> {
+			final HUEditorRow huEditorRow = huEditorRowsByHUId.get(huId);
 			final boolean pickingCandidateProcessed = isPickingCandidateProcessed(pickingCandidate);
 			final PickedHUEditorRow row = new PickedHUEditorRow(huEditorRow, pickingCandidateProcessed);
 
-			huId2huRow.put(huId, row);
-			builder.put(pickingSlotId, row);
-		}
+			builder.put(pickingCandidate.getPickingSlotId(), row);
+		});
 
 		return builder.build();
 	}
@@ -257,7 +264,7 @@ public class PickingHURowsRepository
 		huIdsByPickingSlotId = Services.get(IHUPickingSlotDAO.class).retrieveAllHUIdsIndexedByPickingSlotId(pickingSlots);
 
 		final HUEditorViewRepository huEditorRepo = getHUEditorViewRepository();
-		huEditorRepo.warmUp(ImmutableSet.copyOf(huIdsByPickingSlotId.values()));
+		final Map<HuId, HUEditorRow> huEditorRowsByHUId = huEditorRepo.retrieveForHUIds(ImmutableSet.copyOf(huIdsByPickingSlotId.values()));
 
 		return huIdsByPickingSlotId
 				.entries()
@@ -266,7 +273,7 @@ public class PickingHURowsRepository
 					final PickingSlotId pickingSlotId = pickingSlotAndHU.getKey();
 					final HuId huId = pickingSlotAndHU.getValue();
 
-					final HUEditorRow huEditorRow = huEditorRepo.retrieveForHUId(huId);
+					final HUEditorRow huEditorRow = huEditorRowsByHUId.get(huId);
 					final boolean pickingCandidateProcessed = true;
 					final PickedHUEditorRow row = new PickedHUEditorRow(huEditorRow, pickingCandidateProcessed);
 
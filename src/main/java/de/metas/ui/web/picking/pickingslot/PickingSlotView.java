@@ -26,6 +26,7 @@ import de.metas.ui.web.view.IViewRow;
 import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.view.ViewResult;
 import de.metas.ui.web.view.ViewRowsOrderBy;
+import de.metas.ui.web.view.event.ViewChangesVersions;
 import de.metas.ui.web.view.json.JSONViewDataType;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -257,5 +258,6 @@ public class PickingSlotView implements IView
 	public void invalidateAll()
 	{
 		rows.invalidateAll();
+		ViewChangesVersions.instance.incrementVersion(getViewId());
 	}
 }
@@ -5,8 +5,11 @@ import java.util.Map;
 import org.adempiere.util.lang.ExtendedMemorizingSupplier;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.template.IRowsData;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -70,6 +73,19 @@ final class PackageableRowsData implements IRowsData<PackageableRow>
 		return getPackageableRowsIndex().getRowsIndexedById();
 	}
 
+	@Override
+	public Map<DocumentId, PackageableRow> getDocumentId2AllRows()
+	{
+		// there are no included rows
+		return getDocumentId2TopLevelRows();
+	}
+
+	@Override
+	public ImmutableList<PackageableRow> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return getPackageableRowsIndex().getRowsSorted(orderBy);
+	}
+
 	private PackageableRowsIndex getPackageableRowsIndex()
 	{
 		return rowsIndexSupplier.get();
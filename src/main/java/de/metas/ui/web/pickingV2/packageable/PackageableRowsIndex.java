@@ -9,6 +9,8 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
 import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.ui.web.view.ViewRowsOrderBy;
+import de.metas.ui.web.view.template.SortedRowsCache;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.util.GuavaCollectors;
 import lombok.NonNull;
@@ -44,6 +46,7 @@ final class PackageableRowsIndex
 
 	private final ImmutableMap<DocumentId, PackageableRow> rowsById;
 	private final ImmutableListMultimap<ShipmentScheduleId, PackageableRow> rowsByShipmentScheduleId;
+	private final SortedRowsCache<PackageableRow> sortedRowsCache = SortedRowsCache.newInstance();
 
 	private PackageableRowsIndex(final Collection<PackageableRow> rows)
 	{
@@ -60,6 +63,11 @@ final class PackageableRowsIndex
 		return rowsById;
 	}
 
+	public ImmutableList<PackageableRow> getRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return sortedRowsCache.getTopLevelRowsSorted(orderBy, rowsById::values);
+	}
+
 	private ImmutableList<PackageableRow> getRowsByShipmentScheduleId(@NonNull final ShipmentScheduleId shipmentScheduleId)
 	{
 		return rowsByShipmentScheduleId.get(shipmentScheduleId);
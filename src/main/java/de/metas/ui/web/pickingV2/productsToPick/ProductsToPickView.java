@@ -14,6 +14,7 @@ import de.metas.ui.web.view.IEditableView;
 import de.metas.ui.web.view.IView;
 import de.metas.ui.web.view.ViewHeaderProperties;
 import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.event.ViewChangesVersions;
 import de.metas.ui.web.view.template.AbstractCustomView;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -125,6 +126,7 @@ public class ProductsToPickView extends AbstractCustomView<ProductsToPickRow> im
 	public void updateViewRowFromPickingCandidate(@NonNull final DocumentId rowId, @NonNull final PickingCandidate pickingCandidate)
 	{
 		rowsData.updateViewRowFromPickingCandidate(rowId, pickingCandidate);
+		ViewChangesVersions.instance.incrementVersion(getViewId());
 	}
 
 	public boolean isApproved()
@@ -3,6 +3,8 @@ package de.metas.ui.web.pporder;
 import java.math.BigDecimal;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 import javax.annotation.Nullable;
@@ -16,6 +18,7 @@ import org.eevolution.api.IPPOrderDAO;
 import org.eevolution.api.PPOrderPlanningStatus;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 
@@ -125,14 +128,20 @@ class PPOrderLinesLoader
 		final ListMultimap<Integer, I_PP_Order_Qty> ppOrderQtysByBOMLineId = ppOrderQtyDAO.streamOrderQtys(ppOrderId)
 				.collect(GuavaCollectors.toImmutableListMultimap(ppOrderQty -> CoalesceUtil.firstGreaterThanZero(ppOrderQty.getPP_Order_BOMLine_ID(), mainProductBOMLineId)));
 
+		// Load the issued/received HUs in one go
+		final ImmutableMap<HuId, HUEditorRow> huEditorRowsByHUId = huEditorRepo.retrieveForHUIds(ppOrderQtysByBOMLineId.values()
+				.stream()
+				.map(ppOrderQty -> HuId.ofRepoId(ppOrderQty.getM_HU_ID()))
+				.collect(ImmutableSet.toImmutableSet()));
+
 		final ImmutableList.Builder<PPOrderLineRow> records = ImmutableList.builder();
 
 		// Main product
-		final PPOrderLineRow rowForMainProduct = createRowForMainProduct(ppOrder, ppOrderQtysByBOMLineId.get(mainProductBOMLineId));
+		final PPOrderLineRow rowForMainProduct = createRowForMainProduct(ppOrder, ppOrderQtysByBOMLineId.get(mainProductBOMLineId), huEditorRowsByHUId);
 		records.add(rowForMainProduct);
 
 		// BOM lines
-		final List<PPOrderLineRow> bomLineRows = createRowsForBomLines(ppOrder, ppOrderQtysByBOMLineId);
+		final List<PPOrderLineRow> bomLineRows = createRowsForBomLines(ppOrder, ppOrderQtysByBOMLineId, huEditorRowsByHUId);
 		records.addAll(bomLineRows);
 
 		// Source HUs
@@ -153,7 +162,8 @@ class PPOrderLinesLoader
 
 	private List<PPOrderLineRow> createRowsForBomLines(
 			@NonNull final I_PP_Order ppOrder,
-			@NonNull final ListMultimap<Integer, I_PP_Order_Qty> ppOrderQtysByBOMLineId)
+			@NonNull final ListMultimap<Integer, I_PP_Order_Qty> ppOrderQtysByBOMLineId,
+			@NonNull final Map<HuId, HUEditorRow> huEditorRowsByHUId)
 	{
 		final Comparator<PPOrderLineRow> ppOrderBomLineRowSorter = //
 				Comparator.<PPOrderLineRow> comparingInt(row -> row.isReceipt() ? 0 : 1) // receipt lines first
@@ -163,7 +173,8 @@ class PPOrderLinesLoader
 				ppOrderBOMLine -> createRowForBOMLine(
 						ppOrderBOMLine,
 						isReadOnly(ppOrder),
-						ppOrderQtysByBOMLineId.get(ppOrderBOMLine.getPP_Order_BOMLine_ID()));
+						ppOrderQtysByBOMLineId.get(ppOrderBOMLine.getPP_Order_BOMLine_ID()),
+						huEditorRowsByHUId);
 
 		final PPOrderId ppOrderId = PPOrderId.ofRepoId(ppOrder.getPP_Order_ID());
 		final ImmutableList<PPOrderLineRow> bomLineRows = ppOrderBOMDAO.retrieveOrderBOMLines(ppOrderId, I_PP_Order_BOMLine.class)
@@ -187,9 +198,11 @@ class PPOrderLinesLoader
 				.productIds(issueProductIds)
 				.warehouseId(warehouseId).build();
 
-		for (final HuId sourceHUId : SourceHUsService.get().retrieveMatchingSourceHUIds(sourceHusQuery))
+		final Set<HuId> sourceHUIds = SourceHUsService.get().retrieveMatchingSourceHUIds(sourceHusQuery);
+		final ImmutableMap<HuId, HUEditorRow> sourceHUEditorRowsByHUId = huEditorRepo.retrieveForHUIds(sourceHUIds);
+		for (final HuId sourceHUId : sourceHUIds)
 		{
-			final HUEditorRow huEditorRow = huEditorRepo.retrieveForHUId(sourceHUId);
+			final HUEditorRow huEditorRow = sourceHUEditorRowsByHUId.get(sourceHUId);
 			result.add(createRowForSourceHU(huEditorRow));
 		}
 
@@ -222,7 +235,8 @@ class PPOrderLinesLoader
 
 	private PPOrderLineRow createRowForMainProduct(
 			@NonNull final I_PP_Order ppOrder,
-			@NonNull final List<I_PP_Order_Qty> ppOrderQtysforMainProduct)
+			@NonNull final List<I_PP_Order_Qty> ppOrderQtysforMainProduct,
+			@NonNull final Map<HuId, HUEditorRow> huEditorRowsByHUId)
 	{
 		final boolean readOnly = isReadOnly(ppOrder);
 
@@ -230,6 +244,7 @@ class PPOrderLinesLoader
 
 		final ImmutableList<PPOrderLineRow> includedRows = createIncludedRowsForPPOrderQtys(
 				ppOrderQtysforMainProduct,
+				huEditorRowsByHUId,
 				readOnly);
 
 		return PPOrderLineRow.builderForPPOrder()
@@ -254,7 +269,8 @@ class PPOrderLinesLoader
 	private PPOrderLineRow createRowForBOMLine(
 			final I_PP_Order_BOMLine ppOrderBOMLine,
 			final boolean readOnly,
-			final List<I_PP_Order_Qty> ppOrderQtys)
+			final List<I_PP_Order_Qty> ppOrderQtys,
+			final Map<HuId, HUEditorRow> huEditorRowsByHUId)
 	{
 		final PPOrderLineType lineType;
 		final String packingInfo;
@@ -277,6 +293,7 @@ class PPOrderLinesLoader
 
 		final ImmutableList<PPOrderLineRow> includedRows = createIncludedRowsForPPOrderQtys(
 				ppOrderQtys,
+				huEditorRowsByHUId,
 				readOnly);
 
 		return PPOrderLineRow.builderForPPOrderBomLine()
@@ -313,17 +330,21 @@ class PPOrderLinesLoader
 
 	private ImmutableList<PPOrderLineRow> createIncludedRowsForPPOrderQtys(
 			@NonNull final List<I_PP_Order_Qty> ppOrderQtys,
+			@NonNull final Map<HuId, HUEditorRow> huEditorRowsByHUId,
 			final boolean readOnly)
 	{
 		final ImmutableList<PPOrderLineRow> includedRows = ppOrderQtys.stream()
-				.map(ppOrderQty -> createForPPOrderQty(ppOrderQty, readOnly))
+				.map(ppOrderQty -> createForPPOrderQty(ppOrderQty, huEditorRowsByHUId, readOnly))
 				.collect(ImmutableList.toImmutableList());
 		return includedRows;
 	}
 
-	private PPOrderLineRow createForPPOrderQty(final I_PP_Order_Qty ppOrderQty, final boolean readonly)
+	private PPOrderLineRow createForPPOrderQty(
+			@NonNull final I_PP_Order_Qty ppOrderQty,
+			@NonNull final Map<HuId, HUEditorRow> huEditorRowsByHUId,
+			final boolean readonly)
 	{
-		final HUEditorRow huEditorRow = huEditorRepo.retrieveForHUId(HuId.ofRepoId(ppOrderQty.getM_HU_ID()));
+		final HUEditorRow huEditorRow = huEditorRowsByHUId.get(HuId.ofRepoId(ppOrderQty.getM_HU_ID()));
 		final HUEditorRow parentHUViewRecord = null;
 		return createForHUViewRecordRecursively(ppOrderQty, huEditorRow, parentHUViewRecord, readonly);
 	}
@@ -0,0 +1,303 @@
+package de.metas.ui.web.process;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.i18n.AdMessageKey;
+import de.metas.i18n.IMsgBL;
+import de.metas.logging.LogManager;
+import de.metas.process.ProcessPreconditionsResolution;
+import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
+import de.metas.ui.web.process.descriptor.WebuiRelatedProcessDescriptor;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.ViewProfileId;
+import de.metas.ui.web.view.ViewRowIdsSelection;
+import de.metas.ui.web.view.event.ViewChangesVersions;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Evaluates the preconditions of view actions in parallel and remembers the results for a short time.
+ * <p>
+ * Results are remembered per view version (see {@link ViewChangesVersions}), selection, user/role and process,
+ * so when the frontend asks again for the same selection, the preconditions are not evaluated again.
+ * <p>
+ * If a precondition is not evaluated in time, the process is reported as "not yet known" (i.e. disabled with a proper reason)
+ * instead of blocking the whole response. The evaluation continues in background, so next time the actual result will be available.
+ */
+@Component
+public class ViewActionsPreconditionsEvaluator
+{
+	private static final Logger logger = LogManager.getLogger(ViewActionsPreconditionsEvaluator.class);
+
+	private static final String SYSCONFIG_TimeoutMillis = "de.metas.ui.web.process.ViewActionsPreconditionsEvaluator.TimeoutMillis";
+	private static final int DEFAULT_TimeoutMillis = 500;
+	private static final String SYSCONFIG_ThreadsCount = "de.metas.ui.web.process.ViewActionsPreconditionsEvaluator.ThreadsCount";
+	private static final int DEFAULT_ThreadsCount = 8;
+	private static final int QUEUE_CAPACITY = 1000;
+
+	private static final Duration RESULTS_TTL = Duration.ofMinutes(1);
+
+	@VisibleForTesting
+	static final AdMessageKey MSG_PreconditionsNotYetEvaluated = AdMessageKey.of("webui.process.PreconditionsNotYetEvaluated");
+
+	private final ExecutorService executor;
+	private final Duration timeout;
+
+	private final Cache<PreconditionsKey, ProcessPreconditionsResolution> resultsCache;
+	private final ConcurrentHashMap<PreconditionsKey, CompletableFuture<ProcessPreconditionsResolution>> evaluationsInProgress = new ConcurrentHashMap<>();
+
+	public ViewActionsPreconditionsEvaluator()
+	{
+		this(createExecutor(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_ThreadsCount, DEFAULT_ThreadsCount)),
+				Duration.ofMillis(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_TimeoutMillis, DEFAULT_TimeoutMillis)),
+				RESULTS_TTL);
+	}
+
+	@VisibleForTesting
+	ViewActionsPreconditionsEvaluator(
+			@NonNull final ExecutorService executor,
+			@NonNull final Duration timeout,
+			@NonNull final Duration resultsTTL)
+	{
+		this.executor = executor;
+		this.timeout = timeout;
+		this.resultsCache = CacheBuilder.newBuilder()
+				.expireAfterWrite(resultsTTL.toMillis(), TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	private static ExecutorService createExecutor(final int threadsCount)
+	{
+		final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(ViewActionsPreconditionsEvaluator.class.getSimpleName() + "-");
+		threadFactory.setDaemon(true);
+
+		final int threadsCountEffective = Math.max(threadsCount, 1);
+		return new ThreadPoolExecutor(
+				threadsCountEffective,
+				threadsCountEffective,
+				60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+				threadFactory,
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * @return given descriptors, having their preconditions resolution already evaluated
+	 */
+	public ImmutableList<WebuiRelatedProcessDescriptor> evaluate(
+			@NonNull final ViewAsPreconditionsContext preconditionsContext,
+			@NonNull final List<WebuiRelatedProcessDescriptor> descriptors)
+	{
+		if (descriptors.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final PreconditionsContextKey contextKey = PreconditionsContextKey.of(preconditionsContext);
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		final long deadlineNanos = System.nanoTime() + timeout.toNanos();
+
+		//
+		// Start evaluating all the preconditions which we don't already know
+		final List<CompletableFuture<ProcessPreconditionsResolution>> futures = new ArrayList<>(descriptors.size());
+		for (final WebuiRelatedProcessDescriptor descriptor : descriptors)
+		{
+			final PreconditionsKey key = PreconditionsKey.of(contextKey, descriptor.getProcessId());
+			final ProcessPreconditionsResolution resolution = resultsCache.getIfPresent(key);
+			futures.add(resolution != null
+					? CompletableFuture.completedFuture(resolution)
+					: getOrStartEvaluation(key, descriptor, ctx));
+		}
+
+		//
+		// Wait for them, but not longer than the deadline
+		final ImmutableList.Builder<WebuiRelatedProcessDescriptor> result = ImmutableList.builder();
+		for (int i = 0; i < descriptors.size(); i++)
+		{
+			final WebuiRelatedProcessDescriptor descriptor = descriptors.get(i);
+			final ProcessPreconditionsResolution resolution = getResolution(futures.get(i), deadlineNanos, descriptor);
+			result.add(descriptor.withPreconditionsResolution(resolution));
+		}
+
+		return result.build();
+	}
+
+	private CompletableFuture<ProcessPreconditionsResolution> getOrStartEvaluation(
+			@NonNull final PreconditionsKey key,
+			@NonNull final WebuiRelatedProcessDescriptor descriptor,
+			@NonNull final Properties ctx)
+	{
+		final CompletableFuture<ProcessPreconditionsResolution> newFuture = new CompletableFuture<>();
+		final CompletableFuture<ProcessPreconditionsResolution> existingFuture = evaluationsInProgress.putIfAbsent(key, newFuture);
+		if (existingFuture != null)
+		{
+			return existingFuture;
+		}
+
+		newFuture.whenComplete((resolution, exception) -> {
+			if (resolution != null)
+			{
+				resultsCache.put(key, resolution);
+			}
+			evaluationsInProgress.remove(key);
+		});
+
+		try
+		{
+			executor.execute(() -> {
+				try (final IAutoCloseable c = Env.switchContext(ctx))
+				{
+					newFuture.complete(descriptor.getPreconditionsResolution());
+				}
+				catch (final Throwable ex)
+				{
+					newFuture.completeExceptionally(ex);
+				}
+			});
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			logger.warn("Cannot evaluate preconditions of {} because the executor is busy", descriptor.getProcessId(), ex);
+			newFuture.completeExceptionally(ex);
+		}
+
+		return newFuture;
+	}
+
+	private static ProcessPreconditionsResolution getResolution(
+			@NonNull final CompletableFuture<ProcessPreconditionsResolution> future,
+			final long deadlineNanos,
+			@NonNull final WebuiRelatedProcessDescriptor descriptor)
+	{
+		try
+		{
+			final long remainingNanos = Math.max(deadlineNanos - System.nanoTime(), 0);
+			return future.get(remainingNanos, TimeUnit.NANOSECONDS);
+		}
+		catch (final TimeoutException ex)
+		{
+			logger.debug("Preconditions of {} were not evaluated in time. Considering them unknown.", descriptor.getProcessId());
+			return notYetEvaluated();
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			return notYetEvaluated();
+		}
+		catch (final ExecutionException ex)
+		{
+			final Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+			if (cause instanceof RejectedExecutionException)
+			{
+				return notYetEvaluated();
+			}
+
+			logger.warn("Failed evaluating preconditions of {}", descriptor, cause);
+			return ProcessPreconditionsResolution.rejectWithInternalReason(cause.getLocalizedMessage());
+		}
+	}
+
+	private static ProcessPreconditionsResolution notYetEvaluated()
+	{
+		return ProcessPreconditionsResolution.reject(Services.get(IMsgBL.class).getTranslatableMsgText(MSG_PreconditionsNotYetEvaluated));
+	}
+
+	@Value
+	@Builder
+	private static class PreconditionsContextKey
+	{
+		@NonNull
+		ViewId viewId;
+		long viewVersion;
+		@Nullable
+		ViewProfileId viewProfileId;
+		@NonNull
+		ViewRowIdsSelection viewRowIdsSelection;
+		@Nullable
+		ViewRowIdsSelection parentViewRowIdsSelection;
+		@Nullable
+		ViewRowIdsSelection childViewRowIdsSelection;
+		@Nullable
+		DisplayPlace displayPlace;
+
+		int adUserId;
+		int adRoleId;
+
+		static PreconditionsContextKey of(@NonNull final ViewAsPreconditionsContext context)
+		{
+			final ViewId viewId = context.getView().getViewId();
+			final Properties ctx = Env.getCtx();
+
+			return builder()
+					.viewId(viewId)
+					.viewVersion(ViewChangesVersions.instance.getVersion(viewId))
+					.viewProfileId(context.getViewProfileId())
+					.viewRowIdsSelection(context.getViewRowIdsSelection())
+					.parentViewRowIdsSelection(context.getParentViewRowIdsSelection())
+					.childViewRowIdsSelection(context.getChildViewRowIdsSelection())
+					.displayPlace(context.getDisplayPlace())
+					.adUserId(Env.getAD_User_ID(ctx))
+					.adRoleId(Env.getAD_Role_ID(ctx))
+					.build();
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	private static class PreconditionsKey
+	{
+		@NonNull
+		PreconditionsContextKey contextKey;
+		@NonNull
+		ProcessId processId;
+	}
+}
@@ -115,6 +115,30 @@ public final class WebuiRelatedProcessDescriptor
 
 	}
 
+	private WebuiRelatedProcessDescriptor(
+			@NonNull final WebuiRelatedProcessDescriptor from,
+			@NonNull final ProcessPreconditionsResolution preconditionsResolution)
+	{
+		this.processId = from.processId;
+		this.internalName = from.internalName;
+		this.processCaption = from.processCaption;
+		this.processDescription = from.processDescription;
+		this.displayPlaces = from.displayPlaces;
+		this.defaultQuickAction = from.defaultQuickAction;
+		this.shortcut = from.shortcut;
+		this.preconditionsResolutionSupplier = () -> new ValueAndDuration<>(preconditionsResolution, Duration.ZERO);
+		this.sortNo = from.sortNo;
+		this.debugProcessClassname = from.debugProcessClassname;
+	}
+
+	/**
+	 * @return copy of this descriptor, using given (already evaluated) preconditions resolution
+	 */
+	public WebuiRelatedProcessDescriptor withPreconditionsResolution(@NonNull final ProcessPreconditionsResolution preconditionsResolution)
+	{
+		return new WebuiRelatedProcessDescriptor(this, preconditionsResolution);
+	}
+
 	public String getCaption(final String adLanguage)
 	{
 		return getPreconditionsResolution().computeCaption(processCaption, adLanguage);
@@ -125,7 +149,7 @@ public final class WebuiRelatedProcessDescriptor
 		return processDescription.translate(adLanguage);
 	}
 
-	private ProcessPreconditionsResolution getPreconditionsResolution()
+	public ProcessPreconditionsResolution getPreconditionsResolution()
 	{
 		return preconditionsResolutionSupplier.get().getValue();
 	}
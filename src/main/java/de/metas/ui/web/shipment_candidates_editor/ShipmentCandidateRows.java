@@ -3,17 +3,22 @@ package de.metas.ui.web.shipment_candidates_editor;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
 import de.metas.inoutcandidate.api.ShipmentScheduleUserChangeRequest;
 import de.metas.inoutcandidate.api.ShipmentScheduleUserChangeRequestsList;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.shipment_candidates_editor.ShipmentCandidateRowUserChangeRequest.ShipmentCandidateRowUserChangeRequestBuilder;
 import de.metas.ui.web.view.IEditableView.RowEditingContext;
@@ -58,12 +63,15 @@ final class ShipmentCandidateRows implements IEditableRowsData<ShipmentCandidate
 
 	private final ImmutableList<DocumentId> rowIds; // used to preserve the order
 	private final ConcurrentHashMap<DocumentId, ShipmentCandidateRow> rowsById;
+	private final Function<Set<ShipmentScheduleId>, List<ShipmentCandidateRow>> rowsLoader;
 
 	@Builder
 	private ShipmentCandidateRows(
-			@NonNull final List<ShipmentCandidateRow> rows)
+			@NonNull final List<ShipmentCandidateRow> rows,
+			@NonNull final Function<Set<ShipmentScheduleId>, List<ShipmentCandidateRow>> rowsLoader)
 	{
 		Check.assumeNotEmpty(rows, "rows is not empty");
+		this.rowsLoader = rowsLoader;
 
 		rowIds = rows.stream()
 				.map(ShipmentCandidateRow::getId)
@@ -83,13 +91,43 @@ final class ShipmentCandidateRows implements IEditableRowsData<ShipmentCandidate
 	@Override
 	public DocumentIdsSelection getDocumentIdsToInvalidate(final TableRecordReferenceSet recordRefs)
 	{
-		return DocumentIdsSelection.EMPTY;
+		return recordRefs.streamIds(I_M_ShipmentSchedule.Table_Name, ShipmentScheduleId::ofRepoId)
+				.map(DocumentId::of)
+				.filter(rowsById::containsKey)
+				.collect(DocumentIdsSelection.toDocumentIdsSelection());
 	}
 
 	@Override
 	public void invalidateAll()
 	{
-		// nothing
+		reloadRows(rowsById.keySet());
+	}
+
+	/**
+	 * Reloads given rows, except the ones which were changed by user and not yet saved.
+	 * Rows which are no longer found are kept as they are.
+	 */
+	@Override
+	public void reloadRows(@NonNull final Set<DocumentId> rowIds)
+	{
+		final ImmutableSet<ShipmentScheduleId> shipmentScheduleIds = rowIds.stream()
+				.filter(rowsById::containsKey)
+				.map(rowId -> rowId.toId(ShipmentScheduleId::ofRepoId))
+				.collect(ImmutableSet.toImmutableSet());
+		if (shipmentScheduleIds.isEmpty())
+		{
+			return;
+		}
+
+		for (final ShipmentCandidateRow newRow : rowsLoader.apply(shipmentScheduleIds))
+		{
+			rowsById.computeIfPresent(newRow.getId(), (rowId, oldRow) -> isChangedByUser(oldRow) ? oldRow : newRow);
+		}
+	}
+
+	private static boolean isChangedByUser(@NonNull final ShipmentCandidateRow row)
+	{
+		return row.createShipmentScheduleUserChangeRequest().isPresent();
 	}
 
 	@Override
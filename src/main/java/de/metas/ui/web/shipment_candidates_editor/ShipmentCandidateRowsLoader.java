@@ -102,13 +102,13 @@ final class ShipmentCandidateRowsLoader
 
 	public static class ShipmentCandidateRowsLoaderBuilder
 	{
-		public ShipmentCandidateRows load()
+		public ImmutableList<ShipmentCandidateRow> load()
 		{
 			return build().load();
 		}
 	}
 
-	public ShipmentCandidateRows load()
+	public ImmutableList<ShipmentCandidateRow> load()
 	{
 		final Collection<I_M_ShipmentSchedule> records = shipmentScheduleBL
 				.getByIdsOutOfTrx(shipmentScheduleIds, I_M_ShipmentSchedule.class)
@@ -117,16 +117,12 @@ final class ShipmentCandidateRowsLoader
 		final ImmutableSet<OrderAndLineId> salesOrderAndLineIds = extractSalesOrderAndLineId(records);
 		this.salesOrderLines = ordersRepo.getOrderLinesByIds(salesOrderAndLineIds);
 
-		final ImmutableList<ShipmentCandidateRow> rows = records
+		return records
 				.stream()
 				.map(this::toShipmentCandidateRow)
 				.sorted(Comparator.comparing(ShipmentCandidateRow::getSalesOrderDisplayNameOrEmpty)
 						.thenComparing(ShipmentCandidateRow::getSalesOrderLineNo))
 				.collect(ImmutableList.toImmutableList());
-
-		return ShipmentCandidateRows.builder()
-				.rows(rows)
-				.build();
 	}
 
 	private static ImmutableSet<OrderAndLineId> extractSalesOrderAndLineId(@NonNull final Collection<I_M_ShipmentSchedule> records)
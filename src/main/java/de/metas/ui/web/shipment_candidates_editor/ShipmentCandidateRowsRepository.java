@@ -8,6 +8,8 @@ import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_Product;
 import org.compiere.model.I_M_Warehouse;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.inoutcandidate.api.IShipmentScheduleBL;
 import de.metas.inoutcandidate.api.IShipmentScheduleEffectiveBL;
 import de.metas.inoutcandidate.api.ShipmentScheduleId;
@@ -66,6 +68,14 @@ final class ShipmentCandidateRowsRepository
 	}
 
 	public ShipmentCandidateRows getByShipmentScheduleIds(@NonNull final Set<ShipmentScheduleId> shipmentScheduleIds)
+	{
+		return ShipmentCandidateRows.builder()
+				.rows(retrieveRowsByShipmentScheduleIds(shipmentScheduleIds))
+				.rowsLoader(this::retrieveRowsByShipmentScheduleIds)
+				.build();
+	}
+
+	private ImmutableList<ShipmentCandidateRow> retrieveRowsByShipmentScheduleIds(@NonNull final Set<ShipmentScheduleId> shipmentScheduleIds)
 	{
 		return ShipmentCandidateRowsLoader.builder()
 				.shipmentScheduleBL(shipmentScheduleBL)
@@ -13,6 +13,7 @@ import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvide
 import de.metas.ui.web.document.filter.provider.standard.FacetFilterViewCacheMap;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.view.event.ViewChangesCollector;
+import de.metas.ui.web.view.event.ViewChangesVersions;
 import de.metas.ui.web.view.json.JSONViewDataType;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -171,6 +172,7 @@ public final class DefaultView implements IEditableView
 					.stickyFilters(stickyFilters)
 					.filters(filters)
 					.viewEvaluationCtxSupplier(this::getViewEvaluationCtx)
+					.onDeferredSelectionsCreated(this::onDeferredSelectionsCreated)
 					.build();
 		}
 
@@ -279,12 +281,14 @@ public final class DefaultView implements IEditableView
 	public void invalidateAll()
 	{
 		cache_rowsById.reset();
+		ViewChangesVersions.instance.incrementVersion(getViewId());
 	}
 
 	@Override
 	public void invalidateRowById(final DocumentId rowId)
 	{
 		cache_rowsById.remove(rowId);
+		ViewChangesVersions.instance.incrementVersion(getViewId());
 	}
 
 	@Override
@@ -298,6 +302,18 @@ public final class DefaultView implements IEditableView
 				.collectFullyChanged(this);
 	}
 
+	private void onDeferredSelectionsCreated()
+	{
+		if (closed.get())
+		{
+			return;
+		}
+
+		// let the frontend know the exact size
+		ViewChangesCollector.getCurrentOrAutoflush()
+				.collectFullyChanged(this);
+	}
+
 	private void assertNotClosed()
 	{
 		if (closed.get())
@@ -316,9 +332,25 @@ public final class DefaultView implements IEditableView
 		checkChangedRows();
 
 		final ViewEvaluationCtx evalCtx = getViewEvaluationCtx();
-		final ViewRowIdsOrderedSelection orderedSelection = getOrderedSelection(orderBy.toDocumentQueryOrderByList());
+		final DocumentQueryOrderByList orderBys = orderBy.toDocumentQueryOrderByList();
 
-		final List<IViewRow> rows = viewDataRepository.retrievePage(evalCtx, orderedSelection, firstRow, pageLength);
+		final List<IViewRow> rows;
+		final DocumentQueryOrderByList rowsOrderBys;
+		final ViewFirstPageQuery firstPageProbeQuery = selectionsRef.getFirstPageProbeQueryOrNull(orderBys, firstRow, pageLength);
+		if (firstPageProbeQuery != null)
+		{
+			// Serve the first page right away and create the selection asynchronously
+			final List<IViewRow> probeRows = viewDataRepository.retrieveFirstPage(evalCtx, firstPageProbeQuery);
+			rows = probeRows.size() > pageLength ? probeRows.subList(0, pageLength) : probeRows;
+			rowsOrderBys = !orderBys.isEmpty() ? orderBys : viewDataRepository.getDefaultOrderBys();
+			selectionsRef.onFirstPageProbed(firstPageProbeQuery, probeRows.size());
+		}
+		else
+		{
+			final ViewRowIdsOrderedSelection orderedSelection = getOrderedSelection(orderBys);
+			rows = viewDataRepository.retrievePage(evalCtx, orderedSelection, firstRow, pageLength);
+			rowsOrderBys = orderedSelection.getOrderBys();
+		}
 
 		// Add to cache
 		rows.forEach(row -> cache_rowsById.put(row.getId(), row));
@@ -327,7 +359,7 @@ public final class DefaultView implements IEditableView
 				.view(this)
 				.firstRow(firstRow)
 				.pageLength(pageLength)
-				.orderBys(orderedSelection.getOrderBys())
+				.orderBys(rowsOrderBys)
 				.rows(rows)
 				.columnInfos(extractViewResultColumns(rows))
 				.build();
@@ -510,10 +542,27 @@ public final class DefaultView implements IEditableView
 		return viewDataRepository.retrieveModelsByIds(getViewId(), rowIds, modelClass);
 	}
 
+	@Override
+	public Set<String> getInvalidatingTableNamesOrNull()
+	{
+		return viewInvalidationAdvisor.getInvalidatingTableNamesOrNull(this);
+	}
+
 	@Override
 	public void notifyRecordsChanged(final TableRecordReferenceSet recordRefs)
 	{
-		final Set<DocumentId> rowIds = viewInvalidationAdvisor.findAffectedRowIds(recordRefs, this);
+		final Set<DocumentId> affectedRowIds = viewInvalidationAdvisor.findAffectedRowIds(recordRefs, this);
+		if (affectedRowIds.isEmpty())
+		{
+			return;
+		}
+
+		// The field values of our rows might have been changed, including the rows which are filtered out by facets
+		selectionsRef.invalidateFieldValueCounts();
+
+		// Consider only the rows which might be contained in this view.
+		// NOTE: rows are never added to the view on change events (see checkChangedRows), so the other rows are not relevant.
+		final Set<DocumentId> rowIds = selectionsRef.retainRowIdsMaybeContainedInDefaultSelection(affectedRowIds);
 		if (rowIds.isEmpty())
 		{
 			return;
@@ -530,7 +579,6 @@ public final class DefaultView implements IEditableView
 		cache_rowsById.removeAll(rowIds);
 
 		// Collect event
-		// TODO: check which rowIds are contained in this view and fire events only for those
 		ViewChangesCollector.getCurrentOrAutoflush().collectRowsChanged(this, rowIds);
 	}
 
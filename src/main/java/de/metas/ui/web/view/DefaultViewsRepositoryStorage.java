@@ -7,6 +7,7 @@ import de.metas.logging.LogManager;
 import de.metas.ui.web.view.event.ViewChangesCollector;
 import de.metas.ui.web.window.datatypes.WindowId;
 import lombok.NonNull;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
@@ -41,6 +42,7 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	private static transient final Logger logger = LogManager.getLogger(DefaultViewsRepositoryStorage.class);
 
 	private final Cache<ViewId, IView> views;
+	private final ViewsByTableNameIndex viewsByTableName = new ViewsByTableNameIndex();
 
 	public DefaultViewsRepositoryStorage(final long viewExpirationTimeoutInMinutes)
 	{
@@ -60,6 +62,7 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	public void put(@NonNull final IView view)
 	{
 		views.put(view.getViewId(), view);
+		viewsByTableName.add(view);
 	}
 
 	@Nullable
@@ -96,6 +99,7 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	{
 		final IView view = (IView)notification.getValue();
 		logger.debug("View <" + view.getViewId() + "> removed from cache. Cause: " + notification.getCause());
+		viewsByTableName.remove(view);
 		view.afterDestroy();
 	}
 
@@ -120,4 +124,10 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 		return views.asMap().values().stream();
 	}
 
+	@Override
+	public Stream<IView> streamViewsAffectedBy(@NonNull final TableRecordReferenceSet recordRefs)
+	{
+		return viewsByTableName.getViewsAffectedBy(recordRefs).stream();
+	}
+
 }
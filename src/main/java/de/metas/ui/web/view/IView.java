@@ -18,6 +18,7 @@ import de.metas.process.RelatedProcessDescriptor;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.process.view.ViewActionDescriptorsList;
+import de.metas.ui.web.view.event.ViewChangesVersions;
 import de.metas.ui.web.view.json.JSONViewDataType;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -53,6 +54,14 @@ public interface IView
 {
 	ViewId getViewId();
 
+	/**
+	 * @return view's version, which is changed each time view changes were notified or the view was invalidated
+	 */
+	default long getVersion()
+	{
+		return ViewChangesVersions.instance.getVersion(getViewId());
+	}
+
 	JSONViewDataType getViewType();
 
 	default ViewProfileId getProfileId()
@@ -206,6 +215,17 @@ public interface IView
 	 */
 	void notifyRecordsChanged(TableRecordReferenceSet recordRefs);
 
+	/**
+	 * @return names of the tables whose record changes might affect this view
+	 *         or <code>null</code> if not known, in which case the view is notified about all record changes.
+	 * @see #notifyRecordsChanged(TableRecordReferenceSet)
+	 */
+	@Nullable
+	default Set<String> getInvalidatingTableNamesOrNull()
+	{
+		return null;
+	}
+
 	/** @return actions which were registered particularly for this view instance */
 	default ViewActionDescriptorsList getActions()
 	{
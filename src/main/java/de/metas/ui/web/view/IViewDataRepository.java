@@ -1,11 +1,14 @@
 package de.metas.ui.web.view;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.adempiere.exceptions.DBException;
 
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvider;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
@@ -60,6 +63,23 @@ public interface IViewDataRepository
 
 	List<DocumentId> retrieveRowIdsByPage(ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection orderedSelection, int firstRow, int pageLength);
 
+	DocumentQueryOrderByList getDefaultOrderBys();
+
+	/**
+	 * @return true if the first page ordered by given orderBys can be served before the selection is created, i.e. the selection can be created asynchronously
+	 */
+	boolean isDeferredSelectionSupported(DocumentQueryOrderByList orderBys);
+
+	/**
+	 * Retrieves the first page directly from the source table, without using the materialized selection.
+	 */
+	List<IViewRow> retrieveFirstPage(ViewEvaluationCtx viewEvalCtx, ViewFirstPageQuery query) throws DBException;
+
+	/**
+	 * @return the estimated number of rows matching given filters, as estimated by database, or <code>-1</code> if not known
+	 */
+	long estimateRowsCount(ViewEvaluationCtx viewEvalCtx, DocumentFilterList filters, boolean applySecurityRestrictions);
+
 	<T> List<T> retrieveModelsByIds(ViewId viewId, DocumentIdsSelection rowIds, Class<T> modelClass);
 
 	ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(
@@ -77,5 +97,18 @@ public interface IViewDataRepository
 
 	ViewRowIdsOrderedSelection removeRowIdsNotMatchingFilters(ViewRowIdsOrderedSelection selection, DocumentFilterList filters, Set<DocumentId> rowIds);
 
-	List<Object> retrieveFieldValues(ViewEvaluationCtx viewEvalCtx, String selectionId, String fieldName, int limit);
+	Set<DocumentId> retainRowIdsMaybeContainedInSelection(ViewRowIdsOrderedSelection selection, Set<DocumentId> rowIds);
+
+	/**
+	 * Counts the rows of given selection for each distinct value of given fields.
+	 * The result is cached and shared by all views which have the same selection.
+	 *
+	 * @param limitsByFieldName field names and the maximum number of values to retrieve for each of them (most frequent first)
+	 */
+	ViewFieldValueCounts retrieveFieldValueCounts(ViewEvaluationCtx viewEvalCtx, String selectionId, ImmutableMap<String, Integer> limitsByFieldName);
+
+	/**
+	 * Forgets the cached field value counts of given selections, e.g. because some of their rows were changed.
+	 */
+	void invalidateFieldValueCounts(Collection<String> selectionIds);
 }
@@ -2,6 +2,8 @@ package de.metas.ui.web.view;
 
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.springframework.stereotype.Component;
@@ -44,4 +46,13 @@ public interface IViewInvalidationAdvisor
 	WindowId getWindowId();
 
 	Set<DocumentId> findAffectedRowIds(final TableRecordReferenceSet recordRefs, IView view);
+
+	/**
+	 * @return names of the tables whose record changes might be considered by {@link #findAffectedRowIds(TableRecordReferenceSet, IView)} or <code>null</code> if not known.
+	 */
+	@Nullable
+	default Set<String> getInvalidatingTableNamesOrNull(final IView view)
+	{
+		return null;
+	}
 }
@@ -1,8 +1,11 @@
 package de.metas.ui.web.view;
 
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 
 import javax.annotation.Nullable;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /*
@@ -64,6 +67,19 @@ public interface IViewsIndexStorage
 
 	Stream<IView> streamAllViews();
 
+	/**
+	 * @return the views which might be affected by given record changes
+	 * @see IView#getInvalidatingTableNamesOrNull()
+	 */
+	default Stream<IView> streamViewsAffectedBy(@NonNull final TableRecordReferenceSet recordRefs)
+	{
+		return streamAllViews()
+				.filter(view -> {
+					final Set<String> tableNames = view.getInvalidatingTableNamesOrNull();
+					return tableNames == null || tableNames.stream().anyMatch(recordRefs::matchesTableName);
+				});
+	}
+
 	void invalidateView(ViewId viewId);
 
 }
@@ -0,0 +1,111 @@
+package de.metas.ui.web.view;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Bloom filters of the integer row IDs of database selections.
+ * <p>
+ * Used to quickly find out which of the changed rows are for sure not contained in a selection, without querying the database each time.
+ * A filter is loaded on demand and it shall be invalidated each time rows are added to its selection.
+ * Removed rows do not require invalidation, because they would only produce false positives.
+ */
+final class SelectionRowIdsBloomFilters
+{
+	private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+	private static final int MIN_EXPECTED_INSERTIONS = 1000;
+
+	private final Cache<String, BloomFilter<Integer>> filtersBySelectionId;
+
+	/** Incremented on each invalidation, so filters which were loaded while their selection was changed are not cached */
+	private long version = 0;
+
+	SelectionRowIdsBloomFilters(final int maxSize, @NonNull final Duration expireAfterAccess)
+	{
+		filtersBySelectionId = CacheBuilder.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterAccess(expireAfterAccess.toMillis(), TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	/**
+	 * @param rowIdsLoader feeds all row IDs of the selection to the given consumer
+	 * @return the filter or <code>null</code> if the selection was changed while it was loaded
+	 */
+	@Nullable
+	public BloomFilter<Integer> getOrLoad(
+			@NonNull final String selectionId,
+			final long expectedSize,
+			@NonNull final Consumer<IntConsumer> rowIdsLoader)
+	{
+		final BloomFilter<Integer> existingFilter = filtersBySelectionId.getIfPresent(selectionId);
+		if (existingFilter != null)
+		{
+			return existingFilter;
+		}
+
+		final long versionBeforeLoad = getVersion();
+
+		final int expectedInsertions = (int)Math.max(expectedSize, MIN_EXPECTED_INSERTIONS);
+		final BloomFilter<Integer> filter = BloomFilter.create(Funnels.integerFunnel(), expectedInsertions, FALSE_POSITIVE_PROBABILITY);
+		rowIdsLoader.accept(filter::put);
+
+		synchronized (this)
+		{
+			if (version != versionBeforeLoad)
+			{
+				return null;
+			}
+
+			filtersBySelectionId.put(selectionId, filter);
+		}
+
+		return filter;
+	}
+
+	private synchronized long getVersion()
+	{
+		return version;
+	}
+
+	public synchronized void invalidate(@NonNull final Set<String> selectionIds)
+	{
+		version++;
+		filtersBySelectionId.invalidateAll(selectionIds);
+	}
+}
@@ -1,14 +1,20 @@
 package de.metas.ui.web.view;
 
+import java.io.IOException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
@@ -16,15 +22,22 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.model.PlainContextAware;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 import org.slf4j.Logger;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
+import de.metas.JsonObjectMapperHolder;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
 import de.metas.logging.LogManager;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvider;
@@ -40,6 +53,7 @@ import de.metas.ui.web.view.descriptor.SqlViewKeyColumnNamesMap;
 import de.metas.ui.web.view.descriptor.SqlViewRowFieldBinding;
 import de.metas.ui.web.view.descriptor.SqlViewRowFieldBinding.SqlViewRowFieldLoader;
 import de.metas.ui.web.view.descriptor.SqlViewSelectData;
+import de.metas.ui.web.view.descriptor.SqlViewSelectionQueryBuilder;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.LookupValue;
@@ -48,11 +62,13 @@ import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
 import de.metas.ui.web.window.datatypes.json.JSONNullValue;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
 import de.metas.ui.web.window.model.DocumentQueryOrderByList;
 import de.metas.ui.web.window.model.sql.SqlOptions;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -80,6 +96,9 @@ class SqlViewDataRepository implements IViewDataRepository
 {
 	private static final Logger logger = LogManager.getLogger(SqlViewDataRepository.class);
 
+	private static final String SYSCONFIG_DeferredSelectionEnabled = "de.metas.ui.web.view.DeferredSelectionEnabled";
+
+	private final SqlViewBinding sqlBindings;
 	private final String tableName;
 	private final String tableAlias;
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
@@ -95,15 +114,30 @@ class SqlViewDataRepository implements IViewDataRepository
 
 	private final SqlDocumentFilterConverter filterConverters;
 
-	SqlViewDataRepository(@NonNull final SqlViewBinding sqlBindings)
+	/**
+	 * Field value counts by selection ID.
+	 * Shared by all views, because it's the selection (and not the view) which defines the field values.
+	 * Evicted each time the selection is (re)created, deleted or its rows are changed, see {@link #invalidateFieldValueCounts(Collection)}.
+	 */
+	private static final CCache<String, ConcurrentHashMap<FieldValueCountsKey, ViewFieldValueCounts>> fieldValueCountsCache = CCache.<String, ConcurrentHashMap<FieldValueCountsKey, ViewFieldValueCounts>> builder()
+			.cacheName(SqlViewDataRepository.class.getSimpleName() + "#FieldValueCounts")
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(500)
+			.expireMinutes(60)
+			.build();
+
+	SqlViewDataRepository(
+			@NonNull final SqlViewBinding sqlBindings,
+			@Nullable final SqlViewSelectionsCache selectionsCache)
 	{
+		this.sqlBindings = sqlBindings;
 		tableName = sqlBindings.getTableName();
 		tableAlias = sqlBindings.getTableAlias();
 		keyColumnNamesMap = sqlBindings.getSqlViewKeyColumnNamesMap();
 		widgetTypesByFieldName = sqlBindings.getWidgetTypesByFieldName();
 		sqlViewSelect = sqlBindings.getSqlViewSelect();
 		viewFilterDescriptors = sqlBindings.getViewFilterDescriptors();
-		viewRowIdsOrderedSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
+		viewRowIdsOrderedSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings, selectionsCache, true);
 		defaultOrderBys = sqlBindings.getDefaultOrderBys();
 
 		this.hasIncludedRows = sqlBindings.hasGroupingFields();
@@ -188,6 +222,9 @@ class SqlViewDataRepository implements IViewDataRepository
 			final boolean applySecurityRestrictions,
 			final SqlDocumentFilterConverterContext context)
 	{
+		// the selection might be recreated with the same ID, e.g. after the view was invalidated
+		invalidateFieldValueCounts(ImmutableSet.of(viewId.getViewId()));
+
 		return viewRowIdsOrderedSelectionFactory.createOrderedSelection(viewEvalCtx,
 				viewId,
 				filters,
@@ -204,29 +241,49 @@ class SqlViewDataRepository implements IViewDataRepository
 			final DocumentQueryOrderByList orderBys,
 			final SqlDocumentFilterConverterContext filterConverterCtx)
 	{
-		return viewRowIdsOrderedSelectionFactory.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, filters, orderBys, filterConverterCtx);
+		final ViewRowIdsOrderedSelection selection = viewRowIdsOrderedSelectionFactory.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, filters, orderBys, filterConverterCtx);
+		invalidateFieldValueCounts(ImmutableSet.of(selection.getSelectionId()));
+		return selection;
 	}
 
 	@Override
 	public void deleteSelection(@NonNull final String selectionId)
 	{
+		invalidateFieldValueCounts(ImmutableSet.of(selectionId));
 		viewRowIdsOrderedSelectionFactory.deleteSelection(selectionId);
 	}
 
 	@Override
 	public void scheduleDeleteSelections(final Set<String> viewIds)
 	{
+		invalidateFieldValueCounts(viewIds);
 		viewRowIdsOrderedSelectionFactory.scheduleDeleteSelections(viewIds);
 	}
 
 	@Override
 	public IViewRow retrieveById(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
 	{
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectById()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.rowId(rowId)
-				.build();
+		final SqlAndParams sqlAndParams;
+		final ViewRowIdsOrderedSelection inMemorySelection = viewRowIdsOrderedSelectionFactory.getInMemorySelectionOrNull(viewId.getViewId());
+		if (inMemorySelection != null)
+		{
+			if (inMemorySelection.retainRowIdsInMemory(ImmutableSet.of(rowId)).isEmpty())
+			{
+				throw new EntityNotFoundException("No document found for rowId=" + rowId + " in viewId=" + viewId);
+			}
+
+			final SqlAndParams sqlSelectionLines = SqlViewSelectionQueryBuilder.newInstance(sqlBindings)
+					.buildSqlSelectSelectionLinesFromRowIds(viewId, new int[] { rowId.toInt() }, 1);
+			sqlAndParams = sqlViewSelect.selectBySelectionLines(viewEvalCtx, sqlSelectionLines);
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectById()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.rowId(rowId)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -494,6 +551,20 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
+		final ViewRowIdsOrderedSelection inMemorySelection = viewRowIdsOrderedSelectionFactory.getInMemorySelectionOrNull(viewId.getViewId());
+		if (inMemorySelection != null)
+		{
+			final int[] rowIds = inMemorySelection.getRowIdsInMemory(firstRow, pageLength);
+			if (rowIds.length == 0)
+			{
+				return ImmutableList.of();
+			}
+
+			final SqlAndParams sqlSelectionLines = SqlViewSelectionQueryBuilder.newInstance(sqlBindings)
+					.buildSqlSelectSelectionLinesFromRowIds(viewId, rowIds, firstRow + 1);
+			return retrieveRowsBySelectionLines(viewEvalCtx, viewId, sqlSelectionLines, pageLength);
+		}
+
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
@@ -534,6 +605,14 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
+		final ViewRowIdsOrderedSelection inMemorySelection = viewRowIdsOrderedSelectionFactory.getInMemorySelectionOrNull(viewId.getViewId());
+		if (inMemorySelection != null)
+		{
+			return Arrays.stream(inMemorySelection.getRowIdsInMemory(firstRow, pageLength))
+					.mapToObj(DocumentId::of)
+					.collect(ImmutableList.toImmutableList());
+		}
+
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
@@ -610,6 +689,158 @@ class SqlViewDataRepository implements IViewDataRepository
 		}
 	}
 
+	@Override
+	public DocumentQueryOrderByList getDefaultOrderBys()
+	{
+		return defaultOrderBys;
+	}
+
+	@Override
+	public boolean isDeferredSelectionSupported(@NonNull final DocumentQueryOrderByList orderBys)
+	{
+		if (hasIncludedRows)
+		{
+			return false;
+		}
+
+		if (!Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_DeferredSelectionEnabled, false))
+		{
+			return false;
+		}
+
+		// the first page is fetched directly from the source table, ordered by key columns
+		return isOrderingByKeyColumns(orderBys.isEmpty() ? defaultOrderBys : orderBys);
+	}
+
+	@Override
+	public long estimateRowsCount(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final DocumentFilterList filters,
+			final boolean applySecurityRestrictions)
+	{
+		final SqlAndParams sqlSelect = SqlViewSelectionQueryBuilder.newInstance(sqlBindings)
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.buildSqlSelectKeysFromSourceTable(viewEvalCtx, filters);
+		final String sqlExplain = "EXPLAIN (FORMAT JSON) " + sqlSelect.getSql();
+
+		try
+		{
+			final String explainJson = DB.getSQLValueStringEx(ITrx.TRXNAME_ThreadInherited, sqlExplain, sqlSelect.getSqlParamsArray());
+			return extractEstimatedRowsCount(explainJson);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed estimating rows count using {}. Returning -1.", sqlExplain, ex);
+			return -1;
+		}
+	}
+
+	/**
+	 * @param explainJson output of <code>EXPLAIN (FORMAT JSON)</code>, e.g. <code>[{"Plan": {"Node Type": "Seq Scan", "Plan Rows": 7890, ...}}]</code>
+	 * @return estimated rows count of the top plan node or -1 if not available
+	 */
+	@VisibleForTesting
+	static long extractEstimatedRowsCount(@Nullable final String explainJson) throws IOException
+	{
+		if (Check.isEmpty(explainJson, true))
+		{
+			return -1;
+		}
+
+		final JsonNode planRows = JsonObjectMapperHolder.sharedJsonObjectMapper()
+				.readTree(explainJson)
+				.path(0)
+				.path("Plan")
+				.path("Plan Rows");
+		return planRows.isNumber() ? planRows.asLong() : -1;
+	}
+
+	/**
+	 * @return true if ordering only by the key columns (which are indexed), in key columns order and same direction
+	 */
+	private boolean isOrderingByKeyColumns(@NonNull final DocumentQueryOrderByList orderBys)
+	{
+		if (orderBys.isEmpty())
+		{
+			return true; // ordered by key columns
+		}
+
+		final List<DocumentQueryOrderBy> orderBysList = orderBys.toList();
+		final List<String> keyColumnNames = keyColumnNamesMap.getKeyColumnNames();
+		if (orderBysList.size() != keyColumnNames.size())
+		{
+			return false;
+		}
+
+		final boolean ascending = orderBysList.get(0).isAscending();
+		for (int i = 0; i < orderBysList.size(); i++)
+		{
+			final DocumentQueryOrderBy orderBy = orderBysList.get(i);
+			if (!keyColumnNames.get(i).equals(orderBy.getFieldName())
+					|| orderBy.isAscending() != ascending)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public List<IViewRow> retrieveFirstPage(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewFirstPageQuery query) throws DBException
+	{
+		logger.debug("Getting first page: {} - {}", query, this);
+
+		final DocumentQueryOrderByList orderBys = query.getOrderBys().isEmpty() ? defaultOrderBys : query.getOrderBys();
+		Check.assume(isOrderingByKeyColumns(orderBys), "Ordering by key columns only: {}", orderBys);
+		final boolean ascending = orderBys.isEmpty() || orderBys.toList().get(0).isAscending();
+
+		final SqlAndParams sqlSelectFirstPage = SqlViewSelectionQueryBuilder.newInstance(sqlBindings)
+				.applySecurityRestrictions(query.isApplySecurityRestrictions())
+				.buildSqlSelectFirstPage(
+						viewEvalCtx,
+						query.getViewId(),
+						query.getFilters(),
+						ascending,
+						query.getPageLength());
+		return retrieveRowsBySelectionLines(viewEvalCtx, query.getViewId(), sqlSelectFirstPage, query.getPageLength());
+	}
+
+	/**
+	 * Retrieves the rows of given selection lines, which are not stored in {@link de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection}.
+	 */
+	private List<IViewRow> retrieveRowsBySelectionLines(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			@NonNull final SqlAndParams sqlSelectionLines,
+			final int pageLength)
+	{
+		final SqlAndParams sqlAndParams = sqlViewSelect.selectBySelectionLines(viewEvalCtx, sqlSelectionLines);
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sqlAndParams.getSql(), ITrx.TRXNAME_ThreadInherited);
+			pstmt.setMaxRows(pageLength);
+			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+
+			rs = pstmt.executeQuery();
+			return loadViewRows(rs, viewEvalCtx, viewId, pageLength);
+		}
+		catch (final SQLException | DBException e)
+		{
+			throw DBException.wrapIfNeeded(e)
+					.setSqlIfAbsent(sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
 	@Override
 	public <T> List<T> retrieveModelsByIds(final ViewId viewId, final DocumentIdsSelection rowIds, final Class<T> modelClass)
 	{
@@ -631,6 +862,14 @@ class SqlViewDataRepository implements IViewDataRepository
 				.list(modelClass);
 	}
 
+	@Override
+	public Set<DocumentId> retainRowIdsMaybeContainedInSelection(
+			@NonNull final ViewRowIdsOrderedSelection selection,
+			@NonNull final Set<DocumentId> rowIds)
+	{
+		return viewRowIdsOrderedSelectionFactory.retainRowIdsMaybeContainedInSelection(selection, rowIds);
+	}
+
 	@Override
 	public ViewRowIdsOrderedSelection removeRowIdsNotMatchingFilters(
 			@NonNull final ViewRowIdsOrderedSelection selection,
@@ -650,6 +889,7 @@ class SqlViewDataRepository implements IViewDataRepository
 			return selection;
 		}
 
+		invalidateFieldValueCounts(ImmutableSet.of(selection.getSelectionId()));
 		return viewRowIdsOrderedSelectionFactory.removeRowIdsFromSelection(selection, DocumentIdsSelection.of(notMatchingRowIds));
 	}
 
@@ -703,19 +943,66 @@ class SqlViewDataRepository implements IViewDataRepository
 	}
 
 	@Override
-	public List<Object> retrieveFieldValues(
+	public ViewFieldValueCounts retrieveFieldValueCounts(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final String selectionId,
+			@NonNull final ImmutableMap<String, Integer> limitsByFieldName)
+	{
+		final FieldValueCountsKey key = FieldValueCountsKey.of(viewEvalCtx.getAdLanguage(), limitsByFieldName);
+
+		final ConcurrentHashMap<FieldValueCountsKey, ViewFieldValueCounts> fieldValueCountsByKey = fieldValueCountsCache.getOrLoad(selectionId, () -> new ConcurrentHashMap<>());
+		final ViewFieldValueCounts fieldValueCountsCached = fieldValueCountsByKey.get(key);
+		if (fieldValueCountsCached != null)
+		{
+			return fieldValueCountsCached;
+		}
+
+		// NOTE: loading outside of the map, so we don't block other keys while running the query.
+		// If the selection is invalidated while loading, the counts are put into the evicted map, so they are not cached.
+		final ViewFieldValueCounts fieldValueCounts = retrieveFieldValueCounts0(viewEvalCtx, selectionId, limitsByFieldName);
+		final ViewFieldValueCounts fieldValueCountsLoadedMeanwhile = fieldValueCountsByKey.putIfAbsent(key, fieldValueCounts);
+		return fieldValueCountsLoadedMeanwhile != null ? fieldValueCountsLoadedMeanwhile : fieldValueCounts;
+	}
+
+	@Override
+	public void invalidateFieldValueCounts(@NonNull final Collection<String> selectionIds)
+	{
+		fieldValueCountsCache.removeAll(selectionIds);
+	}
+
+	private ViewFieldValueCounts retrieveFieldValueCounts0(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final String selectionId,
-			@NonNull final String fieldName,
-			final int limit)
+			@NonNull final ImmutableMap<String, Integer> limitsByFieldName)
 	{
-		final SqlViewRowFieldLoader fieldLoader = rowFieldLoaders.get(fieldName);
-		final SqlAndParams sql = sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit);
+		// the field values are aggregated using SQL, so we need the selection in database
+		viewRowIdsOrderedSelectionFactory.saveInMemorySelection(selectionId);
+
+		final ImmutableList<String> fieldNames = limitsByFieldName.keySet().asList();
+		final int maxLimit = limitsByFieldName.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+		final SqlAndParams sql = sqlViewSelect.selectFieldValueCounts(viewEvalCtx, selectionId, fieldNames, maxLimit);
 
 		final String adLanguage = viewEvalCtx.getAdLanguage();
-		return DB.retrieveRows(
+		final List<ViewFieldValueCounts.ValueCount> valueCounts = DB.retrieveRows(
 				sql.getSql(),
 				sql.getSqlParams(),
-				rs -> fieldLoader.retrieveValue(rs, adLanguage));
+				rs -> {
+					final int fieldIndex = SqlViewSelectData.extractFieldIndexFromGroupingMask(rs.getInt(SqlViewSelectData.COLUMNNAME_FieldValueCount_Grouping), fieldNames.size());
+					final String fieldName = fieldNames.get(fieldIndex);
+					final Object value = rowFieldLoaders.get(fieldName).retrieveValue(rs, adLanguage);
+					final int count = rs.getInt(SqlViewSelectData.COLUMNNAME_FieldValueCount_Count);
+					return ViewFieldValueCounts.ValueCount.of(fieldName, value, count);
+				});
+
+		return ViewFieldValueCounts.ofList(valueCounts, limitsByFieldName);
+	}
+
+	@Value(staticConstructor = "of")
+	private static class FieldValueCountsKey
+	{
+		@NonNull
+		String adLanguage;
+		@NonNull
+		ImmutableMap<String, Integer> limitsByFieldName;
 	}
 }
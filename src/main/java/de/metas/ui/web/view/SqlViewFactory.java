@@ -76,6 +76,7 @@ public class SqlViewFactory implements IViewFactory
 	private final DocumentReferencesService documentReferencesService;
 	private final ViewLayoutFactory viewLayouts;
 	private final CompositeDefaultViewProfileIdProvider defaultProfileIdProvider;
+	private final SqlViewSelectionsCache selectionsCache;
 
 	public SqlViewFactory(
 			@NonNull final DocumentDescriptorFactory documentDescriptorFactory,
@@ -84,9 +85,11 @@ public class SqlViewFactory implements IViewFactory
 			@NonNull final List<DefaultViewProfileIdProvider> defaultViewProfileIdProviders,
 			@NonNull final List<SqlDocumentFilterConverterDecorator> converterDecorators,
 			@NonNull final List<IViewInvalidationAdvisor> viewInvalidationAdvisors,
-			@NonNull final GeoLocationDocumentService geoLocationDocumentService)
+			@NonNull final GeoLocationDocumentService geoLocationDocumentService,
+			@NonNull final SqlViewSelectionsCache selectionsCache)
 	{
 		this.documentReferencesService = documentReferencesService;
+		this.selectionsCache = selectionsCache;
 
 		final SqlViewCustomizerMap viewCustomizers = SqlViewCustomizerMap.ofCollection(viewCustomizersList);
 		logger.info("View customizers: {}", viewCustomizers);
@@ -147,7 +150,7 @@ public class SqlViewFactory implements IViewFactory
 		final JSONViewDataType viewType = request.getViewType();
 		final ViewProfileId profileId = !ViewProfileId.isNull(request.getProfileId()) ? request.getProfileId() : defaultProfileIdProvider.getDefaultProfileIdByWindowId(windowId);
 		final SqlViewBinding sqlViewBinding = viewLayouts.getViewBinding(windowId, viewType.getRequiredFieldCharacteristic(), profileId);
-		final IViewDataRepository viewDataRepository = new SqlViewDataRepository(sqlViewBinding);
+		final IViewDataRepository viewDataRepository = new SqlViewDataRepository(sqlViewBinding, selectionsCache);
 
 		final DefaultView.Builder viewBuilder = DefaultView.builder(viewDataRepository)
 				.setViewId(request.getViewId())
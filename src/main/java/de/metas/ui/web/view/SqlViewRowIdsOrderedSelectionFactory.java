@@ -3,16 +3,31 @@ package de.metas.ui.web.view;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.expression.api.IStringExpression;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.BloomFilter;
 
 import de.metas.logging.LogManager;
 import de.metas.security.IUserRolePermissions;
@@ -21,6 +36,8 @@ import de.metas.security.UserRolePermissionsKey;
 import de.metas.security.permissions.WindowMaxQueryRecordsConstraint;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.SqlViewSelectionsCache.SelectionKey;
+import de.metas.ui.web.view.SqlViewSelectionsCache.SharedSelection;
 import de.metas.ui.web.view.descriptor.SqlAndParams;
 import de.metas.ui.web.view.descriptor.SqlViewBinding;
 import de.metas.ui.web.view.descriptor.SqlViewKeyColumnNamesMap;
@@ -59,17 +76,58 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 {
 	public static final SqlViewRowIdsOrderedSelectionFactory of(final SqlViewBinding viewBinding)
 	{
-		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding);
+		final SqlViewSelectionsCache selectionsCache = null; // don't share selections
+		final boolean allowInMemorySelections = false;
+		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding, selectionsCache, allowInMemorySelections);
+	}
+
+	public static final SqlViewRowIdsOrderedSelectionFactory of(
+			final SqlViewBinding viewBinding,
+			final SqlViewSelectionsCache selectionsCache,
+			final boolean allowInMemorySelections)
+	{
+		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding, selectionsCache, allowInMemorySelections);
 	}
 
+	/**
+	 * Selections having at most this amount of rows are kept in memory instead of {@link de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection}.
+	 * Zero or less means that selections are always saved in database.
+	 */
+	private static final String SYSCONFIG_InMemorySelectionMaxSize = "de.metas.ui.web.view.InMemorySelectionMaxSize";
+	private static final int DEFAULT_InMemorySelectionMaxSize = 0;
+
+	private static final int SAVE_IN_MEMORY_SELECTION_CHUNK_SIZE = 1000;
+
 	private static final Logger logger = LogManager.getLogger(SqlViewRowIdsOrderedSelectionFactory.class);
 	private final IUserRolePermissionsDAO userRolePermissionsRepo = Services.get(IUserRolePermissionsDAO.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 
 	private final SqlViewBinding viewBinding;
-
-	private SqlViewRowIdsOrderedSelectionFactory(@NonNull final SqlViewBinding viewBinding)
+	private final SqlViewSelectionsCache selectionsCache;
+	private final boolean allowInMemorySelections;
+
+	/**
+	 * Selections which are not saved in database. The selections are removed from here when they are saved.
+	 * <p>
+	 * This is the only place where the in memory row IDs are kept: the selections we hand out don't carry them,
+	 * and all changes are done atomically per selectionId (i.e. using {@link ConcurrentHashMap#computeIfPresent(Object, java.util.function.BiFunction)}).
+	 */
+	private final ConcurrentHashMap<String, ViewRowIdsOrderedSelection> inMemorySelectionsById = new ConcurrentHashMap<>();
+
+	private final SelectionRowIdsBloomFilters rowIdsBloomFilters = new SelectionRowIdsBloomFilters(200, Duration.ofHours(1));
+
+	@VisibleForTesting
+	SqlViewRowIdsOrderedSelectionFactory(
+			@NonNull final SqlViewBinding viewBinding,
+			@Nullable final SqlViewSelectionsCache selectionsCache,
+			final boolean allowInMemorySelections)
 	{
 		this.viewBinding = viewBinding;
+		this.selectionsCache = selectionsCache;
+		this.allowInMemorySelections = allowInMemorySelections
+				&& !viewBinding.hasGroupingFields()
+				&& viewBinding.getSqlViewKeyColumnNamesMap().isSingleIntKey();
 	}
 
 	private SqlViewSelectionQueryBuilder newSqlViewSelectionQueryBuilder()
@@ -80,9 +138,108 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	@Override
 	public String getSqlWhereClause(final ViewId viewId, final DocumentIdsSelection rowIds)
 	{
+		final ViewRowIdsOrderedSelection inMemorySelection = getInMemorySelectionOrNull(viewId.getViewId());
+		if (inMemorySelection != null && !rowIds.isEmpty())
+		{
+			final int[] rowIdsInMemory = rowIds.isAll()
+					? inMemorySelection.getRowIdsInMemory(0, -1)
+					: inMemorySelection.retainRowIdsInMemory(rowIds.toSet()).stream().mapToInt(DocumentId::toInt).toArray();
+			return newSqlViewSelectionQueryBuilder().buildSqlWhereClauseFromRowIds(rowIdsInMemory);
+		}
+
 		return newSqlViewSelectionQueryBuilder().buildSqlWhereClause(viewId.getViewId(), rowIds);
 	}
 
+	@Override
+	@Nullable
+	public ViewRowIdsOrderedSelection getInMemorySelectionOrNull(@NonNull final String selectionId)
+	{
+		return inMemorySelectionsById.get(selectionId);
+	}
+
+	@Override
+	public void saveInMemorySelection(@NonNull final String selectionId)
+	{
+		// NOTE: the selection is removed only after it was saved, so concurrent readers will not find it missing,
+		// while concurrent changes of the same selection wait until it's saved
+		inMemorySelectionsById.computeIfPresent(selectionId, (id, inMemorySelection) -> {
+			insertInMemorySelection(inMemorySelection);
+			return null;
+		});
+	}
+
+	/**
+	 * Inserts the in memory row IDs into {@link de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection}.
+	 * <p>
+	 * NOTE: in memory selections are small, so it's fine to do this while holding their map entry.
+	 */
+	private void insertInMemorySelection(@NonNull final ViewRowIdsOrderedSelection inMemorySelection)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int[] rowIds = inMemorySelection.getRowIdsInMemory(0, -1);
+		for (int from = 0; from < rowIds.length; from += SAVE_IN_MEMORY_SELECTION_CHUNK_SIZE)
+		{
+			final int[] rowIdsChunk = Arrays.copyOfRange(rowIds, from, Math.min(from + SAVE_IN_MEMORY_SELECTION_CHUNK_SIZE, rowIds.length));
+			final SqlAndParams sqlInsert = newSqlViewSelectionQueryBuilder().buildSqlInsertSelectionFromRowIds(inMemorySelection.getViewId(), rowIdsChunk, from + 1);
+			executeUpdate(sqlInsert);
+		}
+
+		logger.trace("Saved in memory selection {}, rowsCount={}, duration={}", inMemorySelection.getSelectionId(), rowIds.length, stopwatch);
+	}
+
+	@VisibleForTesting
+	int getInMemorySelectionMaxSize()
+	{
+		if (!allowInMemorySelections)
+		{
+			return 0;
+		}
+
+		return sysConfigBL.getIntValue(SYSCONFIG_InMemorySelectionMaxSize, DEFAULT_InMemorySelectionMaxSize);
+	}
+
+	/**
+	 * Keeps the selection in memory if it has not more than <code>inMemorySelectionMaxSize</code> rows, else saves it to database.
+	 * Both are done using one SQL statement, so the source table is queried only once.
+	 *
+	 * @return in memory selection (without the row IDs, see {@link #getInMemorySelectionOrNull(String)}) or the selection saved to database
+	 */
+	private ViewRowIdsOrderedSelection createInMemoryOrInDatabaseSelection(
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final boolean applySecurityRestrictions,
+			final SqlDocumentFilterConverterContext context,
+			final int queryLimit,
+			final int inMemorySelectionMaxSize,
+			@Nullable final SelectionKey sharedSelectionKey)
+	{
+		final SqlAndParams sqlAndParams = newSqlViewSelectionQueryBuilder()
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.buildSqlCreateSelectionOrSelectRowIds(viewEvalCtx, viewId, filters, orderBys, queryLimit, inMemorySelectionMaxSize, context);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final IntStream.Builder rowIds = IntStream.builder();
+		final int rowsCount = retrieveRowsCountAndRowIds(sqlAndParams, rowIds::add);
+		if (rowsCount > inMemorySelectionMaxSize)
+		{
+			logger.trace("Created selection {} because it has more than {} rows, rowsCount={}, duration={}", viewId, inMemorySelectionMaxSize, rowsCount, stopwatch);
+			return onSelectionCreatedInDatabase(viewId, orderBys, queryLimit, sharedSelectionKey, rowsCount);
+		}
+
+		final ViewRowIdsOrderedSelection selection = ViewRowIdsOrderedSelection.builder()
+				.viewId(viewId)
+				.rowIdsInMemory(rowIds.build().toArray())
+				.orderBys(orderBys)
+				.queryLimit(queryLimit)
+				.build();
+		inMemorySelectionsById.put(selection.getSelectionId(), selection);
+		logger.trace("Created in memory selection {}, rowsCount={}, duration={}", viewId, rowsCount, stopwatch);
+
+		return selection.withoutRowIdsInMemory();
+	}
+
 	@Override
 	public ViewRowIdsOrderedSelection createOrderedSelection(
 			final ViewEvaluationCtx viewEvalCtx,
@@ -94,6 +251,41 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	{
 		final int queryLimit = extractQueryLimit(viewEvalCtx);
 
+		//
+		// Try copying the selection from an identical selection which already exists
+		final SelectionKey sharedSelectionKey = isSelectionSharingAllowed(filters)
+				? SelectionKey.builder()
+						.windowId(viewId.getWindowId())
+						.tableName(viewBinding.getTableName())
+						.sqlWhereClause(extractSqlWhereClauseString())
+						.filters(filters)
+						.orderBys(orderBys)
+						.filterConverterCtx(context)
+						.applySecurityRestrictions(applySecurityRestrictions)
+						.queryLimit(queryLimit)
+						.permissionsKey(viewEvalCtx.getPermissionsKey())
+						.loggedUserId(viewEvalCtx.getLoggedUserId())
+						.adLanguage(viewEvalCtx.getAdLanguage())
+						.timeZone(viewEvalCtx.getTimeZone())
+						.build()
+				: null;
+		if (sharedSelectionKey != null)
+		{
+			final ViewRowIdsOrderedSelection selection = copyFromSharedSelectionOrNull(sharedSelectionKey, viewId, orderBys, queryLimit);
+			if (selection != null)
+			{
+				return selection;
+			}
+		}
+
+		//
+		// Keep the selection in memory if it's small enough, else it's saved to database by the same query
+		final int inMemorySelectionMaxSize = getInMemorySelectionMaxSize();
+		if (inMemorySelectionMaxSize > 0)
+		{
+			return createInMemoryOrInDatabaseSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context, queryLimit, inMemorySelectionMaxSize, sharedSelectionKey);
+		}
+
 		//
 		//
 		final SqlCreateSelection sqlCreates = newSqlViewSelectionQueryBuilder()
@@ -107,7 +299,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		{
 			final SqlAndParams sqlCreateSelectionLines = sqlCreates.getSqlCreateSelectionLines();
 			final Stopwatch stopwatch = Stopwatch.createStarted();
-			final long linesCount = DB.executeUpdateEx(sqlCreateSelectionLines.getSql(), sqlCreateSelectionLines.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final long linesCount = executeUpdate(sqlCreateSelectionLines);
 			logger.trace("Created selection lines {}, linesCount={}, duration={}", viewId, linesCount, stopwatch);
 		}
 
@@ -117,10 +309,26 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		{
 			final SqlAndParams sqlCreateSelection = sqlCreates.getSqlCreateSelection();
 			final Stopwatch stopwatch = Stopwatch.createStarted();
-			rowsCount = DB.executeUpdateEx(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			rowsCount = executeUpdate(sqlCreateSelection);
 			logger.trace("Created selection {}, rowsCount={}, duration={}", viewId, rowsCount, stopwatch);
 		}
 
+		return onSelectionCreatedInDatabase(viewId, orderBys, queryLimit, sharedSelectionKey, rowsCount);
+	}
+
+	private ViewRowIdsOrderedSelection onSelectionCreatedInDatabase(
+			@NonNull final ViewId viewId,
+			final DocumentQueryOrderByList orderBys,
+			final int queryLimit,
+			@Nullable final SelectionKey sharedSelectionKey,
+			final long rowsCount)
+	{
+		rowIdsBloomFilters.invalidate(ImmutableSet.of(viewId.getViewId()));
+		if (sharedSelectionKey != null)
+		{
+			selectionsCache.addSelection(sharedSelectionKey, viewId.getViewId(), rowsCount);
+		}
+
 		return ViewRowIdsOrderedSelection.builder()
 				.viewId(viewId)
 				.size(rowsCount)
@@ -129,7 +337,84 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 				.build();
 	}
 
-	private int extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
+	private boolean isSelectionSharingAllowed(@NonNull final DocumentFilterList filters)
+	{
+		if (selectionsCache == null)
+		{
+			return false;
+		}
+
+		// Selection lines are not shared
+		if (viewBinding.hasGroupingFields())
+		{
+			return false;
+		}
+
+		// The shared selections are dropped only when the view's table is changed,
+		// so we cannot share selections which might depend on other tables too
+		if (newSqlViewSelectionQueryBuilder().isSelectionDependingOnOtherTables(filters))
+		{
+			return false;
+		}
+
+		// Selections created in a not yet committed transaction are not visible to other views
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		return trxManager.isNull(trx);
+	}
+
+	private String extractSqlWhereClauseString()
+	{
+		final IStringExpression sqlWhereClause = viewBinding.getSqlWhereClause();
+		return sqlWhereClause != null ? sqlWhereClause.getExpressionString() : "";
+	}
+
+	@Nullable
+	private ViewRowIdsOrderedSelection copyFromSharedSelectionOrNull(
+			@NonNull final SelectionKey sharedSelectionKey,
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			final int queryLimit)
+	{
+		final SharedSelection sharedSelection = selectionsCache.getSharedSelection(sharedSelectionKey);
+		if (sharedSelection == null)
+		{
+			return null;
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final SqlAndParams sqlCopySelection = newSqlViewSelectionQueryBuilder().buildSqlCopySelection(viewId, sharedSelection.getSelectionId());
+		final long rowsCount = executeUpdate(sqlCopySelection);
+		if (rowsCount != sharedSelection.getSize())
+		{
+			// the shared selection was deleted or changed in meantime => forget it and create the selection from scratch
+			logger.trace("Shared selection {} has {} rows instead of {}. Discarding it.", sharedSelection, rowsCount, sharedSelection.getSize());
+			selectionsCache.removeSelectionIds(ImmutableSet.of(sharedSelection.getSelectionId()));
+			deleteSelection(viewId.getViewId());
+			return null;
+		}
+
+		logger.trace("Created selection {} by copying {}, rowsCount={}, duration={}", viewId, sharedSelection, rowsCount, stopwatch);
+		rowIdsBloomFilters.invalidate(ImmutableSet.of(viewId.getViewId()));
+		selectionsCache.addSelection(sharedSelectionKey, viewId.getViewId(), rowsCount);
+
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(viewId)
+				.size(rowsCount)
+				.orderBys(orderBys)
+				.queryLimit(queryLimit)
+				.build();
+	}
+
+	private void forgetSharedSelections(@NonNull final Set<String> selectionIds)
+	{
+		if (selectionsCache != null)
+		{
+			selectionsCache.removeSelectionIds(selectionIds);
+		}
+	}
+
+	@VisibleForTesting
+	int extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
 	{
 		final UserRolePermissionsKey permissionsKey = viewEvalCtx.getPermissionsKey();
 		final IUserRolePermissions permissions = userRolePermissionsRepo.getUserRolePermissions(permissionsKey);
@@ -148,6 +433,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	{
 		final WindowId windowId = fromSelection.getWindowId();
 		final String fromSelectionId = fromSelection.getSelectionId();
+		saveInMemorySelection(fromSelectionId);
 		final ViewId newViewId = ViewId.random(windowId);
 
 		final int rowsCount;
@@ -163,12 +449,12 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			}
 
 			final SqlAndParams sqlCreateSelectionLines = viewQueryBuilder.buildSqlCreateSelectionLinesFromSelectionLines(viewEvalCtx, newViewId, fromSelectionId);
-			final int linesCount = DB.executeUpdateEx(sqlCreateSelectionLines.getSql(), sqlCreateSelectionLines.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final int linesCount = executeUpdate(sqlCreateSelectionLines);
 
 			if (linesCount > 0)
 			{
 				final SqlAndParams sqlCreateSelection = viewQueryBuilder.buildSqlCreateSelectionFromSelectionLines(viewEvalCtx, newViewId, orderBys);
-				rowsCount = DB.executeUpdateEx(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+				rowsCount = executeUpdate(sqlCreateSelection);
 			}
 			else
 			{
@@ -178,7 +464,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		else
 		{
 			final SqlAndParams sqlCreateSelection = viewQueryBuilder.buildSqlCreateSelectionFromSelection(viewEvalCtx, newViewId, fromSelectionId, filters, orderBys, filterConverterCtx);
-			rowsCount = DB.executeUpdateEx(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			rowsCount = executeUpdate(sqlCreateSelection);
 		}
 
 		return ViewRowIdsOrderedSelection.builder()
@@ -202,15 +488,24 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			throw new IllegalArgumentException("Cannot add ALL to selection");
 		}
 
+		//
+		// In memory selection
+		final ViewRowIdsOrderedSelection inMemorySelection = addRowIdsToInMemorySelectionOrNull(selection.getSelectionId(), rowIds);
+		if (inMemorySelection != null)
+		{
+			return inMemorySelection;
+		}
+
 		//
 		// Add
 		boolean hasChanges = false;
 		final String selectionId = selection.getSelectionId();
+		final ViewRowIdsOrderedSelection selectionInDatabase = selection.withoutRowIdsInMemory();
 		// TODO: add all rowIds in one query!!! Not so urgent because usually there are added just a couple of rowIds, not much
 		for (final DocumentId rowId : rowIds.toSet())
 		{
 			final SqlAndParams sqlAdd = newSqlViewSelectionQueryBuilder().buildSqlAddRowIdsFromSelection(selectionId, rowId);
-			final int added = DB.executeUpdateEx(sqlAdd.getSql(), sqlAdd.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final int added = executeUpdate(sqlAdd);
 			if (added <= 0)
 			{
 				continue;
@@ -221,15 +516,57 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		if (!hasChanges)
 		{
 			// nothing changed
-			return selection;
+			return selectionInDatabase;
 		}
 
+		forgetSharedSelections(ImmutableSet.of(selectionId));
+		rowIdsBloomFilters.invalidate(ImmutableSet.of(selectionId));
+
 		//
 		// Retrieve current size
 		// NOTE: we are querying it instead of adding how many we added to current "size" because it might be that the size is staled
 		final int size = retrieveSize(selectionId);
 
-		return selection.withSize(size);
+		return selectionInDatabase.withSize(size);
+	}
+
+	/**
+	 * @return the changed selection (without the row IDs) or <code>null</code> if the selection is not kept in memory
+	 */
+	@Nullable
+	private ViewRowIdsOrderedSelection addRowIdsToInMemorySelectionOrNull(final String selectionId, final DocumentIdsSelection rowIds)
+	{
+		final int inMemorySelectionMaxSize = getInMemorySelectionMaxSize();
+		final AtomicReference<ViewRowIdsOrderedSelection> newSelectionRef = new AtomicReference<>();
+		inMemorySelectionsById.computeIfPresent(selectionId, (id, inMemorySelection) -> {
+			final ViewRowIdsOrderedSelection newSelection = inMemorySelection.withRowIdsInMemoryAdded(rowIds);
+			newSelectionRef.set(newSelection);
+
+			//
+			// The selection grown too big to be kept in memory => save it to database
+			if (newSelection.getSize() > inMemorySelectionMaxSize)
+			{
+				insertInMemorySelection(newSelection);
+				return null;
+			}
+
+			return newSelection;
+		});
+
+		final ViewRowIdsOrderedSelection newSelection = newSelectionRef.get();
+		return newSelection != null ? newSelection.withoutRowIdsInMemory() : null;
+	}
+
+	/**
+	 * @return the changed selection (without the row IDs) or <code>null</code> if the selection is not kept in memory
+	 */
+	@Nullable
+	private ViewRowIdsOrderedSelection removeRowIdsFromInMemorySelectionOrNull(final String selectionId, final DocumentIdsSelection rowIds)
+	{
+		final ViewRowIdsOrderedSelection newSelection = inMemorySelectionsById.computeIfPresent(
+				selectionId,
+				(id, inMemorySelection) -> inMemorySelection.withRowIdsInMemoryRemoved(rowIds));
+		return newSelection != null ? newSelection.withoutRowIdsInMemory() : null;
 	}
 
 	@Override
@@ -241,30 +578,42 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return selection;
 		}
 
+		//
+		// In memory selection
+		final ViewRowIdsOrderedSelection inMemorySelection = removeRowIdsFromInMemorySelectionOrNull(selection.getSelectionId(), rowIds);
+		if (inMemorySelection != null)
+		{
+			return inMemorySelection;
+		}
+
+		final ViewRowIdsOrderedSelection selectionInDatabase = selection.withoutRowIdsInMemory();
+
 		//
 		// Delete
 		{
 			final SqlAndParams sqlDelete = newSqlViewSelectionQueryBuilder().buildSqlDeleteRowIdsFromSelection(selection.getSelectionId(), rowIds);
-			final int deleted = DB.executeUpdateEx(sqlDelete.getSql(), sqlDelete.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final int deleted = executeUpdate(sqlDelete);
 			if (deleted <= 0)
 			{
 				// nothing changed
-				return selection;
+				return selectionInDatabase;
 			}
 		}
 
+		forgetSharedSelections(ImmutableSet.of(selection.getSelectionId()));
+
 		//
 		// Retrieve current size
 		// NOTE: we are querying it instead of subtracting "deleted" from current "size" because it might be that the size is staled
 		final int size = retrieveSize(selection.getSelectionId());
 
-		return selection.withSize(size);
+		return selectionInDatabase.withSize(size);
 	}
 
 	private final int retrieveSize(final String selectionId)
 	{
 		final SqlAndParams sqlCount = newSqlViewSelectionQueryBuilder().buildSqlRetrieveSize(selectionId);
-		final int size = DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, sqlCount.getSql(), sqlCount.getSqlParams());
+		final int size = retrieveInt(sqlCount);
 		return size <= 0 ? 0 : size;
 	}
 
@@ -276,40 +625,196 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return false;
 		}
 
+		final ViewRowIdsOrderedSelection inMemorySelection = getInMemorySelectionOrNull(selection.getSelectionId());
+		if (inMemorySelection != null)
+		{
+			return inMemorySelection.containsAnyOfRowIdsInMemory(rowIds);
+		}
+
 		final SqlAndParams sqlCount = newSqlViewSelectionQueryBuilder().buildSqlCount(selection.getSelectionId(), rowIds);
-		final int count = DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, sqlCount.getSql(), sqlCount.getSqlParamsArray());
+		final int count = retrieveInt(sqlCount);
 		return count > 0;
 	}
 
+	@Override
+	public Set<DocumentId> retainRowIdsMaybeContainedInSelection(@NonNull final ViewRowIdsOrderedSelection selection, @NonNull final Set<DocumentId> rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return ImmutableSet.of();
+		}
+
+		final ViewRowIdsOrderedSelection inMemorySelection = getInMemorySelectionOrNull(selection.getSelectionId());
+		if (inMemorySelection != null)
+		{
+			return inMemorySelection.retainRowIdsInMemory(rowIds);
+		}
+
+		// No cheap way to check them
+		if (!viewBinding.getSqlViewKeyColumnNamesMap().isSingleIntKey())
+		{
+			return rowIds;
+		}
+
+		final String selectionId = selection.getSelectionId();
+		final BloomFilter<Integer> rowIdsFilter = rowIdsBloomFilters.getOrLoad(
+				selectionId,
+				selection.getSize(),
+				rowIdsConsumer -> forEachRowId(newSqlViewSelectionQueryBuilder().buildSqlSelectRowIds(selectionId), rowId -> {
+					rowIdsConsumer.accept(rowId);
+					return true;
+				}));
+		if (rowIdsFilter == null)
+		{
+			// the selection was changed meanwhile
+			return rowIds;
+		}
+
+		return rowIds.stream()
+				.filter(rowId -> !rowId.isInt() || rowIdsFilter.mightContain(rowId.toInt()))
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
 	@Override
 	public void deleteSelections(@NonNull final Set<String> selectionIds)
 	{
-		if (selectionIds.isEmpty())
+		final Set<String> selectionIdsInDatabase = forgetInMemorySelections(selectionIds);
+		if (selectionIdsInDatabase.isEmpty())
 		{
 			return;
 		}
 
+		forgetSharedSelections(selectionIdsInDatabase);
+		rowIdsBloomFilters.invalidate(selectionIdsInDatabase);
+
 		final SqlViewSelectionQueryBuilder viewQueryBuilder = newSqlViewSelectionQueryBuilder();
 
 		// Delete selection lines
 		{
-			final SqlAndParams sql = viewQueryBuilder.buildSqlDeleteSelectionLines(selectionIds);
-			final int countDeleted = DB.executeUpdateEx(sql.getSql(), sql.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
-			logger.trace("Delete {} selection lines for {}", countDeleted, selectionIds);
+			final SqlAndParams sql = viewQueryBuilder.buildSqlDeleteSelectionLines(selectionIdsInDatabase);
+			final int countDeleted = executeUpdate(sql);
+			logger.trace("Delete {} selection lines for {}", countDeleted, selectionIdsInDatabase);
 		}
 
 		// Delete selection rows
 		{
-			final SqlAndParams sql = viewQueryBuilder.buildSqlDeleteSelection(selectionIds);
-			final int countDeleted = DB.executeUpdateEx(sql.getSql(), sql.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
-			logger.trace("Delete {} selection rows for {}", countDeleted, selectionIds);
+			final SqlAndParams sql = viewQueryBuilder.buildSqlDeleteSelection(selectionIdsInDatabase);
+			final int countDeleted = executeUpdate(sql);
+			logger.trace("Delete {} selection rows for {}", countDeleted, selectionIdsInDatabase);
 		}
 	}
 
 	@Override
 	public void scheduleDeleteSelections(@NonNull final Set<String> selectionIds)
 	{
-		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(selectionIds);
+		final Set<String> selectionIdsInDatabase = forgetInMemorySelections(selectionIds);
+		if (selectionIdsInDatabase.isEmpty())
+		{
+			return;
+		}
+
+		forgetSharedSelections(selectionIdsInDatabase);
+		rowIdsBloomFilters.invalidate(selectionIdsInDatabase);
+		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(selectionIdsInDatabase);
+	}
+
+	/**
+	 * @return the selectionIds which are not in memory, i.e. which have to be deleted from database
+	 */
+	private Set<String> forgetInMemorySelections(@NonNull final Set<String> selectionIds)
+	{
+		if (inMemorySelectionsById.isEmpty())
+		{
+			return selectionIds;
+		}
+
+		return selectionIds.stream()
+				.filter(selectionId -> inMemorySelectionsById.remove(selectionId) == null)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	@VisibleForTesting
+	int executeUpdate(@NonNull final SqlAndParams sql)
+	{
+		return DB.executeUpdateEx(sql.getSql(), sql.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+	}
+
+	@VisibleForTesting
+	int retrieveInt(@NonNull final SqlAndParams sql)
+	{
+		return DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, sql.getSql(), sql.getSqlParams());
+	}
+
+	/**
+	 * Runs the SQL built by {@link SqlViewSelectionQueryBuilder#buildSqlCreateSelectionOrSelectRowIds(ViewEvaluationCtx, ViewId, DocumentFilterList, DocumentQueryOrderByList, int, int, SqlDocumentFilterConverterContext)}.
+	 *
+	 * @param rowIdConsumer gets the row IDs in selection order, if the selection is kept in memory
+	 * @return the selection's rows count
+	 */
+	@VisibleForTesting
+	int retrieveRowsCountAndRowIds(@NonNull final SqlAndParams sqlAndParams, @NonNull final IntConsumer rowIdConsumer)
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sqlAndParams.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+			rs = pstmt.executeQuery();
+
+			int rowsCount = 0;
+			while (rs.next())
+			{
+				rowsCount = rs.getInt(1);
+
+				final int rowId = rs.getInt(2);
+				if (!rs.wasNull())
+				{
+					rowIdConsumer.accept(rowId);
+				}
+			}
+			return rowsCount;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/**
+	 * Feeds the integer row IDs (first column) returned by given SQL to <code>rowIdConsumer</code>, until it returns false.
+	 */
+	@VisibleForTesting
+	void forEachRowId(@NonNull final SqlAndParams sqlAndParams, @NonNull final IntPredicate rowIdConsumer)
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sqlAndParams.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+			rs = pstmt.executeQuery();
+
+			while (rs.next())
+			{
+				if (!rowIdConsumer.test(rs.getInt(1)))
+				{
+					break;
+				}
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
 	}
 
 	public static Set<DocumentId> retrieveRowIdsForLineIds(
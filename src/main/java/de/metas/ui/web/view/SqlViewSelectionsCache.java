@@ -0,0 +1,265 @@
+package de.metas.ui.web.view;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import de.metas.logging.LogManager;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.user.UserId;
+import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Content addressed cache of view selections (i.e. <code>T_WEBUI_ViewSelection</code> UUIDs).
+ * <p>
+ * For each {@link SelectionKey} (window, filters, orderBys, permissions, context) we remember the live selections which have exactly the same content.
+ * When a new view with the same key is created, the selection can be copied from one of those selections
+ * instead of running the filters, security restrictions and ordering again against the source table.
+ * <p>
+ * A selection is "alive" in this cache as long as it was not deleted and not changed (rows added/removed).
+ * The entry is dropped when the last of its selections is gone (i.e. reference counting), when the underlying table changed
+ * or after {@value #SYSCONFIG_MaxAgeInSeconds} seconds (zero disables the sharing).
+ */
+@Component
+public class SqlViewSelectionsCache
+{
+	private static final Logger logger = LogManager.getLogger(SqlViewSelectionsCache.class);
+
+	private static final String SYSCONFIG_MaxAgeInSeconds = "de.metas.ui.web.view.SqlViewSelectionsCache.MaxAgeInSeconds";
+	private static final int DEFAULT_MaxAgeInSeconds = 60;
+
+	private final Duration maxAge;
+	private final HashMap<SelectionKey, Entry> entriesByKey = new HashMap<>();
+	private final HashMap<String, SelectionKey> keysBySelectionId = new HashMap<>();
+
+	public SqlViewSelectionsCache()
+	{
+		this(Duration.ofSeconds(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxAgeInSeconds, DEFAULT_MaxAgeInSeconds)));
+	}
+
+	public SqlViewSelectionsCache(@NonNull final Duration maxAge)
+	{
+		this.maxAge = maxAge;
+	}
+
+	@Value
+	@Builder
+	public static class SelectionKey
+	{
+		@NonNull
+		WindowId windowId;
+		@NonNull
+		String tableName;
+		@NonNull
+		String sqlWhereClause;
+
+		@NonNull
+		DocumentFilterList filters;
+		@NonNull
+		DocumentQueryOrderByList orderBys;
+		@NonNull
+		SqlDocumentFilterConverterContext filterConverterCtx;
+		boolean applySecurityRestrictions;
+		int queryLimit;
+
+		@NonNull
+		UserRolePermissionsKey permissionsKey;
+		@NonNull
+		Optional<UserId> loggedUserId;
+		@NonNull
+		String adLanguage;
+		@NonNull
+		ZoneId timeZone;
+	}
+
+	private static final class Entry
+	{
+		private final SelectionKey key;
+		private final long size;
+		private final Instant created;
+		private final LinkedHashSet<String> selectionIds = new LinkedHashSet<>();
+
+		private Entry(@NonNull final SelectionKey key, final long size, @NonNull final Instant created)
+		{
+			this.key = key;
+			this.size = size;
+			this.created = created;
+		}
+	}
+
+	@Value
+	public static class SharedSelection
+	{
+		String selectionId;
+		long size;
+	}
+
+	public synchronized int size()
+	{
+		return entriesByKey.size();
+	}
+
+	/**
+	 * @return a live selection having the same content as the given key or null
+	 */
+	@Nullable
+	public synchronized SharedSelection getSharedSelection(@NonNull final SelectionKey key)
+	{
+		final Entry entry = entriesByKey.get(key);
+		if (entry == null)
+		{
+			return null;
+		}
+
+		if (isExpired(entry))
+		{
+			removeEntry(entry);
+			return null;
+		}
+
+		final String selectionId = entry.selectionIds.iterator().next();
+		return new SharedSelection(selectionId, entry.size);
+	}
+
+	private boolean isExpired(final Entry entry)
+	{
+		return entry.created.plus(maxAge).isBefore(SystemTime.asInstant());
+	}
+
+	/**
+	 * Registers a selection which has the content described by given key.
+	 */
+	public synchronized void addSelection(
+			@NonNull final SelectionKey key,
+			@NonNull final String selectionId,
+			final long size)
+	{
+		if (maxAge.isZero() || maxAge.isNegative())
+		{
+			return;
+		}
+
+		// In case the selection was already registered with a different key, forget it first
+		removeSelectionId(selectionId);
+
+		Entry entry = entriesByKey.get(key);
+		if (entry != null && (entry.size != size || isExpired(entry)))
+		{
+			// the content is no longer the same
+			removeEntry(entry);
+			entry = null;
+		}
+		if (entry == null)
+		{
+			entry = new Entry(key, size, SystemTime.asInstant());
+			entriesByKey.put(key, entry);
+		}
+
+		entry.selectionIds.add(selectionId);
+		keysBySelectionId.put(selectionId, key);
+	}
+
+	/**
+	 * Forget the given selections, because they were deleted or their content was changed.
+	 */
+	public synchronized void removeSelectionIds(@NonNull final Set<String> selectionIds)
+	{
+		selectionIds.forEach(this::removeSelectionId);
+	}
+
+	private void removeSelectionId(@NonNull final String selectionId)
+	{
+		final SelectionKey key = keysBySelectionId.remove(selectionId);
+		if (key == null)
+		{
+			return;
+		}
+
+		final Entry entry = entriesByKey.get(key);
+		if (entry == null)
+		{
+			return;
+		}
+
+		entry.selectionIds.remove(selectionId);
+		if (entry.selectionIds.isEmpty())
+		{
+			entriesByKey.remove(key);
+		}
+	}
+
+	private void removeEntry(@NonNull final Entry entry)
+	{
+		entriesByKey.remove(entry.key);
+		entry.selectionIds.forEach(keysBySelectionId::remove);
+	}
+
+	/**
+	 * Drops all entries which are based on the tables of given records.
+	 * The live selections are not touched, but they won't be shared with new views anymore.
+	 */
+	public synchronized void notifyRecordsChanged(@NonNull final TableRecordReferenceSet recordRefs)
+	{
+		if (recordRefs.isEmpty() || entriesByKey.isEmpty())
+		{
+			return;
+		}
+
+		int countRemoved = 0;
+		for (final Iterator<Map.Entry<SelectionKey, Entry>> it = entriesByKey.entrySet().iterator(); it.hasNext();)
+		{
+			final Entry entry = it.next().getValue();
+			if (recordRefs.matchesTableName(entry.key.getTableName()))
+			{
+				it.remove();
+				entry.selectionIds.forEach(keysBySelectionId::remove);
+				countRemoved++;
+			}
+		}
+
+		logger.trace("Removed {} shared selection entries because of {}", countRemoved, recordRefs);
+	}
+}
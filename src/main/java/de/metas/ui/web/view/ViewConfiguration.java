@@ -10,6 +10,7 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import de.metas.logging.LogManager;
 
@@ -41,10 +42,17 @@ public class ViewConfiguration implements InitializingBean
 	private static final Logger logger = LogManager.getLogger(ViewConfiguration.class);
 
 	private static final String BEANNAME_ViewMaintenanceScheduledExecutorService = "viewMaintenanceScheduledExecutorService";
+	public static final String BEANNAME_ViewDeferredSelectionsExecutor = "viewDeferredSelectionsExecutor";
 
 	@Value("${metasfresh.view.clearViewSelectionsRateInSeconds:1800}")
 	private int clearViewSelectionsRateInSeconds;
 
+	@Value("${metasfresh.view.deferredSelections.threads:4}")
+	private int deferredSelectionsThreads;
+
+	@Value("${metasfresh.view.deferredSelections.queueCapacity:100}")
+	private int deferredSelectionsQueueCapacity;
+
 	@Override
 	public void afterPropertiesSet() throws Exception
 	{
@@ -72,4 +80,19 @@ public class ViewConfiguration implements InitializingBean
 						.build());
 	}
 
+	/**
+	 * Executor used to create view selections in background, after the first page was fetched directly from the source table.
+	 * It's bounded: when the queue is full, the selections are created synchronously on next access.
+	 */
+	@Bean(BEANNAME_ViewDeferredSelectionsExecutor)
+	public ThreadPoolTaskExecutor viewDeferredSelectionsExecutor()
+	{
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("webui-views-deferred-selections-");
+		executor.setDaemon(true);
+		executor.setCorePoolSize(deferredSelectionsThreads);
+		executor.setMaxPoolSize(deferredSelectionsThreads);
+		executor.setQueueCapacity(deferredSelectionsQueueCapacity);
+		return executor;
+	}
 }
@@ -0,0 +1,93 @@
+package de.metas.ui.web.view;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Distinct values of some view fields, together with the number of rows having that value.
+ * <p>
+ * For each field, the values are ordered by count, most frequent first.
+ */
+@EqualsAndHashCode
+@ToString
+public final class ViewFieldValueCounts
+{
+	/**
+	 * @param limitsByFieldName how many values to keep for each field; values of fields which are not in this map are discarded
+	 */
+	public static ViewFieldValueCounts ofList(
+			@NonNull final List<ValueCount> valueCounts,
+			@NonNull final Map<String, Integer> limitsByFieldName)
+	{
+		final ImmutableListMultimap<String, ValueCount> valueCountsByFieldName = valueCounts.stream()
+				.filter(valueCount -> valueCount.getValue() != null)
+				.filter(valueCount -> limitsByFieldName.containsKey(valueCount.getFieldName()))
+				.sorted(Comparator.comparing(ValueCount::getCount).reversed())
+				.collect(ImmutableListMultimap.toImmutableListMultimap(ValueCount::getFieldName, valueCount -> valueCount));
+
+		final ImmutableListMultimap.Builder<String, ValueCount> result = ImmutableListMultimap.builder();
+		for (final String fieldName : valueCountsByFieldName.keySet())
+		{
+			final int limit = limitsByFieldName.get(fieldName);
+			final ImmutableList<ValueCount> fieldValueCounts = valueCountsByFieldName.get(fieldName);
+			result.putAll(fieldName, fieldValueCounts.size() > limit ? fieldValueCounts.subList(0, limit) : fieldValueCounts);
+		}
+
+		return new ViewFieldValueCounts(result.build());
+	}
+
+	private final ImmutableListMultimap<String, ValueCount> valueCountsByFieldName;
+
+	private ViewFieldValueCounts(@NonNull final ImmutableListMultimap<String, ValueCount> valueCountsByFieldName)
+	{
+		this.valueCountsByFieldName = valueCountsByFieldName;
+	}
+
+	public ImmutableList<ValueCount> getValueCounts(@NonNull final String fieldName)
+	{
+		return valueCountsByFieldName.get(fieldName);
+	}
+
+	@Value(staticConstructor = "of")
+	public static class ValueCount
+	{
+		@NonNull
+		String fieldName;
+		@Nullable
+		Object value;
+		int count;
+	}
+}
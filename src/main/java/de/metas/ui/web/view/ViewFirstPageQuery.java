@@ -0,0 +1,52 @@
+package de.metas.ui.web.view;
+
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Request to fetch the first page directly from the view's source table
+ * (i.e. <code>SELECT keys FROM table WHERE [filters] ORDER BY keys LIMIT pageLength</code>), before the view's selection is created.
+ *
+ * @see IViewDataRepository#retrieveFirstPage(ViewEvaluationCtx, ViewFirstPageQuery)
+ */
+@Value
+@Builder
+public class ViewFirstPageQuery
+{
+	@NonNull
+	ViewId viewId;
+
+	@NonNull
+	DocumentFilterList filters;
+	boolean applySecurityRestrictions;
+
+	@NonNull
+	DocumentQueryOrderByList orderBys;
+
+	int pageLength;
+}
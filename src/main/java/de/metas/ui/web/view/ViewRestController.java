@@ -27,15 +27,18 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.impexp.excel.ExcelFormat;
 import de.metas.impexp.excel.ExcelFormats;
 import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
+import de.metas.ui.web.cache.ETag;
 import de.metas.ui.web.cache.ETagResponseEntityBuilder;
 import de.metas.ui.web.config.WebConfig;
 import de.metas.ui.web.process.ProcessRestController;
+import de.metas.ui.web.process.ViewActionsPreconditionsEvaluator;
 import de.metas.ui.web.process.ViewAsPreconditionsContext;
-import de.metas.ui.web.process.WebuiPreconditionsContext;
+import de.metas.ui.web.process.descriptor.WebuiRelatedProcessDescriptor;
 import de.metas.ui.web.process.json.JSONDocumentActionsList;
 import de.metas.ui.web.session.UserSession;
 import de.metas.ui.web.view.descriptor.ViewLayout;
@@ -107,17 +110,20 @@ public class ViewRestController
 	private final IViewsRepository viewsRepo;
 	private final ProcessRestController processRestController;
 	private final WindowRestController windowRestController;
+	private final ViewActionsPreconditionsEvaluator preconditionsEvaluator;
 
 	public ViewRestController(
 			@NonNull final UserSession userSession,
 			@NonNull final IViewsRepository viewsRepo,
 			@NonNull final ProcessRestController processRestController,
-			@NonNull final WindowRestController windowRestController)
+			@NonNull final WindowRestController windowRestController,
+			@NonNull final ViewActionsPreconditionsEvaluator preconditionsEvaluator)
 	{
 		this.userSession = userSession;
 		this.viewsRepo = viewsRepo;
 		this.processRestController = processRestController;
 		this.windowRestController = windowRestController;
+		this.preconditionsEvaluator = preconditionsEvaluator;
 	}
 
 	private JSONOptions newJSONOptions()
@@ -231,12 +237,13 @@ public class ViewRestController
 	}
 
 	@GetMapping("/{viewId}")
-	public JSONViewResult getViewData(
+	public ResponseEntity<JSONViewResult> getViewData(
 			@PathVariable(PARAM_WindowId) final String windowId //
 			, @PathVariable(PARAM_ViewId) final String viewIdStr//
 			, @RequestParam(name = PARAM_FirstRow, required = true) @ApiParam(PARAM_FirstRow_Description) final int firstRow //
 			, @RequestParam(name = PARAM_PageLength, required = true) final int pageLength //
 			, @RequestParam(name = PARAM_OrderBy, required = false) @ApiParam(PARAM_OrderBy_Description) final String orderBysListStr //
+			, final WebRequest request //
 	)
 	{
 		userSession.assertLoggedIn();
@@ -244,12 +251,18 @@ public class ViewRestController
 		final ViewId viewId = ViewId.of(windowId, viewIdStr);
 		final IView view = viewsRepo.getView(viewId);
 		final JSONOptions jsonOpts = newJSONOptions();
-		final ViewResult result = view.getPage(
+
+		// NOTE: get the version before fetching the page, so in case the view is changed meanwhile, the client will fetch it again next time
+		final ETag etag = ETag.of(view.getVersion(), ImmutableMap.of());
+
+		return ETagResponseEntityBuilder.ofETag(request, etag, () -> view.getPage(
 				firstRow,
 				pageLength,
-				ViewRowsOrderBy.parseString(orderBysListStr, jsonOpts));
-		final IViewRowOverrides rowOverrides = ViewRowOverridesHelper.getViewRowOverrides(view);
-		return JSONViewResult.of(result, rowOverrides, jsonOpts);
+				ViewRowsOrderBy.parseString(orderBysListStr, jsonOpts)))
+				.includeLanguageInETag()
+				.cacheMaxAge(0) // always revalidate
+				.jsonOptions(() -> jsonOpts)
+				.toJson((result, jsonOptions) -> JSONViewResult.of(result, ViewRowOverridesHelper.getViewRowOverrides(view), jsonOptions));
 	}
 
 	@GetMapping("/layout")
@@ -399,7 +412,7 @@ public class ViewRestController
 	{
 		userSession.assertLoggedIn();
 
-		final WebuiPreconditionsContext preconditionsContext = newPreconditionsContextBuilder()
+		final ViewAsPreconditionsContext preconditionsContext = newPreconditionsContextBuilder()
 				.windowId(windowId)
 				.viewIdString(viewIdStr)
 				.selectedIdsList(selectedIdsListStr)
@@ -410,8 +423,12 @@ public class ViewRestController
 				.displayPlace(DisplayPlace.ViewActionsMenu)
 				.build();
 
-		return processRestController.streamDocumentRelatedProcesses(preconditionsContext)
+		final List<WebuiRelatedProcessDescriptor> descriptors = processRestController.streamDocumentRelatedProcesses(preconditionsContext)
 				.filter(descriptor -> descriptor.isDisplayedOn(preconditionsContext.getDisplayPlace())) // shall be already filtered out, but just to make sure
+				.collect(ImmutableList.toImmutableList());
+
+		return preconditionsEvaluator.evaluate(preconditionsContext, descriptors)
+				.stream()
 				.filter(descriptor -> all || descriptor.isEnabled()) // only those which are enabled and not internally rejected
 				.collect(JSONDocumentActionsList.collect(newJSONOptions()));
 	}
@@ -430,7 +447,7 @@ public class ViewRestController
 	{
 		userSession.assertLoggedIn();
 
-		final WebuiPreconditionsContext preconditionsContext = newPreconditionsContextBuilder()
+		final ViewAsPreconditionsContext preconditionsContext = newPreconditionsContextBuilder()
 				.windowId(windowId)
 				.viewIdString(viewIdStr)
 				.viewProfileIdStr(viewProfileIdStr)
@@ -442,8 +459,12 @@ public class ViewRestController
 				.displayPlace(DisplayPlace.ViewQuickActions)
 				.build();
 
-		return processRestController.streamDocumentRelatedProcesses(preconditionsContext)
+		final List<WebuiRelatedProcessDescriptor> descriptors = processRestController.streamDocumentRelatedProcesses(preconditionsContext)
 				.filter(descriptor -> descriptor.isDisplayedOn(preconditionsContext.getDisplayPlace())) // shall be already filtered out, but just to make sure
+				.collect(ImmutableList.toImmutableList());
+
+		return preconditionsEvaluator.evaluate(preconditionsContext, descriptors)
+				.stream()
 				.filter(descriptor -> all || descriptor.isEnabledOrNotSilent()) // only those which are enabled or not silent
 				.collect(JSONDocumentActionsList.collect(newJSONOptions()));
 	}
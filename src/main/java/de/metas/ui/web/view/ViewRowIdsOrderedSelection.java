@@ -1,13 +1,25 @@
 package de.metas.ui.web.view;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.exceptions.AdempiereException;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.Value;
 
 /*
@@ -33,6 +45,7 @@ import lombok.Value;
  */
 
 @Value
+@ToString(exclude = "rowIdsInMemory")
 public final class ViewRowIdsOrderedSelection
 {
 	ViewId viewId;
@@ -42,21 +55,27 @@ public final class ViewRowIdsOrderedSelection
 	int queryLimit;
 	boolean queryLimitHit;
 
+	/** Ordered row IDs, if the selection is kept in memory instead of {@link de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection} */
+	@Getter(AccessLevel.NONE)
+	int[] rowIdsInMemory;
+
 	@Builder(toBuilder = true)
 	private ViewRowIdsOrderedSelection(
 			@NonNull ViewId viewId,
 			long size,
 			@Nullable DocumentQueryOrderByList orderBys,
-			int queryLimit)
+			int queryLimit,
+			@Nullable int[] rowIdsInMemory)
 	{
 		this.viewId = viewId;
-		this.size = size;
+		this.size = rowIdsInMemory != null ? rowIdsInMemory.length : size;
 		this.orderBys = orderBys != null ? orderBys : DocumentQueryOrderByList.EMPTY;
 		this.queryLimit = queryLimit;
+		this.rowIdsInMemory = rowIdsInMemory;
 
 		this.queryLimitHit = queryLimit > 0
-				&& size > 0
-				&& size >= queryLimit;
+				&& this.size > 0
+				&& this.size >= queryLimit;
 	}
 
 	public static boolean equals(final ViewRowIdsOrderedSelection s1, final ViewRowIdsOrderedSelection s2)
@@ -80,4 +99,133 @@ public final class ViewRowIdsOrderedSelection
 				? this
 				: toBuilder().size(size).build();
 	}
+
+	public boolean isInMemory()
+	{
+		return rowIdsInMemory != null;
+	}
+
+	private int[] getRowIdsInMemory()
+	{
+		if (rowIdsInMemory == null)
+		{
+			throw new AdempiereException("Selection is not kept in memory: " + this);
+		}
+		return rowIdsInMemory;
+	}
+
+	/**
+	 * @return the in memory row IDs of given page
+	 */
+	public int[] getRowIdsInMemory(final int firstRow, final int pageLength)
+	{
+		final int[] rowIds = getRowIdsInMemory();
+		final int from = Math.min(Math.max(firstRow, 0), rowIds.length);
+		final int to = pageLength > 0 ? Math.min(from + pageLength, rowIds.length) : rowIds.length;
+		return Arrays.copyOfRange(rowIds, from, to);
+	}
+
+	/**
+	 * @return those of the given rowIds which are contained in this in memory selection
+	 */
+	public ImmutableSet<DocumentId> retainRowIdsInMemory(@NonNull final Set<DocumentId> rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return ImmutableSet.of();
+		}
+
+		final Set<Integer> rowIdsInMemorySet = toIntSet(getRowIdsInMemory());
+		return rowIds.stream()
+				.filter(rowId -> rowId.isInt() && rowIdsInMemorySet.contains(rowId.toInt()))
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	public boolean containsAnyOfRowIdsInMemory(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return false;
+		}
+		else if (rowIds.isAll())
+		{
+			return getRowIdsInMemory().length > 0;
+		}
+		else
+		{
+			return !retainRowIdsInMemory(rowIds.toSet()).isEmpty();
+		}
+	}
+
+	/**
+	 * @return in memory selection with given rowIds appended, if they were not already contained
+	 */
+	public ViewRowIdsOrderedSelection withRowIdsInMemoryAdded(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isAll())
+		{
+			throw new IllegalArgumentException("Cannot add ALL to selection");
+		}
+
+		final LinkedHashSet<Integer> newRowIds = toIntSet(getRowIdsInMemory());
+		final int sizeBefore = newRowIds.size();
+		for (final DocumentId rowId : rowIds.toSet())
+		{
+			newRowIds.add(rowId.toInt());
+		}
+
+		return newRowIds.size() != sizeBefore
+				? withRowIdsInMemory(newRowIds)
+				: this;
+	}
+
+	public ViewRowIdsOrderedSelection withRowIdsInMemoryRemoved(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return this;
+		}
+
+		final LinkedHashSet<Integer> newRowIds = toIntSet(getRowIdsInMemory());
+		final int sizeBefore = newRowIds.size();
+		if (rowIds.isAll())
+		{
+			newRowIds.clear();
+		}
+		else
+		{
+			rowIds.forEach(rowId -> newRowIds.remove(rowId.toIntOr(-1)));
+		}
+
+		return newRowIds.size() != sizeBefore
+				? withRowIdsInMemory(newRowIds)
+				: this;
+	}
+
+	private ViewRowIdsOrderedSelection withRowIdsInMemory(final Set<Integer> rowIds)
+	{
+		return toBuilder()
+				.rowIdsInMemory(rowIds.stream().mapToInt(Integer::intValue).toArray())
+				.build();
+	}
+
+	/**
+	 * @return same selection, but not kept in memory, i.e. after it was saved to database
+	 */
+	public ViewRowIdsOrderedSelection withoutRowIdsInMemory()
+	{
+		return rowIdsInMemory != null
+				? toBuilder().rowIdsInMemory(null).build()
+				: this;
+	}
+
+	private static LinkedHashSet<Integer> toIntSet(final int[] rowIds)
+	{
+		final LinkedHashSet<Integer> set = new LinkedHashSet<>(rowIds.length);
+		for (final int rowId : rowIds)
+		{
+			set.add(rowId);
+		}
+		return set;
+	}
 }
@@ -2,10 +2,13 @@ package de.metas.ui.web.view;
 
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.model.DocumentQueryOrderByList;
 import lombok.NonNull;
@@ -53,12 +56,35 @@ public interface ViewRowIdsOrderedSelectionFactory
 
 	String getSqlWhereClause(ViewId viewId, DocumentIdsSelection rowIds);
 
+	/**
+	 * @return the selection, including its current row IDs, if it's kept in memory, i.e. it's not saved in database, or <code>null</code>.
+	 *         The selections returned by the other methods don't carry the in memory row IDs.
+	 */
+	@Nullable
+	default ViewRowIdsOrderedSelection getInMemorySelectionOrNull(@NonNull final String selectionId)
+	{
+		return null;
+	}
+
+	/**
+	 * Makes sure the selection is saved in database, in case it was kept in memory until now.
+	 */
+	default void saveInMemorySelection(@NonNull final String selectionId)
+	{
+	}
+
 	ViewRowIdsOrderedSelection addRowIdsToSelection(ViewRowIdsOrderedSelection selection, DocumentIdsSelection rowIds);
 
 	ViewRowIdsOrderedSelection removeRowIdsFromSelection(ViewRowIdsOrderedSelection selection, DocumentIdsSelection rowIds);
 
 	boolean containsAnyOfRowIds(ViewRowIdsOrderedSelection selection, DocumentIdsSelection rowIds);
 
+	/**
+	 * @return those of the given rowIds which might be contained in the selection.
+	 *         The result can include rows which are not in the selection, but it never excludes rows which are in the selection.
+	 */
+	Set<DocumentId> retainRowIdsMaybeContainedInSelection(ViewRowIdsOrderedSelection selection, Set<DocumentId> rowIds);
+
 	default void deleteSelection(@NonNull final String selectionId)
 	{
 		deleteSelections(ImmutableSet.of(selectionId));
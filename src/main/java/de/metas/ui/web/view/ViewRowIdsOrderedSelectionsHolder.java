@@ -2,16 +2,27 @@ package de.metas.ui.web.view;
 
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.SynchronizedMutable;
+import org.compiere.SpringContextHolder;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.google.common.collect.ImmutableSet;
 
+import de.metas.logging.LogManager;
 import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
@@ -44,6 +55,8 @@ import lombok.NonNull;
 
 final class ViewRowIdsOrderedSelectionsHolder
 {
+	private static final Logger logger = LogManager.getLogger(ViewRowIdsOrderedSelectionsHolder.class);
+
 	private final IViewDataRepository viewDataRepository;
 
 	private final ViewId viewId;
@@ -55,6 +68,11 @@ final class ViewRowIdsOrderedSelectionsHolder
 	private final AtomicBoolean selectionDeleteBeforeCreate = new AtomicBoolean(false);
 	private final SynchronizedMutable<ViewRowIdsOrderedSelections> currentSelectionsRef = SynchronizedMutable.of(null);
 
+	@Nullable
+	private final Executor deferredSelectionsExecutor;
+	private final Runnable onDeferredSelectionsCreated;
+	private final AtomicReference<DeferredSelections> deferredSelectionsRef = new AtomicReference<>();
+
 	@Builder
 	private ViewRowIdsOrderedSelectionsHolder(
 			@NonNull final IViewDataRepository viewDataRepository,
@@ -62,12 +80,16 @@ final class ViewRowIdsOrderedSelectionsHolder
 			final boolean applySecurityRestrictions,
 			@NonNull final DocumentFilterList stickyFilters,
 			@NonNull final DocumentFilterList filters,
-			@NonNull final Supplier<ViewEvaluationCtx> viewEvaluationCtxSupplier)
+			@NonNull final Supplier<ViewEvaluationCtx> viewEvaluationCtxSupplier,
+			@Nullable final Executor deferredSelectionsExecutor,
+			@Nullable final Runnable onDeferredSelectionsCreated)
 	{
 		this.viewDataRepository = viewDataRepository;
 		this.viewId = viewId;
 		this.applySecurityRestrictions = applySecurityRestrictions;
 		this.viewEvaluationCtxSupplier = viewEvaluationCtxSupplier;
+		this.deferredSelectionsExecutor = deferredSelectionsExecutor;
+		this.onDeferredSelectionsCreated = onDeferredSelectionsCreated;
 
 		final ArrayList<DocumentFilter> filtersExcludingFacetsList = new ArrayList<>();
 		final ArrayList<DocumentFilter> facetFiltersList = new ArrayList<>();
@@ -90,23 +112,56 @@ final class ViewRowIdsOrderedSelectionsHolder
 		facetFilters = DocumentFilterList.ofList(facetFiltersList);
 	}
 
+	/**
+	 * @return selection size or, while the selections are created asynchronously, the estimated size
+	 */
 	public long getSize()
 	{
+		final DeferredSelections deferredSelections = getPendingDeferredSelectionsOrNull();
+		if (deferredSelections != null)
+		{
+			return deferredSelections.getEstimatedSize();
+		}
+
 		return getDefaultSelection().getSize();
 	}
 
+	/**
+	 * @return true if the selections are created asynchronously right now, so {@link #getSize()} is just an estimation
+	 */
+	public boolean isSizeEstimated()
+	{
+		return getPendingDeferredSelectionsOrNull() != null;
+	}
+
 	public DocumentQueryOrderByList getDefaultOrderBys()
 	{
+		if (isSizeEstimated())
+		{
+			return viewDataRepository.getDefaultOrderBys();
+		}
+
 		return getDefaultSelection().getOrderBys();
 	}
 
 	public int getQueryLimit()
 	{
+		// NOTE: not known until the selections are created
+		if (isSizeEstimated())
+		{
+			return 0;
+		}
+
 		return getDefaultSelection().getQueryLimit();
 	}
 
 	public boolean isQueryLimitHit()
 	{
+		if (isSizeEstimated())
+		{
+			return false;
+		}
+
 		return getDefaultSelection().isQueryLimitHit();
 	}
 
@@ -177,6 +232,7 @@ final class ViewRowIdsOrderedSelectionsHolder
 
 	public void forgetCurrentSelections()
 	{
+		deferredSelectionsRef.set(null);
 		selectionDeleteBeforeCreate.set(true);
 		final ViewRowIdsOrderedSelections selections = currentSelectionsRef.setValueAndReturnPrevious(null);
 		if (selections != null)
@@ -191,6 +247,22 @@ final class ViewRowIdsOrderedSelectionsHolder
 		return viewEvaluationCtxSupplier.get();
 	}
 
+	/**
+	 * Forgets the cached field value counts of the current selections, because some of their rows might have been changed.
+	 */
+	public void invalidateFieldValueCounts()
+	{
+		final ViewRowIdsOrderedSelections selections = currentSelectionsRef.getValue();
+		if (selections != null)
+		{
+			// NOTE: the counts are retrieved for the selection before facets filtering
+			viewDataRepository.invalidateFieldValueCounts(ImmutableSet.<String> builder()
+					.add(selections.getDefaultSelectionBeforeFacetsFiltering().getSelectionId())
+					.addAll(selections.getSelectionIds())
+					.build());
+		}
+	}
+
 	public void removeRowIdsNotMatchingFilters(final Set<DocumentId> rowIds)
 	{
 		if (rowIds.isEmpty())
@@ -226,6 +298,21 @@ final class ViewRowIdsOrderedSelectionsHolder
 		return selections.withDefaultSelection(defaultSelectionBeforeFacetsFiltering, defaultSelection);
 	}
 
+	/**
+	 * @return those of the given rowIds which might be contained in the current default selection (see {@link IViewDataRepository#retainRowIdsMaybeContainedInSelection(ViewRowIdsOrderedSelection, Set)}).
+	 *         If the selection was not created yet, all given rowIds are returned.
+	 */
+	public Set<DocumentId> retainRowIdsMaybeContainedInDefaultSelection(@NonNull final Set<DocumentId> rowIds)
+	{
+		final ViewRowIdsOrderedSelections selections = currentSelectionsRef.getValue();
+		if (selections == null || rowIds.isEmpty())
+		{
+			return rowIds;
+		}
+
+		return viewDataRepository.retainRowIdsMaybeContainedInSelection(selections.getDefaultSelection(), rowIds);
+	}
+
 	public ViewRowIdsOrderedSelection getOrderedSelection(final DocumentQueryOrderByList orderBys)
 	{
 		return computeCurrentSelections(selections -> computeOrderBySelectionIfAbsent(selections, orderBys))
@@ -252,4 +339,156 @@ final class ViewRowIdsOrderedSelectionsHolder
 				orderBys,
 				SqlDocumentFilterConverterContext.EMPTY);
 	}
+
+	/**
+	 * @return the query to fetch the first page plus one row directly from the source table, before the selections are created,
+	 *         or <code>null</code> if the page shall be fetched from the selection.
+	 * @see #onFirstPageProbed(ViewFirstPageQuery, int)
+	 */
+	@Nullable
+	public ViewFirstPageQuery getFirstPageProbeQueryOrNull(
+			@NonNull final DocumentQueryOrderByList orderBys,
+			final int firstRow,
+			final int pageLength)
+	{
+		if (firstRow != 0 || pageLength <= 0)
+		{
+			return null;
+		}
+
+		// Facet filters are applied on top of the materialized selection
+		if (!facetFilters.isEmpty())
+		{
+			return null;
+		}
+
+		// Selections already created or being created
+		if (currentSelectionsRef.getValue() != null || deferredSelectionsRef.get() != null)
+		{
+			return null;
+		}
+
+		if (!viewDataRepository.isDeferredSelectionSupported(orderBys))
+		{
+			return null;
+		}
+
+		return ViewFirstPageQuery.builder()
+				.viewId(viewId)
+				.filters(filtersExcludingFacets)
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.orderBys(orderBys)
+				.pageLength(pageLength + 1) // one more row to find out if there are more rows than one page
+				.build();
+	}
+
+	/**
+	 * Starts creating the selections asynchronously. Until they are created, {@link #getSize()} returns an estimation.
+	 *
+	 * @param probeRowsCount how many rows were fetched using the query from {@link #getFirstPageProbeQueryOrNull(DocumentQueryOrderByList, int, int)}
+	 */
+	public void onFirstPageProbed(@NonNull final ViewFirstPageQuery probeQuery, final int probeRowsCount)
+	{
+		final long estimatedSize;
+		if (probeRowsCount < probeQuery.getPageLength())
+		{
+			// we got all rows
+			estimatedSize = probeRowsCount;
+		}
+		else
+		{
+			final long estimatedSizeFromDB = viewDataRepository.estimateRowsCount(getViewEvaluationCtx(), filtersExcludingFacets, applySecurityRestrictions);
+			estimatedSize = Math.max(estimatedSizeFromDB, probeRowsCount);
+		}
+
+		final DeferredSelections deferredSelections = new DeferredSelections(estimatedSize);
+		if (!deferredSelectionsRef.compareAndSet(null, deferredSelections))
+		{
+			// already started
+			return;
+		}
+
+		// NOTE: the selections are created in the executor's thread, so we explicitly pass it a copy of the current context.
+		// They are created out of trx, i.e. they are visible to other threads right away.
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		final CompletableFuture<Void> future;
+		try
+		{
+			future = CompletableFuture.runAsync(() -> createDeferredSelections(deferredSelections, ctx), getDeferredSelectionsExecutor());
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			// NOTE: the selections will be created synchronously on next access
+			logger.warn("Cannot create deferred selections for {} because the executor is busy", viewId, ex);
+			deferredSelectionsRef.compareAndSet(deferredSelections, null);
+			return;
+		}
+
+		future.whenComplete((result, ex) -> {
+			deferredSelections.markDone();
+			if (ex != null)
+			{
+				// NOTE: the selections will be created synchronously on next access
+				logger.warn("Failed creating deferred selections for {}", viewId, ex);
+			}
+			else if (onDeferredSelectionsCreated != null && deferredSelectionsRef.get() == deferredSelections)
+			{
+				onDeferredSelectionsCreated.run();
+			}
+		});
+	}
+
+	private Executor getDeferredSelectionsExecutor()
+	{
+		return deferredSelectionsExecutor != null
+				? deferredSelectionsExecutor
+				: SpringContextHolder.instance.getBean(ThreadPoolTaskExecutor.class);
+	}
+
+	private void createDeferredSelections(@NonNull final DeferredSelections deferredSelections, @NonNull final Properties ctx)
+	{
+		// forgotten in meantime
+		if (deferredSelectionsRef.get() != deferredSelections)
+		{
+			return;
+		}
+
+		try (final IAutoCloseable c = Env.switchContext(ctx))
+		{
+			getCurrentSelections();
+		}
+	}
+
+	@Nullable
+	private DeferredSelections getPendingDeferredSelectionsOrNull()
+	{
+		final DeferredSelections deferredSelections = deferredSelectionsRef.get();
+		return deferredSelections != null && !deferredSelections.isDone() ? deferredSelections : null;
+	}
+
+	private static final class DeferredSelections
+	{
+		private final long estimatedSize;
+		private volatile boolean done = false;
+
+		private DeferredSelections(final long estimatedSize)
+		{
+			this.estimatedSize = estimatedSize;
+		}
+
+		public long getEstimatedSize()
+		{
+			return estimatedSize;
+		}
+
+		public boolean isDone()
+		{
+			return done;
+		}
+
+		public void markDone()
+		{
+			done = true;
+		}
+	}
 }
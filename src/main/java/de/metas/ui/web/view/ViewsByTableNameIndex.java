@@ -0,0 +1,144 @@
+package de.metas.ui.web.view;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reverse index from table name to the live views which shall be notified when records of that table are changed.
+ * <p>
+ * Views which don't know their invalidating tables (see {@link IView#getInvalidatingTableNamesOrNull()}) are notified about any change.
+ */
+final class ViewsByTableNameIndex
+{
+	private final LinkedHashMap<ViewId, IView> viewsById = new LinkedHashMap<>();
+	/** NOTE: null values are for the views which shall be notified about any change */
+	private final HashMap<ViewId, Set<String>> tableNamesByViewId = new HashMap<>();
+	private final HashMap<String, LinkedHashMap<ViewId, IView>> viewsByTableName = new HashMap<>();
+	private final LinkedHashMap<ViewId, IView> viewsForAnyTable = new LinkedHashMap<>();
+
+	public synchronized void add(@NonNull final IView view)
+	{
+		final ViewId viewId = view.getViewId();
+		remove(viewId);
+
+		final Set<String> tableNames = view.getInvalidatingTableNamesOrNull();
+		if (tableNames == null)
+		{
+			viewsForAnyTable.put(viewId, view);
+		}
+		else
+		{
+			tableNames.forEach(tableName -> viewsByTableName.computeIfAbsent(tableName, k -> new LinkedHashMap<>()).put(viewId, view));
+		}
+
+		viewsById.put(viewId, view);
+		tableNamesByViewId.put(viewId, tableNames);
+	}
+
+	/**
+	 * Removes the given view, but only if it's the one which is currently indexed for its viewId.
+	 */
+	public synchronized void remove(@NonNull final IView view)
+	{
+		final ViewId viewId = view.getViewId();
+		if (viewsById.get(viewId) == view)
+		{
+			remove(viewId);
+		}
+	}
+
+	private void remove(@NonNull final ViewId viewId)
+	{
+		if (viewsById.remove(viewId) == null)
+		{
+			return;
+		}
+
+		final Set<String> tableNames = tableNamesByViewId.remove(viewId);
+		if (tableNames == null)
+		{
+			viewsForAnyTable.remove(viewId);
+			return;
+		}
+
+		for (final String tableName : tableNames)
+		{
+			final Map<ViewId, IView> views = viewsByTableName.get(tableName);
+			if (views != null)
+			{
+				views.remove(viewId);
+				if (views.isEmpty())
+				{
+					viewsByTableName.remove(tableName);
+				}
+			}
+		}
+	}
+
+	public synchronized int size()
+	{
+		return viewsById.size();
+	}
+
+	/**
+	 * @return the views which might be affected by given record changes
+	 */
+	public synchronized ImmutableList<IView> getViewsAffectedBy(@NonNull final TableRecordReferenceSet recordRefs)
+	{
+		final LinkedHashMap<ViewId, IView> result = new LinkedHashMap<>(viewsForAnyTable);
+		if (viewsByTableName.isEmpty())
+		{
+			return ImmutableList.copyOf(result.values());
+		}
+
+		final HashSet<String> tableNamesSeen = new HashSet<>();
+		for (final TableRecordReference recordRef : recordRefs)
+		{
+			final String tableName = recordRef.getTableName();
+			if (!tableNamesSeen.add(tableName))
+			{
+				continue;
+			}
+
+			final Map<ViewId, IView> views = viewsByTableName.get(tableName);
+			if (views != null)
+			{
+				result.putAll(views);
+			}
+		}
+
+		return ImmutableList.copyOf(result.values());
+	}
+}
@@ -72,6 +72,7 @@ public class ViewsRepository implements IViewsRepository
 	private final SqlViewFactory defaultFactory;
 
 	private final MenuTreeRepository menuTreeRepo;
+	private final SqlViewSelectionsCache selectionsCache;
 
 	@Value("${metasfresh.webui.view.truncateOnStartUp:true}")
 	private boolean truncateSelectionOnStartUp;
@@ -88,7 +89,8 @@ public class ViewsRepository implements IViewsRepository
 			@NonNull final List<IViewFactory> viewFactories,
 			@SuppressWarnings("OptionalUsedAsFieldOrParameterType") @NonNull final Optional<List<IViewsIndexStorage>> viewIndexStorages,
 			final SqlViewFactory defaultFactory,
-			final MenuTreeRepository menuTreeRepo)
+			final MenuTreeRepository menuTreeRepo,
+			final SqlViewSelectionsCache selectionsCache)
 	{
 		factories = createFactoriesMap(viewFactories);
 		factories.values().forEach(viewFactory -> viewFactory.setViewsRepository(this));
@@ -99,6 +101,7 @@ public class ViewsRepository implements IViewsRepository
 		logger.info("Registered following view index storages: {}", this.viewsIndexStorages);
 		this.defaultFactory = defaultFactory;
 		this.menuTreeRepo = menuTreeRepo;
+		this.selectionsCache = selectionsCache;
 
 		final int viewExpirationTimeoutInMinutes = Services.get(ISysConfigBL.class).getIntValue("de.metas.ui.web.view.ViewExpirationTimeoutInMinutes", 60);
 		defaultViewsIndexStorage = new DefaultViewsRepositoryStorage(viewExpirationTimeoutInMinutes);
@@ -221,6 +224,12 @@ public class ViewsRepository implements IViewsRepository
 				.flatMap(IViewsIndexStorage::streamAllViews);
 	}
 
+	private Stream<IView> streamViewsAffectedBy(final TableRecordReferenceSet recordRefs)
+	{
+		return Streams.concat(viewsIndexStorages.values().stream(), Stream.of(defaultViewsIndexStorage))
+				.flatMap(viewsIndexStorage -> viewsIndexStorage.streamViewsAffectedBy(recordRefs));
+	}
+
 	@Override
 	public List<ViewProfile> getAvailableProfiles(final WindowId windowId, final JSONViewDataType viewDataType)
 	{
@@ -400,10 +409,13 @@ public class ViewsRepository implements IViewsRepository
 			return;
 		}
 
+		// Make sure new views won't copy selections which might be stale
+		selectionsCache.notifyRecordsChanged(recordRefs);
+
 		try (final IAutoCloseable ignored = ViewChangesCollector.currentOrNewThreadLocalCollector())
 		{
 			final MutableInt notifiedCount = MutableInt.zero();
-			streamAllViews()
+			streamViewsAffectedBy(recordRefs)
 					.forEach(view -> {
 						try
 						{
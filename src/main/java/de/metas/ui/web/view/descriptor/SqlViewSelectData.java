@@ -67,10 +67,17 @@ public class SqlViewSelectData
 	public static final String COLUMNNAME_Paging_Parent_Prefix = COLUMNNAME_Paging_Prefix + "parent_";
 	public static final String COLUMNNAME_IsRecordMissing = COLUMNNAME_Paging_Prefix + "IsRecordMissing";
 
+	public static final String COLUMNNAME_FieldValueCount_Grouping = "_facet_grouping";
+	public static final String COLUMNNAME_FieldValueCount_Count = "_facet_count";
+	private static final String COLUMNNAME_FieldValueCount_Rank = "_facet_rank";
+	private static final int FIELD_VALUE_COUNTS_MAX_FIELDS = 31;
+
 	private final String sqlTableName;
+	private final String sqlTableAlias;
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
 	private final ImmutableSet<String> displayFieldNames;
 	private final ImmutableMap<String, SqlViewRowFieldBinding> fieldsByFieldName;
+	private final boolean grouping;
 
 	@Getter(AccessLevel.PRIVATE)
 	private final IStringExpression sqlSelectByPage;
@@ -90,9 +97,11 @@ public class SqlViewSelectData
 			@Nullable final SqlViewGroupingBinding groupingBinding)
 	{
 		this.sqlTableName = sqlTableName;
+		this.sqlTableAlias = sqlTableAlias;
 		this.keyColumnNamesMap = keyColumnNamesMap;
 		this.displayFieldNames = ImmutableSet.copyOf(displayFieldNames);
 		this.fieldsByFieldName = Maps.uniqueIndex(allFields, SqlViewRowFieldBinding::getFieldName);
+		this.grouping = groupingBinding != null;
 
 		final IStringExpression sqlSelect = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, groupingBinding);
 
@@ -160,7 +169,7 @@ public class SqlViewSelectData
 	{
 		if (groupingBinding == null)
 		{
-			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields);
+			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, null);
 		}
 		else
 		{
@@ -168,12 +177,16 @@ public class SqlViewSelectData
 		}
 	}
 
+	/**
+	 * @param sqlSelectionFrom SQL which provides the selection lines (same columns as {@link I_T_WEBUI_ViewSelection}) or <code>null</code> if {@link I_T_WEBUI_ViewSelection} shall be used
+	 */
 	private static IStringExpression buildSqlSelect_WithoutGrouping(
 			@NonNull final String sqlTableName,
 			@NonNull final String sqlTableAlias,
 			@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap,
 			@NonNull final Collection<String> displayFieldNames,
-			@NonNull final Collection<SqlViewRowFieldBinding> allFields)
+			@NonNull final Collection<SqlViewRowFieldBinding> allFields,
+			@Nullable final String sqlSelectionFrom)
 	{
 		final List<String> sqlSelectValuesList = new ArrayList<>();
 		final List<IStringExpression> sqlSelectDisplayNamesList = new ArrayList<>();
@@ -211,12 +224,20 @@ public class SqlViewSelectData
 				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " AS " + COLUMNNAME_Paging_SeqNo_OneBased)
 				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + " AS " + COLUMNNAME_Paging_UUID)
 				.append("\n , ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated(columnName -> "sel." + columnName + " AS " + COLUMNNAME_Paging_Prefix + columnName))
-				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing)
-				.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
-				.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
-				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
-				.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
-				.append("\n ) " + sqlTableAlias); // FROM
+				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing);
+		if (sqlSelectionFrom == null)
+		{
+			sql.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+					.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
+					// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
+					.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?");
+		}
+		else
+		{
+			sql.append("\n   FROM (" + sqlSelectionFrom + ") sel")
+					.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")");
+		}
+		sql.append("\n ) " + sqlTableAlias); // FROM
 
 		return sql.build().caching();
 	}
@@ -414,6 +435,32 @@ public class SqlViewSelectData
 		return SqlAndParams.of(sql, viewSelectionId, firstSeqNo, lastSeqNo);
 	}
 
+	/**
+	 * @param sqlSelectionLines SQL which provides the page's selection lines (UUID, Line, keys), to be used instead of {@link I_T_WEBUI_ViewSelection}.
+	 *            See {@link SqlViewSelectionQueryBuilder#buildSqlSelectFirstPage(ViewEvaluationCtx, ViewId, de.metas.ui.web.document.filter.DocumentFilterList, boolean, int)}
+	 *            or {@link SqlViewSelectionQueryBuilder#buildSqlSelectSelectionLinesFromRowIds(ViewId, int[], int)}.
+	 */
+	public SqlAndParams selectBySelectionLines(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final SqlAndParams sqlSelectionLines)
+	{
+		Check.assume(!grouping, "selecting by selection lines is not supported when grouping");
+
+		final String sql = buildSqlSelect_WithoutGrouping(
+				sqlTableName,
+				sqlTableAlias,
+				keyColumnNamesMap,
+				displayFieldNames,
+				fieldsByFieldName.values(),
+				sqlSelectionLines.getSql())
+						.toComposer()
+						.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
+						.build()
+						.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+
+		return SqlAndParams.of(sql, sqlSelectionLines.getSqlParams());
+	}
+
 	@Builder(builderMethodName = "selectById", builderClassName = "SelectByIdBuilder")
 	private SqlAndParams selectByIdBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
@@ -453,60 +500,106 @@ public class SqlViewSelectData
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
-	public SqlAndParams selectFieldValues(
+	/**
+	 * Builds the SQL which counts the rows of given selection for each distinct value of given fields, in one go, using <code>GROUPING SETS</code>.
+	 * <p>
+	 * Each resulting row contains:
+	 * <ul>
+	 * <li>the value (and display value) of the field it belongs to. Use {@link #extractFieldIndexFromGroupingMask(int, int)} on {@link #COLUMNNAME_FieldValueCount_Grouping} to find out which field.
+	 * <li>{@link #COLUMNNAME_FieldValueCount_Count}
+	 * </ul>
+	 * Only the <code>limitPerField</code> most frequent values of each field are returned.
+	 */
+	public SqlAndParams selectFieldValueCounts(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final String selectionId,
-			@NonNull final String fieldName,
-			final int limit)
+			@NonNull final List<String> fieldNames,
+			final int limitPerField)
 	{
-		Check.assumeGreaterThanZero(limit, "limit");
-
-		final SqlViewRowFieldBinding field = fieldsByFieldName.get(fieldName);
-		if (field == null)
+		Check.assumeNotEmpty(fieldNames, "fieldNames is not empty");
+		Check.assume(fieldNames.size() <= FIELD_VALUE_COUNTS_MAX_FIELDS, "Maximum {} fields are allowed but got {}", FIELD_VALUE_COUNTS_MAX_FIELDS, fieldNames);
+		Check.assumeGreaterThanZero(limitPerField, "limitPerField");
+
+		final List<String> valueAliases = new ArrayList<>();
+		final List<String> selectedAliases = new ArrayList<>();
+		final List<String> groupingSets = new ArrayList<>();
+		final CompositeStringExpression.Builder sqlInnerSelect = IStringExpression.composer();
+		for (final String fieldName : fieldNames)
 		{
-			throw new AdempiereException("Field `" + fieldName + "` not found. Available fields are: " + fieldsByFieldName.keySet());
-		}
+			final SqlViewRowFieldBinding field = fieldsByFieldName.get(fieldName);
+			if (field == null)
+			{
+				throw new AdempiereException("Field `" + fieldName + "` not found. Available fields are: " + fieldsByFieldName.keySet());
+			}
 
-		final SqlSelectValue sqlValue = field.getSqlSelectValue();
+			final SqlSelectValue sqlValue = field.getSqlSelectValue();
+			valueAliases.add(sqlValue.getColumnNameAlias());
+			selectedAliases.add(sqlValue.getColumnNameAlias());
 
-		final SqlSelectDisplayValue sqlDisplayValue;
-		if (field.getSqlSelectDisplayValue() != null && displayFieldNames.contains(fieldName))
-		{
-			sqlDisplayValue = field.getSqlSelectDisplayValue();
-		}
-		else
-		{
-			sqlDisplayValue = null;
-		}
+			sqlInnerSelect.append(selectedAliases.size() == 1 ? "\n " : "\n, ")
+					.append(sqlValue.withJoinOnTableNameOrAlias(sqlTableName).toSqlStringWithColumnNameAlias());
 
-		final CompositeStringExpression.Builder sqlExpression = IStringExpression.composer()
-				.append("SELECT DISTINCT ")
-				.append(sqlValue.getColumnNameAlias());
-		if (sqlDisplayValue != null)
-		{
-			sqlExpression.append(", ").append(sqlDisplayValue.getColumnNameAlias());
+			if (field.getSqlSelectDisplayValue() != null && displayFieldNames.contains(fieldName))
+			{
+				final SqlSelectDisplayValue sqlDisplayValue = field.getSqlSelectDisplayValue();
+				selectedAliases.add(sqlDisplayValue.getColumnNameAlias());
+				sqlInnerSelect.append("\n, ").append(sqlDisplayValue.withJoinOnTableNameOrAlias(sqlTableName).toStringExpressionWithColumnNameAlias());
+				groupingSets.add("(" + sqlValue.getColumnNameAlias() + ", " + sqlDisplayValue.getColumnNameAlias() + ")");
+			}
+			else
+			{
+				groupingSets.add("(" + sqlValue.getColumnNameAlias() + ")");
+			}
 		}
 
-		sqlExpression
+		final String sqlGrouping = "GROUPING(" + Joiner.on(", ").join(valueAliases) + ")";
+
+		// the NULL values are not counted, so they don't take one of the ranks; a column which is not grouped is NULL too, so it's not checked
+		final String sqlHavingValueNotNull = valueAliases.stream()
+				.map(valueAlias -> "(GROUPING(" + valueAlias + ")=1 OR " + valueAlias + " IS NOT NULL)")
+				.collect(Collectors.joining(" AND "));
+
+		final IStringExpression sqlExpression = IStringExpression.composer()
+				.append("SELECT * FROM (")
+				.append("\n SELECT " + Joiner.on(", ").join(selectedAliases))
+				.append("\n, " + sqlGrouping + " AS " + COLUMNNAME_FieldValueCount_Grouping)
+				.append("\n, COUNT(1) AS " + COLUMNNAME_FieldValueCount_Count)
+				.append("\n, ROW_NUMBER() OVER (PARTITION BY " + sqlGrouping + " ORDER BY COUNT(1) DESC) AS " + COLUMNNAME_FieldValueCount_Rank)
 				.append("\n FROM (")
 				.append("\n SELECT ")
-				.append("\n ").append(sqlValue.withJoinOnTableNameOrAlias(sqlTableName).toSqlStringWithColumnNameAlias());
-		if (sqlDisplayValue != null)
-		{
-			sqlExpression
-					.append("\n, ").append(sqlDisplayValue.withJoinOnTableNameOrAlias(sqlTableName).toStringExpressionWithColumnNameAlias());
-		}
-		sqlExpression.append("\n FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+				.append(sqlInnerSelect.build())
+				.append("\n FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
 				.append("\n INNER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
 				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
 				.append("\n WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
-				.append("\n ORDER BY sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
 				.append("\n) t")
-				.append("\n LIMIT ?");
+				.append("\n GROUP BY GROUPING SETS (" + Joiner.on(", ").join(groupingSets) + ")")
+				.append("\n HAVING " + sqlHavingValueNotNull)
+				.append("\n) f")
+				.append("\n WHERE " + COLUMNNAME_FieldValueCount_Rank + " <= ?")
+				.build();
+
+		final String sql = sqlExpression.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+
+		return SqlAndParams.of(sql, selectionId, limitPerField);
+	}
 
-		final String sql = sqlExpression.build()
-				.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+	/**
+	 * @return the index of the field (as given to {@link #selectFieldValueCounts(ViewEvaluationCtx, String, List, int)}) to which the value count row belongs
+	 */
+	public static int extractFieldIndexFromGroupingMask(final int groupingMask, final int fieldsCount)
+	{
+		// NOTE: GROUPING(...) sets the bit of each argument which is NOT part of the current grouping set,
+		// the rightmost argument being the least significant bit.
+		for (int fieldIndex = 0; fieldIndex < fieldsCount; fieldIndex++)
+		{
+			final int bit = 1 << (fieldsCount - 1 - fieldIndex);
+			if ((groupingMask & bit) == 0)
+			{
+				return fieldIndex;
+			}
+		}
 
-		return SqlAndParams.of(sql, selectionId, limit);
+		throw new AdempiereException("No grouped field found for groupingMask=" + groupingMask + ", fieldsCount=" + fieldsCount);
 	}
 }
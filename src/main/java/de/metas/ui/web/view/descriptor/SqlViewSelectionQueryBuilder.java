@@ -27,6 +27,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -42,6 +43,8 @@ import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.logging.LogManager;
 import de.metas.security.IUserRolePermissions;
 import de.metas.security.impl.AccessSqlStringExpression;
@@ -133,9 +136,50 @@ public final class SqlViewSelectionQueryBuilder
 
 	private SqlOrderByValue getFieldOrderBy(final String fieldName)
 	{
+		if (SqlDocumentFilterConverter.ORDERBY_FIELDNAME_RelevanceRank.equals(fieldName))
+		{
+			// not available because we don't know the filter which provides the rank
+			return SqlOrderByValue.builder().build();
+		}
+
 		return _viewBinding.getFieldOrderBy(fieldName);
 	}
 
+	private SqlOrderByValue getFieldOrderBy(
+			final String fieldName,
+			@Nullable final DocumentFilterList filters,
+			final String sqlTableAlias)
+	{
+		if (SqlDocumentFilterConverter.ORDERBY_FIELDNAME_RelevanceRank.equals(fieldName))
+		{
+			return getSqlRelevanceRank(filters, sqlTableAlias)
+					.map(sqlRelevanceRank -> SqlOrderByValue.builder()
+							.sqlSelectValue(SqlSelectValue.builder()
+									.virtualColumnSql(sqlRelevanceRank)
+									.columnNameAlias(fieldName)
+									.build())
+							.build())
+					.orElseGet(() -> SqlOrderByValue.builder().build());
+		}
+
+		return getFieldOrderBy(fieldName);
+	}
+
+	private Optional<String> getSqlRelevanceRank(@Nullable final DocumentFilterList filters, final String sqlTableAlias)
+	{
+		if (filters == null || filters.isEmpty())
+		{
+			return Optional.empty();
+		}
+
+		final SqlDocumentFilterConverter filterConverter = getSqlDocumentFilterConverter();
+		return filters.stream()
+				.map(filter -> filterConverter.getSqlRelevanceRank(filter, sqlTableAlias))
+				.filter(Optional::isPresent)
+				.map(Optional::get)
+				.findFirst();
+	}
+
 	private Stream<DocumentQueryOrderBy> flatMapEffectiveFieldNames(final DocumentQueryOrderBy orderBy)
 	{
 		return _viewBinding.flatMapEffectiveFieldNames(orderBy);
@@ -239,27 +283,97 @@ public final class SqlViewSelectionQueryBuilder
 			final int queryLimit,
 			final SqlDocumentFilterConverterContext filterConverterCtx)
 	{
-		final String sqlTableName = getTableName();
-		final String sqlTableAlias = getTableAlias();
 		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		final SqlAndParams sqlSelect = buildSqlSelectSelection_WithoutGrouping(viewEvalCtx, newViewId, filters, orderBys, queryLimit, filterConverterCtx);
 
 		//
-		// INSERT INTO T_WEBUI_ViewSelection[Line] (...)
-		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
-		sqlBuilder.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
-				+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
-				+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line // SeqNo
-				+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated() // keys: IntKey1... StringKey1...
-				+ ")");
+		// INSERT INTO T_WEBUI_ViewSelection[Line] (...) SELECT ...
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line // SeqNo
+						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated() // keys: IntKey1... StringKey1...
+						+ ")")
+				.append(sqlSelect)
+				.build();
+	}
+
+	/**
+	 * @return
+	 *
+	 *         <pre>
+	 * WITH sel AS (SELECT UUID, Line, keyColumnName FROM ... WHERE ... LIMIT queryLimit)
+	 * , sel_count AS (SELECT count(1) AS RowsCount FROM sel)
+	 * , sel_insert AS (INSERT INTO T_WEBUI_ViewSelection SELECT * FROM sel WHERE RowsCount > maxRowIdsToSelect)
+	 * SELECT RowsCount, keyColumnName FROM sel_count LEFT OUTER JOIN sel ON RowsCount <= maxRowIdsToSelect ORDER BY Line
+	 *         </pre>
+	 *
+	 *         i.e. the selection's rows count and, if the selection has not more than <code>maxRowIdsToSelect</code> rows, its ordered row IDs.
+	 *         Else the selection is created the same way as {@link #buildSqlCreateSelectionFrom(ViewEvaluationCtx, ViewId, DocumentFilterList, DocumentQueryOrderByList, int, SqlDocumentFilterConverterContext)} does
+	 *         and the row IDs are <code>NULL</code>.
+	 *         Only single integer keys are supported.
+	 */
+	public SqlAndParams buildSqlCreateSelectionOrSelectRowIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final int queryLimit,
+			final int maxRowIdsToSelect,
+			final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		Check.assume(!hasGroupingFields(), "grouping is not supported");
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		Check.assume(keyColumnNamesMap.isSingleIntKey(), "single integer key: {}", keyColumnNamesMap);
+
+		final SqlAndParams sqlSelect = buildSqlSelectSelection_WithoutGrouping(viewEvalCtx, newViewId, filters, orderBys, queryLimit, filterConverterCtx);
+		return SqlAndParams.builder()
+				.append("WITH sel AS (\n")
+				.append(sqlSelect)
+				.append("\n)")
+				.append("\n, sel_count AS (SELECT count(1) AS RowsCount FROM sel)")
+				// NOTE: data modifying statements in WITH are executed even if the primary query is not using them
+				.append("\n, sel_insert AS (")
+				.append("\n INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
+						+ ")")
+				.append("\n SELECT sel.* FROM sel WHERE (SELECT RowsCount FROM sel_count) > ?", maxRowIdsToSelect)
+				.append("\n)")
+				.append("\nSELECT sel_count.RowsCount, sel." + keyColumnNamesMap.getSingleKeyColumnName())
+				.append("\n FROM sel_count")
+				.append("\n LEFT OUTER JOIN sel ON sel_count.RowsCount <= ?", maxRowIdsToSelect)
+				.append("\n ORDER BY sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.build();
+	}
+
+	private SqlAndParams buildSqlSelectSelection_WithoutGrouping(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final int queryLimit,
+			final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final String sqlTableName = getTableName();
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
 
 		//
 		// SELECT ... FROM ... WHERE 1=1
+		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
 		final ArrayList<Object> sqlParams = new ArrayList<>();
 		{
-			final IStringExpression sqlOrderBy = SqlDocumentOrderByBuilder.newInstance(this::getFieldOrderBy)
+			// In case of full text search and no explicit ordering, order by relevance
+			final DocumentQueryOrderByList orderBysEffective = (orderBys == null || orderBys.isEmpty()) && getSqlRelevanceRank(filters, sqlTableAlias).isPresent()
+					? DocumentQueryOrderByList.ofList(ImmutableList.of(DocumentQueryOrderBy.byFieldName(SqlDocumentFilterConverter.ORDERBY_FIELDNAME_RelevanceRank, true)))
+					: orderBys;
+
+			final IStringExpression sqlOrderBy = SqlDocumentOrderByBuilder.newInstance(fieldName -> getFieldOrderBy(fieldName, filters, sqlTableAlias))
 					.joinOnTableNameOrAlias(sqlTableAlias)
 					.useColumnNameAlias(false)
-					.buildSqlOrderBy(orderBys)
+					.buildSqlOrderBy(orderBysEffective)
 					.orElseGet(() -> ConstantStringExpression.of(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)));
 
 			final IStringExpression sqlSeqNo = IStringExpression.composer()
@@ -269,8 +383,8 @@ public final class SqlViewSelectionQueryBuilder
 			sqlBuilder.append(
 					IStringExpression.composer()
 							.append("\n SELECT ")
-							.append("\n  ?") // UUID
-							.append("\n, ").append(sqlSeqNo) // Line/SeqNo
+							.append("\n  ? AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID) // UUID
+							.append("\n, ").append(sqlSeqNo).append(" AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line) // Line/SeqNo
 							.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)) // keys
 							//
 							.append("\n FROM ").append(sqlTableName).append(" ").append(sqlTableAlias)
@@ -310,6 +424,186 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	/**
+	 * @return
+	 *
+	 *         <pre>
+	 * SELECT [viewId] AS UUID, Line, IntKey1 FROM (VALUES (firstLine, rowId1), (firstLine + 1, rowId2) ...)
+	 *         </pre>
+	 *
+	 *         i.e. the selection lines of an in memory selection, which can be used instead of {@link I_T_WEBUI_ViewSelection}.
+	 *         See {@link SqlViewSelectData#selectBySelectionLines(ViewEvaluationCtx, SqlAndParams)}.
+	 */
+	public SqlAndParams buildSqlSelectSelectionLinesFromRowIds(
+			@NonNull final ViewId viewId,
+			@NonNull final int[] rowIds,
+			final int firstLine)
+	{
+		Check.assume(rowIds.length > 0, "rowIds not empty");
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		Check.assume(keyColumnNamesMap.isSingleIntKey(), "single integer key: {}", keyColumnNamesMap);
+		final String webuiSelectionColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+
+		final StringBuilder sqlValues = new StringBuilder();
+		for (int i = 0; i < rowIds.length; i++)
+		{
+			if (i > 0)
+			{
+				sqlValues.append(",");
+			}
+			sqlValues.append("(").append(firstLine + i).append(",").append(rowIds[i]).append(")");
+		}
+
+		return SqlAndParams.builder()
+				.append("SELECT ? AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID, viewId.getViewId())
+				.append(", v." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.append(", v." + webuiSelectionColumnName)
+				.append("\n FROM (VALUES " + sqlValues + ") v(" + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ", " + webuiSelectionColumnName + ")")
+				.build();
+	}
+
+	/**
+	 * @return SQL which saves given in memory selection lines to {@link I_T_WEBUI_ViewSelection}
+	 */
+	public SqlAndParams buildSqlInsertSelectionFromRowIds(
+			@NonNull final ViewId viewId,
+			@NonNull final int[] rowIds,
+			final int firstLine)
+	{
+		final String webuiSelectionColumnName = getSqlViewKeyColumnNamesMap().getSingleWebuiSelectionColumnName();
+
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + webuiSelectionColumnName
+						+ ")\n")
+				.append(buildSqlSelectSelectionLinesFromRowIds(viewId, rowIds, firstLine))
+				.build();
+	}
+
+	/**
+	 * Same as {@link #buildSqlWhereClause(String, DocumentIdsSelection)} but for an in memory selection.
+	 */
+	public String buildSqlWhereClauseFromRowIds(@NonNull final int[] rowIds)
+	{
+		if (rowIds.length <= 0)
+		{
+			return "1=0";
+		}
+
+		final String sqlKeyColumnName = getTableName() + "." + getSqlViewKeyColumnNamesMap().getSingleKeyColumnName();
+		return sqlKeyColumnName + " IN " + Arrays.stream(rowIds).mapToObj(String::valueOf).collect(Collectors.joining(",", "(", ")"));
+	}
+
+	/**
+	 * @return
+	 *
+	 *         <pre>
+	 * SELECT [viewId] AS UUID, row_number() OVER (ORDER BY keys) AS Line, keys
+	 * FROM (SELECT keys FROM ourTable WHERE [filters] ORDER BY keys LIMIT [pageLength])
+	 *         </pre>
+	 *
+	 *         i.e. the first page of the selection, built directly from the source table, without creating the selection.
+	 *         The result can be used instead of {@link I_T_WEBUI_ViewSelection}, see {@link SqlViewSelectData#selectBySelectionLines(ViewEvaluationCtx, SqlAndParams)}.
+	 */
+	public SqlAndParams buildSqlSelectFirstPage(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentFilterList filters,
+			final boolean ascending,
+			final int pageLength)
+	{
+		Check.assume(!hasGroupingFields(), "fetching the first page from source table is not supported when grouping");
+		Check.assumeGreaterThanZero(pageLength, "pageLength");
+
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		final String sqlOrderBy = ascending
+				? keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)
+				: keyColumnNamesMap.getKeyColumnNamesCommaSeparated(keyColumnName -> sqlTableAlias + "." + keyColumnName + " DESC");
+		final String sqlPageOrderBy = keyColumnNamesMap.getKeyColumnNamesCommaSeparated(keyColumnName -> "page." + keyColumnName + (ascending ? "" : " DESC"));
+
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+
+		//
+		// SELECT UUID, Line, IntKey1... StringKey1...
+		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
+		sqlBuilder.append("SELECT ")
+				.append("\n  ? AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID)
+				.append("\n, row_number() OVER (ORDER BY " + sqlPageOrderBy + ") AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamePairsCommaSeparated((keyColumnName, webuiSelectionColumnName) -> "page." + keyColumnName + " AS " + webuiSelectionColumnName))
+				.append("\n FROM (");
+		sqlParams.add(viewId.getViewId());
+
+		//
+		// SELECT keys FROM ... WHERE ...
+		appendSqlSelectKeysFromSourceTable(sqlBuilder, sqlParams, filters);
+
+		sqlBuilder.append("\n ORDER BY " + sqlOrderBy)
+				.append("\n LIMIT ?")
+				.append("\n) page");
+		sqlParams.add(pageLength);
+
+		//
+		// Evaluate the final SQL query
+		final String sql = sqlBuilder.build().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
+	/**
+	 * @return
+	 *
+	 *         <pre>
+	 * SELECT keys FROM table WHERE ...
+	 *         </pre>
+	 *
+	 *         i.e. the rows which would be part of the selection, but unordered and not limited. Useful for estimating the selection size.
+	 */
+	public SqlAndParams buildSqlSelectKeysFromSourceTable(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final DocumentFilterList filters)
+	{
+		Check.assume(!hasGroupingFields(), "grouping is not supported");
+
+		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+		appendSqlSelectKeysFromSourceTable(sqlBuilder, sqlParams, filters);
+
+		final String sql = sqlBuilder.build().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
+	private void appendSqlSelectKeysFromSourceTable(
+			@NonNull final CompositeStringExpression.Builder sqlBuilder,
+			@NonNull final List<Object> sqlParams,
+			@NonNull final DocumentFilterList filters)
+	{
+		final String sqlTableName = getTableName();
+		final String sqlTableAlias = getTableAlias();
+		final String sqlKeyColumnNames = getSqlViewKeyColumnNamesMap().getKeyColumnNamesCommaSeparated(sqlTableAlias);
+
+		//
+		// SELECT keys FROM ... WHERE 1=1
+		sqlBuilder.append(
+				IStringExpression.composer()
+						.append("\n SELECT ").append(sqlKeyColumnNames)
+						.append("\n FROM ").append(sqlTableName).append(" ").append(sqlTableAlias)
+						.append("\n WHERE 1=1 ")
+						.wrap(securityRestrictionsWrapper(sqlTableAlias)) // security
+		);
+
+		//
+		// WHERE clause (from query)
+		final SqlParamsCollector sqlWhereClauseParams = SqlParamsCollector.newInstance();
+		final IStringExpression sqlWhereClause = buildSqlWhereClause(sqlWhereClauseParams, filters, SqlOptions.usingTableAlias(sqlTableAlias), SqlDocumentFilterConverterContext.EMPTY);
+		if (sqlWhereClause != null && !sqlWhereClause.isNullExpression())
+		{
+			sqlBuilder.append("\n AND (\n").append(sqlWhereClause).append("\n)");
+			sqlParams.addAll(sqlWhereClauseParams.toList());
+		}
+	}
+
 	private SqlAndParams buildSqlCreateSelectionLines_WithGrouping(
 			final ViewEvaluationCtx viewEvalCtx,
 			final ViewId newViewId,
@@ -465,6 +759,22 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of(sqlCreateSelectionFromLines, sqlCreateSelectionFromLinesParams);
 	}
 
+	/**
+	 * @return true if the selection might depend on other tables than the view's table, i.e. the entity has a WHERE clause or any of the given filters depends on other tables
+	 * @see SqlDocumentFilterConverter#isDependingOnOtherTables(DocumentFilterList)
+	 */
+	public boolean isSelectionDependingOnOtherTables(@NonNull final DocumentFilterList filters)
+	{
+		// we don't know which tables are used by the entity's WHERE clause
+		final IStringExpression entityWhereClauseExpression = getSqlWhereClause();
+		if (entityWhereClauseExpression != null && !entityWhereClauseExpression.isNullExpression())
+		{
+			return true;
+		}
+
+		return getSqlDocumentFilterConverter().isDependingOnOtherTables(filters);
+	}
+
 	private IStringExpression buildSqlWhereClause(
 			final SqlParamsCollector sqlParams,
 			@Nullable final DocumentFilterList filters,
@@ -658,6 +968,35 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of(sql, newViewId.getViewId(), fromSelectionId);
 	}
 
+	/**
+	 * @return
+	 *
+	 *         <pre>
+	 * INSERT INTO T_WEBUI_ViewSelection (UUID, Line, keys)
+	 * SELECT [newUUID], Line, keys FROM T_WEBUI_ViewSelection WHERE UUID=[fromUUID]
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlCopySelection(
+			@NonNull final ViewId newViewId,
+			@NonNull final String fromSelectionId)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
+						+ ")")
+				.append("\n SELECT ")
+				.append("\n  ?", newViewId.getViewId()) // newUUID
+				.append("\n, sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_Line) // Line
+				.append("\n, ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated("sel")) // keys
+				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
+				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
+				.build();
+	}
+
 	public String buildSqlWhereClause(final String selectionId, final DocumentIdsSelection rowIds)
 	{
 		final String sqlTableName = getTableName();
@@ -795,6 +1134,21 @@ public final class SqlViewSelectionQueryBuilder
 		}
 	}
 
+	/**
+	 * @return SQL which selects the row IDs of given selection. Only single integer keys are supported.
+	 */
+	public SqlAndParams buildSqlSelectRowIds(@NonNull final String selectionId)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		Check.assume(keyColumnNamesMap.isSingleIntKey(), "single integer key: {}", keyColumnNamesMap);
+
+		return SqlAndParams.builder()
+				.append("SELECT " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated())
+				.append(" FROM " + I_T_WEBUI_ViewSelection.Table_Name)
+				.append(" WHERE " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?", selectionId)
+				.build();
+	}
+
 	public SqlAndParams buildSqlDeleteSelection(@NonNull final Set<String> selectionIds)
 	{
 		final ArrayList<Object> sqlParams = new ArrayList<>(selectionIds.size());
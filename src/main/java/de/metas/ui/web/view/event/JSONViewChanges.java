@@ -1,6 +1,8 @@
 package de.metas.ui.web.view.event;
 
 import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Objects;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -8,9 +10,13 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
 
+import de.metas.ui.web.websocket.WebsocketMergeableEvent;
+import de.metas.ui.web.websocket.WebsocketMergeableEvent.Accumulator;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -36,7 +42,7 @@ import de.metas.ui.web.window.datatypes.WindowId;
 
 @SuppressWarnings("serial")
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public final class JSONViewChanges implements Serializable
+public final class JSONViewChanges implements Serializable, WebsocketMergeableEvent
 {
 	public static JSONViewChanges of(final ViewChanges changes)
 	{
@@ -82,6 +88,18 @@ public final class JSONViewChanges implements Serializable
 		}
 	}
 
+	private JSONViewChanges(
+			final String viewId,
+			final WindowId windowId,
+			final Boolean fullyChanged,
+			final Set<String> changedIds)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -108,4 +126,98 @@ public final class JSONViewChanges implements Serializable
 	{
 		return fullyChanged;
 	}
+
+	@Override
+	public JSONViewChanges mergeWith(@NonNull final WebsocketMergeableEvent nextEvent)
+	{
+		final JSONViewChangesAccumulator accumulator = new JSONViewChangesAccumulator(this);
+		return accumulator.add(nextEvent) ? accumulator.build() : null;
+	}
+
+	@Override
+	public Accumulator newAccumulator()
+	{
+		return new JSONViewChangesAccumulator(this);
+	}
+
+	private boolean isFullyChanged()
+	{
+		return fullyChanged != null && fullyChanged;
+	}
+
+	public Set<String> getChangedIds()
+	{
+		return changedIds;
+	}
+
+	/**
+	 * Collects the changed row ids of the next events in one set, so they are copied only once, when the merged event is built.
+	 */
+	private static final class JSONViewChangesAccumulator implements Accumulator
+	{
+		private final String viewId;
+		private final WindowId windowId;
+		private boolean fullyChanged = false;
+		private final LinkedHashSet<String> changedIds = new LinkedHashSet<>();
+
+		private JSONViewChangesAccumulator(@NonNull final JSONViewChanges firstEvent)
+		{
+			viewId = firstEvent.viewId;
+			windowId = firstEvent.windowId;
+			addChanges(firstEvent);
+		}
+
+		@Override
+		public boolean add(@NonNull final WebsocketMergeableEvent nextEvent)
+		{
+			if (!(nextEvent instanceof JSONViewChanges))
+			{
+				return false;
+			}
+
+			final JSONViewChanges next = (JSONViewChanges)nextEvent;
+			if (!Objects.equals(viewId, next.viewId) || !Objects.equals(windowId, next.windowId))
+			{
+				return false;
+			}
+
+			addChanges(next);
+			return true;
+		}
+
+		private void addChanges(final JSONViewChanges changes)
+		{
+			if (fullyChanged)
+			{
+				return;
+			}
+
+			if (changes.isFullyChanged())
+			{
+				fullyChanged = true;
+				changedIds.clear();
+			}
+			else if (changes.changedIds != null)
+			{
+				changedIds.addAll(changes.changedIds);
+			}
+		}
+
+		@Override
+		public JSONViewChanges build()
+		{
+			if (fullyChanged)
+			{
+				return new JSONViewChanges(viewId, windowId, Boolean.TRUE, null);
+			}
+			else if (changedIds.isEmpty())
+			{
+				return new JSONViewChanges(viewId, windowId, null, null);
+			}
+			else
+			{
+				return new JSONViewChanges(viewId, windowId, Boolean.FALSE, ImmutableSet.copyOf(changedIds));
+			}
+		}
+	}
 }
@@ -262,10 +262,16 @@ public class ViewChangesCollector implements IAutoCloseable
 		else
 		{
 			logger.trace("Flushing {} to websocket", this);
-			changesList.stream()
-					.filter(ViewChanges::hasChanges)
-					.map(JSONViewChanges::of)
-					.forEach(this::sendToWebsocket);
+			for (final ViewChanges changes : changesList)
+			{
+				if (!changes.hasChanges())
+				{
+					continue;
+				}
+
+				ViewChangesVersions.instance.incrementVersion(changes.getViewId());
+				sendToWebsocket(JSONViewChanges.of(changes));
+			}
 		}
 	}
 
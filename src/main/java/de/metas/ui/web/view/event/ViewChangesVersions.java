@@ -0,0 +1,81 @@
+package de.metas.ui.web.view.event;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.metas.ui.web.view.ViewId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Keeps a version for each view, which is changed each time some changes were notified for that view (see {@link ViewChangesCollector})
+ * or the view was invalidated.
+ * <p>
+ * Useful to detect if something which was computed for a view (e.g. a page which was sent to frontend) is outdated.
+ * <p>
+ * The versions are taken from one global sequence, so a version is never reused, not even after the view was not used for a while and we forgot about it.
+ */
+public final class ViewChangesVersions
+{
+	public static final transient ViewChangesVersions instance = new ViewChangesVersions();
+
+	private final AtomicLong nextVersion = new AtomicLong(1);
+
+	private final Cache<ViewId, AtomicLong> versionsByViewId = CacheBuilder.newBuilder()
+			.expireAfterAccess(1, TimeUnit.HOURS)
+			.build();
+
+	private ViewChangesVersions()
+	{
+	}
+
+	public long getVersion(@NonNull final ViewId viewId)
+	{
+		return getVersionHolder(viewId).get();
+	}
+
+	public void incrementVersion(@NonNull final ViewId viewId)
+	{
+		getVersionHolder(viewId).set(nextVersion.getAndIncrement());
+	}
+
+	private AtomicLong getVersionHolder(@NonNull final ViewId viewId)
+	{
+		try
+		{
+			return versionsByViewId.get(viewId, () -> new AtomicLong(nextVersion.getAndIncrement()));
+		}
+		catch (final ExecutionException ex)
+		{
+			// shall not happen
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+}
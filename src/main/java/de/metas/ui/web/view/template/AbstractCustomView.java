@@ -30,6 +30,7 @@ import de.metas.ui.web.view.ViewResult;
 import de.metas.ui.web.view.ViewRowIdsSelection;
 import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.view.event.ViewChangesCollector;
+import de.metas.ui.web.view.event.ViewChangesVersions;
 import de.metas.ui.web.view.json.JSONViewDataType;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -252,12 +253,10 @@ public abstract class AbstractCustomView<T extends IViewRow> implements IView
 				? orderBys
 				: orderBys.withOrderBys(getDefaultOrderBys());
 
-		final List<IViewRow> pageRows = getRows()
-				.stream()
-				.sorted(orderBysEffective.toComparator())
-				.skip(firstRow >= 0 ? firstRow : 0)
-				.limit(pageLength > 0 ? pageLength : 30)
-				.collect(ImmutableList.toImmutableList());
+		final ImmutableList<T> rowsSorted = rowsData.getTopLevelRowsSorted(orderBysEffective);
+		final int fromIndex = Math.min(firstRow >= 0 ? firstRow : 0, rowsSorted.size());
+		final int toIndex = Math.min(fromIndex + (pageLength > 0 ? pageLength : 30), rowsSorted.size());
+		final List<IViewRow> pageRows = ImmutableList.copyOf(rowsSorted.subList(fromIndex, toIndex));
 
 		return ViewResult.ofViewAndPage(this, firstRow, pageLength, orderBysEffective.toDocumentQueryOrderByList(), pageRows);
 	}
@@ -348,6 +347,9 @@ public abstract class AbstractCustomView<T extends IViewRow> implements IView
 		{
 			final IEditableRowsData<T> editableRowsData = (IEditableRowsData<T>)rowsData;
 			editableRowsData.patchRow(ctx, fieldChangeRequests);
+
+			// the rows were changed in memory => make sure the clients won't use their cached pages
+			ViewChangesVersions.instance.incrementVersion(getViewId());
 		}
 		else
 		{
@@ -2,11 +2,15 @@ package de.metas.ui.web.view.template;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.view.IViewRow;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 
@@ -41,6 +45,24 @@ public interface IRowsData<T extends IViewRow>
 	void invalidateAll();
 
 	default void invalidate(final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isAll())
+		{
+			invalidateAll();
+		}
+		else if (!rowIds.isEmpty())
+		{
+			reloadRows(rowIds.toSet());
+		}
+	}
+
+	/**
+	 * Reloads only the given rows.
+	 * Rows which are no longer eligible shall be removed and rows which became eligible again shall be added back.
+	 * <p>
+	 * The default implementation is reloading all rows.
+	 */
+	default void reloadRows(final Set<DocumentId> rowIds)
 	{
 		invalidateAll();
 	}
@@ -66,6 +88,14 @@ public interface IRowsData<T extends IViewRow>
 		return getDocumentId2TopLevelRows().values();
 	}
 
+	/**
+	 * @return top level rows, sorted by given orderBy. Implementations are encouraged to cache the result until the rows are changed (see {@link SortedRowsCache}).
+	 */
+	default ImmutableList<T> getTopLevelRowsSorted(final ViewRowsOrderBy orderBy)
+	{
+		return RowsDataTool.sortRows(getTopLevelRows(), orderBy);
+	}
+
 	/** @return top level or include row */
 	default T getById(final DocumentId rowId) throws EntityNotFoundException
 	{
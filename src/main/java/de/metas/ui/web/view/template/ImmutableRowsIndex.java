@@ -12,6 +12,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
 import de.metas.ui.web.view.IViewRow;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.util.GuavaCollectors;
@@ -55,6 +56,10 @@ public final class ImmutableRowsIndex<T extends IViewRow>
 	private final ImmutableList<DocumentId> rowIds; // used to preserve the order
 	private final ImmutableMap<DocumentId, T> rowsById;
 
+	private transient ImmutableMap<DocumentId, T> _documentId2TopLevelRows; // lazy
+	private transient ImmutableMap<DocumentId, T> _documentId2AllRows; // lazy
+	private final SortedRowsCache<T> sortedRowsCache = SortedRowsCache.newInstance();
+
 	private ImmutableRowsIndex(
 			@NonNull final ImmutableList<DocumentId> initialRowIds,
 			@NonNull final List<T> rows)
@@ -75,8 +80,29 @@ public final class ImmutableRowsIndex<T extends IViewRow>
 
 	public ImmutableMap<DocumentId, T> getDocumentId2TopLevelRows()
 	{
-		return streamAllRows()
-				.collect(GuavaCollectors.toImmutableMapByKey(IViewRow::getId));
+		ImmutableMap<DocumentId, T> documentId2TopLevelRows = _documentId2TopLevelRows;
+		if (documentId2TopLevelRows == null)
+		{
+			documentId2TopLevelRows = _documentId2TopLevelRows = streamAllRows()
+					.collect(GuavaCollectors.toImmutableMapByKey(IViewRow::getId));
+		}
+		return documentId2TopLevelRows;
+	}
+
+	/** @return top level and included rows */
+	public ImmutableMap<DocumentId, T> getDocumentId2AllRows()
+	{
+		ImmutableMap<DocumentId, T> documentId2AllRows = _documentId2AllRows;
+		if (documentId2AllRows == null)
+		{
+			documentId2AllRows = _documentId2AllRows = ImmutableMap.copyOf(RowsDataTool.extractAllRows(getDocumentId2TopLevelRows().values()));
+		}
+		return documentId2AllRows;
+	}
+
+	public ImmutableList<T> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return sortedRowsCache.getTopLevelRowsSorted(orderBy, () -> getDocumentId2TopLevelRows().values());
 	}
 
 	public boolean isRelevantForRefreshing(final DocumentId rowId)
@@ -111,9 +137,35 @@ public final class ImmutableRowsIndex<T extends IViewRow>
 
 		resultRows.addAll(newRowsToAdd.values());
 
+		// preserve this index (and its caches) if nothing changed
+		if (isSameRows(resultRows))
+		{
+			return this;
+		}
+
 		return new ImmutableRowsIndex<>(this.initialRowIds, resultRows);
 	}
 
+	private boolean isSameRows(final List<T> rows)
+	{
+		if (rows.size() != rowIds.size())
+		{
+			return false;
+		}
+
+		for (int i = 0, size = rows.size(); i < size; i++)
+		{
+			final T row = rows.get(i);
+			if (!row.getId().equals(rowIds.get(i))
+					|| !row.equals(rowsById.get(row.getId())))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	public ImmutableRowsIndex<T> addingRow(@NonNull final T rowToAdd)
 	{
 		final ArrayList<T> resultRows = new ArrayList<>(rowIds.size());
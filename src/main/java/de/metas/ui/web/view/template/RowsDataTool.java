@@ -4,9 +4,11 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.ui.web.view.IViewRow;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
@@ -49,6 +51,13 @@ class RowsDataTool
 		return allRows.build();
 	}
 
+	static <T extends IViewRow> ImmutableList<T> sortRows(@NonNull final Collection<T> rows, @NonNull final ViewRowsOrderBy orderBy)
+	{
+		return rows.stream()
+				.sorted(orderBy.toComparator())
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private static <T extends IViewRow> Map<DocumentId, T> extractAllIncludedRows(@NonNull final T topLevelRow)
 	{
 		@SuppressWarnings("unchecked")
@@ -0,0 +1,96 @@
+package de.metas.ui.web.view.template;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.view.IViewRow;
+import de.metas.ui.web.view.ViewRowsOrderBy;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caches the sorted top level rows of an {@link IRowsData}, per {@link ViewRowsOrderBy}, as long as the rows version is not changed.
+ * <p>
+ * The rows version shall be changed (e.g. incremented) by the rows data <b>after</b> the rows were changed.
+ * Immutable rows data can always use the same version.
+ */
+public final class SortedRowsCache<T extends IViewRow>
+{
+	public static <T extends IViewRow> SortedRowsCache<T> newInstance()
+	{
+		return new SortedRowsCache<>();
+	}
+
+	private volatile VersionedEntries<T> entries = new VersionedEntries<>(0);
+
+	private SortedRowsCache()
+	{
+	}
+
+	public ImmutableList<T> getTopLevelRowsSorted(
+			@NonNull final ViewRowsOrderBy orderBy,
+			final long rowsVersion,
+			@NonNull final Supplier<? extends Collection<T>> topLevelRowsSupplier)
+	{
+		VersionedEntries<T> entries = this.entries;
+		if (entries.getRowsVersion() != rowsVersion)
+		{
+			entries = this.entries = new VersionedEntries<>(rowsVersion);
+		}
+
+		return entries.getSortedRows().computeIfAbsent(orderBy, k -> RowsDataTool.sortRows(topLevelRowsSupplier.get(), orderBy));
+	}
+
+	public ImmutableList<T> getTopLevelRowsSorted(
+			@NonNull final ViewRowsOrderBy orderBy,
+			@NonNull final Supplier<? extends Collection<T>> topLevelRowsSupplier)
+	{
+		final long rowsVersion = 0; // rows never change
+		return getTopLevelRowsSorted(orderBy, rowsVersion, topLevelRowsSupplier);
+	}
+
+	private static final class VersionedEntries<T extends IViewRow>
+	{
+		private final long rowsVersion;
+		private final ConcurrentHashMap<ViewRowsOrderBy, ImmutableList<T>> sortedRows = new ConcurrentHashMap<>();
+
+		private VersionedEntries(final long rowsVersion)
+		{
+			this.rowsVersion = rowsVersion;
+		}
+
+		public long getRowsVersion()
+		{
+			return rowsVersion;
+		}
+
+		public ConcurrentHashMap<ViewRowsOrderBy, ImmutableList<T>> getSortedRows()
+		{
+			return sortedRows;
+		}
+	}
+}
@@ -1,16 +1,19 @@
 package de.metas.ui.web.view.template;
 
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 
 import org.adempiere.util.lang.SynchronizedMutable;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.ui.web.view.IViewRow;
+import de.metas.ui.web.view.ViewRowsOrderBy;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.util.lang.RepoIdAware;
@@ -61,6 +64,16 @@ public class SynchronizedRowsIndexHolder<T extends IViewRow>
 		return holder.getValue().getDocumentId2TopLevelRows();
 	}
 
+	public ImmutableMap<DocumentId, T> getDocumentId2AllRows()
+	{
+		return holder.getValue().getDocumentId2AllRows();
+	}
+
+	public ImmutableList<T> getTopLevelRowsSorted(@NonNull final ViewRowsOrderBy orderBy)
+	{
+		return holder.getValue().getTopLevelRowsSorted(orderBy);
+	}
+
 	public <ID extends RepoIdAware> ImmutableSet<ID> getRecordIdsToRefresh(
 			@NonNull final DocumentIdsSelection rowIds,
 			@NonNull final Function<DocumentId, ID> idMapper)
@@ -73,6 +86,28 @@ public class SynchronizedRowsIndexHolder<T extends IViewRow>
 		holder.compute(remappingFunction);
 	}
 
+	/**
+	 * Loads the rows for given row IDs (in one go) and replaces them in the index.
+	 * Rows which were not loaded are removed, rows which were part of the initial rows and were loaded again are added back.
+	 *
+	 * @param rowIds row IDs to reload; if {@link DocumentIdsSelection#ALL} then all current and initial rows are reloaded
+	 * @param rowsLoader loads the rows for given record IDs; it's not called if there is nothing to reload
+	 */
+	public <ID extends RepoIdAware> void reloadRows(
+			@NonNull final DocumentIdsSelection rowIds,
+			@NonNull final Function<DocumentId, ID> idMapper,
+			@NonNull final Function<Set<ID>, List<T>> rowsLoader)
+	{
+		final ImmutableSet<ID> recordIds = getRecordIdsToRefresh(rowIds, idMapper);
+		if (recordIds.isEmpty())
+		{
+			return;
+		}
+
+		final List<T> newRows = rowsLoader.apply(recordIds);
+		compute(rows -> rows.replacingRows(rowIds, newRows));
+	}
+
 	public Predicate<DocumentId> isRelevantForRefreshingByDocumentId()
 	{
 		final ImmutableRowsIndex<T> rows = holder.getValue();
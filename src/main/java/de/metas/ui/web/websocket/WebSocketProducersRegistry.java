@@ -3,15 +3,17 @@ package de.metas.ui.web.websocket;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,9 +55,12 @@ import lombok.NonNull;
  * This component is responsible for:
  * <ul>
  * <li>automatically registering all {@link WebSocketProducerFactory} implementations which were found in spring context
- * <li>as soon as there is a subscriber for a websocket topic it will create/start a {@link WebSocketProducer} and it will call it on a given rate.
+ * <li>as soon as there is a subscriber for a websocket topic it will create/start a {@link WebSocketProducer}:
+ * a {@link WebSocketPushProducer} is started and it publishes events by itself, any other producer is called on a given rate.
  * </ul>
  *
+ * The producers are running on a thread pool which is sized by the number of active topics, so a slow producer (e.g. a slow device) is not delaying the others.
+ *
  * @author metas-dev <dev@metasfresh.com>
  *
  */
@@ -64,7 +69,7 @@ public final class WebSocketProducersRegistry
 {
 	private static final Logger logger = LogManager.getLogger(WebSocketProducersRegistry.class);
 
-	private final ScheduledExecutorService scheduler;
+	private final ProducersScheduler scheduler = new ProducersScheduler();
 	@Autowired
 	private WebsocketSender websocketSender;
 	@Autowired
@@ -73,14 +78,6 @@ public final class WebSocketProducersRegistry
 	private final ConcurrentHashMap<String, WebSocketProducerFactory> _producerFactoriesByTopicNamePrefix = new ConcurrentHashMap<>();
 	private final ConcurrentHashMap<String, WebSocketProducerInstance> _producersByTopicName = new ConcurrentHashMap<>();
 
-	public WebSocketProducersRegistry()
-	{
-		scheduler = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
-				.setThreadNamePrefix(getClass().getName())
-				.setDaemon(true)
-				.build());
-	}
-
 	@PostConstruct
 	private void registerProducerFactoriesFromContext()
 	{
@@ -90,6 +87,12 @@ public final class WebSocketProducersRegistry
 
 	}
 
+	@PreDestroy
+	private void shutdown()
+	{
+		scheduler.shutdown();
+	}
+
 	public void registerProducerFactory(final WebSocketProducerFactory producerFactory)
 	{
 		Check.assumeNotNull(producerFactory, "Parameter producerFactory is not null");
@@ -195,22 +198,76 @@ public final class WebSocketProducersRegistry
 		forEachExistingWebSocketProducerInstance(producer -> producer.unsubscribe(sessionId));
 	}
 
+	/**
+	 * Scheduled executor which has one thread for each active topic, but not more than {@link #MAX_THREADS}.
+	 */
+	private static final class ProducersScheduler
+	{
+		private static final int MAX_THREADS = 20;
+
+		private final ScheduledThreadPoolExecutor executor;
+		private int activeProducersCount = 0;
+
+		private ProducersScheduler()
+		{
+			executor = new ScheduledThreadPoolExecutor(1, CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(WebSocketProducersRegistry.class.getName())
+					.setDaemon(true)
+					.build());
+			executor.setRemoveOnCancelPolicy(true);
+		}
+
+		public ScheduledExecutorService getExecutor()
+		{
+			return executor;
+		}
+
+		public synchronized void onProducerStarted()
+		{
+			activeProducersCount++;
+			updateCorePoolSize();
+		}
+
+		public synchronized void onProducerStopped()
+		{
+			activeProducersCount = Math.max(activeProducersCount - 1, 0);
+			updateCorePoolSize();
+		}
+
+		private void updateCorePoolSize()
+		{
+			final int corePoolSize = Math.min(Math.max(activeProducersCount, 1), MAX_THREADS);
+			if (executor.getCorePoolSize() != corePoolSize)
+			{
+				executor.setCorePoolSize(corePoolSize);
+				logger.debug("Using {} threads for {} active producers", corePoolSize, activeProducersCount);
+			}
+		}
+
+		public void shutdown()
+		{
+			executor.shutdownNow();
+		}
+	}
+
 	private static final class WebSocketProducerInstance
 	{
 		// private static final transient Logger logger = LogManager.getLogger(WebSocketProducerInstance.class);
 
 		private final String topicName;
 		private final WebSocketProducer producer;
-		private final ScheduledExecutorService scheduler;
+		private final ProducersScheduler scheduler;
 		private final WebsocketSender websocketSender;
 
 		private final Set<String> subscribedSessionIds = new HashSet<>();
 		private ScheduledFuture<?> scheduledFuture;
+		private IAutoCloseable pushProducerHandle;
+		private volatile Object lastEvent;
 
 		private WebSocketProducerInstance(
 				@NonNull final String topicName,
 				@NonNull final WebSocketProducer producer,
-				@NonNull final ScheduledExecutorService scheduler,
+				@NonNull final ProducersScheduler scheduler,
 				@NonNull final WebsocketSender websocketSender)
 		{
 			this.topicName = topicName;
@@ -228,6 +285,11 @@ public final class WebSocketProducersRegistry
 					.toString();
 		}
 
+		private boolean isRunning()
+		{
+			return scheduledFuture != null || pushProducerHandle != null;
+		}
+
 		public synchronized void subscribe(final String sessionId)
 		{
 			Check.assumeNotEmpty(sessionId, "sessionId is not empty");
@@ -241,18 +303,33 @@ public final class WebSocketProducersRegistry
 			logger.trace("{}: session {} subscribed", this, sessionId);
 
 			//
-			// Check if the producer was already scheduled
-			if (scheduledFuture != null)
+			// Check if the producer was already started.
+			// If so, send the last event again, so the new subscriber does not have to wait until the next change.
+			if (isRunning())
 			{
+				final Object lastEvent = this.lastEvent;
+				if (lastEvent != null)
+				{
+					publish(lastEvent);
+				}
 				return;
 			}
 
 			//
-			// Schedule producer
-			final long initialDelayMillis = 1000;
-			final long periodMillis = 1000;
-			scheduledFuture = scheduler.scheduleAtFixedRate(this::executeAndPublish, initialDelayMillis, periodMillis, TimeUnit.MILLISECONDS);
-			logger.trace("{}: start producing using initialDelayMillis={}, periodMillis={}", this, initialDelayMillis, periodMillis);
+			// Start producer
+			scheduler.onProducerStarted();
+			if (producer instanceof WebSocketPushProducer)
+			{
+				pushProducerHandle = ((WebSocketPushProducer)producer).startProducing(this::publish, scheduler.getExecutor());
+				logger.trace("{}: start producing", this);
+			}
+			else
+			{
+				final long initialDelayMillis = 1000;
+				final long periodMillis = 1000;
+				scheduledFuture = scheduler.getExecutor().scheduleAtFixedRate(this::executeAndPublish, initialDelayMillis, periodMillis, TimeUnit.MILLISECONDS);
+				logger.trace("{}: start producing using initialDelayMillis={}, periodMillis={}", this, initialDelayMillis, periodMillis);
+			}
 		}
 
 		public synchronized void unsubscribe(final String sessionId)
@@ -266,20 +343,39 @@ public final class WebSocketProducersRegistry
 			{
 				return;
 			}
-			if (scheduledFuture == null)
+			if (!isRunning())
 			{
 				return;
 			}
 
-			try
+			if (pushProducerHandle != null)
 			{
-				scheduledFuture.cancel(true);
+				try
+				{
+					pushProducerHandle.close();
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("{}: Failed stopping the producer. Ignored and considering it as stopped", this, ex);
+				}
+				pushProducerHandle = null;
 			}
-			catch (final Exception ex)
+
+			if (scheduledFuture != null)
 			{
-				logger.warn("{}: Failed stopping scheduled future: {}. Ignored and considering it as stopped", this, scheduledFuture, ex);
+				try
+				{
+					scheduledFuture.cancel(true);
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("{}: Failed stopping scheduled future: {}. Ignored and considering it as stopped", this, scheduledFuture, ex);
+				}
+				scheduledFuture = null;
 			}
-			scheduledFuture = null;
+
+			lastEvent = null;
+			scheduler.onProducerStopped();
 
 			logger.debug("{} stopped", this);
 		}
@@ -290,14 +386,20 @@ public final class WebSocketProducersRegistry
 			{
 				final JSONOptions jsonOpts = JSONOptions.newInstance();
 				final Object event = producer.produceEvent(jsonOpts);
-				websocketSender.convertAndSend(topicName, event);
-
-				logger.trace("Event sent to {}: {}", topicName, event);
+				publish(event);
 			}
 			catch (final Exception ex)
 			{
 				logger.warn("Failed producing event for {}. Ignored.", this, ex);
 			}
 		}
+
+		private void publish(@NonNull final Object event)
+		{
+			lastEvent = event;
+			websocketSender.convertAndSend(topicName, event);
+
+			logger.trace("Event sent to {}: {}", topicName, event);
+		}
 	}
 }
@@ -0,0 +1,46 @@
+package de.metas.ui.web.websocket;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import org.adempiere.util.lang.IAutoCloseable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A {@link WebSocketProducer} which decides itself when to publish events (e.g. only when a value changed),
+ * instead of being called by {@link WebSocketProducersRegistry} each second.
+ */
+public interface WebSocketPushProducer extends WebSocketProducer
+{
+	/**
+	 * Starts producing events.
+	 *
+	 * @param eventsSink shall be called with each new event (JSON friendly) which shall be published
+	 * @param executor executor to be used to do the actual work. It's shared with other producers, so don't block it more than needed.
+	 * @return handle which stops producing events when closed
+	 */
+	IAutoCloseable startProducing(@NonNull Consumer<Object> eventsSink, @NonNull ScheduledExecutorService executor);
+}
@@ -0,0 +1,95 @@
+package de.metas.ui.web.websocket;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Websocket event which can be merged with the next event sent to the same destination,
+ * so {@link WebsocketSender} can send them as one message.
+ */
+public interface WebsocketMergeableEvent
+{
+	/**
+	 * @return a new event which contains the changes of this event and of given next event, or <code>null</code> if they cannot be merged.
+	 *         Neither this event nor the next event shall be changed.
+	 */
+	@Nullable
+	WebsocketMergeableEvent mergeWith(@NonNull WebsocketMergeableEvent nextEvent);
+
+	/**
+	 * @return accumulator which starts with this event and collects the next events until the merged event is sent.
+	 *         Override it if merging the events one by one would copy the already merged data each time.
+	 */
+	default Accumulator newAccumulator()
+	{
+		return new MergingAccumulator(this);
+	}
+
+	interface Accumulator
+	{
+		/**
+		 * @return false if given event cannot be merged, in which case the accumulator was not changed
+		 */
+		boolean add(@NonNull WebsocketMergeableEvent nextEvent);
+
+		/**
+		 * @return the event which contains all accumulated changes
+		 */
+		WebsocketMergeableEvent build();
+	}
+
+	/**
+	 * Accumulator which merges the events one by one, using {@link WebsocketMergeableEvent#mergeWith(WebsocketMergeableEvent)}.
+	 */
+	final class MergingAccumulator implements Accumulator
+	{
+		private WebsocketMergeableEvent mergedEvent;
+
+		private MergingAccumulator(@NonNull final WebsocketMergeableEvent firstEvent)
+		{
+			this.mergedEvent = firstEvent;
+		}
+
+		@Override
+		public boolean add(@NonNull final WebsocketMergeableEvent nextEvent)
+		{
+			final WebsocketMergeableEvent mergedEvent = this.mergedEvent.mergeWith(nextEvent);
+			if (mergedEvent == null)
+			{
+				return false;
+			}
+
+			this.mergedEvent = mergedEvent;
+			return true;
+		}
+
+		@Override
+		public WebsocketMergeableEvent build()
+		{
+			return mergedEvent;
+		}
+	}
+}
@@ -1,8 +1,18 @@
 package de.metas.ui.web.websocket;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
@@ -13,8 +23,11 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
 import lombok.NonNull;
@@ -46,6 +59,10 @@ import lombok.NonNull;
  *
  * NOTE: by default, all methods will send the events after the current DB transaction is committed.
  * If there is no current transaction, the events will be sent right away.
+ * <p>
+ * Events are not sent one by one, but they are collected for a short time window (see {@link #PROPERTY_CoalescingWindowMillis}).
+ * In that window, consecutive events for the same destination are merged (see {@link WebsocketMergeableEvent}), so one message per destination is sent.
+ * The events of one destination are always sent in the same order as they were sent to us.
  *
  * @author metas-dev <dev@metasfresh.com>
  *
@@ -55,17 +72,26 @@ public class WebsocketSender implements InitializingBean
 {
 	private static final transient Logger logger = LogManager.getLogger(WebsocketSender.class);
 
+	/** Coalescing window in millis. Set it to zero to send the events right away, without merging them. */
+	public static final String PROPERTY_CoalescingWindowMillis = "metasfresh.webui.websocket.coalescingWindowMillis";
+
 	private final SimpMessagingTemplate websocketMessagingTemplate;
 	private final WebsocketEventsLog eventsLog = new WebsocketEventsLog();
+	private final WebsocketEventsCoalescer coalescer;
 	private final WebsocketEventsQueue autoflushQueue;
 
 	@Value("${metasfresh.webui.websocket.logEventsEnabled:false}")
 	private boolean logEventsEnabledDefault;
 
-	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
+	public WebsocketSender(
+			@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
+			@Value("${" + PROPERTY_CoalescingWindowMillis + ":50}") final long coalescingWindowMillis)
 	{
 		this.websocketMessagingTemplate = websocketMessagingTemplate;
-		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", websocketMessagingTemplate, eventsLog, /* autoflush */true);
+		this.coalescer = coalescingWindowMillis > 0
+				? new WebsocketEventsCoalescer(Duration.ofMillis(coalescingWindowMillis), this::sendEventNow)
+				: null;
+		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", this::dispatchEvent, /* autoflush */true);
 	}
 
 	@Override
@@ -74,6 +100,15 @@ public class WebsocketSender implements InitializingBean
 		eventsLog.setLogEventsEnabled(logEventsEnabledDefault);
 	}
 
+	@PreDestroy
+	public void shutdown()
+	{
+		if (coalescer != null)
+		{
+			coalescer.shutdown();
+		}
+	}
+
 	public void convertAndSend(final Collection<? extends WebsocketEndpointAware> events)
 	{
 		events.forEach(this::convertAndSend);
@@ -94,6 +129,18 @@ public class WebsocketSender implements InitializingBean
 		getQueue().enqueueMessage(destination, message);
 	}
 
+	/**
+	 * Sends right away the events which are waiting in the coalescing window.
+	 */
+	@VisibleForTesting
+	void flushPendingEvents()
+	{
+		if (coalescer != null)
+		{
+			coalescer.flush();
+		}
+	}
+
 	private WebsocketEventsQueue getQueue()
 	{
 		final ITrxManager trxManager = Services.get(ITrxManager.class);
@@ -116,7 +163,7 @@ public class WebsocketSender implements InitializingBean
 	{
 		final String name = trx.getTrxName();
 		final boolean autoflush = false;
-		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, websocketMessagingTemplate, eventsLog, autoflush);
+		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, this::dispatchEvent, autoflush);
 
 		// Bind
 		trx.getTrxListenerManager()
@@ -126,6 +173,36 @@ public class WebsocketSender implements InitializingBean
 		return queue;
 	}
 
+	private void dispatchEvent(@NonNull final WebsocketEvent event)
+	{
+		if (coalescer != null)
+		{
+			coalescer.add(event);
+		}
+		else
+		{
+			sendEventNow(event);
+		}
+	}
+
+	private void sendEventNow(@NonNull final WebsocketEvent event)
+	{
+		final String destination = event.getDestination();
+		final Object payload = event.getPayload();
+		logger.debug("Sending to destination={}: payload={}", destination, payload);
+
+		if (event.isConverted())
+		{
+			final Message<?> message = (Message<?>)payload;
+			websocketMessagingTemplate.send(destination, message);
+		}
+		else
+		{
+			websocketMessagingTemplate.convertAndSend(destination, payload);
+			eventsLog.logEvent(destination, payload);
+		}
+	}
+
 	public void setLogEventsEnabled(final boolean enabled)
 	{
 		eventsLog.setLogEventsEnabled(enabled);
@@ -148,101 +225,230 @@ public class WebsocketSender implements InitializingBean
 		private final String destination;
 		private final Object payload;
 		private final boolean converted;
+
+		public boolean isMergeable()
+		{
+			return !converted && payload instanceof WebsocketMergeableEvent;
+		}
+	}
+
+	/**
+	 * Event which waits to be sent.
+	 * If it's mergeable, the next events of the same destination are collected in an accumulator and the merged payload is built only when it's sent.
+	 */
+	@lombok.ToString
+	private static final class PendingEvent
+	{
+		private final WebsocketEvent event;
+		@Nullable
+		private final WebsocketMergeableEvent.Accumulator accumulator;
+
+		public PendingEvent(@NonNull final WebsocketEvent event)
+		{
+			this.event = event;
+			this.accumulator = event.isMergeable()
+					? ((WebsocketMergeableEvent)event.getPayload()).newAccumulator()
+					: null;
+		}
+
+		/**
+		 * @return true if given event was merged into this one
+		 */
+		public boolean merge(@NonNull final WebsocketEvent nextEvent)
+		{
+			return accumulator != null
+					&& nextEvent.isMergeable()
+					&& accumulator.add((WebsocketMergeableEvent)nextEvent.getPayload());
+		}
+
+		public WebsocketEvent toEventToSend()
+		{
+			if (accumulator == null)
+			{
+				return event;
+			}
+
+			return WebsocketEvent.builder()
+					.destination(event.getDestination())
+					.payload(accumulator.build())
+					.converted(false)
+					.build();
+		}
 	}
 
 	private static class WebsocketEventsQueue
 	{
 		/** internal name, used for logging */
 		private final String name;
-		private final SimpMessagingTemplate websocketMessagingTemplate;
-		private final WebsocketEventsLog eventsLog;
+		private final Consumer<WebsocketEvent> eventsDispatcher;
 		private final boolean autoflush;
 		private final List<WebsocketEvent> events = new ArrayList<>();
 
 		public WebsocketEventsQueue(
 				@NonNull final String name,
-				@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
-				@NonNull final WebsocketEventsLog eventsLog,
+				@NonNull final Consumer<WebsocketEvent> eventsDispatcher,
 				final boolean autoflush)
 		{
 			this.name = name;
-			this.websocketMessagingTemplate = websocketMessagingTemplate;
-			this.eventsLog = eventsLog;
+			this.eventsDispatcher = eventsDispatcher;
 			this.autoflush = autoflush;
 		}
 
 		public void enqueueObject(final String destination, final Object payload)
 		{
-			final boolean converted = false;
-			if (autoflush)
-			{
-				sendEvent(destination, payload, converted);
-			}
-			else
-			{
-				enqueue(WebsocketEvent.builder()
-						.destination(destination)
-						.payload(payload)
-						.converted(converted)
-						.build());
-			}
+			enqueue(WebsocketEvent.builder()
+					.destination(destination)
+					.payload(payload)
+					.converted(false)
+					.build());
 		}
 
 		public void enqueueMessage(final String destination, final Message<?> message)
 		{
-			final boolean converted = true;
+			enqueue(WebsocketEvent.builder()
+					.destination(destination)
+					.payload(message)
+					.converted(true)
+					.build());
+		}
+
+		private void enqueue(@NonNull final WebsocketEvent event)
+		{
 			if (autoflush)
 			{
-				sendEvent(destination, message, converted);
+				eventsDispatcher.accept(event);
 			}
 			else
 			{
-				enqueue(WebsocketEvent.builder()
-						.destination(destination)
-						.payload(message)
-						.converted(converted)
-						.build());
+				events.add(event);
+				logger.debug("[name={}] Enqueued event={}", name, event);
 			}
 		}
 
-		private void enqueue(@NonNull final WebsocketEvent event)
-		{
-			events.add(event);
-			logger.debug("[name={}] Enqueued event={}", name, event);
-		}
-
 		public void sendEventsAndClear()
 		{
-			logger.debug("Sending all queued events");
+			logger.debug("[name={}] Sending all queued events", name);
 
 			final List<WebsocketEvent> eventsToSend = new ArrayList<>(events);
 			events.clear();
 
-			eventsToSend.forEach(this::sendEvent);
+			eventsToSend.forEach(eventsDispatcher);
+		}
+	}
+
+	/**
+	 * Collects the events for a short time window, merges the consecutive events of each destination and then sends them.
+	 */
+	private static class WebsocketEventsCoalescer
+	{
+		private final Duration window;
+		private final Consumer<WebsocketEvent> sender;
+		private final ScheduledExecutorService scheduler;
+
+		/** pending events, in the order they were added, grouped by destination */
+		private final LinkedHashMap<String, List<PendingEvent>> pendingEventsByDestination = new LinkedHashMap<>();
+		private boolean flushScheduled = false;
+
+		/** makes sure flushes are not running in parallel, so the events of a destination are sent in order */
+		private final Object flushLock = new Object();
+
+		public WebsocketEventsCoalescer(
+				@NonNull final Duration window,
+				@NonNull final Consumer<WebsocketEvent> sender)
+		{
+			this.window = window;
+			this.sender = sender;
+
+			final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(WebsocketSender.class.getSimpleName() + "-");
+			threadFactory.setDaemon(true);
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
 		}
 
-		private void sendEvent(final WebsocketEvent event)
+		public void add(@NonNull final WebsocketEvent event)
 		{
-			final String destination = event.getDestination();
-			final Object payload = event.getPayload();
-			final boolean converted = event.isConverted();
-			sendEvent(destination, payload, converted);
+			final boolean flushNow;
+			synchronized (this)
+			{
+				final List<PendingEvent> pendingEvents = pendingEventsByDestination.computeIfAbsent(event.getDestination(), destination -> new ArrayList<>());
+
+				// NOTE: only merge with the last pending event, to keep the events order
+				final PendingEvent lastPendingEvent = !pendingEvents.isEmpty() ? pendingEvents.get(pendingEvents.size() - 1) : null;
+				if (lastPendingEvent == null || !lastPendingEvent.merge(event))
+				{
+					pendingEvents.add(new PendingEvent(event));
+				}
+
+				flushNow = !flushScheduled && !scheduleFlush();
+			}
+
+			if (flushNow)
+			{
+				flush();
+			}
 		}
 
-		private void sendEvent(final String destination, final Object payload, final boolean converted)
+		/**
+		 * @return true if the flush was scheduled
+		 */
+		private boolean scheduleFlush()
 		{
-			logger.debug("[name={}] Sending to destination={}: payload={}", name, destination, payload);
+			try
+			{
+				scheduler.schedule(this::flushNoFail, window.toMillis(), TimeUnit.MILLISECONDS);
+				flushScheduled = true;
+				return true;
+			}
+			catch (final RejectedExecutionException ex)
+			{
+				// shall happen only on shutdown
+				logger.debug("Failed scheduling the flush. Flushing now.", ex);
+				return false;
+			}
+		}
 
-			if (converted)
+		private void flushNoFail()
+		{
+			try
 			{
-				final Message<?> message = (Message<?>)payload;
-				websocketMessagingTemplate.send(destination, message);
+				flush();
 			}
-			else
+			catch (final Exception ex)
 			{
-				websocketMessagingTemplate.convertAndSend(destination, payload);
-				eventsLog.logEvent(destination, payload);
+				logger.warn("Failed sending websocket events. Ignored.", ex);
 			}
 		}
+
+		public void flush()
+		{
+			synchronized (flushLock)
+			{
+				final List<PendingEvent> eventsToSend = new ArrayList<>();
+				synchronized (this)
+				{
+					pendingEventsByDestination.values().forEach(eventsToSend::addAll);
+					pendingEventsByDestination.clear();
+					flushScheduled = false;
+				}
+
+				// NOTE: the merged payloads are built here, outside of the lock
+				for (final PendingEvent pendingEvent : eventsToSend)
+				{
+					try
+					{
+						sender.accept(pendingEvent.toEventToSend());
+					}
+					catch (final Exception ex)
+					{
+						logger.warn("Failed sending {}. Skipped.", pendingEvent, ex);
+					}
+				}
+			}
+		}
+
+		public void shutdown()
+		{
+			scheduler.shutdown();
+			flush();
+		}
 	}
 }
@@ -2,13 +2,16 @@ package de.metas.ui.web.window.controller;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.util.Env;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -25,11 +28,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.i18n.IMsgBL;
 import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.cache.ETag;
 import de.metas.ui.web.cache.ETagResponseEntityBuilder;
 import de.metas.ui.web.config.WebConfig;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
@@ -206,12 +213,13 @@ public class WindowRestController
 	}
 
 	@GetMapping("/{windowId}/{documentId}")
-	public List<JSONDocument> getRootDocuments(
+	public ResponseEntity<List<JSONDocument>> getRootDocuments(
 			@PathVariable("windowId") final String windowIdStr,
 			@PathVariable("documentId") final String documentIdStr,
 			@RequestParam(name = PARAM_FieldsList, required = false) @ApiParam("comma separated field names") final String fieldsListStr,
 			@RequestParam(name = PARAM_Advanced, required = false, defaultValue = PARAM_Advanced_DefaultValue) final boolean advanced,
-			@RequestParam(name = "noTabs", required = false, defaultValue = "false") final boolean noTabs)
+			@RequestParam(name = "noTabs", required = false, defaultValue = "false") final boolean noTabs,
+			final WebRequest request)
 	{
 		final WindowId windowId = WindowId.fromJson(windowIdStr);
 		final DocumentPath documentPath = DocumentPath.rootDocumentPath(windowId, documentIdStr);
@@ -220,18 +228,19 @@ public class WindowRestController
 				.showAdvancedFields(advanced)
 				.doNotFetchIncludedTabs(noTabs)
 				.build();
-		return getData(documentPath, DocumentQueryOrderByList.EMPTY, jsonOpts);
+		return getData(documentPath, DocumentQueryOrderByList.EMPTY, jsonOpts, request);
 	}
 
 	@GetMapping("/{windowId}/{documentId}/{tabId}")
-	public List<JSONDocument> getIncludedTabRows(
+	public ResponseEntity<List<JSONDocument>> getIncludedTabRows(
 			@PathVariable("windowId") final String windowIdStr,
 			@PathVariable("documentId") final String documentIdStr,
 			@PathVariable("tabId") final String tabIdStr,
 			@RequestParam(name = "ids", required = false) @ApiParam("comma separated rowIds") final String rowIdsListStr,
 			@RequestParam(name = PARAM_FieldsList, required = false) @ApiParam("comma separated field names") final String fieldsListStr,
 			@RequestParam(name = PARAM_Advanced, required = false, defaultValue = PARAM_Advanced_DefaultValue) final boolean advanced,
-			@RequestParam(name = "orderBy", required = false) final String orderBysListStr)
+			@RequestParam(name = "orderBy", required = false) final String orderBysListStr,
+			final WebRequest request)
 	{
 		final WindowId windowId = WindowId.fromJson(windowIdStr);
 		final DocumentId documentId = DocumentId.of(documentIdStr);
@@ -255,17 +264,18 @@ public class WindowRestController
 				.showAdvancedFields(advanced)
 				.build();
 
-		return getData(documentPath, orderBys, jsonOpts);
+		return getData(documentPath, orderBys, jsonOpts, request);
 	}
 
 	@GetMapping("/{windowId}/{documentId}/{tabId}/{rowId}")
-	public List<JSONDocument> getIncludedTabRow(
+	public ResponseEntity<List<JSONDocument>> getIncludedTabRow(
 			@PathVariable("windowId") final String windowIdStr //
 			, @PathVariable("documentId") final String documentIdStr //
 			, @PathVariable("tabId") final String tabIdStr //
 			, @PathVariable("rowId") final String rowIdStr //
 			, @RequestParam(name = PARAM_FieldsList, required = false) @ApiParam("comma separated field names") final String fieldsListStr //
 			, @RequestParam(name = PARAM_Advanced, required = false, defaultValue = PARAM_Advanced_DefaultValue) final boolean advanced //
+			, final WebRequest request //
 	)
 	{
 		final WindowId windowId = WindowId.fromJson(windowIdStr);
@@ -275,39 +285,84 @@ public class WindowRestController
 				.showAdvancedFields(advanced)
 				.build();
 
-		return getData(documentPath, DocumentQueryOrderByList.EMPTY, jsonOpts);
+		return getData(documentPath, DocumentQueryOrderByList.EMPTY, jsonOpts, request);
 	}
 
-	private List<JSONDocument> getData(
+	/**
+	 * Gets the documents as JSON, unless the client already has the current version of them.
+	 * <p>
+	 * The ETag is based on root document's version, so it changes each time the root document (or any of its included documents) is committed, reloaded or invalidated.
+	 */
+	private ResponseEntity<List<JSONDocument>> getData(
 			@NonNull final DocumentPath documentPath,
 			@Nullable final DocumentQueryOrderByList orderBys,
-			@NonNull final JSONDocumentOptions jsonOpts)
+			@NonNull final JSONDocumentOptions jsonOpts,
+			@NonNull final WebRequest request)
 	{
 		userSession.assertLoggedIn();
 
 		return documentCollection.forRootDocumentReadonly(documentPath, rootDocument -> {
-			List<Document> documents;
-			if (documentPath.isRootDocument())
-			{
-				documents = ImmutableList.of(rootDocument);
-			}
-			else if (documentPath.isAnyIncludedDocument())
-			{
-				documents = rootDocument.getIncludedDocuments(documentPath.getDetailId(), orderBys).toList();
-			}
-			else if (documentPath.isSingleIncludedDocument())
-			{
-				documents = ImmutableList.of(rootDocument.getIncludedDocument(documentPath.getDetailId(), documentPath.getSingleRowId()));
-			}
-			else
-			{
-				documents = rootDocument.getIncludedDocuments(documentPath.getDetailId(), documentPath.getRowIds()).toList();
-			}
-
-			return JSONDocument.ofDocumentsList(documents, jsonOpts);
+			final ETag etag = rootDocument.getETag()
+					.overridingAttributes(ImmutableMap.of("permissions", UserRolePermissionsKey.toPermissionsKeyString(Env.getCtx())));
+
+			return toResponseEntity(
+					request,
+					documentPath,
+					etag,
+					jsonOpts.getJsonOpts(),
+					() -> getDocuments(rootDocument, documentPath, orderBys),
+					documents -> JSONDocument.ofDocumentsList(documents, jsonOpts));
 		});
 	}
 
+	/**
+	 * Only the root document is answered with an ETag (and 304 Not Modified).
+	 * The included tab rows are not covered by root document's version, e.g. readonly tabs are loaded from database on each request.
+	 */
+	@VisibleForTesting
+	static <R, JSONType> ResponseEntity<JSONType> toResponseEntity(
+			@NonNull final WebRequest request,
+			@NonNull final DocumentPath documentPath,
+			@NonNull final ETag rootDocumentETag,
+			@NonNull final JSONOptions jsonOpts,
+			@NonNull final Supplier<R> result,
+			@NonNull final Function<R, JSONType> toJson)
+	{
+		if (!documentPath.isRootDocument())
+		{
+			return ResponseEntity.ok(toJson.apply(result.get()));
+		}
+
+		return ETagResponseEntityBuilder.ofETag(request, rootDocumentETag, result)
+				.includeLanguageInETag()
+				.cacheMaxAge(0) // always revalidate
+				.jsonOptions(() -> jsonOpts)
+				.toJson((documents, jsonOptsIgnored) -> toJson.apply(documents));
+	}
+
+	private static List<Document> getDocuments(
+			@NonNull final Document rootDocument,
+			@NonNull final DocumentPath documentPath,
+			@Nullable final DocumentQueryOrderByList orderBys)
+	{
+		if (documentPath.isRootDocument())
+		{
+			return ImmutableList.of(rootDocument);
+		}
+		else if (documentPath.isAnyIncludedDocument())
+		{
+			return rootDocument.getIncludedDocuments(documentPath.getDetailId(), orderBys).toList();
+		}
+		else if (documentPath.isSingleIncludedDocument())
+		{
+			return ImmutableList.of(rootDocument.getIncludedDocument(documentPath.getDetailId(), documentPath.getSingleRowId()));
+		}
+		else
+		{
+			return rootDocument.getIncludedDocuments(documentPath.getDetailId(), documentPath.getRowIds()).toList();
+		}
+	}
+
 	/**
 	 *
 	 * @param windowIdStr
@@ -1,6 +1,7 @@
 package de.metas.ui.web.window.datatypes;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -381,6 +382,18 @@ public abstract class LookupValue
 		}
 	}
 
+	/**
+	 * @return a copy of this lookup value which has given attribute set
+	 */
+	public abstract LookupValue withAttribute(@NonNull String name, @NonNull Object value);
+
+	protected final ImmutableMap<String, Object> getAttributesWith(@NonNull final String name, @NonNull final Object value)
+	{
+		final LinkedHashMap<String, Object> attributes = new LinkedHashMap<>(getAttributes());
+		attributes.put(name, value);
+		return ImmutableMap.copyOf(attributes);
+	}
+
 	public Set<Integer> getAttributeAsIntSet(final String name)
 	{
 		final Object valueObj = getAttribute(name);
@@ -487,6 +500,18 @@ public abstract class LookupValue
 					validationInformation);
 		}
 
+		@Override
+		public StringLookupValue withAttribute(@NonNull final String name, @NonNull final Object value)
+		{
+			return new StringLookupValue(
+					(String)id,
+					getDisplayNameTrl(),
+					getDescriptionTrl(),
+					getAttributesWith(name, value),
+					getActive(),
+					getValidationInformation());
+		}
+
 		@Override
 		public int getIdAsInt()
 		{
@@ -593,6 +618,17 @@ public abstract class LookupValue
 					active);
 		}
 
+		@Override
+		public IntegerLookupValue withAttribute(@NonNull final String name, @NonNull final Object value)
+		{
+			return new IntegerLookupValue(
+					(Integer)id,
+					getDisplayNameTrl(),
+					getDescriptionTrl(),
+					getAttributesWith(name, value),
+					getActive());
+		}
+
 		@Override
 		public int getIdAsInt()
 		{
@@ -1,19 +1,31 @@
 package de.metas.ui.web.window.descriptor.factory.standard;
 
+import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_AD_Window;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.CCache;
+import de.metas.logging.LogManager;
 import de.metas.ui.web.dataentry.window.descriptor.factory.DataEntrySubTabBindingDescriptorBuilder;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.descriptor.DocumentDescriptor;
 import de.metas.ui.web.window.descriptor.factory.DocumentDescriptorFactory;
 import de.metas.ui.web.window.exceptions.DocumentLayoutBuildException;
+import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -44,14 +56,78 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 	@NonNull
 	final DataEntrySubTabBindingDescriptorBuilder dataEntrySubTabBindingDescriptorBuilder;
 
-	private final CCache<WindowId, DocumentDescriptor> documentDescriptorsByWindowId = new CCache<>(I_AD_Window.Table_Name + "#DocumentDescriptor", 50);
+	private static final Logger logger = LogManager.getLogger(DefaultDocumentDescriptorFactory.class);
+
+	private static final String SYSCONFIG_CacheMaxSize = "de.metas.ui.web.window.descriptor.factory.standard.DefaultDocumentDescriptorFactory.CacheMaxSize";
+	private static final String SYSCONFIG_UsageSnapshotFile = "de.metas.ui.web.window.descriptor.factory.standard.DefaultDocumentDescriptorFactory.UsageSnapshotFile";
+	private static final int DEFAULT_CacheMaxSize = 50;
+	private static final int ADAPTIVE_CacheMaxSize_Max = 500;
+
+	private static final String PROPERTY_DataDir = "metasfresh.webui.dataDir";
+	private static final String USAGE_SNAPSHOT_FILENAME = "documentDescriptorsUsage.json";
+
+	/** null if the usage snapshot is disabled */
+	@Nullable
+	private final DocumentDescriptorsUsageSnapshotRepository usageSnapshotRepository;
+	/** usage statistics, as they were when this instance was started */
+	private final DocumentDescriptorsUsageSnapshot previousUsageSnapshot;
+	/** usage statistics since this instance was started */
+	private final ConcurrentHashMap<WindowId, LongAdder> hitsByWindowId = new ConcurrentHashMap<>();
+
+	private final CCache<WindowId, DocumentDescriptor> documentDescriptorsByWindowId;
 
 	private final Set<WindowId> unsupportedWindowIds = new HashSet<>();
 
 	/* package */ DefaultDocumentDescriptorFactory(
-			@NonNull final DataEntrySubTabBindingDescriptorBuilder dataEntrySubTabBindingDescriptorBuilder)
+			@NonNull final DataEntrySubTabBindingDescriptorBuilder dataEntrySubTabBindingDescriptorBuilder,
+			@Value("${" + PROPERTY_DataDir + ":}") @Nullable final String dataDir)
 	{
 		this.dataEntrySubTabBindingDescriptorBuilder = dataEntrySubTabBindingDescriptorBuilder;
+
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+		this.usageSnapshotRepository = createUsageSnapshotRepositoryOrNull(sysConfigBL.getValue(SYSCONFIG_UsageSnapshotFile, null), dataDir);
+		this.previousUsageSnapshot = usageSnapshotRepository != null ? usageSnapshotRepository.load() : DocumentDescriptorsUsageSnapshot.EMPTY;
+
+		final int cacheMaxSize = computeCacheMaxSize(sysConfigBL.getIntValue(SYSCONFIG_CacheMaxSize, -1), previousUsageSnapshot);
+		this.documentDescriptorsByWindowId = CCache.newLRUCache(I_AD_Window.Table_Name + "#DocumentDescriptor", cacheMaxSize, 0);
+		logger.info("Using cacheMaxSize={}, usageSnapshot={} ({} windows)", cacheMaxSize, usageSnapshotRepository, previousUsageSnapshot.getWindowsCount());
+	}
+
+	/**
+	 * The usage snapshot has to survive restarts, so it's kept only if a file or a persistent data directory was explicitly configured.
+	 */
+	@Nullable
+	private static DocumentDescriptorsUsageSnapshotRepository createUsageSnapshotRepositoryOrNull(
+			@Nullable final String usageSnapshotFile,
+			@Nullable final String dataDir)
+	{
+		if (!Check.isEmpty(usageSnapshotFile, true))
+		{
+			return new DocumentDescriptorsUsageSnapshotRepository(Paths.get(usageSnapshotFile.trim()));
+		}
+		else if (!Check.isEmpty(dataDir, true))
+		{
+			return new DocumentDescriptorsUsageSnapshotRepository(Paths.get(dataDir.trim(), USAGE_SNAPSHOT_FILENAME));
+		}
+		else
+		{
+			logger.info("Document descriptors usage snapshot is disabled. To enable it, please set the '{}' property or the '{}' sysconfig.", PROPERTY_DataDir, SYSCONFIG_UsageSnapshotFile);
+			return null;
+		}
+	}
+
+	/**
+	 * If not explicitly configured, the cache is sized to fit all windows which were used lately.
+	 */
+	private static int computeCacheMaxSize(final int cacheMaxSizeConfigured, final DocumentDescriptorsUsageSnapshot usageSnapshot)
+	{
+		if (cacheMaxSizeConfigured > 0)
+		{
+			return cacheMaxSizeConfigured;
+		}
+
+		return Math.min(Math.max(DEFAULT_CacheMaxSize, usageSnapshot.getWindowsCount()), ADAPTIVE_CacheMaxSize_Max);
 	}
 
 	@Override
@@ -62,6 +138,12 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 
 	@Override
 	public DocumentDescriptor getDocumentDescriptor(@NonNull final WindowId windowId)
+	{
+		hitsByWindowId.computeIfAbsent(windowId, k -> new LongAdder()).increment();
+		return getDocumentDescriptorNoStats(windowId);
+	}
+
+	private DocumentDescriptor getDocumentDescriptorNoStats(@NonNull final WindowId windowId)
 	{
 		try
 		{
@@ -73,6 +155,43 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 		}
 	}
 
+	/**
+	 * Loads the descriptor of given window, if not already loaded.
+	 * Unlike {@link #getDocumentDescriptor(WindowId)}, this is not counted as window usage.
+	 */
+	void prewarm(@NonNull final WindowId windowId)
+	{
+		if (!isWindowIdSupported(windowId))
+		{
+			return;
+		}
+
+		getDocumentDescriptorNoStats(windowId);
+	}
+
+	ImmutableList<WindowId> getMostUsedWindowIds(final int limit)
+	{
+		return previousUsageSnapshot.getMostUsedWindowIds(limit);
+	}
+
+	/**
+	 * Persists the windows usage statistics, so they can be used to prewarm the cache after restart.
+	 * Does nothing if the usage snapshot is disabled.
+	 */
+	synchronized void saveUsageSnapshot()
+	{
+		final HashMap<WindowId, Long> recentHitsByWindowId = new HashMap<>();
+		hitsByWindowId.forEach((windowId, hits) -> recentHitsByWindowId.put(windowId, hits.sum()));
+
+		if (usageSnapshotRepository == null)
+		{
+			return;
+		}
+
+		final DocumentDescriptorsUsageSnapshot usageSnapshot = previousUsageSnapshot.mergeWithRecentHits(DocumentDescriptorsUsageSnapshot.ofHitsByWindowId(recentHitsByWindowId));
+		usageSnapshotRepository.save(usageSnapshot);
+	}
+
 	private DefaultDocumentDescriptorLoader createDocumentDescriptorLoader(@NonNull final WindowId windowId)
 	{
 		return new DefaultDocumentDescriptorLoader(
@@ -0,0 +1,140 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.adempiere.service.ISysConfigBL;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.WebRestApiApplication;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * On startup, loads the document descriptors of the most used windows in background, so the first users don't have to wait for them.
+ * <p>
+ * The windows usage statistics are periodically saved (see {@link DefaultDocumentDescriptorFactory#saveUsageSnapshot()}), to be used on next startup.
+ */
+@Component
+public class DocumentDescriptorsPrewarmer
+{
+	private static final Logger logger = LogManager.getLogger(DocumentDescriptorsPrewarmer.class);
+
+	private static final String SYSCONFIG_WindowsCount = "de.metas.ui.web.window.descriptor.factory.standard.DocumentDescriptorsPrewarmer.WindowsCount";
+	private static final int DEFAULT_WindowsCount = 30;
+	private static final String SYSCONFIG_ThreadsCount = "de.metas.ui.web.window.descriptor.factory.standard.DocumentDescriptorsPrewarmer.ThreadsCount";
+	private static final int DEFAULT_ThreadsCount = 2;
+
+	private static final long SAVE_USAGE_SNAPSHOT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+	private final DefaultDocumentDescriptorFactory documentDescriptorFactory;
+	private final TaskScheduler taskScheduler;
+
+	public DocumentDescriptorsPrewarmer(
+			@NonNull final DefaultDocumentDescriptorFactory documentDescriptorFactory,
+			@Qualifier(WebRestApiApplication.BEANNAME_WebuiTaskScheduler) @NonNull final TaskScheduler taskScheduler)
+	{
+		this.documentDescriptorFactory = documentDescriptorFactory;
+		this.taskScheduler = taskScheduler;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady()
+	{
+		prewarmInBackground();
+		taskScheduler.scheduleWithFixedDelay(this::saveUsageSnapshot, SAVE_USAGE_SNAPSHOT_INTERVAL_MILLIS);
+	}
+
+	@PreDestroy
+	public void onShutdown()
+	{
+		saveUsageSnapshot();
+	}
+
+	private void prewarmInBackground()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int windowsCount = sysConfigBL.getIntValue(SYSCONFIG_WindowsCount, DEFAULT_WindowsCount);
+		final List<WindowId> windowIds = documentDescriptorFactory.getMostUsedWindowIds(windowsCount);
+		if (windowIds.isEmpty())
+		{
+			logger.info("Skip prewarming document descriptors because there are no windows to prewarm (windowsCount={})", windowsCount);
+			return;
+		}
+
+		final int threadsCount = Math.max(sysConfigBL.getIntValue(SYSCONFIG_ThreadsCount, DEFAULT_ThreadsCount), 1);
+		final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(DocumentDescriptorsPrewarmer.class.getSimpleName() + "-");
+		threadFactory.setDaemon(true);
+		threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount, threadFactory);
+
+		logger.info("Prewarming document descriptors of {} windows, using {} threads: {}", windowIds.size(), threadsCount, windowIds);
+		for (final WindowId windowId : windowIds)
+		{
+			executor.execute(() -> prewarm(windowId));
+		}
+		executor.shutdown(); // the threads are terminated after all the windows were loaded
+	}
+
+	private void prewarm(final WindowId windowId)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			documentDescriptorFactory.prewarm(windowId);
+			logger.debug("Prewarmed document descriptor of {} in {}", windowId, stopwatch);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed prewarming document descriptor of {}. Ignored.", windowId, ex);
+		}
+	}
+
+	private void saveUsageSnapshot()
+	{
+		try
+		{
+			documentDescriptorFactory.saveUsageSnapshot();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed saving document descriptors usage snapshot. Ignored.", ex);
+		}
+	}
+}
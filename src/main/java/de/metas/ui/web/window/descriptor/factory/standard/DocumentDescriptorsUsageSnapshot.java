@@ -0,0 +1,169 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * How many times the document descriptor of each window was requested.
+ * <p>
+ * It's persisted on local disk (see {@link DocumentDescriptorsUsageSnapshotRepository}), so after a restart we know which windows shall be prewarmed.
+ */
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+@Value
+public class DocumentDescriptorsUsageSnapshot
+{
+	public static final int FORMAT_VERSION = 1;
+
+	public static final DocumentDescriptorsUsageSnapshot EMPTY = new DocumentDescriptorsUsageSnapshot(ImmutableMap.of());
+
+	@JsonProperty("formatVersion")
+	int formatVersion;
+
+	@JsonProperty("hitsByWindowId")
+	ImmutableMap<Integer, Long> hitsByWindowId;
+
+	@JsonProperty("checksum")
+	long checksum;
+
+	private DocumentDescriptorsUsageSnapshot(@NonNull final Map<Integer, Long> hitsByWindowId)
+	{
+		this.formatVersion = FORMAT_VERSION;
+		this.hitsByWindowId = ImmutableMap.copyOf(hitsByWindowId);
+		this.checksum = computeChecksum(formatVersion, this.hitsByWindowId);
+	}
+
+	@JsonCreator
+	private DocumentDescriptorsUsageSnapshot(
+			@JsonProperty("formatVersion") final int formatVersion,
+			@JsonProperty("hitsByWindowId") @Nullable final Map<Integer, Long> hitsByWindowId,
+			@JsonProperty("checksum") final long checksum)
+	{
+		this.formatVersion = formatVersion;
+		this.hitsByWindowId = hitsByWindowId != null ? ImmutableMap.copyOf(hitsByWindowId) : ImmutableMap.of();
+		this.checksum = checksum;
+	}
+
+	public static DocumentDescriptorsUsageSnapshot ofHitsByWindowId(@NonNull final Map<WindowId, Long> hitsByWindowId)
+	{
+		if (hitsByWindowId.isEmpty())
+		{
+			return EMPTY;
+		}
+
+		final HashMap<Integer, Long> hitsByWindowIdInt = new HashMap<>();
+		hitsByWindowId.forEach((windowId, hits) -> {
+			if (windowId.isInt() && hits > 0)
+			{
+				hitsByWindowIdInt.merge(windowId.toInt(), hits, Long::sum);
+			}
+		});
+		return new DocumentDescriptorsUsageSnapshot(hitsByWindowIdInt);
+	}
+
+	/**
+	 * @return <code>true</code> if this snapshot was written by current code and was not corrupted
+	 */
+	@JsonIgnore
+	public boolean isValid()
+	{
+		return formatVersion == FORMAT_VERSION
+				&& checksum == computeChecksum(formatVersion, hitsByWindowId);
+	}
+
+	@JsonIgnore
+	public boolean isEmpty()
+	{
+		return hitsByWindowId.isEmpty();
+	}
+
+	@JsonIgnore
+	public int getWindowsCount()
+	{
+		return hitsByWindowId.size();
+	}
+
+	public ImmutableList<WindowId> getMostUsedWindowIds(final int limit)
+	{
+		if (limit <= 0)
+		{
+			return ImmutableList.of();
+		}
+
+		return hitsByWindowId.entrySet()
+				.stream()
+				.sorted(Map.Entry.<Integer, Long> comparingByValue().reversed()
+						.thenComparing(Map.Entry.<Integer, Long> comparingByKey()))
+				.limit(limit)
+				.map(entry -> WindowId.of(entry.getKey()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Adds the hits of the current session.
+	 * The hits we had so far are halved, so windows which are no longer used are fading out.
+	 */
+	public DocumentDescriptorsUsageSnapshot mergeWithRecentHits(@NonNull final DocumentDescriptorsUsageSnapshot recent)
+	{
+		final HashMap<Integer, Long> hitsByWindowId = new HashMap<>();
+		this.hitsByWindowId.forEach((windowId, hits) -> {
+			final long decayedHits = hits / 2;
+			if (decayedHits > 0)
+			{
+				hitsByWindowId.put(windowId, decayedHits);
+			}
+		});
+		recent.hitsByWindowId.forEach((windowId, hits) -> hitsByWindowId.merge(windowId, hits, Long::sum));
+
+		return hitsByWindowId.isEmpty() ? EMPTY : new DocumentDescriptorsUsageSnapshot(hitsByWindowId);
+	}
+
+	private static long computeChecksum(final int formatVersion, final Map<Integer, Long> hitsByWindowId)
+	{
+		final StringBuilder content = new StringBuilder();
+		content.append(formatVersion);
+		new TreeMap<>(hitsByWindowId).forEach((windowId, hits) -> content.append(";").append(windowId).append("=").append(hits));
+
+		final CRC32 crc = new CRC32();
+		crc.update(content.toString().getBytes(StandardCharsets.UTF_8));
+		return crc.getValue();
+	}
+}
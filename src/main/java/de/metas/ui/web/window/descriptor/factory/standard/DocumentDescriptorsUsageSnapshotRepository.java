@@ -0,0 +1,106 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Stores {@link DocumentDescriptorsUsageSnapshot} to a local file.
+ */
+@ToString(of = "file")
+final class DocumentDescriptorsUsageSnapshotRepository
+{
+	private static final Logger logger = LogManager.getLogger(DocumentDescriptorsUsageSnapshotRepository.class);
+
+	private final Path file;
+	private final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+
+	public DocumentDescriptorsUsageSnapshotRepository(@NonNull final Path file)
+	{
+		this.file = file;
+	}
+
+	/**
+	 * @return snapshot or {@link DocumentDescriptorsUsageSnapshot#EMPTY} if there is no snapshot yet or it's not valid.
+	 */
+	public DocumentDescriptorsUsageSnapshot load()
+	{
+		if (!Files.exists(file))
+		{
+			return DocumentDescriptorsUsageSnapshot.EMPTY;
+		}
+
+		try
+		{
+			final DocumentDescriptorsUsageSnapshot snapshot = jsonObjectMapper.readValue(file.toFile(), DocumentDescriptorsUsageSnapshot.class);
+			if (!snapshot.isValid())
+			{
+				logger.warn("Ignoring invalid or outdated snapshot from {}: {}", file, snapshot);
+				return DocumentDescriptorsUsageSnapshot.EMPTY;
+			}
+
+			return snapshot;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed loading snapshot from {}. Ignored.", file, ex);
+			return DocumentDescriptorsUsageSnapshot.EMPTY;
+		}
+	}
+
+	public void save(@NonNull final DocumentDescriptorsUsageSnapshot snapshot)
+	{
+		try
+		{
+			final Path directory = file.toAbsolutePath().getParent();
+			if (directory != null)
+			{
+				Files.createDirectories(directory);
+			}
+
+			// write to a temporary file first, so a crash while writing won't leave a corrupted snapshot behind
+			final Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+			jsonObjectMapper.writeValue(tempFile.toFile(), snapshot);
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (final IOException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex)
+					.appendParametersToMessage()
+					.setParameter("file", file);
+		}
+	}
+}
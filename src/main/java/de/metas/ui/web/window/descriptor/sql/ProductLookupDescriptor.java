@@ -14,6 +14,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
 
@@ -34,6 +35,7 @@ import org.compiere.util.CtxNames;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
+import org.compiere.util.Language;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
@@ -48,7 +50,6 @@ import de.metas.i18n.IMsgBL;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.TranslatableStringBuilder;
 import de.metas.i18n.TranslatableStrings;
-import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseQuery;
 import de.metas.material.dispo.commons.repository.atp.BPartnerClassifier;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.pricing.PriceListId;
@@ -59,7 +60,6 @@ import de.metas.product.model.I_M_Product;
 import de.metas.quantity.Quantity;
 import de.metas.ui.web.document.filter.sql.SqlParamsCollector;
 import de.metas.ui.web.material.adapter.AvailableToPromiseAdapter;
-import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group;
 import de.metas.ui.web.window.WindowConstants;
 import de.metas.ui.web.window.datatypes.LookupValue;
@@ -116,16 +116,22 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 	private static final String SYSCONFIG_ATP_QUERY_ENABLED = //
 			"de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.QueryEnabled";
 
+	private static final String SYSCONFIG_ATP_ASYNC = //
+			"de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.Async";
+
 	private static final String SYSCONFIG_DISPLAY_ATP_ONLY_IF_POSITIVE = //
 			"de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.DisplayOnlyPositive";
 
 	private static final String SYSCONFIG_DisableFullTextSearch = //
 			"de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.DisableFullTextSearch";
 
+	private static final String SYSCONFIG_SearchIndexEnabled = //
+			"de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.SearchIndex.Enabled";
+
 	private static final Optional<String> LookupTableName = Optional.of(I_M_Product.Table_Name);
 	private static final String CONTEXT_LookupTableName = LookupTableName.get();
 
-	private static final String COLUMNNAME_ProductDisplayName = "ProductDisplayName";
+	static final String COLUMNNAME_ProductDisplayName = "ProductDisplayName";
 
 	private final CtxName param_C_BPartner_ID;
 	private final CtxName param_PricingDate;
@@ -221,8 +227,24 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 			return LookupValuesList.EMPTY;
 		}
 
+		//
+		// Find the matching products using the in memory index, if possible
+		final Set<Integer> productIds;
+		if (isSearchIndexEnabled(evalCtx) && ProductLookupIndex.isSearchable(evalCtx.getFilter()))
+		{
+			productIds = ProductLookupIndex.instance.findProductIds(evalCtx.getFilter(), createIndexRowFilter(evalCtx));
+			if (productIds.isEmpty())
+			{
+				return LookupValuesList.EMPTY;
+			}
+		}
+		else
+		{
+			productIds = null;
+		}
+
 		final SqlParamsCollector sqlParams = SqlParamsCollector.newInstance();
-		final String sql = buildSql(sqlParams, evalCtx);
+		final String sql = buildSql(sqlParams, evalCtx, productIds);
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -295,16 +317,50 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 				: null;
 	}
 
+	private boolean isSearchIndexEnabled(final LookupDataSourceContext evalCtx)
+	{
+		// NOTE: the index always searches like the full text search does,
+		// and it knows only the display names in base language
+		return isFullTextSearchEnabled()
+				&& Language.isBaseLanguage(evalCtx.getAD_Language())
+				&& Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_SearchIndexEnabled, true);
+	}
+
+	/**
+	 * @return filter which is equivalent to the SQL filters by IsActive, bpartner, org and BOM
+	 */
+	private Predicate<ProductLookupIndex.Row> createIndexRowFilter(final LookupDataSourceContext evalCtx)
+	{
+		final int bpartnerId = param_C_BPartner_ID.getValueAsInteger(evalCtx);
+		final int adOrgId = param_AD_Org_ID.getValueAsInteger(evalCtx);
+
+		return row -> row.isActive()
+				&& (bpartnerId <= 0 || row.getBpartnerId() <= 0 || row.getBpartnerId() == bpartnerId)
+				&& (row.getOrgId() == 0 || row.getOrgId() == adOrgId)
+				&& (!excludeBOMProducts || !row.isBom());
+	}
+
+	/**
+	 * @param productIds the product IDs found using the {@link ProductLookupIndex} or <code>null</code> if the search string shall be matched in SQL
+	 */
 	private String buildSql(
 			@NonNull final SqlParamsCollector sqlParams,
-			@NonNull final LookupDataSourceContext evalCtx)
+			@NonNull final LookupDataSourceContext evalCtx,
+			@Nullable final Set<Integer> productIds)
 	{
 		//
 		// Build the SQL filter
 		final StringBuilder sqlWhereClause = new StringBuilder();
 		final SqlParamsCollector sqlWhereClauseParams = SqlParamsCollector.newInstance();
 		appendFilterByIsActive(sqlWhereClause, sqlWhereClauseParams);
-		appendFilterBySearchString(sqlWhereClause, sqlWhereClauseParams, evalCtx.getFilter(), isFullTextSearchEnabled());
+		if (productIds != null)
+		{
+			appendFilterByProductIds(sqlWhereClause, sqlWhereClauseParams, productIds);
+		}
+		else
+		{
+			appendFilterBySearchString(sqlWhereClause, sqlWhereClauseParams, evalCtx.getFilter(), isFullTextSearchEnabled());
+		}
 		appendFilterById(sqlWhereClause, sqlWhereClauseParams, evalCtx);
 		appendFilterByBPartner(sqlWhereClause, sqlWhereClauseParams, evalCtx);
 		appendFilterByPriceList(sqlWhereClause, sqlWhereClauseParams, evalCtx);
@@ -314,11 +370,7 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 
 		//
 		// SQL: SELECT ... FROM
-		final String sqlDisplayName = MLookupFactory.getLookup_TableDirEmbed(
-				LanguageInfo.ofSpecificLanguage(evalCtx.getAD_Language()),
-				org.compiere.model.I_M_Product.COLUMNNAME_M_Product_ID, // columnName
-				null, // baseTable
-				"p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID);
+		final String sqlDisplayName = buildSqlProductDisplayName(evalCtx.getAD_Language(), "p");
 		final StringBuilder sql = new StringBuilder("SELECT"
 				+ "\n p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID
 				+ "\n, (" + sqlDisplayName + ") AS " + COLUMNNAME_ProductDisplayName
@@ -395,6 +447,12 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		}
 	}
 
+	private static void appendFilterByProductIds(final StringBuilder sqlWhereClause, final SqlParamsCollector sqlWhereClauseParams, final Set<Integer> productIds)
+	{
+		sqlWhereClause.append("\n AND p.").append(I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID)
+				.append(" = ANY(").append(sqlWhereClauseParams.placeholder(ProductLookupIndex.toSqlArray(productIds))).append("::integer[])");
+	}
+
 	private static void appendFilterById(final StringBuilder sqlWhereClause, final SqlParamsCollector sqlWhereClauseParams, final LookupDataSourceContext evalCtx)
 	{
 		final Integer idToFilter = evalCtx.getIdToFilterAsInt(-1);
@@ -461,6 +519,18 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		sqlWhereClause.append("\n AND p." + I_M_Product_Lookup_V.COLUMNNAME_IsBOM + "=" + sqlWhereClauseParams.placeholder(false));
 	}
 
+	/**
+	 * @return SQL expression of the product's display name, as it is shown and searched by this lookup
+	 */
+	static String buildSqlProductDisplayName(@NonNull final String adLanguage, @NonNull final String productLookupTableAlias)
+	{
+		return MLookupFactory.getLookup_TableDirEmbed(
+				LanguageInfo.ofSpecificLanguage(adLanguage),
+				org.compiere.model.I_M_Product.COLUMNNAME_M_Product_ID, // columnName
+				null, // baseTable
+				productLookupTableAlias + "." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID);
+	}
+
 	private static final String convertFilterToSql(final String filter)
 	{
 		String sqlFilter = filter.trim();
@@ -593,14 +663,15 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 			return productLookupValues;
 		}
 
-		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
-				.productIds(productLookupValues.getKeysAsInt())
-				.storageAttributesKeyPatterns(availableToPromiseAdapter.getPredefinedStorageAttributeKeys())
-				.date(dateOrNull)
-				.bpartner(BPartnerClassifier.specificOrNone(bpartnerId))
-				.build();
-		final AvailableToPromiseResultForWebui availableStock = availableToPromiseAdapter.retrieveAvailableStock(query);
-		final List<Group> availableStockGroups = availableStock.getGroups();
+		final ImmutableSet<ProductId> productIds = productLookupValues.getKeysAsInt()
+				.stream()
+				.map(ProductId::ofRepoId)
+				.collect(ImmutableSet.toImmutableSet());
+		final BPartnerClassifier bpartner = BPartnerClassifier.specificOrNone(bpartnerId);
+
+		final List<Group> availableStockGroups = isAvailableStockQueryAsync()
+				? availableToPromiseAdapter.getCachedAvailableStockGroupsAndLoadOthersAsync(productIds, dateOrNull, bpartner)
+				: availableToPromiseAdapter.retrieveAvailableStockGroups(productIds, dateOrNull, bpartner);
 
 		return explodeLookupValuesByAvailableStockGroups(
 				productLookupValues,
@@ -621,6 +692,19 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		return stockQueryActivated;
 	}
 
+	/**
+	 * @return true if the lookup shall not wait for the ATP, but show the quantities which are already cached
+	 */
+	private boolean isAvailableStockQueryAsync()
+	{
+		final Properties ctx = Env.getCtx();
+
+		return Services.get(ISysConfigBL.class).getBooleanValue(
+				SYSCONFIG_ATP_ASYNC,
+				false,
+				Env.getAD_Client_ID(ctx), Env.getAD_Org_ID(ctx));
+	}
+
 	@VisibleForTesting
 	static LookupValuesList explodeLookupValuesByAvailableStockGroups(
 			@NonNull final LookupValuesList initialLookupValues,
@@ -873,7 +957,7 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		}
 	}
 
-	private interface I_M_Product_Lookup_V
+	interface I_M_Product_Lookup_V
 	{
 		String Table_Name = "M_Product_Lookup_V";
 
@@ -0,0 +1,661 @@
+package de.metas.ui.web.window.descriptor.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.compiere.model.I_C_BPartner_Product;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.DB;
+import org.compiere.util.Language;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import de.metas.ui.web.document.filter.sql.SqlParamsCollector;
+import de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.I_M_Product_Lookup_V;
+import de.metas.ui.web.window.model.lookup.TrigramIndex;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import de.metas.util.StringUtils;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In memory search index of {@code M_Product_Lookup_V}, used by {@link ProductLookupDescriptor} to find the products matching a search string
+ * without scanning the whole view using ILIKE.
+ * <p>
+ * A row matches if the search string is contained (case insensitive) in its ProductDisplayName, UPC, BPartnerProductNo or BPartnerProductName,
+ * i.e. same as <code>ILIKE '%searchString%'</code>. The candidate rows are found using an index of the 3 characters long substrings (trigrams).
+ * <p>
+ * The index is loaded on first use. Changed products are reloaded the next time the index is queried.
+ * Loading happens outside of the index's lock and the loaded snapshot is swapped in atomically, so searches are not blocked by a running reload of changed products.
+ */
+final class ProductLookupIndex
+{
+	private static final Logger logger = LogManager.getLogger(ProductLookupIndex.class);
+
+	static final transient ProductLookupIndex instance = newInstanceWithCacheInvalidation(new SqlRowsLoader());
+
+	/** If more products than this are changed, the whole index is rebuilt */
+	private static final int MAX_CHANGED_PRODUCTS = 1000;
+
+	private final RowsLoader rowsLoader;
+
+	/** Held while loading from database, so concurrent searches don't load the same data again */
+	private final ReentrantLock loadLock = new ReentrantLock();
+
+	/** null if the index was not loaded yet or it shall be fully reloaded */
+	private volatile Snapshot snapshot;
+
+	// guarded by "this"
+	private final HashSet<Integer> productIdsToReload = new HashSet<>();
+	private final HashSet<Integer> bpartnerProductIdsToReload = new HashSet<>();
+	private long invalidateAllCount = 0;
+
+	@VisibleForTesting
+	ProductLookupIndex(@NonNull final RowsLoader rowsLoader)
+	{
+		this.rowsLoader = rowsLoader;
+	}
+
+	private static ProductLookupIndex newInstanceWithCacheInvalidation(final RowsLoader rowsLoader)
+	{
+		final ProductLookupIndex index = new ProductLookupIndex(rowsLoader);
+
+		final CacheMgt cacheMgt = CacheMgt.get();
+		cacheMgt.addCacheResetListener(I_M_Product.Table_Name, multiRequest -> {
+			index.onCacheInvalidate(multiRequest);
+			return 1;
+		});
+		cacheMgt.addCacheResetListener(I_C_BPartner_Product.Table_Name, multiRequest -> {
+			index.onCacheInvalidate(multiRequest);
+			return 1;
+		});
+
+		return index;
+	}
+
+	private void onCacheInvalidate(final CacheInvalidateMultiRequest multiRequest)
+	{
+		final ArrayList<CacheInvalidateRequest> requests = new ArrayList<>(multiRequest.getRequests());
+		final boolean resetAll = multiRequest.isResetAll();
+
+		// make sure we are reloading the products after they were committed
+		Services.get(ITrxManager.class).runAfterCommit(() -> {
+			if (resetAll)
+			{
+				invalidateAll();
+				return;
+			}
+
+			requests.forEach(this::invalidate);
+		});
+	}
+
+	private void invalidate(final CacheInvalidateRequest request)
+	{
+		final String tableName = request.getTableNameEffective();
+		if (request.isAll() || request.isAllRecords() || request.getRootRecordOrNull() == null)
+		{
+			invalidateAll();
+		}
+		else if (I_M_Product.Table_Name.equals(tableName))
+		{
+			invalidateProductId(request.getRootRecordOrNull().getRecord_ID());
+		}
+		else if (I_C_BPartner_Product.Table_Name.equals(tableName))
+		{
+			invalidateBPartnerProductId(request.getRootRecordOrNull().getRecord_ID());
+		}
+	}
+
+	public synchronized void invalidateAll()
+	{
+		snapshot = null;
+		invalidateAllCount++;
+		productIdsToReload.clear();
+		bpartnerProductIdsToReload.clear();
+	}
+
+	public synchronized void invalidateProductId(final int productId)
+	{
+		productIdsToReload.add(productId);
+	}
+
+	public synchronized void invalidateBPartnerProductId(final int bpartnerProductId)
+	{
+		bpartnerProductIdsToReload.add(bpartnerProductId);
+	}
+
+	private synchronized boolean hasProductsToReload()
+	{
+		return !productIdsToReload.isEmpty() || !bpartnerProductIdsToReload.isEmpty();
+	}
+
+	/**
+	 * @return true if given search string can be looked up in this index.
+	 *         Search strings with LIKE wildcards cannot, and neither can search strings which are shorter than a trigram.
+	 */
+	public static boolean isSearchable(@Nullable final String searchString)
+	{
+		if (Check.isEmpty(searchString, true)
+				|| searchString.contains("%")
+				|| searchString.contains("_")
+				|| searchString.contains("\\"))
+		{
+			return false;
+		}
+
+		return normalize(searchString).length() >= TrigramIndex.TRIGRAM_LENGTH;
+	}
+
+	/**
+	 * @param rowFilter additional filter which is applied on the matching rows
+	 * @return IDs of the products which have at least one row matching the search string and the row filter
+	 */
+	public ImmutableSet<Integer> findProductIds(@NonNull final String searchString, @NonNull final Predicate<Row> rowFilter)
+	{
+		Check.assume(isSearchable(searchString), "searchString is searchable: {}", searchString);
+		final Query query = Query.of(searchString);
+		final Predicate<Row> effectiveRowFilter = rowFilter.and(query::matches);
+
+		final Snapshot snapshot = getSnapshot();
+
+		final ImmutableSet.Builder<Integer> result = ImmutableSet.builder();
+		for (final int productId : snapshot.getCandidateProductIds(query))
+		{
+			if (snapshot.getRows(productId).stream().anyMatch(effectiveRowFilter))
+			{
+				result.add(productId);
+			}
+		}
+
+		return result.build();
+	}
+
+	private Snapshot getSnapshot()
+	{
+		final Snapshot snapshot = this.snapshot;
+		if (snapshot == null)
+		{
+			// nothing to search in; wait for the snapshot to be loaded, maybe by another thread
+			loadLock.lock();
+			try
+			{
+				final Snapshot snapshotLoadedMeanwhile = this.snapshot;
+				return snapshotLoadedMeanwhile != null ? snapshotLoadedMeanwhile : loadSnapshot();
+			}
+			finally
+			{
+				loadLock.unlock();
+			}
+		}
+		else if (hasProductsToReload())
+		{
+			// if another thread is reloading right now, search in the current snapshot instead of waiting for it
+			if (!loadLock.tryLock())
+			{
+				return snapshot;
+			}
+			try
+			{
+				final Snapshot currentSnapshot = this.snapshot;
+				return currentSnapshot != null ? reloadChangedProducts(currentSnapshot) : loadSnapshot();
+			}
+			finally
+			{
+				loadLock.unlock();
+			}
+		}
+		else
+		{
+			return snapshot;
+		}
+	}
+
+	/**
+	 * NOTE: to be called while holding the {@link #loadLock}, but not the index's monitor.
+	 */
+	private Snapshot loadSnapshot()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final long invalidateAllCountBeforeLoad;
+		synchronized (this)
+		{
+			invalidateAllCountBeforeLoad = invalidateAllCount;
+			// products changed from now on will be reloaded on top of the new snapshot
+			productIdsToReload.clear();
+			bpartnerProductIdsToReload.clear();
+		}
+
+		final Snapshot snapshot = Snapshot.of(rowsLoader.retrieveAllRows());
+
+		synchronized (this)
+		{
+			// don't keep it if everything was invalidated while loading
+			if (invalidateAllCount == invalidateAllCountBeforeLoad)
+			{
+				this.snapshot = snapshot;
+			}
+		}
+
+		logger.info("Loaded product lookup index ({} products) in {}", snapshot.getProductsCount(), stopwatch.stop());
+		return snapshot;
+	}
+
+	/**
+	 * NOTE: to be called while holding the {@link #loadLock}, but not the index's monitor.
+	 */
+	private Snapshot reloadChangedProducts(@NonNull final Snapshot snapshot)
+	{
+		final HashSet<Integer> productIds;
+		final ImmutableSet<Integer> bpartnerProductIds;
+		synchronized (this)
+		{
+			productIds = new HashSet<>(productIdsToReload);
+			bpartnerProductIds = ImmutableSet.copyOf(bpartnerProductIdsToReload);
+			productIdsToReload.clear();
+			bpartnerProductIdsToReload.clear();
+		}
+
+		if (!bpartnerProductIds.isEmpty())
+		{
+			final Set<Integer> bpartnerProductsProductIds = rowsLoader.retrieveProductIdsByBPartnerProductIds(bpartnerProductIds);
+			if (bpartnerProductsProductIds == null)
+			{
+				// some of the bpartner products were deleted and we don't know their products
+				return loadSnapshot();
+			}
+
+			productIds.addAll(bpartnerProductsProductIds);
+		}
+
+		if (productIds.isEmpty())
+		{
+			return snapshot;
+		}
+
+		if (snapshot.getChangedProductsCount() + productIds.size() > MAX_CHANGED_PRODUCTS)
+		{
+			return loadSnapshot();
+		}
+
+		final Snapshot newSnapshot = snapshot.withChangedRows(productIds, rowsLoader.retrieveRowsByProductIds(productIds));
+
+		synchronized (this)
+		{
+			// don't keep it if everything was invalidated while loading
+			if (this.snapshot == snapshot)
+			{
+				this.snapshot = newSnapshot;
+			}
+		}
+
+		return newSnapshot;
+	}
+
+	private static String normalize(@Nullable final String str)
+	{
+		return str != null ? str.trim().toLowerCase(Locale.ROOT) : "";
+	}
+
+	/**
+	 * One row of {@code M_Product_Lookup_V}.
+	 */
+	@Value
+	static class Row
+	{
+		int productId;
+		int orgId;
+		boolean active;
+		boolean bom;
+		/** bpartner for which the BPartnerProductNo and BPartnerProductName apply; -1 if none */
+		int bpartnerId;
+
+		/** lower case ProductDisplayName, UPC, BPartnerProductNo and BPartnerProductName; the ones which are empty are skipped */
+		ImmutableList<String> searchableTexts;
+
+		@Builder
+		private Row(
+				final int productId,
+				final int orgId,
+				final boolean active,
+				final boolean bom,
+				@Nullable final String displayName,
+				@Nullable final String upc,
+				final int bpartnerId,
+				@Nullable final String bpartnerProductNo,
+				@Nullable final String bpartnerProductName)
+		{
+			this.productId = productId;
+			this.orgId = orgId;
+			this.active = active;
+			this.bom = bom;
+			this.bpartnerId = bpartnerId > 0 ? bpartnerId : -1;
+
+			// NOTE: not trimming, because ILIKE does not trim the values either
+			this.searchableTexts = Stream.of(displayName, upc, bpartnerProductNo, bpartnerProductName)
+					.filter(text -> text != null && !text.isEmpty())
+					.map(text -> text.toLowerCase(Locale.ROOT))
+					.collect(ImmutableList.toImmutableList());
+		}
+	}
+
+	@Value
+	private static class Query
+	{
+		static Query of(@NonNull final String searchString)
+		{
+			final String searchStringNorm = normalize(searchString);
+
+			final LinkedHashSet<String> trigrams = new LinkedHashSet<>();
+			TrigramIndex.collectTrigrams(searchStringNorm, trigrams);
+
+			return new Query(searchStringNorm, ImmutableSet.copyOf(trigrams));
+		}
+
+		/** trimmed and lower case search string, which shall be contained in one of the row's searchable texts */
+		String searchString;
+		ImmutableSet<String> trigrams;
+
+		public boolean matches(@NonNull final Row row)
+		{
+			return row.getSearchableTexts().stream().anyMatch(text -> text.contains(searchString));
+		}
+	}
+
+	/**
+	 * Immutable state of the index.
+	 */
+	private static final class Snapshot
+	{
+		public static Snapshot of(@NonNull final List<Row> rows)
+		{
+			final ImmutableListMultimap<Integer, Row> rowsByProductId = rows.stream().collect(ImmutableListMultimap.toImmutableListMultimap(Row::getProductId, row -> row));
+			return new Snapshot(rowsByProductId, buildProductIdsByTrigram(rowsByProductId), ImmutableMap.of());
+		}
+
+		private final ImmutableListMultimap<Integer, Row> rowsByProductId;
+		/** product IDs by trigram, for the rows in {@link #rowsByProductId} */
+		private final TrigramIndex productIdsByTrigram;
+
+		/** changed products, which are taken from here and not from the indexed rows. An empty list means the product no longer exists */
+		private final ImmutableMap<Integer, ImmutableList<Row>> changedRowsByProductId;
+
+		private Snapshot(
+				@NonNull final ImmutableListMultimap<Integer, Row> rowsByProductId,
+				@NonNull final TrigramIndex productIdsByTrigram,
+				@NonNull final ImmutableMap<Integer, ImmutableList<Row>> changedRowsByProductId)
+		{
+			this.rowsByProductId = rowsByProductId;
+			this.productIdsByTrigram = productIdsByTrigram;
+			this.changedRowsByProductId = changedRowsByProductId;
+		}
+
+		private static TrigramIndex buildProductIdsByTrigram(final ImmutableListMultimap<Integer, Row> rowsByProductId)
+		{
+			final TrigramIndex.Builder productIdsByTrigram = TrigramIndex.builder();
+			for (final Row row : rowsByProductId.values())
+			{
+				row.getSearchableTexts().forEach(text -> productIdsByTrigram.add(row.getProductId(), text));
+			}
+			return productIdsByTrigram.build();
+		}
+
+		public Snapshot withChangedRows(@NonNull final Set<Integer> productIds, @NonNull final List<Row> rows)
+		{
+			final ImmutableListMultimap<Integer, Row> rowsByProductId = rows.stream().collect(ImmutableListMultimap.toImmutableListMultimap(Row::getProductId, row -> row));
+
+			final HashMap<Integer, ImmutableList<Row>> changedRowsByProductId = new HashMap<>(this.changedRowsByProductId);
+			for (final Integer productId : productIds)
+			{
+				changedRowsByProductId.put(productId, rowsByProductId.get(productId));
+			}
+
+			return new Snapshot(this.rowsByProductId, this.productIdsByTrigram, ImmutableMap.copyOf(changedRowsByProductId));
+		}
+
+		private static int[] toSortedArray(final Collection<Integer> productIds)
+		{
+			final int[] result = productIds.stream().mapToInt(Integer::intValue).toArray();
+			Arrays.sort(result);
+			return result;
+		}
+
+		public int getProductsCount()
+		{
+			return rowsByProductId.keySet().size();
+		}
+
+		public int getChangedProductsCount()
+		{
+			return changedRowsByProductId.size();
+		}
+
+		public ImmutableList<Row> getRows(final int productId)
+		{
+			final ImmutableList<Row> changedRows = changedRowsByProductId.get(productId);
+			return changedRows != null ? changedRows : rowsByProductId.get(productId);
+		}
+
+		/**
+		 * @return sorted IDs of the products which might match the query, i.e. which contain all the query's trigrams, plus the changed products
+		 */
+		public int[] getCandidateProductIds(final Query query)
+		{
+			int[] result = productIdsByTrigram.getIdsHavingAllTrigrams(query.getTrigrams());
+
+			if (!changedRowsByProductId.isEmpty())
+			{
+				result = union(result, toSortedArray(changedRowsByProductId.keySet()));
+			}
+
+			return result;
+		}
+
+		private static int[] union(final int[] sortedArray1, final int[] sortedArray2)
+		{
+			return IntStream.concat(Arrays.stream(sortedArray1), Arrays.stream(sortedArray2))
+					.sorted()
+					.distinct()
+					.toArray();
+		}
+	}
+
+	@VisibleForTesting
+	interface RowsLoader
+	{
+		List<Row> retrieveAllRows();
+
+		List<Row> retrieveRowsByProductIds(Set<Integer> productIds);
+
+		/**
+		 * @return the product IDs of given bpartner products or null if some of the bpartner products no longer exist
+		 */
+		@Nullable
+		Set<Integer> retrieveProductIdsByBPartnerProductIds(Set<Integer> bpartnerProductIds);
+	}
+
+	private static final class SqlRowsLoader implements RowsLoader
+	{
+		/**
+		 * NOTE: built on first use, because the display name SQL requires the application dictionary
+		 */
+		private static String buildSqlSelect()
+		{
+			// the display name in base language, because the index is only used for the base language
+			final String sqlDisplayName = ProductLookupDescriptor.buildSqlProductDisplayName(Language.getBaseAD_Language(), "p");
+
+			return "SELECT "
+					+ "\n p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID
+					+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_AD_Org_ID
+					+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_IsActive
+					+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_IsBOM
+					+ "\n, (" + sqlDisplayName + ") AS " + ProductLookupDescriptor.COLUMNNAME_ProductDisplayName
+					+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_UPC
+					+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_C_BPartner_ID
+					+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductNo
+					+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductName
+					+ "\n FROM " + I_M_Product_Lookup_V.Table_Name + " p";
+		}
+
+		@Override
+		public List<Row> retrieveAllRows()
+		{
+			return retrieveRows(buildSqlSelect(), ImmutableList.of());
+		}
+
+		@Override
+		public List<Row> retrieveRowsByProductIds(final Set<Integer> productIds)
+		{
+			if (productIds.isEmpty())
+			{
+				return ImmutableList.of();
+			}
+
+			final SqlParamsCollector sqlParams = SqlParamsCollector.newInstance();
+			final String sql = buildSqlSelect()
+					+ "\n WHERE p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID + " = ANY(" + sqlParams.placeholder(toSqlArray(productIds)) + "::integer[])";
+			return retrieveRows(sql, sqlParams.toList());
+		}
+
+		private static List<Row> retrieveRows(final String sql, final List<Object> sqlParams)
+		{
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+				DB.setParameters(pstmt, sqlParams);
+				rs = pstmt.executeQuery();
+
+				final ArrayList<Row> rows = new ArrayList<>();
+				while (rs.next())
+				{
+					rows.add(retrieveRow(rs));
+				}
+				return rows;
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, sql, sqlParams);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+		}
+
+		private static Row retrieveRow(final ResultSet rs) throws SQLException
+		{
+			return Row.builder()
+					.productId(rs.getInt(I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID))
+					.orgId(rs.getInt(I_M_Product_Lookup_V.COLUMNNAME_AD_Org_ID))
+					.active(StringUtils.toBoolean(rs.getString(I_M_Product_Lookup_V.COLUMNNAME_IsActive)))
+					.bom(StringUtils.toBoolean(rs.getString(I_M_Product_Lookup_V.COLUMNNAME_IsBOM)))
+					.displayName(rs.getString(ProductLookupDescriptor.COLUMNNAME_ProductDisplayName))
+					.upc(rs.getString(I_M_Product_Lookup_V.COLUMNNAME_UPC))
+					.bpartnerId(rs.getInt(I_M_Product_Lookup_V.COLUMNNAME_C_BPartner_ID))
+					.bpartnerProductNo(rs.getString(I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductNo))
+					.bpartnerProductName(rs.getString(I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductName))
+					.build();
+		}
+
+		@Override
+		public Set<Integer> retrieveProductIdsByBPartnerProductIds(final Set<Integer> bpartnerProductIds)
+		{
+			final String sql = "SELECT " + I_C_BPartner_Product.COLUMNNAME_C_BPartner_Product_ID + ", " + I_C_BPartner_Product.COLUMNNAME_M_Product_ID
+					+ " FROM " + I_C_BPartner_Product.Table_Name
+					+ " WHERE " + I_C_BPartner_Product.COLUMNNAME_C_BPartner_Product_ID + " = ANY(?::integer[])";
+			final List<Object> sqlParams = ImmutableList.of(toSqlArray(bpartnerProductIds));
+
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+				DB.setParameters(pstmt, sqlParams);
+				rs = pstmt.executeQuery();
+
+				final HashSet<Integer> bpartnerProductIdsFound = new HashSet<>();
+				final HashSet<Integer> productIds = new HashSet<>();
+				while (rs.next())
+				{
+					bpartnerProductIdsFound.add(rs.getInt(I_C_BPartner_Product.COLUMNNAME_C_BPartner_Product_ID));
+					productIds.add(rs.getInt(I_C_BPartner_Product.COLUMNNAME_M_Product_ID));
+				}
+
+				return bpartnerProductIdsFound.containsAll(bpartnerProductIds) ? productIds : null;
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, sql, sqlParams);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+		}
+	}
+
+	/**
+	 * @return postgres array literal (e.g. <code>{1,2,3}</code>), to be used as a <code>?::integer[]</code> SQL parameter
+	 */
+	static String toSqlArray(@NonNull final Collection<Integer> ids)
+	{
+		return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+	}
+}
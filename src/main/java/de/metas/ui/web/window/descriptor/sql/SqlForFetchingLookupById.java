@@ -83,4 +83,15 @@ public class SqlForFetchingLookupById
 	{
 		return sql.evaluate(evalCtx, OnVariableNotFound.Fail);
 	}
+
+	/**
+	 * @return SQL which fetches the lookup value of the record having the key equal to given column, i.e. to be used as a correlated subquery
+	 */
+	public String evaluate(@NonNull final String joinOnColumnNameFQ, @NonNull final LookupDataSourceContext evalCtx)
+	{
+		return sql.resolvePartial(Evaluatees.mapBuilder()
+				.put(SQL_PARAM_KeyId, joinOnColumnNameFQ)
+				.build())
+				.evaluate(evalCtx, OnVariableNotFound.Fail);
+	}
 }
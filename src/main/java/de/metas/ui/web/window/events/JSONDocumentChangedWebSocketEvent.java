@@ -15,6 +15,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import de.metas.ui.web.websocket.WebSocketConfig;
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
+import de.metas.ui.web.websocket.WebsocketMergeableEvent;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.WindowId;
@@ -59,7 +60,7 @@ import lombok.ToString;
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
 @EqualsAndHashCode
 @ToString
-final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
+final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware, WebsocketMergeableEvent
 {
 	public static JSONDocumentChangedWebSocketEvent rootDocument(final WindowId windowId, final DocumentId documentId)
 	{
@@ -97,10 +98,15 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 	}
 
 	private JSONDocumentChangedWebSocketEvent(@NonNull final JSONDocumentChangedWebSocketEvent from)
+	{
+		this(from, from.timestamp);
+	}
+
+	private JSONDocumentChangedWebSocketEvent(@NonNull final JSONDocumentChangedWebSocketEvent from, final String timestamp)
 	{
 		windowId = from.windowId;
 		id = from.id;
-		timestamp = from.timestamp;
+		this.timestamp = timestamp;
 
 		stale = from.stale;
 
@@ -167,6 +173,27 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 		getIncludedTabInfo(tabId).staleRows(rowIds);
 	}
 
+	@Override
+	public JSONDocumentChangedWebSocketEvent mergeWith(@NonNull final WebsocketMergeableEvent nextEvent)
+	{
+		if (!(nextEvent instanceof JSONDocumentChangedWebSocketEvent))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent next = (JSONDocumentChangedWebSocketEvent)nextEvent;
+		if (!Objects.equals(windowId, next.windowId)
+				|| !Objects.equals(id, next.id))
+		{
+			return null;
+		}
+
+		// NOTE: the next event's timestamp and tab infos are the most recent ones, so they win
+		final JSONDocumentChangedWebSocketEvent merged = new JSONDocumentChangedWebSocketEvent(this, next.timestamp);
+		merged.mergeFrom(next);
+		return merged;
+	}
+
 	void mergeFrom(@NonNull final JSONDocumentChangedWebSocketEvent from)
 	{
 		if (!Objects.equals(windowId, from.windowId)
@@ -183,6 +210,9 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 			stale = from.stale;
 		}
 
-		from.getIncludedTabsInfo().values().forEach(this::addIncludedTabInfo);
+		if (from.includedTabsInfoByTabId != null)
+		{
+			from.includedTabsInfoByTabId.values().forEach(this::addIncludedTabInfo);
+		}
 	}
 }
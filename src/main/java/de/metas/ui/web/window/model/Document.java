@@ -10,6 +10,7 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
@@ -45,6 +46,8 @@ import de.metas.lang.SOTrx;
 import de.metas.letters.model.Letters;
 import de.metas.logging.LogManager;
 import de.metas.organization.OrgId;
+import de.metas.ui.web.cache.ETag;
+import de.metas.ui.web.cache.ETagAware;
 import de.metas.ui.web.window.WindowConstants;
 import de.metas.ui.web.window.datatypes.DataTypes;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -93,7 +96,7 @@ import lombok.NonNull;
  * #L%
  */
 
-public final class Document
+public final class Document implements ETagAware
 {
 	public static Builder builder(final DocumentEntityDescriptor entityDescriptor)
 	{
@@ -109,6 +112,8 @@ public final class Document
 	private static final ReasonSupplier REASON_Value_Refreshing = () -> "direct set on Document (refresh)";
 	private static final ReasonSupplier REASON_Value_ParentLinkUpdateOnSave = () -> "parent link update on save";
 
+	private static final AtomicLong nextVersion = new AtomicLong(1);
+
 	//
 	// Descriptors & paths
 	private final DocumentEntityDescriptor entityDescriptor;
@@ -125,6 +130,8 @@ public final class Document
 	private DocumentValidStatus _validOnCheckout;
 	private DocumentSaveStatus _saveStatus;
 	private DocumentSaveStatus _saveStatusOnCheckout;
+	/** volatile because readers compute ETags from the shared readonly snapshot while it might be invalidated */
+	private volatile long _version;
 	private final DocumentStaleState _staleStatus;
 	private final ReentrantReadWriteLock _lock;
 	// Status: readonly
@@ -135,7 +142,7 @@ public final class Document
 	// Callouts
 	private ITabCallout documentCallout = ITabCallout.NULL; // will be set from builder, after document is initialized
 	private final ICalloutExecutor fieldCalloutExecutor;
-	private DocumentAsCalloutRecord _calloutRecord; // lazy
+	private volatile DocumentAsCalloutRecord _calloutRecord; // lazy (readonly documents are shared between readers)
 
 	//
 	// Fields
@@ -150,7 +157,7 @@ public final class Document
 
 	//
 	// Evaluatee
-	private IDocumentEvaluatee _evaluatee; // lazy
+	private volatile IDocumentEvaluatee _evaluatee; // lazy (readonly documents are shared between readers)
 	private transient IDocumentEvaluatee _shadowParentEvaluatee;
 
 	// Changes tracking
@@ -194,6 +201,7 @@ public final class Document
 
 		_saveStatusOnCheckout = DocumentSaveStatus.unknown();
 		_saveStatus = _saveStatusOnCheckout;
+		_version = nextVersion.getAndIncrement();
 
 		changesCollector = builder.getChangesCollector();
 
@@ -296,6 +304,7 @@ public final class Document
 
 		_valid = from._valid;
 		_saveStatus = from._saveStatus;
+		_version = from._version;
 		this.changesCollector = changesCollector;
 		switch (copyMode)
 		{
@@ -1103,6 +1112,36 @@ public final class Document
 		return valid;
 	}
 
+	/**
+	 * @return root document's version, which is changed each time the root document is loaded or committed, or when some of its included rows are invalidated.
+	 *         Versions are never reused, so they can tell if something which was computed from this document (e.g. a JSON sent to frontend) is still up to date.
+	 */
+	public long getVersion()
+	{
+		return getRootDocument()._version;
+	}
+
+	/* package */ void newVersion()
+	{
+		Preconditions.checkState(isRootDocument(), "Only root documents are versioned: %s", this);
+		_version = nextVersion.getAndIncrement();
+	}
+
+	/**
+	 * Marks given included rows as stale and changes the version, so a client which already has this document will fetch it again.
+	 */
+	/* package */ void markIncludedDocumentsStale(@NonNull final DetailId detailId, @NonNull final DocumentIdsSelection rowIds)
+	{
+		getIncludedDocumentsCollection(detailId).markStale(rowIds);
+		newVersion();
+	}
+
+	@Override
+	public ETag getETag()
+	{
+		return ETag.of(getVersion(), ImmutableMap.of());
+	}
+
 	public DocumentSaveStatus getSaveStatus()
 	{
 		return _saveStatus;
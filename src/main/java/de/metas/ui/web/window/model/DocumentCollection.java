@@ -177,32 +177,44 @@ public class DocumentCollection
 		return windowIds != null && !windowIds.isEmpty() ? ImmutableSet.copyOf(windowIds) : ImmutableSet.of();
 	}
 
+	/**
+	 * @return a private readonly copy of the document. Use it when the document is needed outside of the read lock.
+	 */
 	public Document getDocumentReadonly(@NonNull final DocumentPath documentPath)
 	{
-		return forDocumentReadonly(documentPath, Function.identity());
+		final DocumentPath rootDocumentPath = documentPath.getRootDocumentPath();
+
+		return forRootDocumentReadonly(rootDocumentPath, rootDocument -> {
+			// NOTE: the document will escape the read lock, so we shall not return the shared snapshot
+			final Document rootDocumentCopy = rootDocument.copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
+			return getRootOrSingleIncludedDocument(rootDocumentCopy, documentPath);
+		});
 	}
 
 	public <R> R forDocumentReadonly(@NonNull final DocumentPath documentPath, @NonNull final Function<Document, R> documentProcessor)
 	{
 		final DocumentPath rootDocumentPath = documentPath.getRootDocumentPath();
 
-		return forRootDocumentReadonly(rootDocumentPath, rootDocument -> {
-			if (documentPath.isRootDocument())
-			{
-				return documentProcessor.apply(rootDocument);
-			}
-			else if (documentPath.isSingleIncludedDocument())
-			{
-				final Document includedDocument = rootDocument.getIncludedDocument(documentPath.getDetailId(), documentPath.getSingleRowId());
-				DocumentPermissionsHelper.assertCanView(includedDocument, UserSession.getCurrentPermissions());
+		return forRootDocumentReadonly(rootDocumentPath, rootDocument -> documentProcessor.apply(getRootOrSingleIncludedDocument(rootDocument, documentPath)));
+	}
 
-				return documentProcessor.apply(includedDocument);
-			}
-			else
-			{
-				throw new InvalidDocumentPathException(documentPath);
-			}
-		});
+	private static Document getRootOrSingleIncludedDocument(@NonNull final Document rootDocument, @NonNull final DocumentPath documentPath)
+	{
+		if (documentPath.isRootDocument())
+		{
+			return rootDocument;
+		}
+		else if (documentPath.isSingleIncludedDocument())
+		{
+			final Document includedDocument = rootDocument.getIncludedDocument(documentPath.getDetailId(), documentPath.getSingleRowId());
+			DocumentPermissionsHelper.assertCanView(includedDocument, UserSession.getCurrentPermissions());
+
+			return includedDocument;
+		}
+		else
+		{
+			throw new InvalidDocumentPathException(documentPath);
+		}
 	}
 
 	private Document getOrLoadDocument(@NonNull final DocumentKey documentKey)
@@ -224,13 +236,20 @@ public class DocumentCollection
 		}
 	}
 
+	/**
+	 * Calls the processor with the current readonly snapshot of the root document.
+	 * <p>
+	 * The snapshot is the readonly copy which was published on load or by the last commit, so no copying is done here.
+	 * It is shared between all readers, so the processor shall not let the document escape (see {@link #getDocumentReadonly(DocumentPath)}).
+	 */
 	public <R> R forRootDocumentReadonly(@NonNull final DocumentPath documentPath, final Function<Document, R> rootDocumentProcessor)
 	{
 		final DocumentKey rootDocumentKey = DocumentKey.ofRootDocumentPath(documentPath.getRootDocumentPath());
 
 		try (@SuppressWarnings("unused") final IAutoCloseable readLock = getOrLoadDocument(rootDocumentKey).lockForReading())
 		{
-			final Document rootDocument = getOrLoadDocument(rootDocumentKey).copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
+			// NOTE: fetch it again, because a new snapshot might have been published while we were waiting for the lock
+			final Document rootDocument = getOrLoadDocument(rootDocumentKey);
 			DocumentPermissionsHelper.assertCanView(rootDocument, UserSession.getCurrentPermissions());
 
 			return rootDocumentProcessor.apply(rootDocument);
@@ -442,7 +461,9 @@ public class DocumentCollection
 		rootDocument.updateIncludedDetailsStatus();
 
 		//
-		// Add the saved and changed document back to index
+		// Publish a readonly snapshot of the saved and changed document.
+		// From now on, all readers will get this snapshot.
+		rootDocument.newVersion();
 		final DocumentKey rootDocumentKey = DocumentKey.of(rootDocument);
 		rootDocuments.put(rootDocumentKey, rootDocument.copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance));
 		addToTableName2WindowIdsCache(rootDocument.getEntityDescriptor());
@@ -719,7 +740,7 @@ public class DocumentCollection
 						{
 							final DetailId detailId = includedEntityDescriptor.getDetailId();
 
-							rootDocument.getIncludedDocumentsCollection(Check.assumeNotNull(detailId, "Expected detailId not null")).markStale(includedRowIds);
+							rootDocument.markIncludedDocumentsStale(Check.assumeNotNull(detailId, "Expected detailId not null"), includedRowIds);
 							websocketPublisher.staleIncludedDocuments(windowId, rootDocumentId, detailId, includedRowIds);
 						}
 					}
@@ -63,7 +63,7 @@ import lombok.NonNull;
 	private final Optional<LookupDataSource> _lookupDataSource;
 	private boolean lookupValuesStaled = true;
 
-	private transient ICalloutField _calloutField; // lazy
+	private transient volatile ICalloutField _calloutField; // lazy (readonly documents are shared between readers)
 
 	//
 	// State
@@ -415,7 +415,7 @@ import lombok.NonNull;
 		final LookupDataSource lookupDataSource = getLookupDataSource();
 		final Evaluatee ctx = getDocument().asEvaluatee();
 		final LookupValuesList values = lookupDataSource.findEntities(ctx);
-		lookupValuesStaled = false;
+		markLookupValuesNotStaled();
 		return values == null ? LookupValuesList.EMPTY : values;
 	}
 
@@ -425,10 +425,21 @@ import lombok.NonNull;
 		final LookupDataSource lookupDataSource = getLookupDataSource();
 		final Evaluatee ctx = getDocument().asEvaluatee();
 		final LookupValuesList values = lookupDataSource.findEntities(ctx, query);
-		lookupValuesStaled = false;
+		markLookupValuesNotStaled();
 		return values;
 	}
 
+	private void markLookupValuesNotStaled()
+	{
+		// NOTE: don't touch the readonly snapshots because they are shared between readers
+		if (!getDocument().isWritable())
+		{
+			return;
+		}
+
+		lookupValuesStaled = false;
+	}
+
 	@Override
 	public ICalloutField asCalloutField()
 	{
@@ -13,6 +13,7 @@ import org.compiere.util.Evaluatee;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -72,7 +73,10 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 	private final IncludedDocumentsCollectionActions actions;
 	private final ActionsContext actionsContext = new ActionsContext();
 	private DocumentReadonly parentReadonly = null;
-	private boolean staled = false;
+	private volatile boolean staled = false;
+
+	/** Documents loaded by a readonly snapshot. The snapshot is shared between readers, so the documents are loaded once and forgotten when staled. */
+	private volatile ReadonlyDocuments readonlyDocuments = null;
 
 	private HighVolumeReadWriteIncludedDocumentsCollection(@NonNull final Document parentDocument, @NonNull final DocumentEntityDescriptor entityDescriptor)
 	{
@@ -166,6 +170,18 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 
 	@Override
 	public OrderedDocumentsList getDocuments(final DocumentQueryOrderByList orderBys)
+	{
+		if (!parentDocument.isWritable())
+		{
+			return getReadonlyDocuments(orderBys).toOrderedDocumentsList();
+		}
+
+		final OrderedDocumentsList documents = retrieveDocuments(orderBys);
+		staled = false;
+		return documents;
+	}
+
+	private OrderedDocumentsList retrieveDocuments(final DocumentQueryOrderByList orderBys)
 	{
 		final Map<DocumentId, Document> documentsWithChanges = new LinkedHashMap<>(getInnerDocumentsWithChanges());
 		final OrderedDocumentsList documents = DocumentQuery.builder(entityDescriptor)
@@ -182,8 +198,24 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 			documents.addDocuments(documentsWithChanges.values());
 		}
 
-		staled = false;
+		return documents;
+	}
 
+	private ReadonlyDocuments getReadonlyDocuments(@NonNull final DocumentQueryOrderByList orderBys)
+	{
+		ReadonlyDocuments documents = readonlyDocuments;
+		if (documents == null || !documents.isMatching(orderBys))
+		{
+			synchronized (this)
+			{
+				documents = readonlyDocuments;
+				if (documents == null || !documents.isMatching(orderBys))
+				{
+					documents = new ReadonlyDocuments(orderBys, retrieveDocuments(orderBys).toList());
+					readonlyDocuments = documents;
+				}
+			}
+		}
 		return documents;
 	}
 
@@ -253,6 +285,17 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 			return documentWithChanges;
 		}
 
+		// Try documents already loaded by this readonly snapshot
+		final ReadonlyDocuments readonlyDocuments = this.readonlyDocuments;
+		if (readonlyDocuments != null)
+		{
+			final Document readonlyDocument = readonlyDocuments.getByIdOrNull(documentId);
+			if (readonlyDocument != null)
+			{
+				return readonlyDocument;
+			}
+		}
+
 		// Retrieve from repository
 		final Document documentRetrieved = DocumentQuery.builder(entityDescriptor)
 				.setParentDocument(parentDocument)
@@ -441,6 +484,7 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 	public void markStaleAll()
 	{
 		staled = true;
+		readonlyDocuments = null;
 		parentDocument.getChangesCollector().collectStaleDetailId(parentDocumentPath, detailId);
 	}
 
@@ -523,4 +567,36 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 			parentDocument.getChangesCollector().collectAllowDelete(parentDocumentPath, detailId, allowDelete);
 		}
 	}
+
+	//
+	//
+	//
+	private static final class ReadonlyDocuments
+	{
+		private final DocumentQueryOrderByList orderBys;
+		private final ImmutableList<Document> documents;
+		private final ImmutableMap<DocumentId, Document> documentsById;
+
+		private ReadonlyDocuments(@NonNull final DocumentQueryOrderByList orderBys, @NonNull final List<Document> documents)
+		{
+			this.orderBys = orderBys;
+			this.documents = ImmutableList.copyOf(documents);
+			documentsById = Maps.uniqueIndex(this.documents, Document::getDocumentId);
+		}
+
+		public boolean isMatching(final DocumentQueryOrderByList orderBys)
+		{
+			return this.orderBys.equals(orderBys);
+		}
+
+		public OrderedDocumentsList toOrderedDocumentsList()
+		{
+			return OrderedDocumentsList.of(documents, orderBys);
+		}
+
+		public Document getByIdOrNull(final DocumentId documentId)
+		{
+			return documentsById.get(documentId);
+		}
+	}
 }
@@ -47,9 +47,10 @@ public class SingleRowDetailIncludedDocumentsCollection implements IIncludedDocu
 	private final Document parentDocument;
 	private final DocumentEntityDescriptor entityDescriptor;
 
-	private Document singleDocument;
+	/** Loaded document. In a readonly snapshot, which is shared between readers, it's loaded once and forgotten when staled. */
+	private volatile Document singleDocument;
 
-	private boolean staled;
+	private volatile boolean staled;
 
 	private DocumentPath parentDocumentPath;
 
@@ -95,14 +96,45 @@ public class SingleRowDetailIncludedDocumentsCollection implements IIncludedDocu
 	@Override
 	public OrderedDocumentsList getDocuments(@NonNull final DocumentQueryOrderByList orderBys)
 	{
-		final Document document = DocumentQuery.builder(entityDescriptor)
+		final Document document;
+		if (parentDocument.isWritable())
+		{
+			document = retrieveSingleDocument(orderBys);
+			setSingleDocument(document);
+		}
+		else
+		{
+			document = getOrLoadReadonlySingleDocument();
+		}
+
+		return OrderedDocumentsList.of(ImmutableList.of(document), orderBys);
+	}
+
+	private Document retrieveSingleDocument(@NonNull final DocumentQueryOrderByList orderBys)
+	{
+		return DocumentQuery.builder(entityDescriptor)
 				.setParentDocument(parentDocument)
 				.setChangesCollector(NullDocumentChangesCollector.instance)
 				.setOrderBys(orderBys)
 				.retriveDocumentOrNull();
-		setSingleDocument(document);
+	}
 
-		return OrderedDocumentsList.of(ImmutableList.of(document), orderBys);
+	private Document getOrLoadReadonlySingleDocument()
+	{
+		Document document = singleDocument;
+		if (document == null)
+		{
+			synchronized (this)
+			{
+				document = singleDocument;
+				if (document == null)
+				{
+					document = retrieveSingleDocument(DocumentQueryOrderByList.EMPTY);
+					singleDocument = document;
+				}
+			}
+		}
+		return document;
 	}
 
 	@Override
@@ -130,6 +162,11 @@ public class SingleRowDetailIncludedDocumentsCollection implements IIncludedDocu
 	@Override
 	public Document getDocumentById(@NonNull final DocumentId documentId)
 	{
+		if (!parentDocument.isWritable())
+		{
+			return getOrLoadReadonlySingleDocument();
+		}
+
 		// Try documents which are new and/or have changes in progress, but are not yet saved
 		final Document singleDocument = getSingleDocumentOrNull();
 		if (singleDocument != null)
@@ -246,6 +283,10 @@ public class SingleRowDetailIncludedDocumentsCollection implements IIncludedDocu
 	public void markStaleAll()
 	{
 		staled = true;
+		if (!parentDocument.isWritable())
+		{
+			forgetSingleDocument();
+		}
 		parentDocument.getChangesCollector().collectStaleDetailId(parentDocumentPath, getDetailId());
 	}
 
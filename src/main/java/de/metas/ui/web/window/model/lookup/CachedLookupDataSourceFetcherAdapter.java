@@ -1,6 +1,10 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.google.common.base.MoreObjects;
@@ -13,6 +17,7 @@ import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceContext.Builder;
 import de.metas.util.Check;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -61,6 +66,11 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 	private final transient CCache<LookupDataSourceContext, LookupValuesList> cache_retrieveEntities;
 	private final transient CCache<LookupDataSourceContext, LookupValue> cache_retrieveLookupValueById;
 
+	private final LookupValuesL2Cache l2Cache = LookupValuesL2Cache.instance;
+	/** lookup table name, if the L2 cache shall be used; null otherwise */
+	private final String l2CacheLookupTableName;
+	private final String l2CacheFetcherKey;
+
 	private CachedLookupDataSourceFetcherAdapter(final LookupDataSourceFetcher delegate)
 	{
 		super();
@@ -74,6 +84,9 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 		// NOTE: it's very important to have the lookupTableName as cache name prefix because we want the cache invalidation to happen for this table
 		cache_retrieveEntities = CCache.newLRUCache(cachePrefix + "#" + NAME + "#retrieveEntities", maxSize, expireAfterMinutes);
 		cache_retrieveLookupValueById = CCache.newLRUCache(cachePrefix + "#" + NAME + "#retrieveLookupValueById", maxSize, expireAfterMinutes);
+
+		l2CacheFetcherKey = delegate.getLookupValuesByIdSharedCacheKey().orElse(null);
+		l2CacheLookupTableName = l2CacheFetcherKey != null ? delegate.getLookupTableName().orElse(null) : null;
 	}
 
 	@Override
@@ -134,7 +147,89 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 	@Override
 	public LookupValue retrieveLookupValueById(final LookupDataSourceContext evalCtx)
 	{
-		return cache_retrieveLookupValueById.getOrLoad(evalCtx, () -> delegate.retrieveLookupValueById(evalCtx));
+		return cache_retrieveLookupValueById.getOrLoad(evalCtx, () -> retrieveLookupValueByIdUsingL2Cache(evalCtx));
+	}
+
+	private LookupValue retrieveLookupValueByIdUsingL2Cache(final LookupDataSourceContext evalCtx)
+	{
+		final LookupValuesL2Cache.Key l2CacheKey = toL2CacheKeyOrNull(evalCtx);
+		if (l2CacheKey == null)
+		{
+			return delegate.retrieveLookupValueById(evalCtx);
+		}
+
+		final LookupValue cachedValue = l2Cache.get(l2CacheKey);
+		if (cachedValue != null)
+		{
+			return cachedValue;
+		}
+
+		final long l2CacheVersion = l2Cache.getVersion(l2CacheKey.getLookupTableName());
+		final LookupValue value = delegate.retrieveLookupValueById(evalCtx);
+		if (value != null)
+		{
+			l2Cache.put(l2CacheKey, value, l2CacheVersion);
+		}
+		return value;
+	}
+
+	private LookupValuesL2Cache.Key toL2CacheKeyOrNull(final LookupDataSourceContext evalCtx)
+	{
+		if (l2CacheLookupTableName == null || evalCtx.getIdToFilter() == null)
+		{
+			return null;
+		}
+
+		return LookupValuesL2Cache.Key.of(l2CacheLookupTableName, evalCtx, l2CacheFetcherKey);
+	}
+
+	/**
+	 * Gets the values from cache (L1, then L2) and retrieves all the missing ones in one call.
+	 */
+	@Override
+	public Map<LookupDataSourceContext, LookupValue> retrieveLookupValuesByIds(@NonNull final Collection<LookupDataSourceContext> evalCtxs)
+	{
+		final LinkedHashMap<LookupDataSourceContext, LookupValue> result = new LinkedHashMap<>(evalCtxs.size());
+		final ArrayList<LookupDataSourceContext> evalCtxsToLoad = new ArrayList<>();
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			LookupValue value = cache_retrieveLookupValueById.get(evalCtx);
+			if (value == null)
+			{
+				final LookupValuesL2Cache.Key l2CacheKey = toL2CacheKeyOrNull(evalCtx);
+				value = l2CacheKey != null ? l2Cache.get(l2CacheKey) : null;
+				if (value != null)
+				{
+					cache_retrieveLookupValueById.put(evalCtx, value);
+				}
+			}
+
+			result.put(evalCtx, value);
+			if (value == null)
+			{
+				evalCtxsToLoad.add(evalCtx);
+			}
+		}
+
+		if (!evalCtxsToLoad.isEmpty())
+		{
+			final long l2CacheVersion = l2CacheLookupTableName != null ? l2Cache.getVersion(l2CacheLookupTableName) : 0;
+			final Map<LookupDataSourceContext, LookupValue> loadedValues = delegate.retrieveLookupValuesByIds(evalCtxsToLoad);
+			for (final LookupDataSourceContext evalCtx : evalCtxsToLoad)
+			{
+				final LookupValue value = loadedValues.getOrDefault(evalCtx, LOOKUPVALUE_NULL);
+				cache_retrieveLookupValueById.put(evalCtx, value);
+				result.put(evalCtx, value);
+
+				final LookupValuesL2Cache.Key l2CacheKey = toL2CacheKeyOrNull(evalCtx);
+				if (l2CacheKey != null)
+				{
+					l2Cache.put(l2CacheKey, value, l2CacheVersion);
+				}
+			}
+		}
+
+		return result;
 	}
 
 	@Override
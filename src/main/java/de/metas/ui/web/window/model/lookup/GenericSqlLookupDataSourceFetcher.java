@@ -1,16 +1,31 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.service.impl.LookupDAO.SQLNamePairIterator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.validationRule.INamePairPredicate;
+import org.adempiere.exceptions.DBException;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import de.metas.cache.CCache.CCacheStats;
 import de.metas.i18n.ITranslatableString;
@@ -61,6 +76,11 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 
 	private static final Logger logger = LogManager.getLogger(GenericSqlLookupDataSourceFetcher.class);
 
+	private static final String SQL_KeyIdTableAlias = "lookup_ids";
+	private static final String SQL_KeyIdColumnName = "KeyId";
+	private static final String SQL_KeyIdColumnNameFQ = SQL_KeyIdTableAlias + "." + SQL_KeyIdColumnName;
+	private static final int MAX_IDS_PER_QUERY = 500;
+
 	private final @NonNull String lookupTableName;
 	private final @NonNull Optional<String> lookupTableNameAsOptional;
 	private final boolean numericKey;
@@ -115,6 +135,12 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		return lookupTableNameAsOptional;
 	}
 
+	@Override
+	public Optional<String> getLookupValuesByIdSharedCacheKey()
+	{
+		return Optional.of(sqlForFetchingLookupByIdExpression.toStringExpression().getExpressionString());
+	}
+
 	@Override
 	public Optional<WindowId> getZoomIntoWindowId()
 	{
@@ -205,6 +231,113 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		final String sqlForFetchingLookupById = sqlForFetchingLookupByIdExpression.evaluate(evalCtx);
 
 		final String[] nameAndDescriptionAndActive = DB.getSQLValueArrayEx(ITrx.TRXNAME_None, sqlForFetchingLookupById, id);
+		return createLookupValue(id, nameAndDescriptionAndActive, evalCtx);
+	}
+
+	/**
+	 * Fetches the lookup values using one SQL query for each group of contexts which differ only by the ID.
+	 * The by-ID SQL is used as a correlated subquery, so its where clause and security restrictions are applied exactly like in {@link #retrieveLookupValueById(LookupDataSourceContext)}.
+	 */
+	@Override
+	public Map<LookupDataSourceContext, LookupValue> retrieveLookupValuesByIds(@NonNull final Collection<LookupDataSourceContext> evalCtxs)
+	{
+		final LinkedHashMap<List<String>, List<LookupDataSourceContext>> evalCtxsBySqlAndLanguage = new LinkedHashMap<>();
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			if (evalCtx.getIdToFilter() == null)
+			{
+				throw new IllegalStateException("No ID provided in " + evalCtx);
+			}
+
+			final String sqlForFetchingLookupById = sqlForFetchingLookupByIdExpression.evaluate(SQL_KeyIdColumnNameFQ, evalCtx);
+			final String adLanguage = isTranslatable ? evalCtx.getAD_Language() : null;
+			evalCtxsBySqlAndLanguage.computeIfAbsent(Arrays.asList(sqlForFetchingLookupById, adLanguage), k -> new ArrayList<>())
+					.add(evalCtx);
+		}
+
+		final HashMap<LookupDataSourceContext, LookupValue> valuesByEvalCtx = new HashMap<>(evalCtxs.size());
+		for (final Map.Entry<List<String>, List<LookupDataSourceContext>> e : evalCtxsBySqlAndLanguage.entrySet())
+		{
+			final String sqlForFetchingLookupById = e.getKey().get(0);
+			for (final List<LookupDataSourceContext> evalCtxsChunk : Lists.partition(e.getValue(), MAX_IDS_PER_QUERY))
+			{
+				valuesByEvalCtx.putAll(retrieveLookupValuesByIds(sqlForFetchingLookupById, evalCtxsChunk));
+			}
+		}
+
+		// Preserve the requested order
+		final LinkedHashMap<LookupDataSourceContext, LookupValue> result = new LinkedHashMap<>(evalCtxs.size());
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			result.put(evalCtx, valuesByEvalCtx.getOrDefault(evalCtx, LOOKUPVALUE_NULL));
+		}
+		return result;
+	}
+
+	private Map<LookupDataSourceContext, LookupValue> retrieveLookupValuesByIds(
+			@NonNull final String sqlForFetchingLookupById,
+			@NonNull final List<LookupDataSourceContext> evalCtxs)
+	{
+		final ArrayList<Object> sqlParams = new ArrayList<>(evalCtxs.size());
+		final HashMap<Object, LookupDataSourceContext> evalCtxsById = new HashMap<>(evalCtxs.size());
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			final Object id = evalCtx.getIdToFilter();
+			if (evalCtxsById.putIfAbsent(id, evalCtx) == null)
+			{
+				sqlParams.add(id);
+			}
+		}
+
+		final String sql = "SELECT " + SQL_KeyIdColumnNameFQ + ", (" + sqlForFetchingLookupById + ")"
+				+ "\n FROM (VALUES " + sqlParams.stream().map(id -> "(?)").collect(Collectors.joining(",")) + ") " + SQL_KeyIdTableAlias + "(" + SQL_KeyIdColumnName + ")";
+
+		final HashMap<LookupDataSourceContext, LookupValue> result = new HashMap<>(evalCtxs.size());
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				final Object id = numericKey ? (Object)rs.getInt(1) : rs.getString(1);
+				final LookupDataSourceContext evalCtx = evalCtxsById.get(id);
+				if (evalCtx == null)
+				{
+					continue;
+				}
+
+				final Array array = rs.getArray(2);
+				final String[] nameAndDescriptionAndActive = array != null ? (String[])array.getArray() : null;
+				result.put(evalCtx, createLookupValue(evalCtx.getIdToFilter(), nameAndDescriptionAndActive, evalCtx));
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		// Contexts for the same ID get the same value
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			final LookupValue value = result.get(evalCtxsById.get(evalCtx.getIdToFilter()));
+			result.put(evalCtx, value != null ? value : LOOKUPVALUE_NULL);
+		}
+
+		return result;
+	}
+
+	private LookupValue createLookupValue(
+			@NonNull final Object id,
+			@Nullable final String[] nameAndDescriptionAndActive,
+			@NonNull final LookupDataSourceContext evalCtx)
+	{
 		if (nameAndDescriptionAndActive == null || nameAndDescriptionAndActive.length == 0)
 		{
 			return LOOKUPVALUE_NULL;
@@ -6,17 +6,18 @@ import de.metas.cache.ICacheResetListener;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import java.util.Collection;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -45,6 +46,7 @@ import java.util.concurrent.Executors;
 
 /**
  * This component listens to all cache invalidation events (see {@link CacheMgt}) and invalidates the lookup descriptors which depend on a given table(s).
+ * The shared lookup values cache ({@link LookupValuesL2Cache}) is invalidated per record, where possible.
  *
  * @author metas-dev <dev@metasfresh.com>
  *
@@ -52,7 +54,7 @@ import java.util.concurrent.Executors;
 @Component
 public class LookupCacheInvalidationDispatcher implements ICacheResetListener
 {
-	private static final String TRXPROP_TableNamesToInvalidate = LookupCacheInvalidationDispatcher.class + ".TableNamesToInvalidate";
+	private static final String TRXPROP_LookupsToInvalidate = LookupCacheInvalidationDispatcher.class + ".LookupsToInvalidate";
 
 	private final Executor async;
 
@@ -78,69 +80,146 @@ public class LookupCacheInvalidationDispatcher implements ICacheResetListener
 		final ITrx currentTrx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
 		if (trxManager.isNull(currentTrx))
 		{
-			async.execute(() -> resetNow(extractTableNames(multiRequest)));
+			final LookupsToReset lookupsToReset = new LookupsToResetCollector().add(multiRequest).build();
+			async.execute(() -> resetNow(lookupsToReset));
 		}
 		else
 		{
-			final TableNamesToResetCollector collector = currentTrx.getProperty(TRXPROP_TableNamesToInvalidate, trx -> {
-				final TableNamesToResetCollector c = new TableNamesToResetCollector();
+			final LookupsToResetCollector collector = currentTrx.getProperty(TRXPROP_LookupsToInvalidate, trx -> {
+				final LookupsToResetCollector c = new LookupsToResetCollector();
 				trx.getTrxListenerManager()
 						.newEventListener(TrxEventTiming.AFTER_COMMIT)
 						.registerHandlingMethod(innerTrx -> {
-							final Set<String> tableNames = c.toSet();
-							if (tableNames.isEmpty())
+							final LookupsToReset lookupsToReset = c.build();
+							if (lookupsToReset.isEmpty())
 							{
 								return;
 							}
-							async.execute(() -> resetNow(tableNames));
+							async.execute(() -> resetNow(lookupsToReset));
 						});
 				return c;
 			});
 
-			collector.addTableNames(extractTableNames(multiRequest));
+			collector.add(multiRequest);
 		}
 
 		return 1; // not relevant
 	}
 
-	private Set<String> extractTableNames(final CacheInvalidateMultiRequest multiRequest)
+	private void resetNow(final LookupsToReset lookupsToReset)
 	{
-		if (multiRequest.isResetAll())
+		if (lookupsToReset.isEmpty())
 		{
-			// not relevant for our lookups
-			return ImmutableSet.of();
+			return;
+		}
+
+		//
+		// Shared lookup values by ID cache (L2)
+		final LookupValuesL2Cache l2Cache = LookupValuesL2Cache.instance;
+		if (lookupsToReset.isResetAll())
+		{
+			l2Cache.invalidateAll();
+		}
+		else
+		{
+			lookupsToReset.getAllRecordsTableNames().forEach(tableName -> l2Cache.invalidate(tableName, null));
+			lookupsToReset.getRecords().forEach(recordRef -> l2Cache.invalidate(recordRef.getTableName(), recordRef.getRecord_ID()));
 		}
 
-		return multiRequest.getRequests()
-				.stream()
-				.filter(request -> !request.isAll()) // not relevant for our lookups
-				.map(CacheInvalidateRequest::getTableNameEffective)
-				.filter(Objects::nonNull)
-				.collect(ImmutableSet.toImmutableSet());
+		//
+		// Per lookup data source caches
+		final Set<String> tableNames = lookupsToReset.getTableNames();
+		if (!tableNames.isEmpty())
+		{
+			LookupDataSourceFactory.instance.cacheInvalidateOnRecordsChanged(tableNames);
+		}
 	}
 
-	private void resetNow(final Set<String> tableNames)
+	@Value
+	private static class LookupsToReset
 	{
-		if (tableNames.isEmpty())
+		/** true if all lookups shall be reset */
+		boolean resetAll;
+		/** all changed tables */
+		ImmutableSet<String> tableNames;
+		/** tables on which all records were changed */
+		ImmutableSet<String> allRecordsTableNames;
+		ImmutableSet<TableRecordReference> records;
+
+		public boolean isEmpty()
 		{
-			return;
+			return !resetAll && tableNames.isEmpty();
 		}
-
-		LookupDataSourceFactory.instance.cacheInvalidateOnRecordsChanged(tableNames);
 	}
 
-	private static final class TableNamesToResetCollector
+	private static final class LookupsToResetCollector
 	{
+		private boolean resetAll = false;
 		private final Set<String> tableNames = new HashSet<>();
+		private final Set<String> allRecordsTableNames = new HashSet<>();
+		private final Set<TableRecordReference> records = new HashSet<>();
+
+		public synchronized LookupsToReset build()
+		{
+			return new LookupsToReset(
+					resetAll,
+					ImmutableSet.copyOf(tableNames),
+					ImmutableSet.copyOf(allRecordsTableNames),
+					ImmutableSet.copyOf(records));
+		}
 
-		public Set<String> toSet()
+		public synchronized LookupsToResetCollector add(@NonNull final CacheInvalidateMultiRequest multiRequest)
 		{
-			return ImmutableSet.copyOf(tableNames);
+			if (multiRequest.isResetAll())
+			{
+				// NOTE: the per lookup data source caches are reset by CacheMgt directly
+				resetAll = true;
+				return this;
+			}
+
+			for (final CacheInvalidateRequest request : multiRequest.getRequests())
+			{
+				add(request);
+			}
+
+			return this;
 		}
 
-		public void addTableNames(final Collection<String> tableNamesToAdd)
+		private void add(@NonNull final CacheInvalidateRequest request)
 		{
-			tableNames.addAll(tableNamesToAdd);
+			if (request.isAll())
+			{
+				// NOTE: the per lookup data source caches are reset by CacheMgt directly
+				resetAll = true;
+				return;
+			}
+
+			final String tableName = request.getTableNameEffective();
+			if (tableName == null)
+			{
+				return;
+			}
+			tableNames.add(tableName);
+
+			final TableRecordReference recordRef;
+			final String childTableName = request.getChildTableName();
+			if (childTableName != null)
+			{
+				recordRef = request.isAllRecords() ? null : TableRecordReference.of(childTableName, request.getChildRecordId());
+			}
+			else
+			{
+				recordRef = request.getRootRecordOrNull();
+			}
+
+			if (recordRef != null)
+			{
+				records.add(recordRef);
+			}
+			else
+			{
+				allRecordsTableNames.add(tableName);
+			}
 		}
 	}
 }
@@ -1,5 +1,8 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -134,6 +137,40 @@ final class LookupDataSourceAdapter implements LookupDataSource
 		return lookupValue;
 	}
 
+	@Override
+	public LookupValuesList findByIdsOrdered(@NonNull final Collection<? extends Object> ids)
+	{
+		if (ids.isEmpty())
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		final LinkedHashSet<Object> idsNormalized = new LinkedHashSet<>(ids.size());
+		for (final Object idObj : ids)
+		{
+			final Object idNormalized = idObj != null ? LookupValue.normalizeId(idObj, fetcher.isNumericKey()) : null;
+			if (idNormalized != null)
+			{
+				idsNormalized.add(idNormalized);
+			}
+		}
+
+		final ArrayList<LookupDataSourceContext> evalCtxs = new ArrayList<>(idsNormalized.size());
+		for (final Object idNormalized : idsNormalized)
+		{
+			evalCtxs.add(fetcher.newContextForFetchingById(idNormalized)
+					.putFilterById(idNormalized)
+					.putShowInactive(true)
+					.build());
+		}
+
+		return fetcher.retrieveLookupValuesByIds(evalCtxs)
+				.values()
+				.stream()
+				.filter(lookupValue -> lookupValue != LookupDataSourceFetcher.LOOKUPVALUE_NULL)
+				.collect(LookupValuesList.collect());
+	}
+
 	@Override
 	public List<CCacheStats> getCacheStats()
 	{
@@ -161,6 +161,23 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 		return get_ValueAsString(PARAM_AD_Language.getName());
 	}
 
+	/**
+	 * @return all parameters except the language; useful to build cache keys where the language is handled separately
+	 */
+	public ImmutableMap<String, Object> getParameterValuesExceptLanguage()
+	{
+		final String languageParamName = PARAM_AD_Language.getName();
+		if (!parameterValues.containsKey(languageParamName))
+		{
+			return parameterValues;
+		}
+
+		return parameterValues.entrySet()
+				.stream()
+				.filter(entry -> !languageParamName.equals(entry.getKey()))
+				.collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+
 	@Override
 	public boolean has_Variable(final String variableName)
 	{
@@ -134,6 +134,9 @@ public final class LookupDataSourceFactory
 		{
 			final CachedLookupDataSourceFetcherAdapter cachedFetcher = CachedLookupDataSourceFetcherAdapter.of(fetcher);
 			lookupDataSource = LookupDataSourceAdapter.of(cachedFetcher);
+
+			fetcher.getLookupTableName()
+					.ifPresent(lookupTableName -> LookupValuesL2Cache.instance.registerDependsOnTableNames(lookupTableName, lookupDescriptor.getDependsOnTableNames()));
 		}
 
 		//
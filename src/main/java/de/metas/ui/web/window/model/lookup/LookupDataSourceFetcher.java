@@ -1,6 +1,9 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.google.common.collect.ImmutableList;
@@ -10,6 +13,7 @@ import de.metas.ui.web.window.datatypes.LookupValue;
 import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -46,6 +50,22 @@ public interface LookupDataSourceFetcher
 
 	LookupValue retrieveLookupValueById(LookupDataSourceContext evalCtx);
 
+	/**
+	 * Retrieves the lookup values for given contexts, each of them built by {@link #newContextForFetchingById(Object)}.
+	 * Implementations shall fetch them in one go where possible, instead of calling {@link #retrieveLookupValueById(LookupDataSourceContext)} for each of them.
+	 *
+	 * @return lookup values indexed by context, in the same order as the given contexts; the ones which were not found are mapped to {@link #LOOKUPVALUE_NULL}
+	 */
+	default Map<LookupDataSourceContext, LookupValue> retrieveLookupValuesByIds(@NonNull final Collection<LookupDataSourceContext> evalCtxs)
+	{
+		final LinkedHashMap<LookupDataSourceContext, LookupValue> result = new LinkedHashMap<>(evalCtxs.size());
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			result.put(evalCtx, retrieveLookupValueById(evalCtx));
+		}
+		return result;
+	}
+
 	LookupDataSourceContext.Builder newContextForFetchingList();
 
 	LookupValuesList retrieveEntities(LookupDataSourceContext evalCtx);
@@ -63,6 +83,16 @@ public interface LookupDataSourceFetcher
 	/** @return tableName if available */
 	Optional<String> getLookupTableName();
 
+	/**
+	 * @return key which identifies how the lookup values are fetched by ID (e.g. the SQL),
+	 *         so that the values fetched by fetchers with the same key can be shared in {@link LookupValuesL2Cache}.
+	 *         If empty, the values are not shared.
+	 */
+	default Optional<String> getLookupValuesByIdSharedCacheKey()
+	{
+		return Optional.empty();
+	}
+
 	/** @return optional WindowId to be used when zooming into */
 	Optional<WindowId> getZoomIntoWindowId();
 
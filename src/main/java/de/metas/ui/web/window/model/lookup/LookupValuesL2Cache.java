@@ -0,0 +1,370 @@
+package de.metas.ui.web.window.model.lookup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Process wide (second level) cache of lookup values by ID, shared by all {@link CachedLookupDataSourceFetcherAdapter}s.
+ * <p>
+ * Entries are evicted in LRU order when the estimated size of the cache exceeds the max size in bytes.
+ * <p>
+ * Entries are invalidated per lookup table and record ID (see {@link LookupCacheInvalidationDispatcher}).
+ * When a table on which a lookup depends on (e.g. a joined table used for the display name) is changed, all entries of that lookup table are invalidated.
+ */
+public final class LookupValuesL2Cache
+{
+	private static final long DEFAULT_MaxSizeInBytes = 32 * 1024 * 1024;
+
+	public static final transient LookupValuesL2Cache instance = new LookupValuesL2Cache(DEFAULT_MaxSizeInBytes);
+
+	@VisibleForTesting
+	static LookupValuesL2Cache newInstance(final long maxSizeInBytes)
+	{
+		return new LookupValuesL2Cache(maxSizeInBytes);
+	}
+
+	private static final int ENTRY_OVERHEAD_IN_BYTES = 200;
+
+	private final long maxSizeInBytes;
+
+	/** All entries in LRU order */
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+	/** lookupTableName -> id -> keys */
+	private final HashMap<String, HashMap<String, Set<Key>>> keysByTableNameAndId = new HashMap<>();
+	/** dependsOnTableName -> lookupTableNames */
+	private final HashMap<String, Set<String>> lookupTableNamesByDependsOnTableName = new HashMap<>();
+
+	private long sizeInBytes = 0;
+	/** incremented on each invalidation; used to version the lookup tables, to prevent caching values which were loaded before the invalidation */
+	private long lastVersion = 0;
+	/** version of the last {@link #invalidateAll()} */
+	private long invalidateAllVersion = 0;
+	/** lookupTableName -> version of its last invalidation */
+	private final HashMap<String, Long> versionsByLookupTableName = new HashMap<>();
+
+	private long hitsCount = 0;
+	private long missesCount = 0;
+	private long evictionsCount = 0;
+	private long invalidationsCount = 0;
+
+	private LookupValuesL2Cache(final long maxSizeInBytes)
+	{
+		this.maxSizeInBytes = maxSizeInBytes;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getStats().toString();
+	}
+
+	/**
+	 * Registers the tables on which the lookup values of given lookup table depend on.
+	 */
+	public synchronized void registerDependsOnTableNames(@NonNull final String lookupTableName, @NonNull final Set<String> dependsOnTableNames)
+	{
+		for (final String dependsOnTableName : dependsOnTableNames)
+		{
+			if (!lookupTableName.equals(dependsOnTableName))
+			{
+				lookupTableNamesByDependsOnTableName.computeIfAbsent(dependsOnTableName, k -> new HashSet<>()).add(lookupTableName);
+			}
+		}
+	}
+
+	/**
+	 * @return the current version of given lookup table; shall be taken before loading a value and passed to {@link #put(Key, LookupValue, long)}
+	 */
+	public synchronized long getVersion(@NonNull final String lookupTableName)
+	{
+		return Math.max(invalidateAllVersion, versionsByLookupTableName.getOrDefault(lookupTableName, 0L));
+	}
+
+	@Nullable
+	public synchronized LookupValue get(@NonNull final Key key)
+	{
+		final Entry entry = entries.get(key);
+		if (entry == null)
+		{
+			missesCount++;
+			return null;
+		}
+
+		hitsCount++;
+		return entry.getValue();
+	}
+
+	/**
+	 * Adds given value to cache, unless its lookup table was invalidated since given version.
+	 */
+	public synchronized void put(@NonNull final Key key, @NonNull final LookupValue value, final long versionAtLoadStart)
+	{
+		if (versionAtLoadStart != getVersion(key.getLookupTableName()))
+		{
+			return;
+		}
+
+		final Entry entry = new Entry(value, estimateSizeInBytes(key, value));
+		if (entry.getSizeInBytes() > maxSizeInBytes)
+		{
+			return;
+		}
+
+		final Entry previousEntry = entries.put(key, entry);
+		if (previousEntry != null)
+		{
+			sizeInBytes -= previousEntry.getSizeInBytes();
+		}
+		else
+		{
+			keysByTableNameAndId
+					.computeIfAbsent(key.getLookupTableName(), k -> new HashMap<>())
+					.computeIfAbsent(key.getId(), k -> new HashSet<>())
+					.add(key);
+		}
+		sizeInBytes += entry.getSizeInBytes();
+
+		evictIfNeeded();
+	}
+
+	private void evictIfNeeded()
+	{
+		for (final Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); sizeInBytes > maxSizeInBytes && it.hasNext();)
+		{
+			final Map.Entry<Key, Entry> eldest = it.next();
+			it.remove();
+			sizeInBytes -= eldest.getValue().getSizeInBytes();
+			unindex(eldest.getKey());
+			evictionsCount++;
+		}
+	}
+
+	private void unindex(final Key key)
+	{
+		final HashMap<String, Set<Key>> keysById = keysByTableNameAndId.get(key.getLookupTableName());
+		if (keysById == null)
+		{
+			return;
+		}
+
+		final Set<Key> keys = keysById.get(key.getId());
+		if (keys == null)
+		{
+			return;
+		}
+
+		keys.remove(key);
+		if (keys.isEmpty())
+		{
+			keysById.remove(key.getId());
+			if (keysById.isEmpty())
+			{
+				keysByTableNameAndId.remove(key.getLookupTableName());
+			}
+		}
+	}
+
+	/**
+	 * Invalidates the cached lookup values of given record.
+	 *
+	 * @param recordId record ID or <code>null</code> if all records of given table shall be invalidated
+	 */
+	public synchronized void invalidate(@NonNull final String tableName, @Nullable final Object recordId)
+	{
+		final long version = ++lastVersion;
+		versionsByLookupTableName.put(tableName, version);
+
+		final HashMap<String, Set<Key>> keysById = keysByTableNameAndId.get(tableName);
+		if (keysById != null)
+		{
+			if (recordId == null)
+			{
+				removeAll(keysById.values());
+				keysByTableNameAndId.remove(tableName);
+			}
+			else
+			{
+				final Set<Key> keys = keysById.remove(recordId.toString());
+				if (keys != null)
+				{
+					removeAll(ImmutableList.of(keys));
+					if (keysById.isEmpty())
+					{
+						keysByTableNameAndId.remove(tableName);
+					}
+				}
+			}
+		}
+
+		//
+		// Invalidate all lookups whose values depend on given table
+		final Set<String> dependentLookupTableNames = lookupTableNamesByDependsOnTableName.get(tableName);
+		if (dependentLookupTableNames != null)
+		{
+			for (final String lookupTableName : dependentLookupTableNames)
+			{
+				versionsByLookupTableName.put(lookupTableName, version);
+
+				final HashMap<String, Set<Key>> dependentKeysById = keysByTableNameAndId.remove(lookupTableName);
+				if (dependentKeysById != null)
+				{
+					removeAll(dependentKeysById.values());
+				}
+			}
+		}
+	}
+
+	private void removeAll(final Iterable<Set<Key>> keysList)
+	{
+		for (final Set<Key> keys : keysList)
+		{
+			for (final Key key : keys)
+			{
+				final Entry entry = entries.remove(key);
+				if (entry != null)
+				{
+					sizeInBytes -= entry.getSizeInBytes();
+					invalidationsCount++;
+				}
+			}
+		}
+	}
+
+	public synchronized void invalidateAll()
+	{
+		invalidateAllVersion = ++lastVersion;
+		versionsByLookupTableName.clear();
+		invalidationsCount += entries.size();
+
+		entries.clear();
+		keysByTableNameAndId.clear();
+		sizeInBytes = 0;
+	}
+
+	public synchronized Stats getStats()
+	{
+		return Stats.builder()
+				.size(entries.size())
+				.sizeInBytes(sizeInBytes)
+				.maxSizeInBytes(maxSizeInBytes)
+				.hitsCount(hitsCount)
+				.missesCount(missesCount)
+				.evictionsCount(evictionsCount)
+				.invalidationsCount(invalidationsCount)
+				.build();
+	}
+
+	@VisibleForTesting
+	static int estimateSizeInBytes(@NonNull final Key key, @NonNull final LookupValue value)
+	{
+		int size = ENTRY_OVERHEAD_IN_BYTES;
+		size += 2 * key.getId().length();
+		size += 2 * lengthOf(key.getAdLanguage());
+
+		size += 2 * lengthOf(value.getDisplayName());
+		size += 2 * lengthOf(value.getDescriptionTrl() != null ? value.getDescriptionTrl().getDefaultValue() : null);
+		size += 64 * value.getAttributes().size();
+
+		return size;
+	}
+
+	private static int lengthOf(@Nullable final String str)
+	{
+		return str != null ? str.length() : 0;
+	}
+
+	@Value
+	public static class Key
+	{
+		public static Key of(
+				@NonNull final String lookupTableName,
+				@NonNull final LookupDataSourceContext evalCtx,
+				@NonNull final String fetcherKey)
+		{
+			return new Key(
+					lookupTableName,
+					evalCtx.getIdToFilterAsString(),
+					evalCtx.getAD_Language(),
+					new ValidationKey(fetcherKey, evalCtx.getParameterValuesExceptLanguage()));
+		}
+
+		@NonNull
+		String lookupTableName;
+		@NonNull
+		String id;
+		@Nullable
+		String adLanguage;
+		@NonNull
+		ValidationKey validationKey;
+	}
+
+	/**
+	 * Everything except the ID and language which affects the fetched lookup value (e.g. the SQL, the user permissions, other context variables).
+	 */
+	@Value
+	public static class ValidationKey
+	{
+		@NonNull
+		String fetcherKey;
+		@NonNull
+		ImmutableMap<String, Object> parameterValues;
+	}
+
+	@Value
+	private static class Entry
+	{
+		@NonNull
+		LookupValue value;
+		int sizeInBytes;
+	}
+
+	@Value
+	@Builder
+	public static class Stats
+	{
+		int size;
+		long sizeInBytes;
+		long maxSizeInBytes;
+		long hitsCount;
+		long missesCount;
+		long evictionsCount;
+		long invalidationsCount;
+	}
+}
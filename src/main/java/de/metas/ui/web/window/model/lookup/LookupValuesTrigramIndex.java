@@ -0,0 +1,190 @@
+package de.metas.ui.web.window.model.lookup;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Set;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.model.lookup.LookupValueFilterPredicates.LookupValueFilterPredicate;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable trigram index of a {@link LookupValuesList}'s display names, used to answer "contains" filters without scanning all values.
+ * <p>
+ * The trigrams are built from the display name as normalized by {@link LookupValueFilterPredicates}, with accents removed char by char.
+ * Because of that, each value matched by the "contains" predicate has all the trigrams of the filter, so the index only narrows the candidates,
+ * which are then checked using the predicate itself. The result is the same as {@link LookupValuesList#filter(java.util.function.Predicate, int, int)}.
+ */
+final class LookupValuesTrigramIndex
+{
+	public static LookupValuesTrigramIndex of(@NonNull final LookupValuesList list)
+	{
+		return new LookupValuesTrigramIndex(list);
+	}
+
+	private final LookupValuesList list;
+	private final ImmutableList<LookupValue> values;
+	private final TrigramIndex trigramIndex;
+
+	private LookupValuesTrigramIndex(@NonNull final LookupValuesList list)
+	{
+		this.list = list;
+		this.values = ImmutableList.copyOf(list.getValues());
+
+		final TrigramIndex.Builder trigramIndex = TrigramIndex.builder();
+		for (int position = 0, size = values.size(); position < size; position++)
+		{
+			final String displayName = values.get(position).getDisplayName();
+			if (displayName == null)
+			{
+				continue;
+			}
+
+			trigramIndex.add(position, normalize(displayName));
+		}
+		this.trigramIndex = trigramIndex.build();
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("valuesCount", values.size())
+				.add("trigramsCount", trigramIndex.getTrigramsCount())
+				.toString();
+	}
+
+	public LookupValuesList getList()
+	{
+		return list;
+	}
+
+	/**
+	 * Same as {@link LookupValuesList#filter(java.util.function.Predicate, int, int)} using {@link LookupValueFilterPredicates#of(String)}.
+	 */
+	public LookupValuesList filter(final String filter, final int offset, final int maxSize)
+	{
+		final LookupValueFilterPredicate filterPredicate = LookupValueFilterPredicates.of(filter);
+		if (filterPredicate.isMatchAll())
+		{
+			return list.offsetAndLimit(offset, maxSize);
+		}
+
+		final Set<String> filterTrigrams = extractTrigrams(filter.trim());
+		if (filterTrigrams.isEmpty())
+		{
+			// filter too short to be looked up in index
+			return list.filter(filterPredicate, offset, maxSize);
+		}
+
+		final int[] candidatePositions = trigramIndex.getIdsHavingAllTrigrams(filterTrigrams);
+		if (candidatePositions.length == 0)
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		final int offsetEffective = offset <= 0 ? 0 : offset;
+		final long maxSizeEffective = maxSize <= 0 ? Long.MAX_VALUE : maxSize;
+
+		return Arrays.stream(candidatePositions)
+				.mapToObj(values::get)
+				.filter(filterPredicate)
+				.skip(offsetEffective)
+				.limit(maxSizeEffective)
+				.collect(LookupValuesList.collect(list.getDebugProperties()));
+	}
+
+	@VisibleForTesting
+	int countCandidates(final String filter)
+	{
+		final Set<String> filterTrigrams = extractTrigrams(filter.trim());
+		return filterTrigrams.isEmpty() ? values.size() : trigramIndex.getIdsHavingAllTrigrams(filterTrigrams).length;
+	}
+
+	private static String normalize(final String str)
+	{
+		return removeAccents(LookupValueFilterPredicates.normalizeString(str));
+	}
+
+	@VisibleForTesting
+	static Set<String> extractTrigrams(final String str)
+	{
+		return TrigramIndex.extractTrigrams(normalize(str));
+	}
+
+	/**
+	 * Removes the accents char by char.
+	 * <p>
+	 * NOTE: we don't normalize the whole string because we want that if A contains B then removeAccents(A) contains removeAccents(B).
+	 */
+	@VisibleForTesting
+	static String removeAccents(final String str)
+	{
+		StringBuilder result = null;
+		for (int i = 0, length = str.length(); i < length; i++)
+		{
+			final char ch = str.charAt(i);
+			if (ch < 128)
+			{
+				if (result != null)
+				{
+					result.append(ch);
+				}
+				continue;
+			}
+
+			if (result == null)
+			{
+				result = new StringBuilder(length);
+				result.append(str, 0, i);
+			}
+
+			final String chDecomposed = Normalizer.normalize(String.valueOf(ch), Normalizer.Form.NFD);
+			for (int j = 0; j < chDecomposed.length(); j++)
+			{
+				final char chPart = chDecomposed.charAt(j);
+				if (!isMark(chPart))
+				{
+					result.append(chPart);
+				}
+			}
+		}
+
+		return result != null ? result.toString() : str;
+	}
+
+	private static boolean isMark(final char ch)
+	{
+		final int type = Character.getType(ch);
+		return type == Character.NON_SPACING_MARK
+				|| type == Character.COMBINING_SPACING_MARK
+				|| type == Character.ENCLOSING_MARK;
+	}
+}
@@ -0,0 +1,222 @@
+package de.metas.ui.web.window.model.lookup;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Immutable index of the 3 characters long substrings (trigrams) of some texts, each text being identified by an int (e.g. a position in a list or a record ID).
+ * <p>
+ * If a text contains a given string then it has all the trigrams of that string, so the index is used to narrow the texts which have to be checked for "contains".
+ * The texts and the searched strings shall be normalized (e.g. lower case) the same way by the caller.
+ */
+public final class TrigramIndex
+{
+	public static Builder builder()
+	{
+		return new Builder();
+	}
+
+	public static final int TRIGRAM_LENGTH = 3;
+
+	private static final int[] EMPTY_INT_ARRAY = new int[0];
+
+	/** trigram to sorted IDs */
+	private final ImmutableMap<String, int[]> idsByTrigram;
+
+	private TrigramIndex(@NonNull final ImmutableMap<String, int[]> idsByTrigram)
+	{
+		this.idsByTrigram = idsByTrigram;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("trigramsCount", idsByTrigram.size())
+				.toString();
+	}
+
+	public int getTrigramsCount()
+	{
+		return idsByTrigram.size();
+	}
+
+	/**
+	 * @return trigrams of given normalized string; empty if the string is shorter than {@link #TRIGRAM_LENGTH}
+	 */
+	public static Set<String> extractTrigrams(@NonNull final String strNorm)
+	{
+		final HashSet<String> trigrams = new HashSet<>();
+		collectTrigrams(strNorm, trigrams);
+		return trigrams;
+	}
+
+	public static void collectTrigrams(@NonNull final String strNorm, @NonNull final Collection<String> trigrams)
+	{
+		for (int i = 0, last = strNorm.length() - TRIGRAM_LENGTH; i <= last; i++)
+		{
+			trigrams.add(strNorm.substring(i, i + TRIGRAM_LENGTH));
+		}
+	}
+
+	/**
+	 * @return sorted IDs of the texts which have all given trigrams; empty if no trigrams were given
+	 */
+	public int[] getIdsHavingAllTrigrams(@NonNull final Collection<String> trigrams)
+	{
+		if (trigrams.isEmpty())
+		{
+			return EMPTY_INT_ARRAY;
+		}
+
+		final int[][] idsList = new int[trigrams.size()][];
+		int i = 0;
+		for (final String trigram : trigrams)
+		{
+			final int[] ids = idsByTrigram.get(trigram);
+			if (ids == null)
+			{
+				return EMPTY_INT_ARRAY;
+			}
+			idsList[i++] = ids;
+		}
+
+		// start with the smallest list, so the intermediate results are as small as possible
+		Arrays.sort(idsList, Comparator.comparingInt(ids -> ids.length));
+
+		int[] result = idsList[0];
+		for (int j = 1; j < idsList.length && result.length > 0; j++)
+		{
+			result = intersectSorted(result, idsList[j]);
+		}
+		return result;
+	}
+
+	private static int[] intersectSorted(final int[] ids1, final int[] ids2)
+	{
+		final int[] result = new int[Math.min(ids1.length, ids2.length)];
+		int count = 0;
+		int i1 = 0;
+		int i2 = 0;
+		while (i1 < ids1.length && i2 < ids2.length)
+		{
+			if (ids1[i1] < ids2[i2])
+			{
+				i1++;
+			}
+			else if (ids1[i1] > ids2[i2])
+			{
+				i2++;
+			}
+			else
+			{
+				result[count++] = ids1[i1];
+				i1++;
+				i2++;
+			}
+		}
+
+		return count == result.length ? result : Arrays.copyOf(result, count);
+	}
+
+	public static final class Builder
+	{
+		private final HashMap<String, IntArrayBuilder> idsByTrigram = new HashMap<>();
+
+		private Builder()
+		{
+		}
+
+		/**
+		 * Indexes the trigrams of given normalized text. The same ID may be added with more texts.
+		 */
+		public Builder add(final int id, @NonNull final String textNorm)
+		{
+			for (final String trigram : extractTrigrams(textNorm))
+			{
+				idsByTrigram.computeIfAbsent(trigram, k -> new IntArrayBuilder()).add(id);
+			}
+			return this;
+		}
+
+		public TrigramIndex build()
+		{
+			final ImmutableMap.Builder<String, int[]> result = ImmutableMap.builder();
+			idsByTrigram.forEach((trigram, ids) -> result.put(trigram, ids.buildSortedDistinct()));
+			return new TrigramIndex(result.build());
+		}
+	}
+
+	private static final class IntArrayBuilder
+	{
+		private int[] values = new int[4];
+		private int size = 0;
+		private boolean sortedDistinct = true;
+
+		public void add(final int value)
+		{
+			if (size > 0)
+			{
+				final int lastValue = values[size - 1];
+				if (lastValue == value)
+				{
+					return;
+				}
+				else if (lastValue > value)
+				{
+					sortedDistinct = false;
+				}
+			}
+
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		public int[] buildSortedDistinct()
+		{
+			final int[] result = Arrays.copyOf(values, size);
+			if (sortedDistinct)
+			{
+				return result;
+			}
+
+			Arrays.sort(result);
+			return Arrays.stream(result).distinct().toArray();
+		}
+	}
+}
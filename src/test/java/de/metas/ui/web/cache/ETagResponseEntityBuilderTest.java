@@ -0,0 +1,130 @@
+package de.metas.ui.web.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.event.ViewChangesVersions;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ETagResponseEntityBuilderTest
+{
+	private static final JSONOptions jsonOpts = JSONOptions.builder()
+			.adLanguage("de_DE")
+			.build();
+
+	private ViewId viewId;
+	private AtomicInteger jsonConversionsCount;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		viewId = ViewId.random(WindowId.of(123));
+		jsonConversionsCount = new AtomicInteger();
+	}
+
+	/**
+	 * Simulates the client's request, which might already have a previous response.
+	 *
+	 * @param ifNoneMatch etag of the response which the client already has
+	 */
+	private static WebRequest request(@Nullable final String ifNoneMatch)
+	{
+		final WebRequest request = Mockito.mock(WebRequest.class);
+		Mockito.when(request.checkNotModified(Mockito.anyString()))
+				.thenAnswer(invocation -> ifNoneMatch != null && ifNoneMatch.equals(quoted(invocation.getArgument(0))));
+		return request;
+	}
+
+	private static String quoted(final String etag)
+	{
+		return etag.startsWith("\"") ? etag : "\"" + etag + "\"";
+	}
+
+	private ResponseEntity<String> getViewData(@Nullable final String ifNoneMatch)
+	{
+		final ETag etag = ETag.of(ViewChangesVersions.instance.getVersion(viewId), ImmutableMap.of());
+
+		return ETagResponseEntityBuilder.ofETag(request(ifNoneMatch), etag, () -> "page of " + viewId.toJson())
+				.includeLanguageInETag()
+				.cacheMaxAge(0)
+				.jsonOptions(() -> jsonOpts)
+				.toJson((page, jsonOptions) -> {
+					jsonConversionsCount.incrementAndGet();
+					return page;
+				});
+	}
+
+	@Test
+	public void notModified_then_modifiedAfterChange()
+	{
+		final ResponseEntity<String> response1 = getViewData(null);
+		assertThat(response1.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response1.getBody()).isEqualTo("page of " + viewId.toJson());
+		assertThat(response1.getHeaders().getCacheControl()).isEqualTo("max-age=0");
+		final String etag1 = response1.getHeaders().getETag();
+		assertThat(etag1).isNotBlank();
+		assertThat(jsonConversionsCount).hasValue(1);
+
+		final ResponseEntity<String> response2 = getViewData(etag1);
+		assertThat(response2.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(response2.getBody()).isNull();
+		assertThat(response2.getHeaders().getETag()).isEqualTo(etag1);
+		assertThat(jsonConversionsCount).as("JSON conversion skipped").hasValue(1);
+
+		ViewChangesVersions.instance.incrementVersion(viewId);
+
+		final ResponseEntity<String> response3 = getViewData(etag1);
+		assertThat(response3.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response3.getBody()).isEqualTo("page of " + viewId.toJson());
+		assertThat(response3.getHeaders().getETag()).isNotEqualTo(etag1);
+		assertThat(jsonConversionsCount).hasValue(2);
+	}
+
+	@Test
+	public void viewVersionsAreNotShared()
+	{
+		final ViewId otherViewId = ViewId.random(WindowId.of(123));
+
+		final String etag1 = getViewData(null).getHeaders().getETag();
+		ViewChangesVersions.instance.incrementVersion(otherViewId);
+
+		assertThat(getViewData(etag1).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(ViewChangesVersions.instance.getVersion(otherViewId)).isNotEqualTo(ViewChangesVersions.instance.getVersion(viewId));
+	}
+}
@@ -0,0 +1,194 @@
+package de.metas.ui.web.devices;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class DeviceWebSocketProducerTest
+{
+	private static final Duration MIN_POLL_INTERVAL = Duration.ofMillis(5);
+	private static final Duration MAX_POLL_INTERVAL = Duration.ofMillis(20);
+
+	private ScheduledExecutorService executor;
+	private final CountDownLatch slowDeviceLatch = new CountDownLatch(1);
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		executor = Executors.newScheduledThreadPool(2);
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		slowDeviceLatch.countDown();
+		executor.shutdownNow();
+	}
+
+	/** Device which returns the given readings, and then keeps returning the last one */
+	private static Supplier<Object> scriptedDevice(final String... readings)
+	{
+		final Iterator<String> readingsIterator = Arrays.asList(readings).iterator();
+		return new Supplier<Object>()
+		{
+			private BigDecimal lastReading;
+
+			@Override
+			public synchronized Object get()
+			{
+				if (readingsIterator.hasNext())
+				{
+					lastReading = new BigDecimal(readingsIterator.next());
+				}
+				return lastReading;
+			}
+		};
+	}
+
+	private static DeviceWebSocketProducer producer(final String deviceId, final Supplier<Object> device)
+	{
+		return DeviceWebSocketProducer.builder()
+				.deviceId(deviceId)
+				.deviceValueSupplier(device)
+				.minPollInterval(MIN_POLL_INTERVAL)
+				.maxPollInterval(MAX_POLL_INTERVAL)
+				.build();
+	}
+
+	private static class EventsCollector
+	{
+		private final List<JSONDeviceValueChangedEvent> events = new ArrayList<>();
+
+		public synchronized void collect(final Object event)
+		{
+			events.add((JSONDeviceValueChangedEvent)event);
+		}
+
+		public synchronized List<String> getValues()
+		{
+			return events.stream()
+					.map(event -> event.getValue().toString())
+					.collect(Collectors.toList());
+		}
+
+		public void waitForValuesCount(final int count) throws InterruptedException
+		{
+			for (int i = 0; i < 200 && getValues().size() < count; i++)
+			{
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	@Test
+	public void onlyChangedValuesArePublished() throws Exception
+	{
+		final EventsCollector events = new EventsCollector();
+		final DeviceWebSocketProducer producer = producer("scale", scriptedDevice("1.0", "1.00", "1.0", "2.5", "2.5", "2.50", "3", "3"));
+
+		try (final IAutoCloseable handle = producer.startProducing(events::collect, executor))
+		{
+			events.waitForValuesCount(3);
+
+			// wait some more polls, to make sure nothing else is published
+			Thread.sleep(MAX_POLL_INTERVAL.toMillis() * 3);
+		}
+
+		assertThat(events.getValues()).containsExactly("1.0", "2.5", "3");
+	}
+
+	@Test
+	public void noEventsAfterStop() throws Exception
+	{
+		final EventsCollector events = new EventsCollector();
+		final DeviceWebSocketProducer producer = producer("scale", scriptedDevice("1", "1", "1", "1", "1", "2"));
+
+		final IAutoCloseable handle = producer.startProducing(events::collect, executor);
+		events.waitForValuesCount(1);
+		handle.close();
+
+		Thread.sleep(MAX_POLL_INTERVAL.toMillis() * 10);
+		assertThat(events.getValues()).containsExactly("1");
+	}
+
+	@Test
+	public void computeNextPollInterval()
+	{
+		final Duration min = Duration.ofMillis(100);
+		final Duration max = Duration.ofMillis(1000);
+
+		assertThat(DeviceWebSocketProducer.computeNextPollInterval(Duration.ofMillis(100), false, min, max)).isEqualTo(Duration.ofMillis(200));
+		assertThat(DeviceWebSocketProducer.computeNextPollInterval(Duration.ofMillis(400), false, min, max)).isEqualTo(Duration.ofMillis(800));
+		assertThat(DeviceWebSocketProducer.computeNextPollInterval(Duration.ofMillis(800), false, min, max)).isEqualTo(Duration.ofMillis(1000));
+		assertThat(DeviceWebSocketProducer.computeNextPollInterval(Duration.ofMillis(1000), false, min, max)).isEqualTo(Duration.ofMillis(1000));
+		assertThat(DeviceWebSocketProducer.computeNextPollInterval(Duration.ofMillis(1000), true, min, max)).isEqualTo(Duration.ofMillis(100));
+	}
+
+	@Test
+	public void slowDeviceIsNotDelayingOtherDevices() throws Exception
+	{
+		final Supplier<Object> slowDevice = () -> {
+			try
+			{
+				slowDeviceLatch.await(10, TimeUnit.SECONDS);
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return BigDecimal.ONE;
+		};
+
+		final EventsCollector slowEvents = new EventsCollector();
+		final EventsCollector fastEvents = new EventsCollector();
+		try (final IAutoCloseable slowHandle = producer("slowScale", slowDevice).startProducing(slowEvents::collect, executor);
+				final IAutoCloseable fastHandle = producer("fastScale", scriptedDevice("1", "2", "3")).startProducing(fastEvents::collect, executor))
+		{
+			fastEvents.waitForValuesCount(3);
+
+			assertThat(fastEvents.getValues()).containsExactly("1", "2", "3");
+			assertThat(slowEvents.getValues()).isEmpty();
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package de.metas.ui.web.document.filter.provider.fullTextSearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.document.filter.DocumentFilter;
+import de.metas.ui.web.document.filter.provider.fullTextSearch.FullTextSearchHitsSource.Hit;
+import de.metas.ui.web.document.filter.provider.fullTextSearch.FullTextSearchHitsSource.HitsPage;
+import de.metas.ui.web.document.filter.provider.fullTextSearch.FullTextSearchResultSelections.FullTextSearchResultSelection;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class FullTextSearchResultSelectionsTest
+{
+	/**
+	 * Serves given hits, page by page, like the elasticsearch scroll API does.
+	 */
+	private static class StubHitsSource implements FullTextSearchHitsSource
+	{
+		private final ImmutableList<Hit> hits;
+		private int pageSize;
+		private int searchesCount = 0;
+		private final List<String> releasedScrollIds = new ArrayList<>();
+
+		private StubHitsSource(final List<Hit> hits)
+		{
+			this.hits = ImmutableList.copyOf(hits);
+		}
+
+		@Override
+		public HitsPage firstPage(final QueryBuilder query, final int pageSize)
+		{
+			this.searchesCount++;
+			this.pageSize = pageSize;
+			return page(0);
+		}
+
+		@Override
+		public HitsPage nextPage(final String scrollId)
+		{
+			return page(Integer.parseInt(scrollId));
+		}
+
+		private HitsPage page(final int offset)
+		{
+			final int toIndex = Math.min(offset + pageSize, hits.size());
+			final List<Hit> pageHits = offset < toIndex ? hits.subList(offset, toIndex) : ImmutableList.of();
+			return new HitsPage(String.valueOf(toIndex), pageHits);
+		}
+
+		@Override
+		public void release(final String scrollId)
+		{
+			releasedScrollIds.add(scrollId);
+		}
+	}
+
+	private static class InMemorySelectionLinesWriter implements FullTextSearchResultSelections.SelectionLinesWriter
+	{
+		private final List<Integer> lines = new ArrayList<>();
+		private final List<Integer> recordIds = new ArrayList<>();
+		private int batchesCount = 0;
+
+		@Override
+		public void insert(final String selectionId, final int firstLine, final List<Integer> recordIds)
+		{
+			batchesCount++;
+			for (int i = 0; i < recordIds.size(); i++)
+			{
+				this.lines.add(firstLine + i);
+				this.recordIds.add(recordIds.get(i));
+			}
+		}
+	}
+
+	private static List<Hit> hits(final int count)
+	{
+		final ImmutableList.Builder<Hit> hits = ImmutableList.builder();
+		for (int i = 1; i <= count; i++)
+		{
+			hits.add(Hit.of(i, count - i + 1)); // ordered by score
+		}
+		return hits.build();
+	}
+
+	private static final int NO_MAX_HITS = Integer.MAX_VALUE;
+
+	private FullTextSearchFilterContext context;
+	private InMemorySelectionLinesWriter selectionLinesWriter;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		context = FullTextSearchFilterContext.builder()
+				.elasticsearchClient(Mockito.mock(Client.class))
+				.modelTableName("C_BPartner")
+				.esIndexName("c_bpartner")
+				.esSearchFieldName("Name")
+				.esSearchFieldName("Value")
+				.build();
+
+		selectionLinesWriter = new InMemorySelectionLinesWriter();
+	}
+
+	@Test
+	public void allHitsAreSaved_50k()
+	{
+		final StubHitsSource hitsSource = new StubHitsSource(hits(50_000));
+		final FullTextSearchResultSelections selections = new FullTextSearchResultSelections(ctx -> hitsSource, selectionLinesWriter);
+
+		final FullTextSearchResultSelection selection = selections.create(context, "test", NO_MAX_HITS);
+
+		assertThat(selection.getSize()).isEqualTo(50_000);
+		assertThat(selectionLinesWriter.batchesCount).isEqualTo(50_000 / FullTextSearchResultSelections.PAGE_SIZE);
+
+		// lines are following the relevance
+		assertThat(selectionLinesWriter.recordIds).hasSize(50_000);
+		for (int i = 0; i < 50_000; i++)
+		{
+			assertThat(selectionLinesWriter.lines.get(i)).isEqualTo(i + 1);
+			assertThat(selectionLinesWriter.recordIds.get(i)).isEqualTo(i + 1);
+		}
+
+		assertThat(hitsSource.releasedScrollIds).containsExactly("50000");
+	}
+
+	@Test
+	public void duplicateAndUnknownRecordIdsAreSkipped()
+	{
+		final StubHitsSource hitsSource = new StubHitsSource(ImmutableList.of(
+				Hit.of(10, 5),
+				Hit.of(-1, 4),
+				Hit.of(20, 3),
+				Hit.of(10, 2),
+				Hit.of(30, 1)));
+		final FullTextSearchResultSelections selections = new FullTextSearchResultSelections(ctx -> hitsSource, selectionLinesWriter);
+
+		final FullTextSearchResultSelection selection = selections.create(context, "test", NO_MAX_HITS);
+
+		assertThat(selection.getSize()).isEqualTo(3);
+		assertThat(selectionLinesWriter.recordIds).containsExactly(10, 20, 30);
+		assertThat(selectionLinesWriter.lines).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	public void noHits()
+	{
+		final StubHitsSource hitsSource = new StubHitsSource(ImmutableList.of());
+		final FullTextSearchResultSelections selections = new FullTextSearchResultSelections(ctx -> hitsSource, selectionLinesWriter);
+
+		final FullTextSearchResultSelection selection = selections.create(context, "test", NO_MAX_HITS);
+
+		assertThat(selection.isEmpty()).isTrue();
+		assertThat(selectionLinesWriter.batchesCount).isZero();
+		assertThat(hitsSource.releasedScrollIds).containsExactly("0");
+	}
+
+	@Test
+	public void onlyMaxHitsAreSaved()
+	{
+		final StubHitsSource hitsSource = new StubHitsSource(hits(5_000));
+		final FullTextSearchResultSelections selections = new FullTextSearchResultSelections(ctx -> hitsSource, selectionLinesWriter);
+
+		final FullTextSearchResultSelection selection = selections.create(context, "test", 2_500);
+
+		assertThat(selection.getSize()).isEqualTo(2_500);
+		assertThat(selectionLinesWriter.recordIds).hasSize(2_500);
+		assertThat(selectionLinesWriter.recordIds.get(2_499)).isEqualTo(2_500); // the most relevant ones
+
+		// the remaining hits were not fetched
+		assertThat(hitsSource.releasedScrollIds).containsExactly("3000");
+	}
+
+	@Test
+	public void sameFilterIsSearchedOnlyOnce()
+	{
+		final StubHitsSource hitsSource = new StubHitsSource(hits(10));
+		final FullTextSearchResultSelections selections = new FullTextSearchResultSelections(ctx -> hitsSource, selectionLinesWriter);
+		final DocumentFilter filter = DocumentFilter.builder().setFilterId(FullTextSearchSqlDocumentFilterConverter.FILTER_ID).build();
+
+		final FullTextSearchResultSelection selection1 = selections.getOrCreate(filter, context, "test");
+		final FullTextSearchResultSelection selection2 = selections.getOrCreate(filter, context, "test");
+		assertThat(selection2).isSameAs(selection1);
+		assertThat(hitsSource.searchesCount).isEqualTo(1);
+
+		// the selection belongs to the filter instance, i.e. to the view which holds it
+		final DocumentFilter otherViewFilter = DocumentFilter.builder().setFilterId(FullTextSearchSqlDocumentFilterConverter.FILTER_ID).build();
+		final FullTextSearchResultSelection selection3 = selections.getOrCreate(otherViewFilter, context, "test");
+		assertThat(selection3.getSelectionId()).isNotEqualTo(selection1.getSelectionId());
+		assertThat(hitsSource.searchesCount).isEqualTo(2);
+	}
+}
@@ -0,0 +1,132 @@
+package de.metas.ui.web.document.geo_location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import de.metas.location.geocoding.GeographicalCoordinates;
+import de.metas.ui.web.document.filter.sql.SqlParamsCollector;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class GeoLocationFilterConverterTest
+{
+	private static final GeographicalCoordinates BERLIN = coordinates("52.520008", "13.404954");
+	private static final GeographicalCoordinates POTSDAM = coordinates("52.390569", "13.064473"); // ~27km from Berlin
+	private static final GeographicalCoordinates HAMBURG = coordinates("53.551086", "9.993682"); // ~255km from Berlin
+
+	private static GeographicalCoordinates coordinates(final String latitude, final String longitude)
+	{
+		return GeographicalCoordinates.builder()
+				.latitude(new BigDecimal(latitude))
+				.longitude(new BigDecimal(longitude))
+				.build();
+	}
+
+	private static boolean contains(final GeoBoundingBox boundingBox, final GeographicalCoordinates coordinates)
+	{
+		return boundingBox.contains(coordinates.getLatitude(), coordinates.getLongitude());
+	}
+
+	@Nested
+	public class sqlGeographicalDistance
+	{
+		@Test
+		public void boundingBoxIsCheckedBeforeDistance()
+		{
+			final SqlParamsCollector sqlParams = SqlParamsCollector.newInstance();
+			final String sql = GeoLocationFilterConverter.sqlGeographicalDistance(sqlParams, "l", BERLIN, 100);
+
+			assertThat(sql).isEqualTo("l.Latitude BETWEEN ? AND ?"
+					+ " AND l.Longitude BETWEEN ? AND ?"
+					+ " AND geographical_distance(l.Latitude,l.Longitude,?,?) <= ?");
+			assertThat(sqlParams.toList()).containsExactly(
+					new BigDecimal("51.620686"),
+					new BigDecimal("53.419330"),
+					new BigDecimal("11.926880"),
+					new BigDecimal("14.883028"),
+					BERLIN.getLatitude(),
+					BERLIN.getLongitude(),
+					100);
+		}
+
+		@Test
+		public void nearPole_noLongitudeCondition()
+		{
+			final SqlParamsCollector sqlParams = SqlParamsCollector.newInstance();
+			final String sql = GeoLocationFilterConverter.sqlGeographicalDistance(sqlParams, "l", coordinates("89.5", "10"), 100);
+
+			assertThat(sql).isEqualTo("l.Latitude BETWEEN ? AND ?"
+					+ " AND geographical_distance(l.Latitude,l.Longitude,?,?) <= ?");
+			assertThat(sqlParams.toList()).hasSize(5);
+			assertThat(sqlParams.toList().get(1)).isEqualTo(new BigDecimal("90.000000"));
+		}
+
+		@Test
+		public void acrossAntimeridian_noLongitudeCondition()
+		{
+			final SqlParamsCollector sqlParams = SqlParamsCollector.newInstance();
+			final String sql = GeoLocationFilterConverter.sqlGeographicalDistance(sqlParams, "l", coordinates("-17.7134", "179.9"), 50);
+
+			assertThat(sql).doesNotContain("Longitude BETWEEN");
+		}
+	}
+
+	@Nested
+	public class boundingBox
+	{
+		@Test
+		public void ofCenterAndDistance()
+		{
+			final GeoBoundingBox boundingBox = GeoBoundingBox.ofCenterAndDistance(BERLIN, 100);
+
+			assertThat(boundingBox.getMinLatitude()).isBetween(51.6206, 51.6207);
+			assertThat(boundingBox.getMaxLatitude()).isBetween(53.4193, 53.4194);
+			assertThat(boundingBox.getMinLongitude()).isBetween(11.9268, 11.9269);
+			assertThat(boundingBox.getMaxLongitude()).isBetween(14.8830, 14.8831);
+			assertThat(boundingBox.isFullLongitudeRange()).isFalse();
+		}
+
+		@Test
+		public void containsOnlyNearbyLocations()
+		{
+			final GeoBoundingBox boundingBox = GeoBoundingBox.ofCenterAndDistance(BERLIN, 100);
+
+			assertThat(contains(boundingBox, BERLIN)).isTrue();
+			assertThat(contains(boundingBox, POTSDAM)).isTrue();
+			assertThat(contains(boundingBox, HAMBURG)).isFalse();
+		}
+
+		@Test
+		public void zeroDistance()
+		{
+			final GeoBoundingBox boundingBox = GeoBoundingBox.ofCenterAndDistance(BERLIN, 0);
+
+			assertThat(contains(boundingBox, BERLIN)).isTrue();
+			assertThat(contains(boundingBox, POTSDAM)).isFalse();
+		}
+	}
+}
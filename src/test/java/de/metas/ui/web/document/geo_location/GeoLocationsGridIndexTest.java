@@ -0,0 +1,151 @@
+package de.metas.ui.web.document.geo_location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.location.geocoding.GeographicalCoordinates;
+import de.metas.ui.web.document.geo_location.json.JsonViewRowGeoLocation;
+import de.metas.ui.web.window.datatypes.DocumentId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class GeoLocationsGridIndexTest
+{
+	private static final JsonViewRowGeoLocation BERLIN = location(1, "52.520008", "13.404954");
+	private static final JsonViewRowGeoLocation POTSDAM = location(2, "52.390569", "13.064473");
+	private static final JsonViewRowGeoLocation HAMBURG = location(3, "53.551086", "9.993682");
+	private static final JsonViewRowGeoLocation MUNICH = location(4, "48.135125", "11.581981");
+	private static final JsonViewRowGeoLocation COLOGNE = location(5, "50.937531", "6.960279");
+	private static final JsonViewRowGeoLocation BUENOS_AIRES = location(6, "-34.603684", "-58.381559");
+
+	private static final ImmutableList<JsonViewRowGeoLocation> ALL = ImmutableList.of(BERLIN, POTSDAM, HAMBURG, MUNICH, COLOGNE, BUENOS_AIRES);
+
+	private static JsonViewRowGeoLocation location(final int rowId, final String latitude, final String longitude)
+	{
+		return JsonViewRowGeoLocation.builder()
+				.rowId(DocumentId.of(rowId))
+				.latitude(new BigDecimal(latitude))
+				.longitude(new BigDecimal(longitude))
+				.build();
+	}
+
+	private static GeoBoundingBox around(final JsonViewRowGeoLocation center, final int distanceInKm)
+	{
+		final GeographicalCoordinates coordinates = GeographicalCoordinates.builder()
+				.latitude(center.getLatitude())
+				.longitude(center.getLongitude())
+				.build();
+		return GeoBoundingBox.ofCenterAndDistance(coordinates, distanceInKm);
+	}
+
+	@Test
+	public void getAll_keepsOrder()
+	{
+		final GeoLocationsGridIndex index = GeoLocationsGridIndex.of(ALL);
+
+		assertThat(index.size()).isEqualTo(6);
+		assertThat(index.getAll(0)).containsExactlyElementsOf(ALL);
+		assertThat(index.getAll(2)).containsExactly(BERLIN, POTSDAM);
+	}
+
+	@Test
+	public void query_nearBerlin()
+	{
+		final GeoLocationsGridIndex index = GeoLocationsGridIndex.of(ALL);
+
+		assertThat(index.query(around(BERLIN, 50), 0)).containsExactly(BERLIN, POTSDAM);
+		assertThat(index.query(around(BERLIN, 300), 0)).containsExactly(BERLIN, POTSDAM, HAMBURG);
+	}
+
+	@Test
+	public void query_germany()
+	{
+		final GeoLocationsGridIndex index = GeoLocationsGridIndex.of(ALL);
+
+		final GeoBoundingBox germany = GeoBoundingBox.builder()
+				.minLatitude(47.2).maxLatitude(55.1)
+				.minLongitude(5.8).maxLongitude(15.1)
+				.build();
+		assertThat(index.query(germany, 0)).containsExactly(BERLIN, POTSDAM, HAMBURG, MUNICH, COLOGNE);
+		assertThat(index.query(germany, 3)).containsExactly(BERLIN, POTSDAM, HAMBURG);
+	}
+
+	@Test
+	public void query_southernAndWesternHemisphere()
+	{
+		final GeoLocationsGridIndex index = GeoLocationsGridIndex.of(ALL);
+
+		assertThat(index.query(around(BUENOS_AIRES, 10), 0)).containsExactly(BUENOS_AIRES);
+	}
+
+	@Test
+	public void query_wholeWorld_scansOnlyNonEmptyCells()
+	{
+		final GeoLocationsGridIndex index = GeoLocationsGridIndex.of(ALL);
+
+		final GeoBoundingBox world = GeoBoundingBox.builder()
+				.minLatitude(-90).maxLatitude(90)
+				.minLongitude(-180).maxLongitude(180)
+				.build();
+		assertThat(index.query(world, 0)).containsExactlyElementsOf(ALL);
+	}
+
+	@Test
+	public void query_manyLocationsInSameCell()
+	{
+		final List<JsonViewRowGeoLocation> locations = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			// ~ 11m apart, going north from Berlin
+			locations.add(location(i + 1, BERLIN.getLatitude().add(new BigDecimal("0.0001").multiply(BigDecimal.valueOf(i))).toString(), BERLIN.getLongitude().toString()));
+		}
+		final GeoLocationsGridIndex index = GeoLocationsGridIndex.of(locations);
+
+		final ImmutableList<JsonViewRowGeoLocation> result = index.query(around(BERLIN, 1), 0);
+		assertThat(result).containsExactlyElementsOf(locations.subList(0, result.size()));
+		assertThat(result.size()).isBetween(89, 91);
+	}
+
+	@Test
+	public void ofAllPages_findsRowPastTheFirstPage()
+	{
+		// the view's rows are BERLIN, POTSDAM, HAMBURG, MUNICH, COLOGNE, BUENOS_AIRES, loaded 2 rows per page
+		final GeoLocationsGridIndex index = GeoLocationsGridIndex.ofAllPages(
+				ALL.size(),
+				2,
+				(firstRow, pageLength) -> ALL.subList(firstRow, Math.min(firstRow + pageLength, ALL.size())));
+
+		assertThat(index.size()).isEqualTo(6);
+
+		// the only row inside the box is on the last page; the limit is applied after filtering
+		assertThat(index.query(around(BUENOS_AIRES, 10), 1)).containsExactly(BUENOS_AIRES);
+		assertThat(index.getAll(1)).containsExactly(BERLIN);
+	}
+}
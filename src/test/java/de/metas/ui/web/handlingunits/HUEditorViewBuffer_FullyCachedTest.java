@@ -0,0 +1,208 @@
+package de.metas.ui.web.handlingunits;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.handlingunits.HuId;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.ViewRowsOrderBy;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class HUEditorViewBuffer_FullyCachedTest
+{
+	private static final WindowId WINDOW_ID = WindowId.of(540189);
+	private static final JSONOptions jsonOpts = JSONOptions.builder()
+			.adLanguage("de_DE")
+			.build();
+
+	private HUEditorViewRepository huEditorRepo;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	/**
+	 * @return buffer containing one top level HU for each given HU code, in the given order
+	 */
+	private HUEditorViewBuffer_FullyCached createBuffer(final List<String> huCodes)
+	{
+		final List<HUEditorRow> rows = new ArrayList<>(huCodes.size());
+		for (int i = 0; i < huCodes.size(); i++)
+		{
+			final HuId huId = HuId.ofRepoId(i + 1);
+			rows.add(HUEditorRow.builder(WINDOW_ID)
+					.setRowId(HUEditorRowId.ofTopLevelHU(huId))
+					.setType(HUEditorRowType.LU)
+					.setTopLevel(true)
+					.setCode(huCodes.get(i))
+					.build());
+		}
+
+		final Set<HuId> huIds = rows.stream().map(HUEditorRow::getHuId).collect(ImmutableSet.toImmutableSet());
+
+		huEditorRepo = Mockito.mock(HUEditorViewRepository.class);
+		Mockito.when(huEditorRepo.retrieveHUIdsEffective(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(huIds);
+		Mockito.when(huEditorRepo.retrieveHUEditorRows(Mockito.anySet(), Mockito.eq(HUEditorRowFilter.ALL))).thenReturn(rows);
+
+		return new HUEditorViewBuffer_FullyCached(
+				ViewId.random(WINDOW_ID),
+				huEditorRepo,
+				DocumentFilterList.EMPTY,
+				DocumentFilterList.EMPTY,
+				DocumentQueryOrderByList.EMPTY,
+				SqlDocumentFilterConverterContext.EMPTY);
+	}
+
+	private static ViewRowsOrderBy orderByHUCode(final boolean ascending)
+	{
+		return ViewRowsOrderBy.of(
+				DocumentQueryOrderByList.ofList(ImmutableList.of(DocumentQueryOrderBy.byFieldName(HUEditorRow.FIELDNAME_HUCode, ascending))),
+				jsonOpts);
+	}
+
+	private static List<String> getPage(final HUEditorViewBuffer_FullyCached buffer, final int firstRow, final int pageLength, final ViewRowsOrderBy orderBy)
+	{
+		return buffer.streamPage(firstRow, pageLength, HUEditorRowFilter.ALL, orderBy)
+				.map(HUEditorRow::getValue)
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> getAllPages(final HUEditorViewBuffer_FullyCached buffer, final int pageLength, final ViewRowsOrderBy orderBy)
+	{
+		final List<String> result = new ArrayList<>();
+		for (int firstRow = 0; firstRow < buffer.size(); firstRow += pageLength)
+		{
+			result.addAll(getPage(buffer, firstRow, pageLength, orderBy));
+		}
+		return result;
+	}
+
+	@Test
+	public void pagesAreSlicesOfTheWholeSortedList()
+	{
+		final HUEditorViewBuffer_FullyCached buffer = createBuffer(ImmutableList.of("E", "B", "F", "A", "D", "C", "G"));
+
+		assertThat(getPage(buffer, 0, 3, orderByHUCode(true))).containsExactly("A", "B", "C");
+		assertThat(getPage(buffer, 3, 3, orderByHUCode(true))).containsExactly("D", "E", "F");
+		assertThat(getPage(buffer, 6, 3, orderByHUCode(true))).containsExactly("G");
+		assertThat(getPage(buffer, 9, 3, orderByHUCode(true))).isEmpty();
+
+		assertThat(getPage(buffer, 0, 3, orderByHUCode(false))).containsExactly("G", "F", "E");
+	}
+
+	@Test
+	public void notSorted_keepsTheLoadingOrder()
+	{
+		final HUEditorViewBuffer_FullyCached buffer = createBuffer(ImmutableList.of("E", "B", "F", "A"));
+
+		assertThat(getPage(buffer, 1, 2, ViewRowsOrderBy.empty(jsonOpts))).containsExactly("B", "F");
+	}
+
+	@Test
+	public void pageBoundariesAreConsistent_withDuplicateSortValues()
+	{
+		final List<String> huCodes = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+		{
+			huCodes.add("HU" + i % 7);
+		}
+		final HUEditorViewBuffer_FullyCached buffer = createBuffer(huCodes);
+
+		final List<DocumentId> allRowIds = buffer.streamPage(0, 1000, HUEditorRowFilter.ALL, orderByHUCode(true))
+				.map(HUEditorRow::getId)
+				.collect(Collectors.toList());
+
+		final List<DocumentId> pagedRowIds = new ArrayList<>();
+		for (int firstRow = 0; firstRow < 100; firstRow += 13)
+		{
+			buffer.streamPage(firstRow, 13, HUEditorRowFilter.ALL, orderByHUCode(true))
+					.map(HUEditorRow::getId)
+					.forEach(pagedRowIds::add);
+		}
+
+		// each row is on exactly one page, in the same order as when fetching all of them at once
+		assertThat(pagedRowIds).containsExactlyElementsOf(allRowIds);
+		assertThat(getAllPages(buffer, 13, orderByHUCode(true))).isSorted();
+	}
+
+	@Test
+	public void rowsAreLoadedOnce_untilInvalidated()
+	{
+		final HUEditorViewBuffer_FullyCached buffer = createBuffer(ImmutableList.of("B", "A"));
+
+		getAllPages(buffer, 1, orderByHUCode(true));
+		getAllPages(buffer, 1, orderByHUCode(false));
+		assertThat(buffer.getById(DocumentId.of(1)).getValue()).isEqualTo("B");
+		Mockito.verify(huEditorRepo, Mockito.times(1)).retrieveHUEditorRows(Mockito.anySet(), Mockito.any());
+
+		buffer.invalidateAll();
+		getAllPages(buffer, 1, orderByHUCode(true));
+		Mockito.verify(huEditorRepo, Mockito.times(2)).retrieveHUEditorRows(Mockito.anySet(), Mockito.any());
+	}
+
+	@Test
+	public void pagingThroughManyRows_isTheWholeSortedList()
+	{
+		final Random random = new Random(1234);
+		final List<String> huCodes = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++)
+		{
+			huCodes.add(String.valueOf(random.nextInt(1_000_000)));
+		}
+		final HUEditorViewBuffer_FullyCached buffer = createBuffer(huCodes);
+
+		final List<String> huCodesSorted = new ArrayList<>(huCodes);
+		Collections.sort(huCodesSorted);
+		assertThat(getAllPages(buffer, 50, orderByHUCode(true))).containsExactlyElementsOf(huCodesSorted);
+
+		Collections.reverse(huCodesSorted);
+		assertThat(getAllPages(buffer, 50, orderByHUCode(false))).containsExactlyElementsOf(huCodesSorted);
+
+		Mockito.verify(huEditorRepo, Mockito.times(1)).retrieveHUEditorRows(Mockito.anySet(), Mockito.any());
+	}
+}
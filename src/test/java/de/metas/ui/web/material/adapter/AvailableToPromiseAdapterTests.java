@@ -1,10 +1,37 @@
 package de.metas.ui.web.material.adapter;
 
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
+import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
+import de.metas.material.dispo.commons.repository.atp.BPartnerClassifier;
 import de.metas.material.event.commons.AttributesKey;
+import de.metas.product.ProductId;
+import de.metas.quantity.Quantity;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group.Type;
 
@@ -53,4 +80,92 @@ public class AvailableToPromiseAdapterTests
 		final Group.Type type = AvailableToPromiseAdapter.extractGroupType(attributesKey);
 		assertThat(type).isSameAs(Type.ATTRIBUTE_SET);
 	}
+
+	@Nested
+	public class retrieveAvailableStockGroups
+	{
+		private final ZonedDateTime date = ZonedDateTime.of(2020, 3, 1, 0, 0, 0, 0, ZoneId.of("Europe/Berlin"));
+		private final BPartnerClassifier bpartner = BPartnerClassifier.specificOrNone(BPartnerId.ofRepoId(1000));
+
+		private I_C_UOM uom;
+		private AvailableToPromiseAdapter adapter;
+
+		@BeforeEach
+		public void beforeEach()
+		{
+			AdempiereTestHelper.get().init();
+
+			uom = newInstance(I_C_UOM.class);
+			saveRecord(uom);
+
+			adapter = Mockito.spy(new AvailableToPromiseAdapter(Mockito.mock(AvailableToPromiseRepository.class)));
+			doAnswer(invocation -> {
+				final Set<ProductId> productIds = invocation.getArgument(0);
+				return productIds.stream().map(this::createGroup).collect(ImmutableList.toImmutableList());
+			}).when(adapter).retrieveAvailableStockGroupsFromRepository(any(), any(), any());
+		}
+
+		private Group createGroup(final ProductId productId)
+		{
+			return Group.builder()
+					.productId(productId)
+					.qty(Quantity.of(BigDecimal.valueOf(productId.getRepoId()), uom))
+					.type(Type.ALL_STORAGE_KEYS)
+					.build();
+		}
+
+		private Set<ProductId> productIds(final int... repoIds)
+		{
+			return Arrays.stream(repoIds).mapToObj(ProductId::ofRepoId).collect(ImmutableSet.toImmutableSet());
+		}
+
+		@Test
+		public void onlyNotCachedProductsAreRetrievedInOneQuery()
+		{
+			adapter.retrieveAvailableStockGroups(productIds(1, 2), date, bpartner);
+			final List<Group> groups = adapter.retrieveAvailableStockGroups(productIds(1, 2, 3), date, bpartner);
+
+			assertThat(groups).extracting(Group::getProductId).containsExactlyInAnyOrderElementsOf(productIds(1, 2, 3));
+			verify(adapter).retrieveAvailableStockGroupsFromRepository(productIds(1, 2), date, bpartner);
+			verify(adapter).retrieveAvailableStockGroupsFromRepository(productIds(3), date, bpartner);
+			verify(adapter, times(2)).retrieveAvailableStockGroupsFromRepository(any(), any(), any());
+		}
+
+		@Test
+		public void cachedPerDateAndBPartner()
+		{
+			adapter.retrieveAvailableStockGroups(productIds(1), date, bpartner);
+			adapter.retrieveAvailableStockGroups(productIds(1), date.plusDays(1), bpartner);
+			adapter.retrieveAvailableStockGroups(productIds(1), date, BPartnerClassifier.specificOrNone(BPartnerId.ofRepoId(2000)));
+
+			verify(adapter, times(3)).retrieveAvailableStockGroupsFromRepository(any(), any(), any());
+		}
+
+		@Test
+		public void retrievedAgainAfterCacheReset()
+		{
+			adapter.retrieveAvailableStockGroups(productIds(1), date, bpartner);
+			CacheMgt.get().reset();
+			adapter.retrieveAvailableStockGroups(productIds(1), date, bpartner);
+
+			verify(adapter, times(2)).retrieveAvailableStockGroupsFromRepository(productIds(1), date, bpartner);
+		}
+
+		@Test
+		public void async() throws InterruptedException
+		{
+			final List<Group> groupsNotYetLoaded = adapter.getCachedAvailableStockGroupsAndLoadOthersAsync(productIds(1, 2), date, bpartner);
+			assertThat(groupsNotYetLoaded).isEmpty();
+
+			List<Group> groups = groupsNotYetLoaded;
+			for (int i = 0; i < 100 && groups.size() < 2; i++)
+			{
+				Thread.sleep(50);
+				groups = adapter.getCachedAvailableStockGroupsAndLoadOthersAsync(productIds(1, 2), date, bpartner);
+			}
+
+			assertThat(groups).extracting(Group::getProductId).containsExactlyInAnyOrderElementsOf(productIds(1, 2));
+			verify(adapter, times(1)).retrieveAvailableStockGroupsFromRepository(any(), any(), any());
+		}
+	}
 }
@@ -0,0 +1,260 @@
+package de.metas.ui.web.menu;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.menu.MenuNode.MenuNodeFilter.MenuNodeFilterResolution;
+import de.metas.ui.web.menu.MenuNode.MenuNodeType;
+import de.metas.ui.web.window.datatypes.DocumentId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class MenuTreeTest
+{
+	private int nextMenuId = 1;
+
+	private MenuNode leaf(final String caption)
+	{
+		final int adMenuId = nextMenuId++;
+		return MenuNode.builder()
+				.setAD_Menu_ID(adMenuId)
+				.setCaption(caption)
+				.setType(MenuNodeType.Window, DocumentId.of(adMenuId))
+				.build();
+	}
+
+	private MenuNode group(final String caption, final MenuNode... children)
+	{
+		return MenuNode.builder()
+				.setAD_Menu_ID(nextMenuId++)
+				.setCaption(caption)
+				.setTypeGroup()
+				.addChildren(ImmutableList.copyOf(children))
+				.build();
+	}
+
+	private MenuTree menuTree(final MenuNode... children)
+	{
+		final MenuNode root = MenuNode.builder()
+				.setAD_Menu_ID(0)
+				.setCaption("Root")
+				.setTypeGroup()
+				.addChildren(ImmutableList.copyOf(children))
+				.build();
+		return MenuTree.of(1, root);
+	}
+
+	private MenuTree sampleMenuTree()
+	{
+		return menuTree(
+				group("Verkauf",
+						leaf("Auftrag"),
+						leaf("Lieferung"),
+						group("Stammdaten Verkauf",
+								leaf("Preisliste"),
+								leaf("Geschäftspartner"))),
+				group("Einkauf",
+						leaf("Bestellung"),
+						leaf("Wareneingang"),
+						group("Berichte",
+								leaf("Einkaufsstatistik"))),
+				group("Lager",
+						leaf("Lagerbestand"),
+						leaf("Handling Units")),
+				leaf("Straße & Geschäft"));
+	}
+
+	/** Same as the former {@link MenuTree#filter(String, boolean)}, which was walking and matching the whole tree */
+	private static MenuNode filterByWalkingTheWholeTree(final MenuTree menuTree, final String nameQuery, final boolean includeLeafsIfGroupAccepted)
+	{
+		final String queryNorm = stripDiacritics(nameQuery.toLowerCase());
+		return menuTree.getRootNode().deepCopy(node -> {
+			if (node.isRoot())
+			{
+				return MenuNodeFilterResolution.Accept;
+			}
+			else if (stripDiacritics(node.getCaption().toLowerCase()).contains(queryNorm))
+			{
+				return MenuNodeFilterResolution.Accept;
+			}
+			else if (node.isGroupingNode())
+			{
+				return MenuNodeFilterResolution.AcceptIfHasChildren;
+			}
+			else
+			{
+				return includeLeafsIfGroupAccepted ? MenuNodeFilterResolution.AcceptIfParentIsAccepted : MenuNodeFilterResolution.Reject;
+			}
+		});
+	}
+
+	private static String stripDiacritics(final String string)
+	{
+		return Normalizer.normalize(string, Normalizer.Form.NFD).replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+	}
+
+	/** @return tree as string, including the captions and the matched flag */
+	private static String toString(final MenuNode node)
+	{
+		if (node == null)
+		{
+			return "null";
+		}
+
+		final StringBuilder sb = new StringBuilder();
+		appendTo(sb, node, 0);
+		return sb.toString();
+	}
+
+	private static void appendTo(final StringBuilder sb, final MenuNode node, final int level)
+	{
+		for (int i = 0; i < level; i++)
+		{
+			sb.append("  ");
+		}
+		sb.append(node.getCaption()).append(node.isMatchedByFilter() ? " (*)" : "").append("\n");
+		node.getChildren().forEach(child -> appendTo(sb, child, level + 1));
+	}
+
+	private static void assertSameResultAsWalkingTheWholeTree(final MenuTree menuTree, final String nameQuery)
+	{
+		for (final boolean includeLeafsIfGroupAccepted : new boolean[] { false, true })
+		{
+			assertThat(toString(menuTree.filter(nameQuery, includeLeafsIfGroupAccepted)))
+					.as("nameQuery=%s, includeLeafsIfGroupAccepted=%s", nameQuery, includeLeafsIfGroupAccepted)
+					.isEqualTo(toString(filterByWalkingTheWholeTree(menuTree, nameQuery, includeLeafsIfGroupAccepted)));
+		}
+	}
+
+	@Test
+	public void filter_matchingLeaf()
+	{
+		final MenuTree menuTree = sampleMenuTree();
+
+		assertThat(toString(menuTree.filter("bestell", false))).isEqualTo(""
+				+ "Root (*)\n"
+				+ "  Einkauf\n"
+				+ "    Bestellung (*)\n");
+	}
+
+	@Test
+	public void filter_matchingGroup_includeLeafs()
+	{
+		final MenuTree menuTree = sampleMenuTree();
+
+		assertThat(toString(menuTree.filter("lager", true))).isEqualTo(""
+				+ "Root (*)\n"
+				+ "  Lager (*)\n"
+				+ "    Lagerbestand (*)\n"
+				+ "    Handling Units\n"
+				+ "  Straße & Geschäft\n"); // root level leaf, accepted because root is always accepted
+	}
+
+	@Test
+	public void filter_ignoresCaseAndDiacritics()
+	{
+		final MenuTree menuTree = sampleMenuTree();
+
+		assertThat(toString(menuTree.filter("GESCHAFT", false))).isEqualTo(""
+				+ "Root (*)\n"
+				+ "  Verkauf\n"
+				+ "    Stammdaten Verkauf\n"
+				+ "      Geschäftspartner (*)\n"
+				+ "  Straße & Geschäft (*)\n");
+	}
+
+	@Test
+	public void filter_sameResultAsWalkingTheWholeTree()
+	{
+		final MenuTree menuTree = sampleMenuTree();
+
+		final List<String> queries = ImmutableList.of(
+				"a", "e", "ka", "kauf", "einkauf", "verkauf", "lager", "LAGER", "ber", "stamm",
+				"geschäft", "geschaft", "straße", "& g", "units", "not existing", "xy");
+		for (final String query : queries)
+		{
+			assertSameResultAsWalkingTheWholeTree(menuTree, query);
+		}
+	}
+
+	@Test
+	public void filter_noMatch()
+	{
+		final MenuTree menuTree = sampleMenuTree();
+
+		assertThat(toString(menuTree.filter("not existing", false))).isEqualTo("Root (*)\n");
+	}
+
+	private MenuTree syntheticMenuTree(final int groupsCount, final int leafsPerGroup, final Random random)
+	{
+		final List<String> words = ImmutableList.of("Auftrag", "Rechnung", "Lieferung", "Bestellung", "Preis", "Lager", "Geschäft", "Bericht", "Produkt", "Kunde");
+
+		final ImmutableList.Builder<MenuNode> groups = ImmutableList.builder();
+		for (int g = 0; g < groupsCount; g++)
+		{
+			final MenuNode[] leafs = new MenuNode[leafsPerGroup];
+			for (int l = 0; l < leafsPerGroup; l++)
+			{
+				leafs[l] = leaf(words.get(random.nextInt(words.size())) + " " + words.get(random.nextInt(words.size())) + " " + random.nextInt(100_000));
+			}
+			groups.add(group(words.get(random.nextInt(words.size())) + " " + g, leafs));
+		}
+		return menuTree(groups.build().toArray(new MenuNode[0]));
+	}
+
+	@Test
+	public void filter_syntheticTree_sameResultAsWalkingTheWholeTree()
+	{
+		final MenuTree menuTree = syntheticMenuTree(100, 20, new Random(1234));
+
+		for (final String query : ImmutableList.of("auftrag", "ger", "12", "4711", "preis 1", "geschaft", "kunde rech"))
+		{
+			assertSameResultAsWalkingTheWholeTree(menuTree, query);
+		}
+	}
+
+	@Test
+	public void searchIndex_onlyTheNodesHavingAllTheTrigramsAreExamined()
+	{
+		final MenuTree menuTree = syntheticMenuTree(500, 20, new Random(1234));
+		final MenuTreeSearchIndex index = MenuTreeSearchIndex.of(menuTree.getRootNode());
+
+		// each matching node is a candidate
+		final int matchesCount = index.getMatchingNodeIds("4711").size();
+		assertThat(index.countCandidates("4711")).isBetween(matchesCount, 100);
+
+		assertThat(index.countCandidates("auftrag 4711")).isLessThanOrEqualTo(index.countCandidates("4711"));
+		assertThat(index.countCandidates("not existing")).isZero();
+
+		// too short to be looked up in index
+		assertThat(index.countCandidates("12")).isEqualTo(500 + 500 * 20);
+	}
+}
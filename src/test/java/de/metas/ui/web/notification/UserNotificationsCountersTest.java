@@ -0,0 +1,182 @@
+package de.metas.ui.web.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.notification.UserNotificationsCounters.Counts;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class UserNotificationsCountersTest
+{
+	private AtomicInteger loadsCount;
+	private Counts countsInDB;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		loadsCount = new AtomicInteger();
+		countsInDB = Counts.of(5, 10);
+	}
+
+	private UserNotificationsCounters newCounters(final Duration reconcileInterval)
+	{
+		return UserNotificationsCounters.builder()
+				.countsLoader(() -> {
+					loadsCount.incrementAndGet();
+					return countsInDB;
+				})
+				.reconcileInterval(reconcileInterval)
+				.build();
+	}
+
+	@Test
+	public void countsAreLoadedOnlyOnce()
+	{
+		final UserNotificationsCounters counters = newCounters(Duration.ofHours(1));
+
+		assertThat(counters.getCounts()).isEqualTo(Counts.of(5, 10));
+		assertThat(counters.onAdded(false)).isEqualTo(Counts.of(6, 11));
+		assertThat(counters.onAdded(true)).isEqualTo(Counts.of(6, 12));
+		assertThat(counters.onMarkedAsRead()).isEqualTo(Counts.of(5, 12));
+		assertThat(counters.getUnreadCount()).isEqualTo(5);
+
+		assertThat(loadsCount).hasValue(1);
+	}
+
+	@Test
+	public void changeIsNotCountedTwiceWhenCountsAreLoaded()
+	{
+		final UserNotificationsCounters counters = newCounters(Duration.ofHours(1));
+
+		// the loaded counts already include the added notification
+		countsInDB = Counts.of(6, 11);
+		assertThat(counters.onAdded(false)).isEqualTo(Counts.of(6, 11));
+		assertThat(loadsCount).hasValue(1);
+	}
+
+	@Test
+	public void countsAreReconciledWithDB()
+	{
+		final UserNotificationsCounters counters = newCounters(Duration.ZERO);
+		assertThat(counters.onAdded(false)).isEqualTo(Counts.of(5, 10));
+
+		// changed bypassing the counters
+		countsInDB = Counts.of(1, 2);
+
+		assertThat(counters.getCounts()).isEqualTo(Counts.of(1, 2));
+		assertThat(loadsCount).hasValue(2);
+	}
+
+	@Test
+	public void markAllAsRead_and_deleteAll()
+	{
+		final UserNotificationsCounters counters = newCounters(Duration.ofHours(1));
+		counters.getCounts();
+
+		counters.onAllMarkedAsRead();
+		assertThat(counters.getCounts()).isEqualTo(Counts.of(0, 10));
+
+		counters.onAllDeleted();
+		assertThat(counters.getCounts()).isEqualTo(Counts.ZERO);
+
+		assertThat(loadsCount).hasValue(1);
+	}
+
+	@Test
+	public void countsAreReloadedAfterDelete()
+	{
+		final UserNotificationsCounters counters = newCounters(Duration.ofHours(1));
+		counters.getCounts();
+
+		countsInDB = Counts.of(4, 9);
+		counters.onDeleted();
+
+		assertThat(counters.getCounts()).isEqualTo(Counts.of(4, 9));
+		assertThat(loadsCount).hasValue(2);
+	}
+
+	@Test
+	public void countersAreNeverNegative()
+	{
+		final UserNotificationsCounters counters = newCounters(Duration.ofHours(1));
+		counters.setCounts(Counts.ZERO);
+
+		assertThat(counters.onMarkedAsRead()).isEqualTo(Counts.ZERO);
+	}
+
+	@Test
+	public void concurrentAddAndRead() throws Exception
+	{
+		final UserNotificationsCounters counters = newCounters(Duration.ofHours(1));
+		counters.getCounts();
+
+		final int threadsCount = 8;
+		final int notificationsPerThread = 10000;
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+		try
+		{
+			final CountDownLatch startLatch = new CountDownLatch(1);
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threadsCount; i++)
+			{
+				futures.add(executor.submit(() -> {
+					startLatch.await();
+					for (int j = 0; j < notificationsPerThread; j++)
+					{
+						counters.onAdded(false);
+						counters.getUnreadCount();
+						counters.onMarkedAsRead();
+					}
+					return null;
+				}));
+			}
+
+			startLatch.countDown();
+			for (final Future<?> future : futures)
+			{
+				future.get(30, TimeUnit.SECONDS);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertThat(counters.getCounts()).isEqualTo(Counts.of(5, 10 + threadsCount * notificationsPerThread));
+		assertThat(loadsCount).hasValue(1);
+	}
+}
@@ -0,0 +1,182 @@
+package de.metas.ui.web.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.notification.INotificationRepository;
+import de.metas.notification.UserNotification;
+import de.metas.notification.UserNotificationsList;
+import de.metas.ui.web.websocket.WebsocketSender;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class UserNotificationsQueueTest
+{
+	private static final UserId userId = UserId.ofRepoId(1234);
+
+	private INotificationRepository notificationsRepo;
+	private UserNotificationsQueue queue;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		notificationsRepo = Mockito.mock(INotificationRepository.class);
+		queue = UserNotificationsQueue.builder()
+				.userId(userId)
+				.jsonOptions(JSONOptions.builder().adLanguage("de_DE").build())
+				.notificationsRepo(notificationsRepo)
+				.websocketSender(Mockito.mock(WebsocketSender.class))
+				.build();
+	}
+
+	/**
+	 * Sets up the given number of unread notifications in the repository (newest first)
+	 */
+	private void givenUnreadNotifications(final int count)
+	{
+		final ImmutableList<UserNotification> notifications = IntStream.rangeClosed(1, count)
+				.map(i -> count - i + 1)
+				.mapToObj(id -> UserNotification.builder()
+						.id(id)
+						.recipientUserId(userId.getRepoId())
+						.read(false)
+						.build())
+				.collect(ImmutableList.toImmutableList());
+
+		Mockito.when(notificationsRepo.getByUserId(Mockito.eq(userId), Mockito.anyInt()))
+				.thenAnswer(invocation -> {
+					final int limit = invocation.getArgument(1);
+					return limit > 0 ? notifications.subList(0, Math.min(limit, notifications.size())) : notifications;
+				});
+		Mockito.when(notificationsRepo.getTotalCountByUserId(userId)).thenReturn(count);
+		Mockito.when(notificationsRepo.getUnreadCountByUserId(userId)).thenReturn(count);
+	}
+
+	private static List<Integer> extractIds(final UserNotificationsList notifications)
+	{
+		return notifications.getNotifications()
+				.stream()
+				.map(UserNotification::getId)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void getNotificationsAsList_moreNotificationsThanLimit()
+	{
+		givenUnreadNotifications(5);
+
+		final UserNotificationsList notifications = queue.getNotificationsAsList(3);
+
+		assertThat(extractIds(notifications)).containsExactly(5, 4, 3);
+		assertThat(notifications.getTotalCount()).isEqualTo(5);
+		assertThat(notifications.getTotalUnreadCount()).isEqualTo(5);
+		assertThat(queue.getUnreadCount()).isEqualTo(5);
+	}
+
+	@Test
+	public void getNotificationsAsList_exactlyLimit()
+	{
+		givenUnreadNotifications(3);
+
+		final UserNotificationsList notifications = queue.getNotificationsAsList(3);
+
+		assertThat(extractIds(notifications)).containsExactly(3, 2, 1);
+		assertThat(notifications.getTotalCount()).isEqualTo(3);
+		assertThat(notifications.getTotalUnreadCount()).isEqualTo(3);
+		Mockito.verify(notificationsRepo, Mockito.never()).getTotalCountByUserId(userId);
+	}
+
+	@Test
+	public void getNotificationsAsList_noLimit()
+	{
+		givenUnreadNotifications(5);
+
+		final UserNotificationsList notifications = queue.getNotificationsAsList(0);
+
+		assertThat(extractIds(notifications)).containsExactly(5, 4, 3, 2, 1);
+		assertThat(notifications.getTotalCount()).isEqualTo(5);
+		Mockito.verify(notificationsRepo, Mockito.never()).getTotalCountByUserId(userId);
+	}
+
+	private static List<Integer> extractIds(final UserNotificationsPage page)
+	{
+		return page.getNotifications()
+				.stream()
+				.map(UserNotification::getId)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void getNotificationsPage()
+	{
+		givenUnreadNotifications(5);
+
+		final UserNotificationsPage page1 = queue.getNotificationsPage(0, 2);
+		assertThat(extractIds(page1)).containsExactly(5, 4);
+		assertThat(page1.isHasMorePages()).isTrue();
+		assertThat(page1.getTotalCount()).isEqualTo(5);
+
+		final UserNotificationsPage page3 = queue.getNotificationsPage(4, 2);
+		assertThat(extractIds(page3)).containsExactly(1);
+		assertThat(page3.isHasMorePages()).isFalse();
+
+		final UserNotificationsPage afterLastPage = queue.getNotificationsPage(10, 2);
+		assertThat(afterLastPage.getNotifications()).isEmpty();
+		assertThat(afterLastPage.isHasMorePages()).isFalse();
+	}
+
+	@Test
+	public void getNotificationsPage_pageSizeIsCapped()
+	{
+		givenUnreadNotifications(UserNotificationsQueue.MAX_PAGE_SIZE + 10);
+
+		final UserNotificationsPage page = queue.getNotificationsPage(0, Integer.MAX_VALUE);
+
+		assertThat(page.getNotifications()).hasSize(UserNotificationsQueue.MAX_PAGE_SIZE);
+		assertThat(page.isHasMorePages()).isTrue();
+	}
+
+	@Test
+	public void getNotificationsPage_invalidPage()
+	{
+		assertThatThrownBy(() -> queue.getNotificationsPage(0, 0)).isInstanceOf(InvalidNotificationsPageException.class);
+		assertThatThrownBy(() -> queue.getNotificationsPage(0, -1)).isInstanceOf(InvalidNotificationsPageException.class);
+		assertThatThrownBy(() -> queue.getNotificationsPage(-1, 10)).isInstanceOf(InvalidNotificationsPageException.class);
+	}
+}
@@ -0,0 +1,112 @@
+package de.metas.ui.web.payment_allocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.currency.Amount;
+import de.metas.currency.CurrencyCode;
+import de.metas.i18n.TranslatableStrings;
+import de.metas.invoice.InvoiceId;
+import de.metas.lang.SOTrx;
+import de.metas.organization.ClientAndOrgId;
+import de.metas.organization.OrgId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+
+public class InvoiceRowsTest
+{
+	private final ZonedDateTime evaluationDate = ZonedDateTime.of(2020, 4, 25, 10, 0, 0, 0, ZoneId.of("Europe/Berlin"));
+	private PaymentAndInvoiceRowsRepo repository;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		repository = Mockito.mock(PaymentAndInvoiceRowsRepo.class);
+	}
+
+	private static InvoiceRow invoiceRow(final int invoiceRepoId, final int openAmt)
+	{
+		return InvoiceRow.builder()
+				.invoiceId(InvoiceId.ofRepoId(invoiceRepoId))
+				.clientAndOrgId(ClientAndOrgId.ofClientAndOrg(ClientId.METASFRESH, OrgId.ANY))
+				.docTypeName(TranslatableStrings.anyLanguage("invoice doc type"))
+				.documentNo("invoiceNo_" + invoiceRepoId)
+				.dateInvoiced(LocalDate.of(2020, Month.APRIL, 1))
+				.bpartner(IntegerLookupValue.of(1, "BPartner"))
+				.soTrx(SOTrx.SALES)
+				.creditMemo(false)
+				.grandTotal(Amount.of(100, CurrencyCode.EUR))
+				.openAmt(Amount.of(openAmt, CurrencyCode.EUR))
+				.discountAmt(Amount.zero(CurrencyCode.EUR))
+				.build();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void onlyTheChangedRowsAreRequeried()
+	{
+		final InvoiceRows rows = InvoiceRows.builder()
+				.repository(repository)
+				.initialRows(ImmutableList.of(invoiceRow(1, 100), invoiceRow(2, 100), invoiceRow(3, 100)))
+				.evaluationDate(evaluationDate)
+				.build();
+
+		final ImmutableList<InvoiceRow> rowsInRepository = ImmutableList.of(invoiceRow(1, 10), invoiceRow(2, 20), invoiceRow(3, 30));
+		Mockito.when(repository.getInvoiceRowsListByInvoiceId(any(), any()))
+				.thenAnswer(invocation -> {
+					final Collection<InvoiceId> invoiceIds = (Collection<InvoiceId>)invocation.getArgument(0);
+					return rowsInRepository.stream()
+							.filter(row -> invoiceIds.contains(row.getInvoiceId()))
+							.collect(ImmutableList.toImmutableList());
+				});
+
+		rows.invalidate(DocumentIdsSelection.of(ImmutableList.of(
+				InvoiceRow.convertInvoiceIdToDocumentId(InvoiceId.ofRepoId(1)),
+				InvoiceRow.convertInvoiceIdToDocumentId(InvoiceId.ofRepoId(3)))));
+
+		Mockito.verify(repository).getInvoiceRowsListByInvoiceId(ImmutableSet.of(InvoiceId.ofRepoId(1), InvoiceId.ofRepoId(3)), evaluationDate);
+		Mockito.verifyNoMoreInteractions(repository);
+
+		final Map<InvoiceId, Amount> openAmts = rows.getAllRows()
+				.stream()
+				.collect(ImmutableMap.toImmutableMap(InvoiceRow::getInvoiceId, InvoiceRow::getOpenAmt));
+		assertThat(openAmts).containsOnly(
+				entry(InvoiceId.ofRepoId(1), Amount.of(10, CurrencyCode.EUR)),
+				entry(InvoiceId.ofRepoId(2), Amount.of(100, CurrencyCode.EUR)),
+				entry(InvoiceId.ofRepoId(3), Amount.of(30, CurrencyCode.EUR)));
+	}
+}
@@ -0,0 +1,142 @@
+package de.metas.ui.web.payment_allocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.currency.Amount;
+import de.metas.currency.CurrencyCode;
+import de.metas.organization.ClientAndOrgId;
+import de.metas.organization.OrgId;
+import de.metas.payment.PaymentDirection;
+import de.metas.payment.PaymentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+
+public class PaymentRowsTest
+{
+	private final ZonedDateTime evaluationDate = ZonedDateTime.of(2020, 4, 25, 10, 0, 0, 0, ZoneId.of("Europe/Berlin"));
+	private PaymentAndInvoiceRowsRepo repository;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		repository = Mockito.mock(PaymentAndInvoiceRowsRepo.class);
+	}
+
+	private static PaymentRow paymentRow(final int paymentRepoId, final int openAmt)
+	{
+		return PaymentRow.builder()
+				.paymentId(PaymentId.ofRepoId(paymentRepoId))
+				.clientAndOrgId(ClientAndOrgId.ofClientAndOrg(ClientId.METASFRESH, OrgId.ANY))
+				.documentNo("paymentNo_" + paymentRepoId)
+				.dateTrx(LocalDate.of(2020, Month.APRIL, 25))
+				.bpartner(IntegerLookupValue.of(1, "BPartner"))
+				.payAmt(Amount.of(100, CurrencyCode.EUR))
+				.openAmt(Amount.of(openAmt, CurrencyCode.EUR))
+				.paymentDirection(PaymentDirection.INBOUND)
+				.build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void givenRepositoryReturns(final PaymentRow... rows)
+	{
+		Mockito.when(repository.getPaymentRowsListByPaymentId(any(), any()))
+				.thenAnswer(invocation -> {
+					final Collection<PaymentId> paymentIds = (Collection<PaymentId>)invocation.getArgument(0);
+					return ImmutableList.copyOf(rows)
+							.stream()
+							.filter(row -> paymentIds.contains(row.getPaymentId()))
+							.collect(ImmutableList.toImmutableList());
+				});
+	}
+
+	@Test
+	public void onlyTheChangedRowsAreRequeried()
+	{
+		final PaymentRows rows = PaymentRows.builder()
+				.repository(repository)
+				.initialRows(ImmutableList.of(paymentRow(1, 100), paymentRow(2, 100), paymentRow(3, 100)))
+				.evaluationDate(evaluationDate)
+				.build();
+
+		givenRepositoryReturns(paymentRow(2, 40));
+		rows.invalidate(DocumentIdsSelection.of(ImmutableList.of(PaymentRow.convertPaymentIdToDocumentId(PaymentId.ofRepoId(2)))));
+
+		Mockito.verify(repository).getPaymentRowsListByPaymentId(ImmutableSet.of(PaymentId.ofRepoId(2)), evaluationDate);
+		Mockito.verifyNoMoreInteractions(repository);
+
+		final Map<PaymentId, Amount> openAmts = rows.getAllRows()
+				.stream()
+				.collect(ImmutableMap.toImmutableMap(PaymentRow::getPaymentId, PaymentRow::getOpenAmt));
+		assertThat(openAmts).containsOnly(
+				entry(PaymentId.ofRepoId(1), Amount.of(100, CurrencyCode.EUR)),
+				entry(PaymentId.ofRepoId(2), Amount.of(40, CurrencyCode.EUR)),
+				entry(PaymentId.ofRepoId(3), Amount.of(100, CurrencyCode.EUR)));
+	}
+
+	@Test
+	public void rowNoLongerFoundIsRemoved()
+	{
+		final PaymentRows rows = PaymentRows.builder()
+				.repository(repository)
+				.initialRows(ImmutableList.of(paymentRow(1, 100), paymentRow(2, 100)))
+				.evaluationDate(evaluationDate)
+				.build();
+
+		givenRepositoryReturns();
+		rows.reloadRows(ImmutableSet.of(PaymentRow.convertPaymentIdToDocumentId(PaymentId.ofRepoId(1))));
+
+		Mockito.verify(repository).getPaymentRowsListByPaymentId(ImmutableSet.of(PaymentId.ofRepoId(1)), evaluationDate);
+		assertThat(rows.getAllRows())
+				.extracting(PaymentRow::getPaymentId)
+				.containsExactly(PaymentId.ofRepoId(2));
+	}
+
+	@Test
+	public void notRelevantRowsAreNotQueried()
+	{
+		final PaymentRows rows = PaymentRows.builder()
+				.repository(repository)
+				.initialRows(ImmutableList.of(paymentRow(1, 100)))
+				.evaluationDate(evaluationDate)
+				.build();
+
+		rows.reloadRows(ImmutableSet.of(PaymentRow.convertPaymentIdToDocumentId(PaymentId.ofRepoId(99))));
+
+		Mockito.verify(repository, Mockito.never()).getPaymentRowsListByPaymentId(any(), any());
+	}
+}
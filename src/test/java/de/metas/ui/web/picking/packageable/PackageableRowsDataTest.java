@@ -0,0 +1,137 @@
+package de.metas.ui.web.picking.packageable;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.compiere.model.I_C_UOM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.quantity.Quantity;
+import de.metas.ui.web.picking.PickingConstants;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+
+public class PackageableRowsDataTest
+{
+	private final ViewId viewId = ViewId.random(PickingConstants.WINDOWID_PickingView);
+	private I_C_UOM uom;
+
+	/** qtyOrdered by shipment schedule, as currently found in database */
+	private final HashMap<ShipmentScheduleId, Integer> qtyOrderedInDB = new HashMap<>();
+	private final List<Set<ShipmentScheduleId>> loadRequests = new ArrayList<>();
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		uom = newInstance(I_C_UOM.class);
+		saveRecord(uom);
+	}
+
+	private static ShipmentScheduleId shipmentScheduleId(final int repoId)
+	{
+		return ShipmentScheduleId.ofRepoId(repoId);
+	}
+
+	private List<PackageableRow> loadRows(final Set<ShipmentScheduleId> shipmentScheduleIds)
+	{
+		loadRequests.add(ImmutableSet.copyOf(shipmentScheduleIds));
+
+		return shipmentScheduleIds.stream()
+				.filter(qtyOrderedInDB::containsKey)
+				.map(shipmentScheduleId -> PackageableRow.builder()
+						.shipmentScheduleId(shipmentScheduleId)
+						.salesOrderLineId(Optional.empty())
+						.viewId(viewId)
+						.qtyOrdered(Quantity.of(qtyOrderedInDB.get(shipmentScheduleId), uom))
+						.qtyPicked(Quantity.of(0, uom))
+						.build())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private PackageableRowsData createRowsData(final int... shipmentScheduleRepoIds)
+	{
+		final ImmutableSet.Builder<ShipmentScheduleId> shipmentScheduleIds = ImmutableSet.builder();
+		for (final int repoId : shipmentScheduleRepoIds)
+		{
+			qtyOrderedInDB.put(shipmentScheduleId(repoId), 10);
+			shipmentScheduleIds.add(shipmentScheduleId(repoId));
+		}
+
+		final PackageableRowsData rowsData = PackageableRowsData.of(shipmentScheduleIds.build(), this::loadRows);
+		loadRequests.clear();
+		return rowsData;
+	}
+
+	private int getQtyOrdered(final PackageableRowsData rowsData, final int shipmentScheduleRepoId)
+	{
+		final PackageableRow row = rowsData.getById(PackageableRow.createRowIdFromShipmentScheduleId(shipmentScheduleId(shipmentScheduleRepoId)));
+		return row.getQtyOrderedWithoutPicked().toBigDecimal().intValueExact();
+	}
+
+	@Test
+	public void onlyTheChangedRowsAreRequeried()
+	{
+		final PackageableRowsData rowsData = createRowsData(1, 2, 3);
+
+		qtyOrderedInDB.put(shipmentScheduleId(2), 20);
+		final DocumentIdsSelection rowIdsToInvalidate = rowsData.getDocumentIdsToInvalidate(TableRecordReferenceSet.of(ImmutableSet.of(
+				TableRecordReference.of(I_M_ShipmentSchedule.Table_Name, 2),
+				TableRecordReference.of(I_M_ShipmentSchedule.Table_Name, 99)))); // 99 is not in our view
+		rowsData.invalidate(rowIdsToInvalidate);
+
+		assertThat(loadRequests).containsExactly(ImmutableSet.of(shipmentScheduleId(2)));
+		assertThat(getQtyOrdered(rowsData, 1)).isEqualTo(10);
+		assertThat(getQtyOrdered(rowsData, 2)).isEqualTo(20);
+		assertThat(getQtyOrdered(rowsData, 3)).isEqualTo(10);
+	}
+
+	@Test
+	public void vanishedRowComesBack()
+	{
+		final PackageableRowsData rowsData = createRowsData(1, 2);
+
+		qtyOrderedInDB.remove(shipmentScheduleId(1));
+		rowsData.invalidate(rowsData.getDocumentIdsToInvalidate(TableRecordReferenceSet.of(I_M_ShipmentSchedule.Table_Name, 1)));
+		assertThat(rowsData.size()).isEqualTo(1);
+
+		qtyOrderedInDB.put(shipmentScheduleId(1), 15);
+		rowsData.invalidate(rowsData.getDocumentIdsToInvalidate(TableRecordReferenceSet.of(I_M_ShipmentSchedule.Table_Name, 1)));
+		assertThat(rowsData.size()).isEqualTo(2);
+		assertThat(getQtyOrdered(rowsData, 1)).isEqualTo(15);
+
+		assertThat(loadRequests).containsExactly(ImmutableSet.of(shipmentScheduleId(1)), ImmutableSet.of(shipmentScheduleId(1)));
+	}
+}
@@ -5,6 +5,8 @@ import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.compiere.model.I_C_UOM;
@@ -26,6 +28,7 @@ import de.metas.picking.api.PickingSlotId;
 import de.metas.picking.model.I_M_PickingSlot;
 import de.metas.quantity.Quantity;
 import de.metas.ui.web.handlingunits.HUEditorRow;
+import de.metas.ui.web.handlingunits.HUEditorRowFilter;
 import de.metas.ui.web.handlingunits.HUEditorRowId;
 import de.metas.ui.web.handlingunits.HUEditorRowType;
 import de.metas.ui.web.handlingunits.HUEditorViewRepository;
@@ -202,4 +205,71 @@ public class PickingHUsRepositoryTests
 		assertThat(sourceHUs).isEmpty();
 	}
 
+	/** Counts the HU loading round trips */
+	private static class CountingHUEditorViewRepository extends MockedHUEditorViewRepository
+	{
+		private final AtomicInteger retrieveHUEditorRowsCount = new AtomicInteger();
+		private final AtomicInteger retrieveForHUIdCount = new AtomicInteger();
+
+		@Override
+		public List<HUEditorRow> retrieveHUEditorRows(final Set<HuId> huIds, final HUEditorRowFilter filter)
+		{
+			retrieveHUEditorRowsCount.incrementAndGet();
+			return super.retrieveHUEditorRows(huIds, filter);
+		}
+
+		@Override
+		public HUEditorRow retrieveForHUId(final HuId huId)
+		{
+			retrieveForHUIdCount.incrementAndGet();
+			return super.retrieveForHUId(huId);
+		}
+	}
+
+	@Test
+	public void test_retrievePickedHUsIndexedByPickingSlotId_loadsAllHUsInOneGo()
+	{
+		final I_C_UOM uom = createUOM();
+		final PickingCandidateRepository pickingCandidatesRepo = new PickingCandidateRepository();
+		final CountingHUEditorViewRepository huEditorViewRepository = new CountingHUEditorViewRepository();
+
+		final int pickingSlotsCount = 200;
+		for (int i = 1; i <= pickingSlotsCount; i++)
+		{
+			final PickingSlotId pickingSlotId = createPickingSlot(RACK_SYSTEM_PICKINGSLOT_NO);
+			final HuId huId = createHU();
+			huEditorViewRepository.addRow(HUEditorRow
+					.builder(WindowId.of(423))
+					.setRowId(HUEditorRowId.ofTopLevelHU(huId))
+					.setType(HUEditorRowType.LU)
+					.setTopLevel(true)
+					.build());
+
+			// two picking candidates for the same HU => only the first one counts
+			for (int j = 1; j <= 2; j++)
+			{
+				pickingCandidatesRepo.save(PickingCandidate.builder()
+						.processingStatus(PickingCandidateStatus.Draft)
+						.qtyPicked(Quantity.zero(uom))
+						.shipmentScheduleId(M_SHIPMENT_SCHEDULE_ID)
+						.pickingSlotId(pickingSlotId)
+						.pickFrom(PickFrom.ofHuId(huId))
+						.build());
+			}
+		}
+
+		final PickingHURowsRepository pickingHUsRepository = new PickingHURowsRepository(
+				() -> huEditorViewRepository,
+				pickingCandidatesRepo);
+		final ListMultimap<PickingSlotId, PickedHUEditorRow> result = pickingHUsRepository.retrievePickedHUsIndexedByPickingSlotId(
+				PickingCandidatesQuery.builder()
+						.shipmentScheduleId(M_SHIPMENT_SCHEDULE_ID)
+						.onlyNotClosedOrNotRackSystem(true)
+						.build());
+
+		assertThat(result.keySet()).hasSize(pickingSlotsCount);
+		assertThat(result.values()).hasSize(pickingSlotsCount);
+		assertThat(huEditorViewRepository.retrieveHUEditorRowsCount).hasValue(1);
+		assertThat(huEditorViewRepository.retrieveForHUIdCount).hasValue(0);
+	}
 }
@@ -0,0 +1,181 @@
+package de.metas.ui.web.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.process.ProcessPreconditionsResolution;
+import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
+import de.metas.ui.web.process.descriptor.WebuiRelatedProcessDescriptor;
+import de.metas.ui.web.view.IView;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.ViewRowIdsSelection;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewActionsPreconditionsEvaluatorTest
+{
+	private static final Duration TIMEOUT = Duration.ofMillis(200);
+
+	private ExecutorService executor;
+	private ViewActionsPreconditionsEvaluator evaluator;
+	private IView view;
+
+	private final CountDownLatch slowPreconditionsLatch = new CountDownLatch(1);
+	private final AtomicInteger evaluationsCount = new AtomicInteger();
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		executor = Executors.newFixedThreadPool(8);
+		evaluator = new ViewActionsPreconditionsEvaluator(executor, TIMEOUT, Duration.ofMinutes(1));
+
+		view = Mockito.mock(IView.class);
+		Mockito.when(view.getViewId()).thenReturn(ViewId.random(WindowId.of(123)));
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		slowPreconditionsLatch.countDown();
+		executor.shutdownNow();
+	}
+
+	private ViewAsPreconditionsContext preconditionsContext(final String selectedIds)
+	{
+		return ViewAsPreconditionsContext.builder()
+				.view(view)
+				.viewRowIdsSelection(ViewRowIdsSelection.of(view.getViewId(), DocumentIdsSelection.ofCommaSeparatedString(selectedIds)))
+				.displayPlace(DisplayPlace.ViewQuickActions)
+				.build();
+	}
+
+	private WebuiRelatedProcessDescriptor process(final int adProcessId, final Supplier<ProcessPreconditionsResolution> preconditionsResolutionSupplier)
+	{
+		return WebuiRelatedProcessDescriptor.builder()
+				.processId(ProcessId.ofAD_Process_ID(adProcessId))
+				.displayPlace(DisplayPlace.ViewQuickActions)
+				.preconditionsResolutionSupplier(() -> {
+					evaluationsCount.incrementAndGet();
+					return preconditionsResolutionSupplier.get();
+				})
+				.build();
+	}
+
+	private WebuiRelatedProcessDescriptor fastProcess(final int adProcessId)
+	{
+		return process(adProcessId, ProcessPreconditionsResolution::accept);
+	}
+
+	private WebuiRelatedProcessDescriptor slowProcess(final int adProcessId)
+	{
+		return process(adProcessId, () -> {
+			try
+			{
+				slowPreconditionsLatch.await(10, TimeUnit.SECONDS);
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return ProcessPreconditionsResolution.accept();
+		});
+	}
+
+	private List<WebuiRelatedProcessDescriptor> processes()
+	{
+		return ImmutableList.of(
+				fastProcess(1),
+				slowProcess(2),
+				fastProcess(3),
+				slowProcess(4),
+				fastProcess(5));
+	}
+
+	private void waitUntilSlowPreconditionsAreEvaluated() throws InterruptedException
+	{
+		slowPreconditionsLatch.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void slowPreconditionsAreNotBlockingTheResponse()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final ImmutableList<WebuiRelatedProcessDescriptor> result = evaluator.evaluate(preconditionsContext("1,2,3"), processes());
+		stopwatch.stop();
+
+		assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS)).isLessThan(1000);
+		assertThat(result).extracting(descriptor -> descriptor.getProcessId().getProcessIdAsInt()).containsExactly(1, 2, 3, 4, 5);
+		assertThat(result).extracting(WebuiRelatedProcessDescriptor::isEnabled).containsExactly(true, false, true, false, true);
+
+		// not yet evaluated processes shall be displayed as disabled, and not hidden
+		assertThat(result.get(1).isInternal()).isFalse();
+		assertThat(result.get(3).isInternal()).isFalse();
+	}
+
+	@Test
+	public void resultsAreRemembered() throws InterruptedException
+	{
+		evaluator.evaluate(preconditionsContext("1,2,3"), processes());
+		waitUntilSlowPreconditionsAreEvaluated();
+		assertThat(evaluationsCount).hasValue(5);
+
+		final ImmutableList<WebuiRelatedProcessDescriptor> result = evaluator.evaluate(preconditionsContext("1,2,3"), processes());
+		assertThat(evaluationsCount).hasValue(5);
+		assertThat(result).extracting(WebuiRelatedProcessDescriptor::isEnabled).containsExactly(true, true, true, true, true);
+	}
+
+	@Test
+	public void otherSelectionIsEvaluatedAgain()
+	{
+		slowPreconditionsLatch.countDown();
+
+		evaluator.evaluate(preconditionsContext("1,2,3"), processes());
+		assertThat(evaluationsCount).hasValue(5);
+
+		evaluator.evaluate(preconditionsContext("1,2"), processes());
+		assertThat(evaluationsCount).hasValue(10);
+	}
+}
@@ -0,0 +1,133 @@
+package de.metas.ui.web.shipment_candidates_editor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.adempiere.mm.attributes.AttributeSetInstanceId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+
+public class ShipmentCandidateRowsTest
+{
+	/** rows as currently found in database */
+	private final HashMap<ShipmentScheduleId, ShipmentCandidateRow> rowsInDB = new HashMap<>();
+	private final List<Set<ShipmentScheduleId>> loadRequests = new ArrayList<>();
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static ShipmentCandidateRow row(final int shipmentScheduleRepoId, final int qtyToDeliverInitial, final int qtyToDeliver)
+	{
+		return ShipmentCandidateRow.builder()
+				.shipmentScheduleId(ShipmentScheduleId.ofRepoId(shipmentScheduleRepoId))
+				.preparationDate(ZonedDateTime.of(2020, 4, 25, 10, 0, 0, 0, ZoneId.of("Europe/Berlin")))
+				.customer(IntegerLookupValue.of(1, "customer"))
+				.warehouse(IntegerLookupValue.of(1, "warehouse"))
+				.product(IntegerLookupValue.of(1, "product"))
+				.packingInfo(PackingInfo.NONE)
+				.qtyOrdered(BigDecimal.valueOf(100))
+				.qtyToDeliverUserEnteredInitial(BigDecimal.valueOf(qtyToDeliverInitial))
+				.qtyToDeliverUserEntered(BigDecimal.valueOf(qtyToDeliver))
+				.asiIdInitial(AttributeSetInstanceId.NONE)
+				.asi(IntegerLookupValue.of(AttributeSetInstanceId.NONE.getRepoId(), ""))
+				.processed(false)
+				.build();
+	}
+
+	private List<ShipmentCandidateRow> loadRows(final Set<ShipmentScheduleId> shipmentScheduleIds)
+	{
+		loadRequests.add(ImmutableSet.copyOf(shipmentScheduleIds));
+
+		return shipmentScheduleIds.stream()
+				.filter(rowsInDB::containsKey)
+				.map(rowsInDB::get)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private ShipmentCandidateRows createRows(final ShipmentCandidateRow... rows)
+	{
+		return ShipmentCandidateRows.builder()
+				.rows(ImmutableList.copyOf(rows))
+				.rowsLoader(this::loadRows)
+				.build();
+	}
+
+	private static DocumentIdsSelection getDocumentIdsToInvalidate(final ShipmentCandidateRows rows, final int... shipmentScheduleRepoIds)
+	{
+		final ImmutableSet.Builder<TableRecordReference> recordRefs = ImmutableSet.builder();
+		for (final int repoId : shipmentScheduleRepoIds)
+		{
+			recordRefs.add(TableRecordReference.of(I_M_ShipmentSchedule.Table_Name, repoId));
+		}
+		return rows.getDocumentIdsToInvalidate(TableRecordReferenceSet.of(recordRefs.build()));
+	}
+
+	@Test
+	public void onlyTheChangedRowsAreRequeried()
+	{
+		final ShipmentCandidateRows rows = createRows(row(1, 10, 10), row(2, 10, 10), row(3, 10, 10));
+
+		final ShipmentCandidateRow row2Changed = row(2, 5, 5);
+		rowsInDB.put(ShipmentScheduleId.ofRepoId(2), row2Changed);
+
+		final DocumentIdsSelection rowIdsToInvalidate = getDocumentIdsToInvalidate(rows, 2, 99); // 99 is not in our view
+		assertThat(rowIdsToInvalidate.toSet()).containsExactly(DocumentId.of(2));
+		rows.invalidate(rowIdsToInvalidate);
+
+		assertThat(loadRequests).containsExactly(ImmutableSet.of(ShipmentScheduleId.ofRepoId(2)));
+		assertThat(rows.getById(DocumentId.of(2))).isSameAs(row2Changed);
+	}
+
+	@Test
+	public void rowsChangedByUserAreNotOverwritten()
+	{
+		final ShipmentCandidateRow row1ChangedByUser = row(1, 10, 7);
+		final ShipmentCandidateRows rows = createRows(row1ChangedByUser, row(2, 10, 10));
+
+		rowsInDB.put(ShipmentScheduleId.ofRepoId(1), row(1, 5, 5));
+		final ShipmentCandidateRow row2Changed = row(2, 5, 5);
+		rowsInDB.put(ShipmentScheduleId.ofRepoId(2), row2Changed);
+
+		rows.invalidateAll();
+
+		assertThat(rows.getById(DocumentId.of(1))).isSameAs(row1ChangedByUser);
+		assertThat(rows.getById(DocumentId.of(2))).isSameAs(row2Changed);
+	}
+}
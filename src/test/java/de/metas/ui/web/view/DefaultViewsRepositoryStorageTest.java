@@ -0,0 +1,146 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DefaultViewsRepositoryStorageTest
+{
+	private static final int VIEWS_COUNT = 1000;
+	private static final int TABLES_COUNT = 100;
+
+	private DefaultViewsRepositoryStorage storage;
+	private List<IView> views;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		storage = new DefaultViewsRepositoryStorage(60);
+
+		views = new ArrayList<>();
+		for (int i = 0; i < VIEWS_COUNT; i++)
+		{
+			final IView view = createView(ImmutableSet.of(tableName(i % TABLES_COUNT)));
+			storage.put(view);
+			views.add(view);
+		}
+	}
+
+	private static String tableName(final int tableIndex)
+	{
+		return "Test_Table_" + tableIndex;
+	}
+
+	private static IView createView(final Set<String> invalidatingTableNames)
+	{
+		final IView view = Mockito.mock(IView.class);
+		Mockito.when(view.getViewId()).thenReturn(ViewId.random(WindowId.of(123)));
+		Mockito.when(view.getInvalidatingTableNamesOrNull()).thenReturn(invalidatingTableNames);
+		return view;
+	}
+
+	private Set<IView> streamViewsAffectedBy(final String tableName)
+	{
+		final TableRecordReferenceSet recordRefs = TableRecordReferenceSet.of(TableRecordReference.of(tableName, 1));
+		return storage.streamViewsAffectedBy(recordRefs).collect(Collectors.toSet());
+	}
+
+	@Test
+	public void onlyViewsOfTheChangedTableAreReturned()
+	{
+		final Set<IView> affectedViews = streamViewsAffectedBy(tableName(5));
+
+		assertThat(affectedViews).hasSize(VIEWS_COUNT / TABLES_COUNT);
+		assertThat(affectedViews).allMatch(view -> view.getInvalidatingTableNamesOrNull().contains(tableName(5)));
+	}
+
+	@Test
+	public void dispatchDoesNotTouchNotAffectedViews()
+	{
+		streamViewsAffectedBy(tableName(5));
+
+		// the not affected views were only asked for their table names when they were added
+		for (final IView view : views)
+		{
+			Mockito.verify(view, Mockito.times(1)).getInvalidatingTableNamesOrNull();
+		}
+	}
+
+	@Test
+	public void notIndexedTable()
+	{
+		assertThat(streamViewsAffectedBy("Not_Existing_Table")).isEmpty();
+	}
+
+	@Test
+	public void viewsWithoutTableNamesAreAlwaysReturned()
+	{
+		final IView view = createView(null);
+		storage.put(view);
+
+		assertThat(streamViewsAffectedBy("Not_Existing_Table")).containsExactly(view);
+		assertThat(streamViewsAffectedBy(tableName(5))).contains(view).hasSize(VIEWS_COUNT / TABLES_COUNT + 1);
+	}
+
+	@Test
+	public void closedViewsAreNotReturned()
+	{
+		final IView view = views.get(5);
+		Mockito.when(view.isAllowClosingPerUserRequest()).thenReturn(true);
+
+		storage.closeById(view.getViewId(), ViewCloseAction.DONE);
+
+		assertThat(streamViewsAffectedBy(tableName(5)))
+				.doesNotContain(view)
+				.hasSize(VIEWS_COUNT / TABLES_COUNT - 1);
+	}
+
+	@Test
+	public void replacedViewIsReturnedInsteadOfTheOldOne()
+	{
+		final IView oldView = views.get(5);
+		final IView newView = Mockito.mock(IView.class);
+		Mockito.when(newView.getViewId()).thenReturn(oldView.getViewId());
+		Mockito.when(newView.getInvalidatingTableNamesOrNull()).thenReturn(ImmutableSet.of(tableName(6)));
+
+		storage.put(newView);
+
+		assertThat(streamViewsAffectedBy(tableName(5))).doesNotContain(oldView, newView);
+		assertThat(streamViewsAffectedBy(tableName(6))).contains(newView);
+	}
+}
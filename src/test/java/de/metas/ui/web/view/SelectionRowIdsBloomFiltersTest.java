@@ -0,0 +1,97 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.BloomFilter;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class SelectionRowIdsBloomFiltersTest
+{
+	private SelectionRowIdsBloomFilters filters;
+	private AtomicInteger loadsCount;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		filters = new SelectionRowIdsBloomFilters(10, Duration.ofMinutes(1));
+		loadsCount = new AtomicInteger();
+	}
+
+	private Consumer<IntConsumer> loader(final int... rowIds)
+	{
+		return rowIdsConsumer -> {
+			loadsCount.incrementAndGet();
+			for (final int rowId : rowIds)
+			{
+				rowIdsConsumer.accept(rowId);
+			}
+		};
+	}
+
+	@Test
+	public void loadedOnlyOnce()
+	{
+		final BloomFilter<Integer> filter = filters.getOrLoad("sel1", 3, loader(1, 2, 3));
+		assertThat(filter.mightContain(1)).isTrue();
+		assertThat(filter.mightContain(2)).isTrue();
+		assertThat(filter.mightContain(3)).isTrue();
+
+		assertThat(filters.getOrLoad("sel1", 3, loader(1, 2, 3))).isSameAs(filter);
+		assertThat(loadsCount).hasValue(1);
+	}
+
+	@Test
+	public void reloadedAfterInvalidate()
+	{
+		filters.getOrLoad("sel1", 3, loader(1, 2, 3));
+		filters.invalidate(ImmutableSet.of("sel1"));
+
+		final BloomFilter<Integer> filter = filters.getOrLoad("sel1", 4, loader(1, 2, 3, 4));
+		assertThat(filter.mightContain(4)).isTrue();
+		assertThat(loadsCount).hasValue(2);
+	}
+
+	@Test
+	public void invalidatedWhileLoading_notCached()
+	{
+		final BloomFilter<Integer> filter = filters.getOrLoad("sel1", 3, rowIdsConsumer -> {
+			loader(1, 2, 3).accept(rowIdsConsumer);
+			filters.invalidate(ImmutableSet.of("sel1")); // e.g. rows were added meanwhile
+		});
+		assertThat(filter).isNull();
+
+		filters.getOrLoad("sel1", 3, loader(1, 2, 3));
+		assertThat(loadsCount).hasValue(2);
+	}
+}
@@ -0,0 +1,47 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlViewDataRepositoryTest
+{
+	@Test
+	public void extractEstimatedRowsCount() throws Exception
+	{
+		final String explainJson = "[{\"Plan\": {\"Node Type\": \"Seq Scan\", \"Relation Name\": \"c_order\", \"Alias\": \"o\", "
+				+ "\"Startup Cost\": 0.00, \"Total Cost\": 1234.56, \"Plan Rows\": 7890, \"Plan Width\": 4}}]";
+
+		assertThat(SqlViewDataRepository.extractEstimatedRowsCount(explainJson)).isEqualTo(7890);
+	}
+
+	@Test
+	public void extractEstimatedRowsCount_notAvailable() throws Exception
+	{
+		assertThat(SqlViewDataRepository.extractEstimatedRowsCount(null)).isEqualTo(-1);
+		assertThat(SqlViewDataRepository.extractEstimatedRowsCount("[]")).isEqualTo(-1);
+		assertThat(SqlViewDataRepository.extractEstimatedRowsCount("[{\"Plan\": {\"Node Type\": \"Result\"}}]")).isEqualTo(-1);
+	}
+}
@@ -0,0 +1,436 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.document.filter.DocumentFilter;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.DocumentFilterParam;
+import de.metas.ui.web.document.filter.DocumentFilterParam.Operator;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.descriptor.SqlViewBinding;
+import de.metas.ui.web.view.descriptor.SqlViewRowFieldBinding;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.sql.SqlSelectValue;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class SqlViewRowIdsOrderedSelectionFactoryTest
+{
+	private static final String TABLE_NAME = "C_Order";
+	private static final WindowId WINDOW_ID = WindowId.of(143);
+
+	/**
+	 * Records the SQL statements instead of running them.
+	 */
+	private static class TestSelectionFactory extends SqlViewRowIdsOrderedSelectionFactory
+	{
+		private final List<SqlAndParams> executedUpdates = new ArrayList<>();
+		private final int rowsCount;
+		private int[] rowIds = new int[] {};
+		private int rowIdsQueriesCount = 0;
+		private int inMemorySelectionMaxSize = 0;
+
+		TestSelectionFactory(
+				final SqlViewBinding viewBinding,
+				@Nullable final SqlViewSelectionsCache selectionsCache,
+				final int rowsCount)
+		{
+			super(viewBinding, selectionsCache, false);
+			this.rowsCount = rowsCount;
+		}
+
+		@Override
+		int executeUpdate(final SqlAndParams sql)
+		{
+			executedUpdates.add(sql);
+			return rowsCount;
+		}
+
+		@Override
+		int retrieveInt(final SqlAndParams sql)
+		{
+			return rowsCount;
+		}
+
+		@Override
+		int extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
+		{
+			return 0;
+		}
+
+		@Override
+		int getInMemorySelectionMaxSize()
+		{
+			return inMemorySelectionMaxSize;
+		}
+
+		@Override
+		void forEachRowId(final SqlAndParams sqlAndParams, final IntPredicate rowIdConsumer)
+		{
+			rowIdsQueriesCount++;
+			for (final int rowId : rowIds)
+			{
+				if (!rowIdConsumer.test(rowId))
+				{
+					break;
+				}
+			}
+		}
+
+		@Override
+		int retrieveRowsCountAndRowIds(final SqlAndParams sql, final IntConsumer rowIdConsumer)
+		{
+			if (rowIds.length > inMemorySelectionMaxSize)
+			{
+				// the selection was saved by the query
+				executedUpdates.add(sql);
+			}
+			else
+			{
+				Arrays.stream(rowIds).forEach(rowIdConsumer);
+			}
+			return rowIds.length;
+		}
+
+		/** @return how many selections were created by querying the source table */
+		long getSelectionsCreatedFromSourceTableCount()
+		{
+			return executedUpdates.stream().filter(sql -> sql.getSql().contains("\n FROM " + TABLE_NAME + " ")).count();
+		}
+
+		/** @return how many chunks of in memory selections were saved to database */
+		long getInMemorySelectionChunksSavedCount()
+		{
+			return executedUpdates.stream().filter(sql -> sql.getSql().startsWith("INSERT INTO T_WEBUI_ViewSelection") && sql.getSql().contains("\n FROM (VALUES ")).count();
+		}
+
+		/** @return how many selections were created by copying another selection */
+		long getSelectionsCopiedCount()
+		{
+			return executedUpdates.stream().filter(sql -> sql.getSql().contains("\n FROM T_WEBUI_ViewSelection sel")).count();
+		}
+	}
+
+	private SqlViewSelectionsCache selectionsCache;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		selectionsCache = new SqlViewSelectionsCache(Duration.ofMinutes(1));
+	}
+
+	private static SqlViewBinding viewBinding(@Nullable final String sqlWhereClause)
+	{
+		final SqlViewRowFieldBinding keyField = SqlViewRowFieldBinding.builder()
+				.fieldName("C_Order_ID")
+				.widgetType(DocumentFieldWidgetType.Integer)
+				.sqlValueClass(Integer.class)
+				.fieldLoader((rs, adLanguage) -> rs.getInt("C_Order_ID"))
+				.keyColumn(true)
+				.sqlSelectValue(SqlSelectValue.builder()
+						.columnName("C_Order_ID")
+						.columnNameAlias("C_Order_ID")
+						.build())
+				.build();
+
+		final SqlViewBinding.Builder builder = SqlViewBinding.builder()
+				.tableName(TABLE_NAME)
+				.field(keyField)
+				.displayFieldNames("C_Order_ID");
+		if (sqlWhereClause != null)
+		{
+			builder.sqlWhereClause(sqlWhereClause);
+		}
+		return builder.build();
+	}
+
+	private static ViewEvaluationCtx viewEvalCtx()
+	{
+		return ViewEvaluationCtx._builder()
+				.loggedUserId(Optional.of(UserId.ofRepoId(100)))
+				.adLanguage("de_DE")
+				.timeZone(ZoneId.of("Europe/Berlin"))
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.ofRepoId(1000000), UserId.ofRepoId(100), ClientId.ofRepoId(1000000), LocalDate.parse("2020-10-20")))
+				.build();
+	}
+
+	private static ViewRowIdsOrderedSelection createOrderedSelection(final SqlViewRowIdsOrderedSelectionFactory factory)
+	{
+		return createOrderedSelection(factory, DocumentFilterList.EMPTY);
+	}
+
+	private static ViewRowIdsOrderedSelection createOrderedSelection(final SqlViewRowIdsOrderedSelectionFactory factory, final DocumentFilterList filters)
+	{
+		return factory.createOrderedSelection(
+				viewEvalCtx(),
+				ViewId.random(WINDOW_ID),
+				filters,
+				DocumentQueryOrderByList.EMPTY,
+				false, // applySecurityRestrictions
+				SqlDocumentFilterConverterContext.EMPTY);
+	}
+
+	@Test
+	public void identicalSelections_areCreatedOnlyOnce()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), selectionsCache, 10);
+
+		final ViewRowIdsOrderedSelection selection1 = createOrderedSelection(factory);
+		final ViewRowIdsOrderedSelection selection2 = createOrderedSelection(factory);
+		final ViewRowIdsOrderedSelection selection3 = createOrderedSelection(factory);
+
+		assertThat(factory.getSelectionsCreatedFromSourceTableCount()).isEqualTo(1);
+		assertThat(factory.getSelectionsCopiedCount()).isEqualTo(2);
+		assertThat(selection1.getSelectionId()).isNotEqualTo(selection2.getSelectionId());
+		assertThat(selection2.getSize()).isEqualTo(10);
+		assertThat(selection3.getSize()).isEqualTo(10);
+	}
+
+	@Test
+	public void noSelectionsCache_noSharing()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), null, 10);
+
+		createOrderedSelection(factory);
+		createOrderedSelection(factory);
+
+		assertThat(factory.getSelectionsCreatedFromSourceTableCount()).isEqualTo(2);
+		assertThat(factory.getSelectionsCopiedCount()).isZero();
+	}
+
+	@Test
+	public void tableChanged_selectionIsCreatedAgain()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), selectionsCache, 10);
+
+		createOrderedSelection(factory);
+		selectionsCache.notifyRecordsChanged(TableRecordReferenceSet.of(TableRecordReference.of(TABLE_NAME, 1)));
+		createOrderedSelection(factory);
+
+		assertThat(factory.getSelectionsCreatedFromSourceTableCount()).isEqualTo(2);
+		assertThat(factory.getSelectionsCopiedCount()).isZero();
+	}
+
+	@Test
+	public void deletedSelection_isNotShared()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), selectionsCache, 10);
+
+		final ViewRowIdsOrderedSelection selection1 = createOrderedSelection(factory);
+		factory.deleteSelections(ImmutableSet.of(selection1.getSelectionId()));
+		createOrderedSelection(factory);
+
+		assertThat(factory.getSelectionsCreatedFromSourceTableCount()).isEqualTo(2);
+		assertThat(factory.getSelectionsCopiedCount()).isZero();
+	}
+
+	@Test
+	public void whereClauseReferencingOtherTables_notShared()
+	{
+		final String sqlWhereClause = "EXISTS (SELECT 1 FROM C_BPartner bp WHERE bp.C_BPartner_ID=C_Order.C_BPartner_ID AND bp.IsCustomer='Y')";
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(sqlWhereClause), selectionsCache, 10);
+
+		createOrderedSelection(factory);
+		createOrderedSelection(factory);
+
+		assertThat(factory.getSelectionsCreatedFromSourceTableCount()).isEqualTo(2);
+		assertThat(factory.getSelectionsCopiedCount()).isZero();
+		assertThat(selectionsCache.size()).isZero();
+	}
+
+	@Test
+	public void filterOnViewTableColumn_shared()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), selectionsCache, 10);
+		final DocumentFilterList filters = DocumentFilterList.of(DocumentFilter.singleParameterFilter("filter1", "C_Order_ID", Operator.EQUAL, 1));
+
+		createOrderedSelection(factory, filters);
+		createOrderedSelection(factory, filters);
+
+		assertThat(factory.getSelectionsCreatedFromSourceTableCount()).isEqualTo(1);
+		assertThat(factory.getSelectionsCopiedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void sqlFilter_notShared()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), selectionsCache, 10);
+		final DocumentFilterList filters = DocumentFilterList.of(DocumentFilter.builder()
+				.setFilterId("filter1")
+				.addParameter(DocumentFilterParam.ofSqlWhereClause(true, "C_Order_ID IN (SELECT C_Order_ID FROM C_OrderLine)"))
+				.build());
+
+		createOrderedSelection(factory, filters);
+		createOrderedSelection(factory, filters);
+
+		assertThat(factory.getSelectionsCreatedFromSourceTableCount()).isEqualTo(2);
+		assertThat(factory.getSelectionsCopiedCount()).isZero();
+	}
+
+	private static Set<DocumentId> rowIds(final IntStream rowIds)
+	{
+		return rowIds.mapToObj(DocumentId::of).collect(ImmutableSet.toImmutableSet());
+	}
+
+	@Test
+	public void retainRowIdsMaybeContainedInSelection()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), null, 10000);
+		factory.rowIds = IntStream.rangeClosed(1, 10000).toArray();
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(factory);
+
+		// rows in the selection are never excluded
+		final Set<DocumentId> rowIdsInSelection = rowIds(IntStream.rangeClosed(1, 10000));
+		assertThat(factory.retainRowIdsMaybeContainedInSelection(selection, rowIdsInSelection)).isEqualTo(rowIdsInSelection);
+
+		// most of the rows which are not in the selection are excluded
+		final Set<DocumentId> rowIdsNotInSelection = rowIds(IntStream.rangeClosed(20001, 21000));
+		assertThat(factory.retainRowIdsMaybeContainedInSelection(selection, rowIdsNotInSelection).size()).isLessThan(100);
+
+		// the selection was queried only once
+		assertThat(factory.rowIdsQueriesCount).isEqualTo(1);
+	}
+
+	@Test
+	public void retainRowIdsMaybeContainedInSelection_afterRowsWereAdded()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), null, 3);
+		factory.rowIds = new int[] { 1, 2, 3 };
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(factory);
+		assertThat(factory.retainRowIdsMaybeContainedInSelection(selection, rowIds(IntStream.of(1, 2, 3)))).hasSize(3);
+
+		factory.rowIds = new int[] { 1, 2, 3, 1000001 };
+		final ViewRowIdsOrderedSelection newSelection = factory.addRowIdsToSelection(selection, DocumentIdsSelection.of(rowIds(IntStream.of(1000001))));
+
+		assertThat(factory.retainRowIdsMaybeContainedInSelection(newSelection, rowIds(IntStream.of(1000001)))).containsExactly(DocumentId.of(1000001));
+		assertThat(factory.rowIdsQueriesCount).isEqualTo(2);
+	}
+
+	@Test
+	public void inMemorySelection_savedToDatabaseWhenGrowingPastThreshold()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), null, 4);
+		factory.inMemorySelectionMaxSize = 3;
+		factory.rowIds = new int[] { 1, 2 };
+
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(factory);
+		assertThat(factory.getInMemorySelectionOrNull(selection.getSelectionId())).isNotNull();
+		assertThat(factory.executedUpdates).isEmpty();
+
+		// still fits into memory
+		final ViewRowIdsOrderedSelection selection3 = factory.addRowIdsToSelection(selection, DocumentIdsSelection.of(rowIds(IntStream.of(3))));
+		assertThat(selection3.getSize()).isEqualTo(3);
+		assertThat(factory.getInMemorySelectionOrNull(selection.getSelectionId()).getRowIdsInMemory(0, -1)).containsExactly(1, 2, 3);
+		assertThat(factory.executedUpdates).isEmpty();
+
+		// grows past the threshold
+		final ViewRowIdsOrderedSelection selection4 = factory.addRowIdsToSelection(selection3, DocumentIdsSelection.of(rowIds(IntStream.of(4))));
+		assertThat(selection4.getSize()).isEqualTo(4);
+		assertThat(selection4.getSelectionId()).isEqualTo(selection.getSelectionId());
+		assertThat(factory.getInMemorySelectionOrNull(selection.getSelectionId())).isNull();
+		assertThat(factory.getInMemorySelectionChunksSavedCount()).isEqualTo(1);
+		assertThat(factory.executedUpdates.get(0).getSql()).contains("(VALUES (1,1),(2,2),(3,3),(4,4))");
+		assertThat(factory.executedUpdates.get(0).getSqlParamsArray()).containsExactly(selection.getSelectionId());
+
+		// from now on, the rows are added in database
+		factory.addRowIdsToSelection(selection4, DocumentIdsSelection.of(rowIds(IntStream.of(5))));
+		assertThat(factory.getInMemorySelectionChunksSavedCount()).isEqualTo(1);
+		assertThat(factory.executedUpdates).hasSize(2);
+	}
+
+	@Test
+	public void inMemorySelection_tooBig_sourceTableIsQueriedOnlyOnce()
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), null, 4);
+		factory.inMemorySelectionMaxSize = 3;
+		factory.rowIds = new int[] { 1, 2, 3, 4 };
+
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(factory);
+
+		assertThat(selection.getSize()).isEqualTo(4);
+		assertThat(factory.getInMemorySelectionOrNull(selection.getSelectionId())).isNull();
+		assertThat(factory.getSelectionsCreatedFromSourceTableCount()).isEqualTo(1);
+		assertThat(factory.executedUpdates).hasSize(1);
+	}
+
+	@Test
+	public void inMemorySelection_concurrentChangesAreNotLost() throws Exception
+	{
+		final TestSelectionFactory factory = new TestSelectionFactory(viewBinding(null), null, 0);
+		factory.inMemorySelectionMaxSize = 10000;
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(factory);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			final CompletableFuture<?>[] futures = IntStream.rangeClosed(1, 1000)
+					.mapToObj(rowId -> CompletableFuture.runAsync(
+							() -> factory.addRowIdsToSelection(selection, DocumentIdsSelection.of(rowIds(IntStream.of(rowId)))),
+							executor))
+					.toArray(CompletableFuture[]::new);
+			CompletableFuture.allOf(futures).get();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		assertThat(factory.getInMemorySelectionOrNull(selection.getSelectionId()).getSize()).isEqualTo(1000);
+	}
+}
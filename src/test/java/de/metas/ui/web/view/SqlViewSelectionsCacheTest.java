@@ -0,0 +1,172 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.SqlViewSelectionsCache.SelectionKey;
+import de.metas.ui.web.view.SqlViewSelectionsCache.SharedSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.user.UserId;
+import de.metas.util.time.FixedTimeSource;
+import de.metas.util.time.SystemTime;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlViewSelectionsCacheTest
+{
+	private SqlViewSelectionsCache cache;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		SystemTime.setTimeSource(new FixedTimeSource(2020, 10, 20, 21, 22, 23));
+		cache = new SqlViewSelectionsCache(Duration.ofMinutes(1));
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	private static SelectionKey selectionKey(final String tableName, final DocumentQueryOrderByList orderBys)
+	{
+		return SelectionKey.builder()
+				.windowId(WindowId.of(123))
+				.tableName(tableName)
+				.sqlWhereClause("")
+				.filters(DocumentFilterList.EMPTY)
+				.orderBys(orderBys)
+				.filterConverterCtx(SqlDocumentFilterConverterContext.EMPTY)
+				.applySecurityRestrictions(true)
+				.queryLimit(500)
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.ofRepoId(1000000), UserId.ofRepoId(100), ClientId.ofRepoId(1000000), LocalDate.parse("2020-10-20")))
+				.loggedUserId(Optional.of(UserId.ofRepoId(100)))
+				.adLanguage("de_DE")
+				.timeZone(ZoneId.of("Europe/Berlin"))
+				.build();
+	}
+
+	private static SelectionKey selectionKey(final String tableName)
+	{
+		return selectionKey(tableName, DocumentQueryOrderByList.EMPTY);
+	}
+
+	@Test
+	public void sameKey_shared()
+	{
+		cache.addSelection(selectionKey("C_Order"), "sel1", 10);
+
+		assertThat(cache.getSharedSelection(selectionKey("C_Order")))
+				.isEqualTo(new SharedSelection("sel1", 10));
+	}
+
+	@Test
+	public void differentKey_notShared()
+	{
+		cache.addSelection(selectionKey("C_Order"), "sel1", 10);
+
+		assertThat(cache.getSharedSelection(selectionKey("C_Invoice"))).isNull();
+		assertThat(cache.getSharedSelection(selectionKey("C_Order", DocumentQueryOrderByList.ofList(ImmutableList.of(DocumentQueryOrderBy.byFieldName("DocumentNo")))))).isNull();
+	}
+
+	@Test
+	public void entryRemovedWhenLastSelectionIsRemoved()
+	{
+		cache.addSelection(selectionKey("C_Order"), "sel1", 10);
+		cache.addSelection(selectionKey("C_Order"), "sel2", 10);
+
+		cache.removeSelectionIds(ImmutableSet.of("sel1"));
+		assertThat(cache.getSharedSelection(selectionKey("C_Order")))
+				.isEqualTo(new SharedSelection("sel2", 10));
+
+		cache.removeSelectionIds(ImmutableSet.of("sel2"));
+		assertThat(cache.getSharedSelection(selectionKey("C_Order"))).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void differentSizeResetsTheEntry()
+	{
+		cache.addSelection(selectionKey("C_Order"), "sel1", 10);
+		cache.addSelection(selectionKey("C_Order"), "sel2", 11);
+
+		assertThat(cache.getSharedSelection(selectionKey("C_Order")))
+				.isEqualTo(new SharedSelection("sel2", 11));
+
+		cache.removeSelectionIds(ImmutableSet.of("sel2"));
+		assertThat(cache.getSharedSelection(selectionKey("C_Order"))).isNull();
+	}
+
+	@Test
+	public void notifyRecordsChanged_dropsOnlyEntriesOfThatTable()
+	{
+		cache.addSelection(selectionKey("C_Order"), "sel1", 10);
+		cache.addSelection(selectionKey("C_Invoice"), "sel2", 5);
+
+		cache.notifyRecordsChanged(TableRecordReferenceSet.of(TableRecordReference.of("C_Order", 1)));
+
+		assertThat(cache.getSharedSelection(selectionKey("C_Order"))).isNull();
+		assertThat(cache.getSharedSelection(selectionKey("C_Invoice")))
+				.isEqualTo(new SharedSelection("sel2", 5));
+	}
+
+	@Test
+	public void expiredEntriesAreNotShared()
+	{
+		cache.addSelection(selectionKey("C_Order"), "sel1", 10);
+
+		SystemTime.setTimeSource(new FixedTimeSource(2020, 10, 20, 21, 23, 24));
+		assertThat(cache.getSharedSelection(selectionKey("C_Order"))).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void zeroMaxAge_disablesSharing()
+	{
+		cache = new SqlViewSelectionsCache(Duration.ZERO);
+		cache.addSelection(selectionKey("C_Order"), "sel1", 10);
+
+		assertThat(cache.getSharedSelection(selectionKey("C_Order"))).isNull();
+	}
+}
@@ -0,0 +1,83 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.view.ViewFieldValueCounts.ValueCount;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewFieldValueCountsTest
+{
+	@Test
+	public void fiveFacetFields()
+	{
+		final ImmutableMap<String, Integer> limitsByFieldName = ImmutableMap.<String, Integer> builder()
+				.put("C_BPartner_ID", 2)
+				.put("DocStatus", 10)
+				.put("DateOrdered", 10)
+				.put("IsSOTrx", 10)
+				.put("M_Warehouse_ID", 10)
+				.build();
+
+		final ViewFieldValueCounts valueCounts = ViewFieldValueCounts.ofList(
+				ImmutableList.of(
+						ValueCount.of("C_BPartner_ID", 1, 5),
+						ValueCount.of("C_BPartner_ID", 2, 20),
+						ValueCount.of("C_BPartner_ID", 3, 10),
+						ValueCount.of("DocStatus", "CO", 30),
+						ValueCount.of("DocStatus", "DR", 5),
+						ValueCount.of("DateOrdered", null, 3),
+						ValueCount.of("DateOrdered", "2020-10-20", 32),
+						ValueCount.of("IsSOTrx", true, 35),
+						ValueCount.of("M_Warehouse_ID", 540008, 35)),
+				limitsByFieldName);
+
+		assertThat(valueCounts.getValueCounts("C_BPartner_ID"))
+				.as("ordered by count and limited")
+				.containsExactly(
+						ValueCount.of("C_BPartner_ID", 2, 20),
+						ValueCount.of("C_BPartner_ID", 3, 10));
+		assertThat(valueCounts.getValueCounts("DocStatus"))
+				.containsExactly(
+						ValueCount.of("DocStatus", "CO", 30),
+						ValueCount.of("DocStatus", "DR", 5));
+		assertThat(valueCounts.getValueCounts("DateOrdered"))
+				.as("null values are skipped")
+				.containsExactly(ValueCount.of("DateOrdered", "2020-10-20", 32));
+		assertThat(valueCounts.getValueCounts("IsSOTrx")).containsExactly(ValueCount.of("IsSOTrx", true, 35));
+		assertThat(valueCounts.getValueCounts("M_Warehouse_ID")).containsExactly(ValueCount.of("M_Warehouse_ID", 540008, 35));
+	}
+
+	@Test
+	public void fieldWithoutValues()
+	{
+		final ViewFieldValueCounts valueCounts = ViewFieldValueCounts.ofList(ImmutableList.of(), ImmutableMap.of("DocStatus", 10));
+
+		assertThat(valueCounts.getValueCounts("DocStatus")).isEmpty();
+	}
+}
@@ -0,0 +1,142 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewRowIdsOrderedSelectionTest
+{
+	private static ViewRowIdsOrderedSelection inMemorySelection(final int... rowIds)
+	{
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(ViewId.random(WindowId.of(123)))
+				.rowIdsInMemory(rowIds)
+				.build();
+	}
+
+	private static DocumentIdsSelection rowIds(final int... rowIds)
+	{
+		final ImmutableSet.Builder<DocumentId> result = ImmutableSet.builder();
+		for (final int rowId : rowIds)
+		{
+			result.add(DocumentId.of(rowId));
+		}
+		return DocumentIdsSelection.of(result.build());
+	}
+
+	@Test
+	public void sizeIsTheNumberOfRowIdsInMemory()
+	{
+		final ViewRowIdsOrderedSelection selection = inMemorySelection(5, 3, 1);
+		assertThat(selection.isInMemory()).isTrue();
+		assertThat(selection.getSize()).isEqualTo(3);
+	}
+
+	@Test
+	public void getRowIdsInMemory_page()
+	{
+		final ViewRowIdsOrderedSelection selection = inMemorySelection(50, 40, 30, 20, 10);
+
+		assertThat(selection.getRowIdsInMemory(0, 2)).containsExactly(50, 40);
+		assertThat(selection.getRowIdsInMemory(3, 10)).containsExactly(20, 10);
+		assertThat(selection.getRowIdsInMemory(10, 10)).isEmpty();
+		assertThat(selection.getRowIdsInMemory(1, -1)).containsExactly(40, 30, 20, 10);
+	}
+
+	@Test
+	public void retainAndContains()
+	{
+		final ViewRowIdsOrderedSelection selection = inMemorySelection(1, 2, 3);
+
+		assertThat(selection.retainRowIdsInMemory(rowIds(2, 3, 4).toSet())).containsExactlyInAnyOrder(DocumentId.of(2), DocumentId.of(3));
+		assertThat(selection.retainRowIdsInMemory(ImmutableSet.of(DocumentId.of("not-an-int")))).isEmpty();
+
+		assertThat(selection.containsAnyOfRowIdsInMemory(rowIds(4, 3))).isTrue();
+		assertThat(selection.containsAnyOfRowIdsInMemory(rowIds(4, 5))).isFalse();
+		assertThat(selection.containsAnyOfRowIdsInMemory(DocumentIdsSelection.EMPTY)).isFalse();
+		assertThat(selection.containsAnyOfRowIdsInMemory(DocumentIdsSelection.ALL)).isTrue();
+	}
+
+	@Test
+	public void addRowIds_appendsOnlyNewOnes()
+	{
+		final ViewRowIdsOrderedSelection selection = inMemorySelection(3, 1);
+
+		final ViewRowIdsOrderedSelection newSelection = selection.withRowIdsInMemoryAdded(rowIds(1, 2));
+		assertThat(newSelection.getRowIdsInMemory(0, -1)).containsExactly(3, 1, 2);
+		assertThat(newSelection.getSize()).isEqualTo(3);
+
+		assertThat(newSelection.withRowIdsInMemoryAdded(rowIds(2))).isSameAs(newSelection);
+		assertThatThrownBy(() -> newSelection.withRowIdsInMemoryAdded(DocumentIdsSelection.ALL)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void removeRowIds()
+	{
+		final ViewRowIdsOrderedSelection selection = inMemorySelection(3, 1, 2);
+
+		final ViewRowIdsOrderedSelection newSelection = selection.withRowIdsInMemoryRemoved(rowIds(1, 4));
+		assertThat(newSelection.getRowIdsInMemory(0, -1)).containsExactly(3, 2);
+		assertThat(newSelection.getSize()).isEqualTo(2);
+
+		assertThat(newSelection.withRowIdsInMemoryRemoved(rowIds(4))).isSameAs(newSelection);
+		assertThat(newSelection.withRowIdsInMemoryRemoved(DocumentIdsSelection.ALL).getSize()).isZero();
+	}
+
+	/**
+	 * @see SqlViewRowIdsOrderedSelectionFactoryTest#inMemorySelection_savedToDatabaseWhenGrowingPastThreshold()
+	 */
+	@Test
+	public void withoutRowIdsInMemory()
+	{
+		final ViewRowIdsOrderedSelection selection = inMemorySelection(1, 2, 3, 4);
+
+		final ViewRowIdsOrderedSelection savedSelection = selection.withoutRowIdsInMemory();
+		assertThat(savedSelection.isInMemory()).isFalse();
+		assertThat(savedSelection.getSize()).isEqualTo(4);
+		assertThat(savedSelection.getViewId()).isEqualTo(selection.getViewId());
+		assertThat(savedSelection.withoutRowIdsInMemory()).isSameAs(savedSelection);
+		assertThatThrownBy(() -> savedSelection.getRowIdsInMemory(0, -1)).isInstanceOf(AdempiereException.class);
+	}
+
+	@Test
+	public void queryLimitHit()
+	{
+		final ViewRowIdsOrderedSelection selection = ViewRowIdsOrderedSelection.builder()
+				.viewId(ViewId.random(WindowId.of(123)))
+				.rowIdsInMemory(new int[] { 1, 2, 3 })
+				.queryLimit(3)
+				.build();
+		assertThat(selection.isQueryLimitHit()).isTrue();
+	}
+}
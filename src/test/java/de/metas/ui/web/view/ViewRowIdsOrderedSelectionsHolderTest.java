@@ -0,0 +1,195 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewRowIdsOrderedSelectionsHolderTest
+{
+	private static final int PAGE_LENGTH = 20;
+	private static final long TOTAL_ROWS = 5_000_000;
+	private static final long ESTIMATED_ROWS = 4_900_000;
+
+	private ViewId viewId;
+	private IViewDataRepository viewDataRepository;
+	/** Blocks the selection creation until released, i.e. simulates a huge selection */
+	private CountDownLatch selectionCreationLatch;
+	private CountDownLatch deferredSelectionsCreatedLatch;
+	private ExecutorService deferredSelectionsExecutor;
+	private ViewRowIdsOrderedSelectionsHolder holder;
+
+	@BeforeEach
+	public void init() throws Exception
+	{
+		AdempiereTestHelper.get().init();
+
+		viewId = ViewId.random(WindowId.of(123));
+		selectionCreationLatch = new CountDownLatch(1);
+		deferredSelectionsCreatedLatch = new CountDownLatch(1);
+
+		viewDataRepository = Mockito.mock(IViewDataRepository.class);
+		Mockito.when(viewDataRepository.isDeferredSelectionSupported(any())).thenReturn(true);
+		Mockito.when(viewDataRepository.getDefaultOrderBys()).thenReturn(DocumentQueryOrderByList.EMPTY);
+		Mockito.when(viewDataRepository.estimateRowsCount(any(), any(), anyBoolean())).thenReturn(ESTIMATED_ROWS);
+		Mockito.when(viewDataRepository.createOrderedSelection(any(), any(), any(), anyBoolean(), any()))
+				.thenAnswer(invocation -> {
+					selectionCreationLatch.await();
+					return ViewRowIdsOrderedSelection.builder()
+							.viewId(viewId)
+							.size(TOTAL_ROWS)
+							.build();
+				});
+
+		deferredSelectionsExecutor = Executors.newSingleThreadExecutor();
+		holder = newHolder(deferredSelectionsExecutor);
+	}
+
+	private ViewRowIdsOrderedSelectionsHolder newHolder(final Executor deferredSelectionsExecutor)
+	{
+		return ViewRowIdsOrderedSelectionsHolder.builder()
+				.viewDataRepository(viewDataRepository)
+				.viewId(viewId)
+				.stickyFilters(DocumentFilterList.EMPTY)
+				.filters(DocumentFilterList.EMPTY)
+				.viewEvaluationCtxSupplier(() -> null)
+				.deferredSelectionsExecutor(deferredSelectionsExecutor)
+				.onDeferredSelectionsCreated(deferredSelectionsCreatedLatch::countDown)
+				.build();
+	}
+
+	@AfterEach
+	public void releaseSelectionCreation()
+	{
+		selectionCreationLatch.countDown();
+		deferredSelectionsExecutor.shutdown();
+	}
+
+	@Test
+	public void firstPageDoesNotWaitForSelectionCreation() throws Exception
+	{
+		final ViewFirstPageQuery probeQuery = holder.getFirstPageProbeQueryOrNull(DocumentQueryOrderByList.EMPTY, 0, PAGE_LENGTH);
+		assertThat(probeQuery).isNotNull();
+		assertThat(probeQuery.getPageLength()).isEqualTo(PAGE_LENGTH + 1);
+
+		// the selection creation is blocked, so this would time out if the first page would depend on it
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			holder.onFirstPageProbed(probeQuery, PAGE_LENGTH + 1);
+
+			assertThat(holder.isSizeEstimated()).isTrue();
+			assertThat(holder.getSize()).isEqualTo(ESTIMATED_ROWS);
+			assertThat(holder.isQueryLimitHit()).isFalse();
+		});
+
+		// selections are already being created
+		assertThat(holder.getFirstPageProbeQueryOrNull(DocumentQueryOrderByList.EMPTY, 0, PAGE_LENGTH)).isNull();
+
+		selectionCreationLatch.countDown();
+		assertThat(deferredSelectionsCreatedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(holder.isSizeEstimated()).isFalse();
+		assertThat(holder.getSize()).isEqualTo(TOTAL_ROWS);
+		Mockito.verify(viewDataRepository, Mockito.times(1)).createOrderedSelection(any(), any(), any(), anyBoolean(), any());
+	}
+
+	@Test
+	public void selectionsAreCreatedSynchronouslyWhenTheExecutorIsBusy()
+	{
+		holder = newHolder(command -> {
+			throw new RejectedExecutionException("busy");
+		});
+
+		final ViewFirstPageQuery probeQuery = holder.getFirstPageProbeQueryOrNull(DocumentQueryOrderByList.EMPTY, 0, PAGE_LENGTH);
+		holder.onFirstPageProbed(probeQuery, PAGE_LENGTH + 1);
+
+		selectionCreationLatch.countDown();
+		assertThat(holder.isSizeEstimated()).isFalse();
+		assertThat(holder.getSize()).isEqualTo(TOTAL_ROWS);
+	}
+
+	@Test
+	public void allRowsFitIntoFirstPage()
+	{
+		final ViewFirstPageQuery probeQuery = holder.getFirstPageProbeQueryOrNull(DocumentQueryOrderByList.EMPTY, 0, PAGE_LENGTH);
+		holder.onFirstPageProbed(probeQuery, 7);
+
+		assertThat(holder.getSize()).isEqualTo(7);
+		Mockito.verify(viewDataRepository, Mockito.never()).estimateRowsCount(any(), any(), anyBoolean());
+	}
+
+	@Test
+	public void estimationIsAtLeastTheProbedRows()
+	{
+		Mockito.when(viewDataRepository.estimateRowsCount(any(), any(), anyBoolean())).thenReturn(-1L);
+
+		final ViewFirstPageQuery probeQuery = holder.getFirstPageProbeQueryOrNull(DocumentQueryOrderByList.EMPTY, 0, PAGE_LENGTH);
+		holder.onFirstPageProbed(probeQuery, PAGE_LENGTH + 1);
+
+		assertThat(holder.getSize()).isEqualTo(PAGE_LENGTH + 1);
+	}
+
+	@Test
+	public void noProbeIfNotSupportedOrNotFirstPage()
+	{
+		assertThat(holder.getFirstPageProbeQueryOrNull(DocumentQueryOrderByList.EMPTY, PAGE_LENGTH, PAGE_LENGTH)).isNull();
+
+		Mockito.when(viewDataRepository.isDeferredSelectionSupported(any())).thenReturn(false);
+		assertThat(holder.getFirstPageProbeQueryOrNull(DocumentQueryOrderByList.EMPTY, 0, PAGE_LENGTH)).isNull();
+	}
+
+	@Test
+	public void invalidateFieldValueCounts()
+	{
+		// nothing to invalidate while the selections were not created
+		holder.invalidateFieldValueCounts();
+		Mockito.verify(viewDataRepository, Mockito.never()).invalidateFieldValueCounts(any());
+
+		selectionCreationLatch.countDown();
+		holder.getSize(); // creates the selection
+
+		holder.invalidateFieldValueCounts();
+		Mockito.verify(viewDataRepository).invalidateFieldValueCounts(ImmutableSet.of(viewId.getViewId()));
+	}
+}
@@ -0,0 +1,166 @@
+package de.metas.ui.web.view.descriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.view.ViewEvaluationCtx;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.sql.SqlSelectDisplayValue;
+import de.metas.ui.web.window.descriptor.sql.SqlSelectValue;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlViewSelectDataTest
+{
+	private static final ImmutableList<String> FACET_FIELD_NAMES = ImmutableList.of("C_BPartner_ID", "DocStatus", "DateOrdered", "IsSOTrx", "M_Warehouse_ID");
+
+	private static SqlViewRowFieldBinding field(final String fieldName, final boolean keyColumn)
+	{
+		return fieldBuilder(fieldName)
+				.keyColumn(keyColumn)
+				.build();
+	}
+
+	private static SqlViewRowFieldBinding fieldWithDisplayValue(final String fieldName)
+	{
+		return fieldBuilder(fieldName)
+				.sqlSelectDisplayValue(SqlSelectDisplayValue.builder()
+						.joinOnColumnName(fieldName)
+						.columnNameAlias(fieldName + "$Display")
+						.build())
+				.build();
+	}
+
+	private static SqlViewRowFieldBinding.SqlViewRowFieldBindingBuilder fieldBuilder(final String fieldName)
+	{
+		return SqlViewRowFieldBinding.builder()
+				.fieldName(fieldName)
+				.widgetType(DocumentFieldWidgetType.Text)
+				.fieldLoader((rs, adLanguage) -> null)
+				.sqlSelectValue(SqlSelectValue.builder()
+						.columnName(fieldName)
+						.columnNameAlias(fieldName)
+						.build());
+	}
+
+	private static SqlViewSelectData createSqlViewSelectData()
+	{
+		final SqlViewBinding.Builder builder = SqlViewBinding.builder()
+				.tableName("C_Order")
+				.field(field("C_Order_ID", true))
+				.field(fieldWithDisplayValue("C_BPartner_ID"))
+				.field(field("DocStatus", false))
+				.field(field("DateOrdered", false))
+				.field(field("IsSOTrx", false))
+				.field(fieldWithDisplayValue("M_Warehouse_ID"))
+				.displayFieldNames("C_BPartner_ID", "M_Warehouse_ID");
+
+		return builder.build().getSqlViewSelect();
+	}
+
+	private static ViewEvaluationCtx viewEvalCtx()
+	{
+		return ViewEvaluationCtx._builder()
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.ofRepoId(1000000), UserId.ofRepoId(100), ClientId.ofRepoId(1000000), LocalDate.parse("2020-10-20")))
+				.loggedUserId(Optional.of(UserId.ofRepoId(100)))
+				.adLanguage("de_DE")
+				.timeZone(ZoneId.of("Europe/Berlin"))
+				.build();
+	}
+
+	@Nested
+	public class selectFieldValueCounts
+	{
+		@Test
+		public void oneQueryForAllFiveFacetFields()
+		{
+			final SqlAndParams sqlAndParams = createSqlViewSelectData().selectFieldValueCounts(viewEvalCtx(), "selection-uuid", FACET_FIELD_NAMES, 10);
+
+			final String sql = sqlAndParams.getSql();
+			assertThat(sql)
+					.contains("GROUPING(C_BPartner_ID, DocStatus, DateOrdered, IsSOTrx, M_Warehouse_ID) AS " + SqlViewSelectData.COLUMNNAME_FieldValueCount_Grouping)
+					.contains("COUNT(1) AS " + SqlViewSelectData.COLUMNNAME_FieldValueCount_Count)
+					.contains("GROUP BY GROUPING SETS ("
+							+ "(C_BPartner_ID, C_BPartner_ID$Display)"
+							+ ", (DocStatus)"
+							+ ", (DateOrdered)"
+							+ ", (IsSOTrx)"
+							+ ", (M_Warehouse_ID, M_Warehouse_ID$Display)"
+							+ ")")
+					.contains("FROM T_WEBUI_ViewSelection sel");
+			assertThat(sqlAndParams.getSqlParams()).containsExactly("selection-uuid", 10);
+		}
+
+		@Test
+		public void nullValuesAreNotRanked()
+		{
+			final String sql = createSqlViewSelectData().selectFieldValueCounts(viewEvalCtx(), "selection-uuid", ImmutableList.of("C_BPartner_ID", "DocStatus"), 10).getSql();
+
+			assertThat(sql).contains("HAVING (GROUPING(C_BPartner_ID)=1 OR C_BPartner_ID IS NOT NULL) AND (GROUPING(DocStatus)=1 OR DocStatus IS NOT NULL)");
+		}
+
+		@Test
+		public void unknownField()
+		{
+			assertThatThrownBy(() -> createSqlViewSelectData().selectFieldValueCounts(viewEvalCtx(), "selection-uuid", ImmutableList.of("DocStatus", "NotExistingField"), 10))
+					.isInstanceOf(AdempiereException.class)
+					.hasMessageContaining("NotExistingField");
+		}
+	}
+
+	@Nested
+	public class extractFieldIndexFromGroupingMask
+	{
+		@Test
+		public void fiveFields()
+		{
+			final int fieldsCount = FACET_FIELD_NAMES.size();
+			assertThat(SqlViewSelectData.extractFieldIndexFromGroupingMask(0b01111, fieldsCount)).isEqualTo(0);
+			assertThat(SqlViewSelectData.extractFieldIndexFromGroupingMask(0b10111, fieldsCount)).isEqualTo(1);
+			assertThat(SqlViewSelectData.extractFieldIndexFromGroupingMask(0b11011, fieldsCount)).isEqualTo(2);
+			assertThat(SqlViewSelectData.extractFieldIndexFromGroupingMask(0b11101, fieldsCount)).isEqualTo(3);
+			assertThat(SqlViewSelectData.extractFieldIndexFromGroupingMask(0b11110, fieldsCount)).isEqualTo(4);
+		}
+
+		@Test
+		public void noGroupedField()
+		{
+			assertThatThrownBy(() -> SqlViewSelectData.extractFieldIndexFromGroupingMask(0b11111, 5))
+					.isInstanceOf(AdempiereException.class);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package de.metas.ui.web.view.descriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.view.ViewEvaluationCtx;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.sql.SqlSelectValue;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class SqlViewSelectionQueryBuilderTest
+{
+	private SqlViewSelectionQueryBuilder queryBuilder;
+	private String tableAlias;
+	private ViewId viewId;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		final SqlViewRowFieldBinding keyField = SqlViewRowFieldBinding.builder()
+				.fieldName("C_Order_ID")
+				.widgetType(DocumentFieldWidgetType.Integer)
+				.sqlValueClass(Integer.class)
+				.fieldLoader((rs, adLanguage) -> rs.getInt("C_Order_ID"))
+				.keyColumn(true)
+				.sqlSelectValue(SqlSelectValue.builder()
+						.columnName("C_Order_ID")
+						.columnNameAlias("C_Order_ID")
+						.build())
+				.build();
+
+		final SqlViewBinding viewBinding = SqlViewBinding.builder()
+				.tableName("C_Order")
+				.field(keyField)
+				.displayFieldNames("C_Order_ID")
+				.build();
+
+		tableAlias = viewBinding.getTableAlias();
+		queryBuilder = SqlViewSelectionQueryBuilder.newInstance(viewBinding)
+				.applySecurityRestrictions(false);
+		viewId = ViewId.random(WindowId.of(143));
+	}
+
+	private static ViewEvaluationCtx viewEvalCtx()
+	{
+		return ViewEvaluationCtx._builder()
+				.loggedUserId(Optional.of(UserId.ofRepoId(100)))
+				.adLanguage("de_DE")
+				.timeZone(ZoneId.of("Europe/Berlin"))
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.ofRepoId(1000000), UserId.ofRepoId(100), ClientId.ofRepoId(1000000), LocalDate.parse("2020-10-20")))
+				.build();
+	}
+
+	@Test
+	public void firstPage_linesAreNumberedInPageOrder()
+	{
+		final SqlAndParams sql = queryBuilder.buildSqlSelectFirstPage(
+				viewEvalCtx(),
+				viewId,
+				DocumentFilterList.EMPTY,
+				false, // descending
+				10); // pageLength
+
+		// without ORDER BY in the window, the Line numbers are not guaranteed to follow the page order
+		assertThat(sql.getSql())
+				.contains("row_number() OVER (ORDER BY page.C_Order_ID DESC)")
+				.contains("ORDER BY " + tableAlias + ".C_Order_ID DESC")
+				.doesNotContain("T_WEBUI_ViewSelection sel");
+		assertThat(sql.getSqlParamsArray()).containsExactly(viewId.getViewId(), 10);
+	}
+}
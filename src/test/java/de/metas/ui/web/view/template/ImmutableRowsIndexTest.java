@@ -0,0 +1,195 @@
+package de.metas.ui.web.view.template;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.view.IViewRow;
+import de.metas.ui.web.view.ViewRowFieldNameAndJsonValues;
+import de.metas.ui.web.view.ViewRowsOrderBy;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ImmutableRowsIndexTest
+{
+	private static final JSONOptions jsonOpts = JSONOptions.builder()
+			.adLanguage("de_DE")
+			.zoneId(ZoneId.of("Europe/Berlin"))
+			.build();
+
+	@Value
+	private static class TestRow implements IViewRow
+	{
+		@NonNull
+		DocumentId id;
+		String name;
+		Integer qty;
+
+		@Override
+		public boolean isProcessed()
+		{
+			return false;
+		}
+
+		@Override
+		public DocumentPath getDocumentPath()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Set<String> getFieldNames()
+		{
+			return getFieldNameAndJsonValues().getFieldNames();
+		}
+
+		@Override
+		public ViewRowFieldNameAndJsonValues getFieldNameAndJsonValues()
+		{
+			final ImmutableMap.Builder<String, Object> map = ImmutableMap.builder();
+			if (name != null)
+			{
+				map.put("Name", name);
+			}
+			if (qty != null)
+			{
+				map.put("Qty", qty);
+			}
+			return ViewRowFieldNameAndJsonValues.ofMap(map.build());
+		}
+	}
+
+	private static List<TestRow> createRows(final int count, final long seed)
+	{
+		final Random random = new Random(seed);
+		final ArrayList<TestRow> rows = new ArrayList<>(count);
+		for (int id = 1; id <= count; id++)
+		{
+			final String name = random.nextInt(10) == 0 ? null : "name" + random.nextInt(20);
+			final Integer qty = random.nextInt(10) == 0 ? null : random.nextInt(50);
+			rows.add(new TestRow(DocumentId.of(id), name, qty));
+		}
+		return rows;
+	}
+
+	private static ViewRowsOrderBy orderBy(final String orderBysStr)
+	{
+		return ViewRowsOrderBy.parseString(orderBysStr, jsonOpts);
+	}
+
+	private static List<TestRow> getPageUsingStreamSorting(final List<TestRow> rows, final ViewRowsOrderBy orderBy, final int firstRow, final int pageLength)
+	{
+		return rows.stream()
+				.sorted(orderBy.toComparator())
+				.skip(firstRow)
+				.limit(pageLength)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static List<TestRow> getPageUsingIndex(final ImmutableRowsIndex<TestRow> index, final ViewRowsOrderBy orderBy, final int firstRow, final int pageLength)
+	{
+		final ImmutableList<TestRow> rowsSorted = index.getTopLevelRowsSorted(orderBy);
+		final int fromIndex = Math.min(firstRow, rowsSorted.size());
+		final int toIndex = Math.min(fromIndex + pageLength, rowsSorted.size());
+		return rowsSorted.subList(fromIndex, toIndex);
+	}
+
+	@Test
+	public void samePagesAsStreamSorting()
+	{
+		final List<TestRow> rows = createRows(500, 1234);
+		final ImmutableRowsIndex<TestRow> index = ImmutableRowsIndex.of(rows);
+
+		for (final String orderBysStr : ImmutableList.of("", "+Name", "-Name", "+Qty", "-Qty", "+Name,-Qty", "-Qty,+Name"))
+		{
+			final ViewRowsOrderBy orderBy = orderBy(orderBysStr);
+			for (final int firstRow : new int[] { 0, 30, 480, 500, 600 })
+			{
+				assertThat(getPageUsingIndex(index, orderBy, firstRow, 30))
+						.as("orderBy=%s, firstRow=%s", orderBysStr, firstRow)
+						.containsExactlyElementsOf(getPageUsingStreamSorting(rows, orderBy, firstRow, 30));
+			}
+		}
+	}
+
+	@Test
+	public void sortedRowsAreCached()
+	{
+		final ImmutableRowsIndex<TestRow> index = ImmutableRowsIndex.of(createRows(100, 1234));
+
+		final ImmutableList<TestRow> rowsSorted = index.getTopLevelRowsSorted(orderBy("+Name"));
+		assertThat(index.getTopLevelRowsSorted(orderBy("+Name"))).isSameAs(rowsSorted);
+		assertThat(index.getTopLevelRowsSorted(orderBy("-Name"))).isNotSameAs(rowsSorted);
+	}
+
+	@Test
+	public void replacingRowsWithSameRowsPreservesTheIndex()
+	{
+		final List<TestRow> rows = createRows(100, 1234);
+		final ImmutableRowsIndex<TestRow> index = ImmutableRowsIndex.of(rows);
+		final TestRow row = rows.get(5);
+
+		final ImmutableRowsIndex<TestRow> sameIndex = index.replacingRows(
+				DocumentIdsSelection.of(ImmutableList.of(row.getId())),
+				ImmutableList.of(new TestRow(row.getId(), row.getName(), row.getQty())));
+		assertThat(sameIndex).isSameAs(index);
+
+		final TestRow changedRow = new TestRow(row.getId(), "changed", row.getQty());
+		final ImmutableRowsIndex<TestRow> changedIndex = index.replacingRows(
+				DocumentIdsSelection.of(ImmutableList.of(row.getId())),
+				ImmutableList.of(changedRow));
+		assertThat(changedIndex).isNotSameAs(index);
+		assertThat(changedIndex.getTopLevelRowsSorted(orderBy("+Name"))).contains(changedRow);
+	}
+
+	@Test
+	public void sortedRowsCacheIsInvalidatedWhenRowsVersionChanges()
+	{
+		final SortedRowsCache<TestRow> cache = SortedRowsCache.newInstance();
+		final List<TestRow> rows = new ArrayList<>(createRows(10, 1234));
+		final ViewRowsOrderBy orderBy = orderBy("+Qty");
+
+		final ImmutableList<TestRow> rowsSorted = cache.getTopLevelRowsSorted(orderBy, 1, () -> rows);
+		assertThat(cache.getTopLevelRowsSorted(orderBy, 1, () -> rows)).isSameAs(rowsSorted);
+
+		rows.remove(0);
+		assertThat(cache.getTopLevelRowsSorted(orderBy, 2, () -> rows))
+				.containsExactlyElementsOf(rows.stream().sorted(orderBy.toComparator()).collect(Collectors.toList()));
+	}
+}
@@ -0,0 +1,242 @@
+package de.metas.ui.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.event.JSONViewChanges;
+import de.metas.ui.web.view.event.ViewChanges;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WebsocketSenderTest
+{
+	@Value
+	private static class Frame
+	{
+		String destination;
+		Object payload;
+	}
+
+	/** Records the frames instead of sending them */
+	private static class FramesCountingMessagingTemplate extends SimpMessagingTemplate
+	{
+		private final List<Frame> frames = new ArrayList<>();
+
+		public FramesCountingMessagingTemplate()
+		{
+			super(Mockito.mock(MessageChannel.class));
+		}
+
+		@Override
+		protected synchronized void doSend(final String destination, final Message<?> message)
+		{
+			frames.add(new Frame(destination, message.getPayload()));
+		}
+
+		public synchronized List<Frame> getFrames()
+		{
+			return new ArrayList<>(frames);
+		}
+
+		public List<Frame> getFrames(final String destination)
+		{
+			return getFrames()
+					.stream()
+					.filter(frame -> destination.equals(frame.getDestination()))
+					.collect(Collectors.toList());
+		}
+	}
+
+	/** Coalescing window which does not elapse while a test is running, so only {@link WebsocketSender#flushPendingEvents()} sends the events */
+	private static final long WINDOW_NEVER_ELAPSING_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+	private FramesCountingMessagingTemplate messagingTemplate;
+	private WebsocketSender websocketSender;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		messagingTemplate = new FramesCountingMessagingTemplate();
+		websocketSender = new WebsocketSender(messagingTemplate, WINDOW_NEVER_ELAPSING_MILLIS);
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		websocketSender.shutdown();
+	}
+
+	private static ViewId newViewId()
+	{
+		return ViewId.random(WindowId.of(123));
+	}
+
+	private static String topicOf(final ViewId viewId)
+	{
+		return WebSocketConfig.buildViewNotificationsTopicName(viewId.getViewId());
+	}
+
+	private void sendRowChanged(final ViewId viewId, final int rowId)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.addChangedRowId(DocumentId.of(rowId));
+		websocketSender.convertAndSend(topicOf(viewId), JSONViewChanges.of(changes));
+	}
+
+	private void sendFullyChanged(final ViewId viewId)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.setFullyChanged();
+		websocketSender.convertAndSend(topicOf(viewId), JSONViewChanges.of(changes));
+	}
+
+	@Test
+	public void massUpdate_oneFramePerDestination()
+	{
+		final ViewId viewId = newViewId();
+		for (int rowId = 1; rowId <= 10000; rowId++)
+		{
+			sendRowChanged(viewId, rowId);
+		}
+
+		assertThat(messagingTemplate.getFrames()).as("nothing sent before flush").isEmpty();
+		websocketSender.flushPendingEvents();
+
+		final List<Frame> frames = messagingTemplate.getFrames();
+		assertThat(frames).hasSize(1);
+		final JSONViewChanges viewChanges = (JSONViewChanges)frames.get(0).getPayload();
+		assertThat(viewChanges.getViewId()).isEqualTo(viewId.getViewId());
+		assertThat(viewChanges.getFullyChanged()).isFalse();
+		assertThat(viewChanges.getChangedIds()).hasSize(10000);
+	}
+
+	@Test
+	public void fullyChangedWins()
+	{
+		final ViewId viewId = newViewId();
+		sendRowChanged(viewId, 1);
+		sendFullyChanged(viewId);
+		sendRowChanged(viewId, 2);
+
+		websocketSender.flushPendingEvents();
+
+		final List<Frame> frames = messagingTemplate.getFrames();
+		assertThat(frames).hasSize(1);
+		final JSONViewChanges viewChanges = (JSONViewChanges)frames.get(0).getPayload();
+		assertThat(viewChanges.getFullyChanged()).isTrue();
+		assertThat(viewChanges.getChangedIds()).isNull();
+	}
+
+	@Test
+	public void differentDestinations_areNotMerged()
+	{
+		final ViewId viewId1 = newViewId();
+		final ViewId viewId2 = newViewId();
+		sendRowChanged(viewId1, 1);
+		sendRowChanged(viewId2, 2);
+		sendRowChanged(viewId1, 3);
+		sendRowChanged(viewId2, 4);
+
+		websocketSender.flushPendingEvents();
+
+		assertThat(messagingTemplate.getFrames()).hasSize(2);
+		assertThat(messagingTemplate.getFrames(topicOf(viewId1)))
+				.extracting(frame -> ((JSONViewChanges)frame.getPayload()).getChangedIds())
+				.containsExactly(ImmutableSet.of("1", "3"));
+		assertThat(messagingTemplate.getFrames(topicOf(viewId2)))
+				.extracting(frame -> ((JSONViewChanges)frame.getPayload()).getChangedIds())
+				.containsExactly(ImmutableSet.of("2", "4"));
+	}
+
+	@Test
+	public void orderIsPreservedPerDestination()
+	{
+		final ViewId viewId = newViewId();
+		final String topic = topicOf(viewId);
+
+		sendRowChanged(viewId, 1);
+		sendRowChanged(viewId, 2);
+		websocketSender.convertAndSend(topic, "not mergeable");
+		sendRowChanged(viewId, 3);
+
+		websocketSender.flushPendingEvents();
+
+		final List<Frame> frames = messagingTemplate.getFrames(topic);
+		assertThat(frames).hasSize(3);
+		assertThat(((JSONViewChanges)frames.get(0).getPayload()).getChangedIds()).containsOnly("1", "2");
+		assertThat(frames.get(1).getPayload()).isEqualTo("not mergeable");
+		assertThat(((JSONViewChanges)frames.get(2).getPayload()).getChangedIds()).containsOnly("3");
+	}
+
+	@Test
+	public void pendingEventsAreSentAfterTheWindow() throws InterruptedException
+	{
+		websocketSender.shutdown();
+		websocketSender = new WebsocketSender(messagingTemplate, 50);
+
+		final ViewId viewId = newViewId();
+		sendRowChanged(viewId, 1);
+		sendRowChanged(viewId, 2);
+
+		for (int i = 0; i < 100 && messagingTemplate.getFrames().isEmpty(); i++)
+		{
+			Thread.sleep(20);
+		}
+
+		assertThat(messagingTemplate.getFrames()).hasSize(1);
+	}
+
+	@Test
+	public void coalescingDisabled()
+	{
+		websocketSender.shutdown();
+		websocketSender = new WebsocketSender(messagingTemplate, 0);
+
+		final ViewId viewId = newViewId();
+		sendRowChanged(viewId, 1);
+		sendRowChanged(viewId, 2);
+
+		assertThat(messagingTemplate.getFrames()).hasSize(2);
+	}
+}
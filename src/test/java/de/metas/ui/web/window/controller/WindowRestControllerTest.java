@@ -0,0 +1,118 @@
+package de.metas.ui.web.window.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.cache.ETag;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.ui.web.window.descriptor.DetailId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class WindowRestControllerTest
+{
+	private static final JSONOptions jsonOpts = JSONOptions.builder()
+			.adLanguage("de_DE")
+			.build();
+
+	private static final WindowId windowId = WindowId.of(123);
+	private static final DocumentId documentId = DocumentId.of(1);
+	private static final DetailId detailId = DetailId.fromAD_Tab_ID(456);
+
+	/**
+	 * @param ifNoneMatch etag of the response which the client already has
+	 */
+	private static WebRequest request(@Nullable final String ifNoneMatch)
+	{
+		final WebRequest request = Mockito.mock(WebRequest.class);
+		Mockito.when(request.checkNotModified(Mockito.anyString()))
+				.thenAnswer(invocation -> ifNoneMatch != null && ifNoneMatch.equals(quoted(invocation.getArgument(0))));
+		return request;
+	}
+
+	private static String quoted(final String etag)
+	{
+		return etag.startsWith("\"") ? etag : "\"" + etag + "\"";
+	}
+
+	private static ResponseEntity<String> getData(
+			@Nullable final String ifNoneMatch,
+			final DocumentPath documentPath,
+			final long rootDocumentVersion)
+	{
+		final ETag rootDocumentETag = ETag.of(rootDocumentVersion, ImmutableMap.of());
+		return WindowRestController.toResponseEntity(
+				request(ifNoneMatch),
+				documentPath,
+				rootDocumentETag,
+				jsonOpts,
+				() -> "data of " + documentPath,
+				data -> data);
+	}
+
+	@Test
+	public void rootDocument_notModified_then_modifiedAfterIncludedRowsInvalidated()
+	{
+		final DocumentPath rootDocumentPath = DocumentPath.rootDocumentPath(windowId, documentId);
+
+		final ResponseEntity<String> response1 = getData(null, rootDocumentPath, 1);
+		assertThat(response1.getStatusCode()).isEqualTo(HttpStatus.OK);
+		final String etag1 = response1.getHeaders().getETag();
+		assertThat(etag1).isNotBlank();
+
+		assertThat(getData(etag1, rootDocumentPath, 1).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+		// included rows were invalidated => root document got a new version
+		final ResponseEntity<String> response3 = getData(etag1, rootDocumentPath, 2);
+		assertThat(response3.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response3.getBody()).isEqualTo("data of " + rootDocumentPath);
+	}
+
+	@Test
+	public void includedRows_alwaysFetched()
+	{
+		final DocumentPath rootDocumentPath = DocumentPath.rootDocumentPath(windowId, documentId);
+		final String rootDocumentETag = getData(null, rootDocumentPath, 1).getHeaders().getETag();
+
+		// included rows were invalidated but the client still sends the ETag it has
+		final DocumentPath includedRowsPath = DocumentPath.includedDocumentPath(windowId, documentId, detailId);
+		final ResponseEntity<String> response = getData(rootDocumentETag, includedRowsPath, 1);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isEqualTo("data of " + includedRowsPath);
+		assertThat(response.getHeaders().getETag()).isNull();
+	}
+}
@@ -0,0 +1,140 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentDescriptorsUsageSnapshotTest
+{
+	private static final WindowId SALES_ORDER = WindowId.of(143);
+	private static final WindowId BPARTNER = WindowId.of(123);
+	private static final WindowId PRODUCT = WindowId.of(140);
+
+	private Path file;
+	private DocumentDescriptorsUsageSnapshotRepository repository;
+
+	@BeforeEach
+	public void beforeEach() throws IOException
+	{
+		file = Files.createTempDirectory(DocumentDescriptorsUsageSnapshotTest.class.getSimpleName()).resolve("usage.json");
+		repository = new DocumentDescriptorsUsageSnapshotRepository(file);
+	}
+
+	private static DocumentDescriptorsUsageSnapshot representativeSnapshot()
+	{
+		return DocumentDescriptorsUsageSnapshot.ofHitsByWindowId(ImmutableMap.of(
+				SALES_ORDER, 1000L,
+				BPARTNER, 250L,
+				PRODUCT, 40L,
+				WindowId.fromJson("hu_editor"), 77L)); // not persisted because it's not an AD_Window
+	}
+
+	@Test
+	public void noSnapshotFile()
+	{
+		assertThat(repository.load()).isSameAs(DocumentDescriptorsUsageSnapshot.EMPTY);
+	}
+
+	@Test
+	public void saveAndLoad()
+	{
+		final DocumentDescriptorsUsageSnapshot snapshot = representativeSnapshot();
+		assertThat(snapshot.isValid()).isTrue();
+		assertThat(snapshot.getWindowsCount()).isEqualTo(3);
+
+		repository.save(snapshot);
+		final DocumentDescriptorsUsageSnapshot snapshotLoaded = repository.load();
+
+		assertThat(snapshotLoaded).isEqualTo(snapshot);
+		assertThat(snapshotLoaded.isValid()).isTrue();
+		assertThat(snapshotLoaded.getMostUsedWindowIds(10)).containsExactly(SALES_ORDER, BPARTNER, PRODUCT);
+	}
+
+	@Test
+	public void saveOverridesPreviousSnapshot()
+	{
+		repository.save(representativeSnapshot());
+
+		final DocumentDescriptorsUsageSnapshot snapshot2 = DocumentDescriptorsUsageSnapshot.ofHitsByWindowId(ImmutableMap.of(PRODUCT, 5L));
+		repository.save(snapshot2);
+
+		assertThat(repository.load()).isEqualTo(snapshot2);
+	}
+
+	@Test
+	public void alteredSnapshotIsIgnored() throws IOException
+	{
+		repository.save(representativeSnapshot());
+
+		final String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.write(file, json.replace("1000", "1001").getBytes(StandardCharsets.UTF_8));
+
+		assertThat(repository.load()).isSameAs(DocumentDescriptorsUsageSnapshot.EMPTY);
+	}
+
+	@Test
+	public void corruptedSnapshotIsIgnored() throws IOException
+	{
+		Files.write(file, "{ not json".getBytes(StandardCharsets.UTF_8));
+
+		assertThat(repository.load()).isSameAs(DocumentDescriptorsUsageSnapshot.EMPTY);
+	}
+
+	@Test
+	public void getMostUsedWindowIds_limited()
+	{
+		final DocumentDescriptorsUsageSnapshot snapshot = representativeSnapshot();
+
+		assertThat(snapshot.getMostUsedWindowIds(2)).containsExactly(SALES_ORDER, BPARTNER);
+		assertThat(snapshot.getMostUsedWindowIds(0)).isEmpty();
+	}
+
+	@Test
+	public void mergeWithRecentHits_previousHitsAreHalved()
+	{
+		final DocumentDescriptorsUsageSnapshot recent = DocumentDescriptorsUsageSnapshot.ofHitsByWindowId(ImmutableMap.of(
+				PRODUCT, 800L,
+				BPARTNER, 1L));
+
+		final DocumentDescriptorsUsageSnapshot merged = representativeSnapshot().mergeWithRecentHits(recent);
+
+		assertThat(merged.isValid()).isTrue();
+		assertThat(merged.getHitsByWindowId()).isEqualTo(ImmutableMap.of(
+				SALES_ORDER.toInt(), 500L,
+				BPARTNER.toInt(), 126L,
+				PRODUCT.toInt(), 820L));
+		assertThat(merged.getMostUsedWindowIds(3)).containsExactly(PRODUCT, SALES_ORDER, BPARTNER);
+	}
+}
@@ -0,0 +1,370 @@
+package de.metas.ui.web.window.descriptor.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.descriptor.sql.ProductLookupIndex.Row;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ProductLookupIndexTest
+{
+	private static final Predicate<Row> ANY_ROW = row -> true;
+	private static final String[] COLORS = { "Red", "Green", "Blue", "Black", "White" };
+
+	private static class TestRowsLoader implements ProductLookupIndex.RowsLoader
+	{
+		private final List<Row> rows = new ArrayList<>();
+		private int retrieveAllRowsCount = 0;
+		/** if set, {@link #retrieveRowsByProductIds(Set)} blocks until it's released */
+		private CountDownLatch retrieveRowsByProductIdsLatch = null;
+		private final CountDownLatch retrieveRowsByProductIdsStarted = new CountDownLatch(1);
+
+		@Override
+		public List<Row> retrieveAllRows()
+		{
+			retrieveAllRowsCount++;
+			return ImmutableList.copyOf(rows);
+		}
+
+		@Override
+		public List<Row> retrieveRowsByProductIds(final Set<Integer> productIds)
+		{
+			retrieveRowsByProductIdsStarted.countDown();
+			if (retrieveRowsByProductIdsLatch != null)
+			{
+				try
+				{
+					retrieveRowsByProductIdsLatch.await();
+				}
+				catch (final InterruptedException ex)
+				{
+					throw new RuntimeException(ex);
+				}
+			}
+
+			return rows.stream()
+					.filter(row -> productIds.contains(row.getProductId()))
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		@Override
+		public Set<Integer> retrieveProductIdsByBPartnerProductIds(final Set<Integer> bpartnerProductIds)
+		{
+			return null;
+		}
+	}
+
+	private static String value(final int productId)
+	{
+		return String.format("P%06d", productId);
+	}
+
+	private static String name(final int productId)
+	{
+		return COLORS[productId % COLORS.length] + " Shirt " + productId;
+	}
+
+	private static String upc(final int productId)
+	{
+		return String.format("4000%09d", productId);
+	}
+
+	private static String bpartnerProductNo(final int productId)
+	{
+		return productId % 10 == 0 ? "BP" + productId : null;
+	}
+
+	private static Row product(final int productId)
+	{
+		return productBuilder(productId).build();
+	}
+
+	private static Row.RowBuilder productBuilder(final int productId)
+	{
+		return Row.builder()
+				.productId(productId)
+				.active(true)
+				.displayName(value(productId) + "_" + name(productId))
+				.upc(upc(productId));
+	}
+
+	private static Row bpartnerProduct(final int productId, final int bpartnerId, final String bpartnerProductNo)
+	{
+		return productBuilder(productId)
+				.bpartnerId(bpartnerId)
+				.bpartnerProductNo(bpartnerProductNo)
+				.build();
+	}
+
+	private TestRowsLoader rowsLoader;
+	private ProductLookupIndex index;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		rowsLoader = new TestRowsLoader();
+		index = new ProductLookupIndex(rowsLoader);
+	}
+
+	@Nested
+	public class isSearchable
+	{
+		@Test
+		public void wildcards()
+		{
+			assertThat(ProductLookupIndex.isSearchable("%shirt")).isFalse();
+			assertThat(ProductLookupIndex.isSearchable("P0001_Red")).isFalse();
+			assertThat(ProductLookupIndex.isSearchable("shirt\\")).isFalse();
+		}
+
+		@Test
+		public void blankOrTooShort()
+		{
+			assertThat(ProductLookupIndex.isSearchable(null)).isFalse();
+			assertThat(ProductLookupIndex.isSearchable("  ")).isFalse();
+			assertThat(ProductLookupIndex.isSearchable(" ab ")).isFalse();
+		}
+
+		@Test
+		public void standardSearchString()
+		{
+			assertThat(ProductLookupIndex.isSearchable("red shirt")).isTrue();
+			assertThat(ProductLookupIndex.isSearchable("a-b")).isTrue();
+		}
+	}
+
+	@Nested
+	public class findProductIds
+	{
+		@BeforeEach
+		public void beforeEach()
+		{
+			for (int productId = 1; productId <= 200; productId++)
+			{
+				rowsLoader.rows.add(product(productId));
+			}
+		}
+
+		@Test
+		public void byValuePrefix()
+		{
+			assertThat(index.findProductIds("P00012", ANY_ROW))
+					.containsExactlyInAnyOrder(120, 121, 122, 123, 124, 125, 126, 127, 128, 129);
+		}
+
+		@Test
+		public void byInfix()
+		{
+			assertThat(index.findProductIds("0012", ANY_ROW))
+					.containsExactlyInAnyOrder(12, 120, 121, 122, 123, 124, 125, 126, 127, 128, 129);
+			assertThat(index.findProductIds("irt 199", ANY_ROW))
+					.containsExactly(199);
+		}
+
+		@Test
+		public void wholeSearchStringMustBeContained()
+		{
+			assertThat(index.findProductIds("red shirt 1", ANY_ROW))
+					.containsExactlyInAnyOrder(10, 15, 100, 105, 110, 115, 120, 125, 130, 135, 140, 145, 150, 155, 160, 165, 170, 175, 180, 185, 190, 195);
+			assertThat(index.findProductIds("shirt red", ANY_ROW)).isEmpty();
+		}
+
+		@Test
+		public void caseInsensitive()
+		{
+			assertThat(index.findProductIds("GREEN SHIRT 16", ANY_ROW))
+					.containsExactlyInAnyOrder(16, 161);
+		}
+
+		@Test
+		public void byUPC()
+		{
+			assertThat(index.findProductIds("4000000000042", ANY_ROW))
+					.containsExactly(42);
+		}
+
+		@Test
+		public void rowFilterIsApplied()
+		{
+			assertThat(index.findProductIds("P00012", row -> row.getProductId() % 2 == 0))
+					.containsExactlyInAnyOrder(120, 122, 124, 126, 128);
+		}
+
+		@Test
+		public void byBPartnerProductNo()
+		{
+			rowsLoader.rows.add(bpartnerProduct(42, 1000, "ACME-777"));
+			rowsLoader.rows.add(bpartnerProduct(43, 2000, "ACME-778"));
+
+			assertThat(index.findProductIds("cme", ANY_ROW)).containsExactlyInAnyOrder(42, 43);
+			assertThat(index.findProductIds("acme", row -> row.getBpartnerId() <= 0 || row.getBpartnerId() == 1000)).containsExactly(42);
+		}
+
+		@Test
+		public void changedProductIsReloaded()
+		{
+			assertThat(index.findProductIds("P000042", ANY_ROW)).containsExactly(42);
+
+			rowsLoader.rows.removeIf(row -> row.getProductId() == 42);
+			rowsLoader.rows.add(productBuilder(42).displayName("NEW-042_Blue Shirt 42").build());
+			index.invalidateProductId(42);
+
+			assertThat(index.findProductIds("P000042", ANY_ROW)).isEmpty();
+			assertThat(index.findProductIds("NEW-042", ANY_ROW)).containsExactly(42);
+			assertThat(index.findProductIds("ew-04", ANY_ROW)).containsExactly(42);
+			assertThat(rowsLoader.retrieveAllRowsCount).isEqualTo(1);
+		}
+
+		@Test
+		public void deletedProductIsNoLongerFound()
+		{
+			assertThat(index.findProductIds("P000042", ANY_ROW)).containsExactly(42);
+
+			rowsLoader.rows.removeIf(row -> row.getProductId() == 42);
+			index.invalidateProductId(42);
+
+			assertThat(index.findProductIds("P000042", ANY_ROW)).isEmpty();
+		}
+
+		@Test
+		public void invalidateAll()
+		{
+			assertThat(index.findProductIds("P000201", ANY_ROW)).isEmpty();
+
+			rowsLoader.rows.add(product(201));
+			index.invalidateAll();
+
+			assertThat(index.findProductIds("P000201", ANY_ROW)).containsExactly(201);
+			assertThat(rowsLoader.retrieveAllRowsCount).isEqualTo(2);
+		}
+
+		@Test
+		public void searchIsNotBlockedByReloadingChangedProducts() throws Exception
+		{
+			assertThat(index.findProductIds("P000042", ANY_ROW)).containsExactly(42);
+
+			rowsLoader.rows.removeIf(row -> row.getProductId() == 42);
+			rowsLoader.rows.add(productBuilder(42).displayName("NEW-042_Blue Shirt 42").build());
+			index.invalidateProductId(42);
+
+			rowsLoader.retrieveRowsByProductIdsLatch = new CountDownLatch(1);
+			final CompletableFuture<Set<Integer>> reloadingSearch = CompletableFuture.supplyAsync(() -> index.findProductIds("NEW-042", ANY_ROW));
+			assertThat(rowsLoader.retrieveRowsByProductIdsStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+			// while the changed product is loaded, the other searches use the current snapshot
+			assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+				assertThat(index.findProductIds("P000042", ANY_ROW)).containsExactly(42);
+				assertThat(index.findProductIds("P000043", ANY_ROW)).containsExactly(43);
+			});
+
+			rowsLoader.retrieveRowsByProductIdsLatch.countDown();
+			assertThat(reloadingSearch.get(5, TimeUnit.SECONDS)).containsExactly(42);
+			assertThat(index.findProductIds("P000042", ANY_ROW)).isEmpty();
+		}
+	}
+
+	@Nested
+	public class with100kProducts
+	{
+		private static final int PRODUCTS_COUNT = 100_000;
+
+		@BeforeEach
+		public void beforeEach()
+		{
+			for (int productId = 1; productId <= PRODUCTS_COUNT; productId++)
+			{
+				final String bpartnerProductNo = bpartnerProductNo(productId);
+				rowsLoader.rows.add(bpartnerProductNo != null
+						? bpartnerProduct(productId, 1000 + productId % 7, bpartnerProductNo)
+						: product(productId));
+			}
+		}
+
+		@Test
+		public void sameResultsAsILIKE()
+		{
+			for (final String searchString : ImmutableList.of("P01234", "blue shirt 9999", "bp12340", "4000000054321", "white 123", "xyz", "irt 4567", "t 99", " 00000123 ", "ack shirt 12"))
+			{
+				assertThat(index.findProductIds(searchString, ANY_ROW))
+						.as("searchString=%s", searchString)
+						.containsExactlyInAnyOrderElementsOf(findProductIdsUsingILIKE(searchString));
+			}
+		}
+
+		/**
+		 * Same as the SQL search which the index replaces, i.e.
+		 * <code>ProductDisplayName ILIKE '%searchString%' OR UPC ILIKE ... OR BPartnerProductNo ILIKE ... OR BPartnerProductName ILIKE ...</code>,
+		 * evaluated on the product's original fields.
+		 */
+		private Set<Integer> findProductIdsUsingILIKE(final String searchString)
+		{
+			final Pattern ilike = Pattern.compile(".*" + Pattern.quote(searchString.trim()) + ".*", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+
+			return IntStream.rangeClosed(1, PRODUCTS_COUNT)
+					.filter(productId -> Stream.of(value(productId) + "_" + name(productId), upc(productId), bpartnerProductNo(productId))
+							.anyMatch(field -> field != null && ilike.matcher(field).matches()))
+					.boxed()
+					.collect(Collectors.toSet());
+		}
+
+		@Test
+		public void selectiveLookups()
+		{
+			for (int i = 0; i < 1000; i++)
+			{
+				final int productId = 1 + i * 97 % PRODUCTS_COUNT;
+				final String searchString = i % 2 == 0 ? value(productId) : upc(productId);
+
+				assertThat(index.findProductIds(searchString, ANY_ROW))
+						.as("searchString=%s", searchString)
+						.containsExactly(productId);
+			}
+
+			assertThat(rowsLoader.retrieveAllRowsCount).isEqualTo(1);
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package de.metas.ui.web.window.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvidersService;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentType;
+import de.metas.ui.web.window.descriptor.DetailId;
+import de.metas.ui.web.window.descriptor.DocumentEntityDataBindingDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import de.metas.ui.web.window.model.Document.DocumentValuesSupplier;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ReadonlyDocumentIncludedDocumentsTest
+{
+	private static final DocumentId WINDOW_ID = DocumentId.of(1);
+	private static final DetailId DETAIL_ID = DetailId.fromAD_Tab_ID(2);
+	private static final int READERS = 8;
+
+	private DocumentsRepository documentsRepository;
+	private ExecutorService readers;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		documentsRepository = Mockito.mock(DocumentsRepository.class);
+		when(documentsRepository.retrieveDocument(any(), any()))
+				.thenAnswer(invocation -> newIncludedDocument(invocation.getArgument(0), 10));
+		when(documentsRepository.retrieveDocuments(any(), any()))
+				.thenAnswer(invocation -> {
+					final DocumentQuery query = invocation.getArgument(0);
+					final List<Document> documents = IntStream.rangeClosed(1, 300)
+							.mapToObj(id -> newIncludedDocument(query, id))
+							.collect(ImmutableList.toImmutableList());
+					return OrderedDocumentsList.of(documents, query.getOrderBys());
+				});
+
+		readers = Executors.newFixedThreadPool(READERS);
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		readers.shutdownNow();
+	}
+
+	private static Document newIncludedDocument(final DocumentQuery query, final int id)
+	{
+		return Document.builder(query.getEntityDescriptor())
+				.setParentDocument(query.getParentDocument())
+				.initializeAsExistingRecord(existingRecord(id));
+	}
+
+	private static DocumentValuesSupplier existingRecord(final int id)
+	{
+		return new DocumentValuesSupplier()
+		{
+			@Override
+			public DocumentId getDocumentId()
+			{
+				return DocumentId.of(id);
+			}
+
+			@Override
+			public String getVersion()
+			{
+				return "v1";
+			}
+
+			@Override
+			public Object getValue(final DocumentFieldDescriptor fieldDescriptor)
+			{
+				return NO_VALUE;
+			}
+		};
+	}
+
+	private Document newReadonlyRootDocument(final boolean singleRowDetail)
+	{
+		final DocumentEntityDataBindingDescriptor dataBinding = () -> documentsRepository;
+		final DocumentFilterDescriptorsProvidersService filterDescriptorsProvidersService = new DocumentFilterDescriptorsProvidersService(ImmutableList.of());
+
+		final DocumentEntityDescriptor includedEntity = DocumentEntityDescriptor.builder()
+				.setDocumentType(DocumentType.Window, WINDOW_ID)
+				.setDetailId(DETAIL_ID)
+				.setTableName("Test_Line")
+				.setSingleRowDetail(singleRowDetail)
+				.setDataBinding(() -> dataBinding)
+				.disableCallouts()
+				.setFilterDescriptorsProvidersService(filterDescriptorsProvidersService)
+				.build();
+
+		final DocumentEntityDescriptor rootEntity = DocumentEntityDescriptor.builder()
+				.setDocumentType(DocumentType.Window, WINDOW_ID)
+				.setTableName("Test")
+				.addIncludedEntity(includedEntity)
+				.setDataBinding(() -> dataBinding)
+				.disableCallouts()
+				.setFilterDescriptorsProvidersService(filterDescriptorsProvidersService)
+				.build();
+
+		// NOTE: existing records are loaded as readonly documents, i.e. the snapshots which are shared between readers
+		final Document rootDocument = Document.builder(rootEntity)
+				.initializeAsExistingRecord(existingRecord(1));
+		assertThat(rootDocument.isWritable()).isFalse();
+		return rootDocument;
+	}
+
+	private <T> List<T> readConcurrently(final Callable<T> reader) throws Exception
+	{
+		final List<Callable<T>> tasks = IntStream.range(0, READERS * 10)
+				.mapToObj(i -> reader)
+				.collect(ImmutableList.toImmutableList());
+
+		final List<T> results = new ArrayList<>();
+		for (final Future<T> future : readers.invokeAll(tasks))
+		{
+			results.add(future.get());
+		}
+		return results;
+	}
+
+	@Test
+	public void singleRowDetail_concurrentReadersLoadTheDocumentOnce() throws Exception
+	{
+		final Document rootDocument = newReadonlyRootDocument(true);
+
+		final List<Document> documents = readConcurrently(() -> rootDocument.getIncludedDocument(DETAIL_ID, DocumentId.of(10)));
+
+		assertThat(documents.stream().distinct().collect(Collectors.toList())).hasSize(1);
+		assertThat(documents.get(0).isWritable()).isFalse();
+		verify(documentsRepository, times(1)).retrieveDocument(any(), any());
+	}
+
+	@Test
+	public void singleRowDetail_reloadedAfterMarkedStale() throws Exception
+	{
+		final Document rootDocument = newReadonlyRootDocument(true);
+		final Document document = rootDocument.getIncludedDocument(DETAIL_ID, DocumentId.of(10));
+
+		rootDocument.getIncludedDocumentsCollection(DETAIL_ID).markStaleAll();
+
+		final Document documentReloaded = rootDocument.getIncludedDocument(DETAIL_ID, DocumentId.of(10));
+		assertThat(documentReloaded).isNotSameAs(document);
+		verify(documentsRepository, times(2)).retrieveDocument(any(), any());
+	}
+
+	@Test
+	public void highVolume_concurrentReadersLoadTheDocumentsOnce() throws Exception
+	{
+		final Document rootDocument = newReadonlyRootDocument(false);
+
+		final List<List<Document>> results = readConcurrently(() -> rootDocument.getIncludedDocuments(DETAIL_ID, DocumentQueryOrderByList.EMPTY).toList());
+
+		final List<Document> documents = results.get(0);
+		assertThat(documents).hasSize(300);
+		for (final List<Document> result : results)
+		{
+			assertThat(result).containsExactlyElementsOf(documents);
+			assertThat(result.get(0)).isSameAs(documents.get(0));
+		}
+		verify(documentsRepository, times(1)).retrieveDocuments(any(), any());
+
+		// documents already loaded by the snapshot are not retrieved again
+		assertThat(rootDocument.getIncludedDocument(DETAIL_ID, DocumentId.of(5))).isSameAs(documents.get(4));
+		verify(documentsRepository, times(0)).retrieveDocument(any(), any());
+	}
+
+	@Test
+	public void highVolume_reloadedAfterMarkedStale() throws Exception
+	{
+		final Document rootDocument = newReadonlyRootDocument(false);
+		rootDocument.getIncludedDocuments(DETAIL_ID, DocumentQueryOrderByList.EMPTY);
+
+		rootDocument.getIncludedDocumentsCollection(DETAIL_ID).markStaleAll();
+		rootDocument.getIncludedDocuments(DETAIL_ID, DocumentQueryOrderByList.EMPTY);
+
+		verify(documentsRepository, times(2)).retrieveDocuments(any(), any());
+	}
+}
@@ -0,0 +1,177 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CachedLookupDataSourceFetcherAdapterTest
+{
+	/**
+	 * Fetcher which knows the IDs 1..100 and counts the statements it would issue.
+	 */
+	private static class StatementsCountingFetcher implements LookupDataSourceFetcher
+	{
+		private int statementsCount = 0;
+
+		@Override
+		public boolean isNumericKey()
+		{
+			return true;
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingById(final Object id)
+		{
+			return LookupDataSourceContext.builder("Test_Table").putFilterById(id);
+		}
+
+		@Override
+		public LookupValue retrieveLookupValueById(final LookupDataSourceContext evalCtx)
+		{
+			statementsCount++;
+			return retrieveLookupValueById0(evalCtx);
+		}
+
+		@Override
+		public Map<LookupDataSourceContext, LookupValue> retrieveLookupValuesByIds(@NonNull final Collection<LookupDataSourceContext> evalCtxs)
+		{
+			statementsCount++;
+
+			final LinkedHashMap<LookupDataSourceContext, LookupValue> result = new LinkedHashMap<>();
+			evalCtxs.forEach(evalCtx -> result.put(evalCtx, retrieveLookupValueById0(evalCtx)));
+			return result;
+		}
+
+		private static LookupValue retrieveLookupValueById0(final LookupDataSourceContext evalCtx)
+		{
+			final int id = (Integer)evalCtx.getIdToFilter();
+			return id >= 1 && id <= 100 ? IntegerLookupValue.of(id, "name" + id) : LOOKUPVALUE_NULL;
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingList()
+		{
+			return LookupDataSourceContext.builder("Test_Table");
+		}
+
+		@Override
+		public LookupValuesList retrieveEntities(final LookupDataSourceContext evalCtx)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isCached()
+		{
+			return false;
+		}
+
+		@Override
+		public String getCachePrefix()
+		{
+			return "Test_Table";
+		}
+
+		@Override
+		public Optional<String> getLookupTableName()
+		{
+			return Optional.of("Test_Table");
+		}
+
+		@Override
+		public Optional<WindowId> getZoomIntoWindowId()
+		{
+			return Optional.empty();
+		}
+
+		@Override
+		public void cacheInvalidate()
+		{
+		}
+	}
+
+	private StatementsCountingFetcher fetcher;
+	private LookupDataSource lookupDataSource;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		fetcher = new StatementsCountingFetcher();
+		lookupDataSource = LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcher));
+	}
+
+	@Test
+	public void findByIdsOrdered_usesOneStatementForAllCacheMisses()
+	{
+		final LookupValuesList values = lookupDataSource.findByIdsOrdered(ImmutableList.of(3, 1, 2));
+
+		assertThat(values.getKeysAsInt()).containsExactly(3, 1, 2);
+		assertThat(fetcher.statementsCount).isEqualTo(1);
+	}
+
+	@Test
+	public void findByIdsOrdered_onlyCacheMissesAreRetrieved()
+	{
+		lookupDataSource.findById(1);
+		lookupDataSource.findById(2);
+		assertThat(fetcher.statementsCount).isEqualTo(2);
+
+		final LookupValuesList values = lookupDataSource.findByIdsOrdered(ImmutableList.of(1, 2, 3, 4));
+		assertThat(values.getKeysAsInt()).containsExactly(1, 2, 3, 4);
+		assertThat(fetcher.statementsCount).isEqualTo(3);
+
+		// everything is cached now
+		lookupDataSource.findByIdsOrdered(ImmutableList.of(4, 3, 2, 1));
+		assertThat(fetcher.statementsCount).isEqualTo(3);
+	}
+
+	@Test
+	public void findByIdsOrdered_notFoundIdsAreSkippedAndCached()
+	{
+		final LookupValuesList values = lookupDataSource.findByIdsOrdered(ImmutableList.of(1, 1000, 2));
+		assertThat(values.getKeysAsInt()).containsExactly(1, 2);
+		assertThat(fetcher.statementsCount).isEqualTo(1);
+
+		assertThat(lookupDataSource.findById(1000)).isNull();
+		assertThat(fetcher.statementsCount).isEqualTo(1);
+	}
+}
@@ -0,0 +1,214 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.model.lookup.LookupValuesL2Cache.Key;
+import de.metas.ui.web.window.model.lookup.LookupValuesL2Cache.ValidationKey;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LookupValuesL2CacheTest
+{
+	private static final ValidationKey VALIDATION_KEY = new ValidationKey("SELECT ...", ImmutableMap.of());
+
+	private static Key key(final String tableName, final int id)
+	{
+		return new Key(tableName, String.valueOf(id), "de_DE", VALIDATION_KEY);
+	}
+
+	private static LookupValue value(final int id)
+	{
+		return IntegerLookupValue.of(id, "name" + id);
+	}
+
+	private static void put(final LookupValuesL2Cache cache, final Key key)
+	{
+		cache.put(key, value(Integer.parseInt(key.getId())), cache.getVersion(key.getLookupTableName()));
+	}
+
+	@Test
+	public void getAndStats()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+
+		assertThat(cache.get(key("C_BPartner", 1))).isNull();
+		put(cache, key("C_BPartner", 1));
+		assertThat(cache.get(key("C_BPartner", 1))).isEqualTo(value(1));
+
+		// different language or validation key shall not match
+		assertThat(cache.get(new Key("C_BPartner", "1", "en_US", VALIDATION_KEY))).isNull();
+		assertThat(cache.get(new Key("C_BPartner", "1", "de_DE", new ValidationKey("SELECT other", ImmutableMap.of())))).isNull();
+
+		final LookupValuesL2Cache.Stats stats = cache.getStats();
+		assertThat(stats.getSize()).isEqualTo(1);
+		assertThat(stats.getHitsCount()).isEqualTo(1);
+		assertThat(stats.getMissesCount()).isEqualTo(3);
+		assertThat(stats.getSizeInBytes()).isEqualTo(LookupValuesL2Cache.estimateSizeInBytes(key("C_BPartner", 1), value(1)));
+	}
+
+	@Test
+	public void leastRecentlyUsedEntriesAreEvictedWhenMaxSizeIsExceeded()
+	{
+		final int entrySize = LookupValuesL2Cache.estimateSizeInBytes(key("C_BPartner", 1), value(1));
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(3 * entrySize);
+
+		put(cache, key("C_BPartner", 1));
+		put(cache, key("C_BPartner", 2));
+		put(cache, key("C_BPartner", 3));
+		cache.get(key("C_BPartner", 1)); // make 1 recently used
+
+		put(cache, key("C_BPartner", 4));
+
+		assertThat(cache.get(key("C_BPartner", 2))).isNull();
+		assertThat(cache.get(key("C_BPartner", 1))).isNotNull();
+		assertThat(cache.get(key("C_BPartner", 3))).isNotNull();
+		assertThat(cache.get(key("C_BPartner", 4))).isNotNull();
+
+		final LookupValuesL2Cache.Stats stats = cache.getStats();
+		assertThat(stats.getSize()).isEqualTo(3);
+		assertThat(stats.getEvictionsCount()).isEqualTo(1);
+		assertThat(stats.getSizeInBytes()).isLessThanOrEqualTo(stats.getMaxSizeInBytes());
+	}
+
+	@Test
+	public void invalidateRecord()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+		put(cache, key("C_BPartner", 1));
+		put(cache, key("C_BPartner", 2));
+		put(cache, new Key("C_BPartner", "1", "en_US", VALIDATION_KEY));
+		put(cache, key("M_Product", 1));
+
+		cache.invalidate("C_BPartner", 1);
+
+		assertThat(cache.get(key("C_BPartner", 1))).isNull();
+		assertThat(cache.get(new Key("C_BPartner", "1", "en_US", VALIDATION_KEY))).isNull();
+		assertThat(cache.get(key("C_BPartner", 2))).isNotNull();
+		assertThat(cache.get(key("M_Product", 1))).isNotNull();
+		assertThat(cache.getStats().getInvalidationsCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void invalidateTable()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+		put(cache, key("C_BPartner", 1));
+		put(cache, key("C_BPartner", 2));
+		put(cache, key("M_Product", 1));
+
+		cache.invalidate("C_BPartner", null);
+
+		assertThat(cache.get(key("C_BPartner", 1))).isNull();
+		assertThat(cache.get(key("C_BPartner", 2))).isNull();
+		assertThat(cache.get(key("M_Product", 1))).isNotNull();
+		assertThat(cache.getStats().getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void invalidateDependsOnTable()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+		cache.registerDependsOnTableNames("C_BPartner_Location", ImmutableSet.of("C_BPartner_Location", "C_Location"));
+		put(cache, key("C_BPartner_Location", 1));
+		put(cache, key("C_BPartner_Location", 2));
+		put(cache, key("C_BPartner", 1));
+
+		cache.invalidate("C_Location", 123);
+
+		assertThat(cache.get(key("C_BPartner_Location", 1))).isNull();
+		assertThat(cache.get(key("C_BPartner_Location", 2))).isNull();
+		assertThat(cache.get(key("C_BPartner", 1))).isNotNull();
+	}
+
+	@Test
+	public void valueLoadedBeforeInvalidationIsNotCached()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+
+		final long versionAtLoadStart = cache.getVersion("C_BPartner");
+		cache.invalidate("C_BPartner", 1);
+		cache.put(key("C_BPartner", 1), value(1), versionAtLoadStart);
+
+		assertThat(cache.get(key("C_BPartner", 1))).isNull();
+	}
+
+	@Test
+	public void valueLoadedBeforeInvalidationOfAnotherTableIsCached()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+
+		final long versionAtLoadStart = cache.getVersion("C_BPartner");
+		cache.invalidate("M_Product", 1);
+		cache.put(key("C_BPartner", 1), value(1), versionAtLoadStart);
+
+		assertThat(cache.get(key("C_BPartner", 1))).isNotNull();
+	}
+
+	@Test
+	public void valueLoadedBeforeInvalidationOfDependsOnTableIsNotCached()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+		cache.registerDependsOnTableNames("C_BPartner_Location", ImmutableSet.of("C_Location"));
+
+		final long versionAtLoadStart = cache.getVersion("C_BPartner_Location");
+		cache.invalidate("C_Location", 123);
+		cache.put(key("C_BPartner_Location", 1), value(1), versionAtLoadStart);
+
+		assertThat(cache.get(key("C_BPartner_Location", 1))).isNull();
+	}
+
+	@Test
+	public void valueLoadedBeforeInvalidateAllIsNotCached()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+		cache.invalidate("C_BPartner", 1);
+
+		final long versionAtLoadStart = cache.getVersion("C_BPartner");
+		cache.invalidateAll();
+		cache.put(key("C_BPartner", 1), value(1), versionAtLoadStart);
+
+		assertThat(cache.get(key("C_BPartner", 1))).isNull();
+	}
+
+	@Test
+	public void invalidateAll()
+	{
+		final LookupValuesL2Cache cache = LookupValuesL2Cache.newInstance(1024 * 1024);
+		put(cache, key("C_BPartner", 1));
+		put(cache, key("M_Product", 1));
+
+		cache.invalidateAll();
+
+		assertThat(cache.get(key("C_BPartner", 1))).isNull();
+		assertThat(cache.get(key("M_Product", 1))).isNull();
+		assertThat(cache.getStats().getSize()).isZero();
+		assertThat(cache.getStats().getSizeInBytes()).isZero();
+	}
+}
@@ -0,0 +1,144 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LookupValuesTrigramIndexTest
+{
+	private static final List<String> WORDS = ImmutableList.of(
+			"Müller", "Mueller", "Straße", "Café", "CAFE", "Crème brûlée", "Østergaard", "Ångström",
+			"Schraube", "Mutter", "Scheibe", "Dübel", "Kabel", "Holz", "Stahl", "Edelstahl", "verzinkt", "M8", "M10", "x");
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static LookupValuesList createLookupValues(final int count, final long seed)
+	{
+		final Random random = new Random(seed);
+		final ArrayList<LookupValue> values = new ArrayList<>(count);
+		for (int id = 1; id <= count; id++)
+		{
+			final StringBuilder displayName = new StringBuilder();
+			final int wordsCount = 1 + random.nextInt(4);
+			for (int i = 0; i < wordsCount; i++)
+			{
+				if (i > 0)
+				{
+					displayName.append(" ");
+				}
+				displayName.append(WORDS.get(random.nextInt(WORDS.size())));
+			}
+			displayName.append(" ").append(id);
+
+			values.add(IntegerLookupValue.of(id, displayName.toString()));
+		}
+		return LookupValuesList.fromCollection(values);
+	}
+
+	private static void assertSameAsPredicate(final LookupValuesList list, final LookupValuesTrigramIndex index, final String filter, final int offset, final int maxSize)
+	{
+		final LookupValuesList expected = list.filter(LookupValueFilterPredicates.of(filter), offset, maxSize);
+		final LookupValuesList actual = index.filter(filter, offset, maxSize);
+
+		assertThat(actual.getValues())
+				.as("filter=%s, offset=%s, maxSize=%s", filter, offset, maxSize)
+				.containsExactlyElementsOf(expected.getValues());
+	}
+
+	@Test
+	public void removeAccents()
+	{
+		assertThat(LookupValuesTrigramIndex.removeAccents("müller")).isEqualTo("muller");
+		assertThat(LookupValuesTrigramIndex.removeAccents("crème brûlée")).isEqualTo("creme brulee");
+		assertThat(LookupValuesTrigramIndex.removeAccents("plain")).isEqualTo("plain");
+	}
+
+	@Test
+	public void extractTrigrams()
+	{
+		assertThat(LookupValuesTrigramIndex.extractTrigrams("Café")).containsExactlyInAnyOrder("caf", "afe");
+		assertThat(LookupValuesTrigramIndex.extractTrigrams("ab")).isEmpty();
+	}
+
+	@Test
+	public void sameResultsAsPredicate()
+	{
+		final LookupValuesList list = createLookupValues(2000, 1234);
+		final LookupValuesTrigramIndex index = LookupValuesTrigramIndex.of(list);
+
+		final List<String> filters = ImmutableList.of(
+				"", " ", "x", "M8", "m1", // too short for the index
+				"müller", "MUELLER", "muller", "café", "cafe", "CAFÉ", "brûlée", "brulee", "ström", "strom",
+				" schraube ", "Schraube Mutter", "stahl", "edelstahl 1", "123", "not existing");
+		for (final String filter : filters)
+		{
+			assertSameAsPredicate(list, index, filter, 0, 10);
+			assertSameAsPredicate(list, index, filter, 5, 10);
+			assertSameAsPredicate(list, index, filter, 0, Integer.MAX_VALUE);
+			assertSameAsPredicate(list, index, filter, 0, 0);
+		}
+	}
+
+	@Test
+	public void emptyList()
+	{
+		final LookupValuesTrigramIndex index = LookupValuesTrigramIndex.of(LookupValuesList.EMPTY);
+		assertThat(index.filter("abc", 0, 10).isEmpty()).isTrue();
+	}
+
+	@Test
+	public void onlyTheValuesHavingAllTheTrigramsAreExamined()
+	{
+		final LookupValuesList list = createLookupValues(50_000, 1234);
+		final LookupValuesTrigramIndex index = LookupValuesTrigramIndex.of(list);
+
+		// each matching value is a candidate
+		final int matchesCount = list.filter(LookupValueFilterPredicates.of("4711"), 0, Integer.MAX_VALUE).getValues().size();
+		assertThat(matchesCount).isGreaterThan(0);
+		assertThat(index.countCandidates("4711")).isBetween(matchesCount, 100);
+
+		assertThat(index.countCandidates("edelstahl 4711")).isLessThanOrEqualTo(index.countCandidates("4711"));
+		assertThat(index.countCandidates("not existing")).isZero();
+
+		// too short to be looked up in index
+		assertThat(index.countCandidates("m8")).isEqualTo(50_000);
+	}
+}
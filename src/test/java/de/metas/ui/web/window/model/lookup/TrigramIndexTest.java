@@ -0,0 +1,74 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class TrigramIndexTest
+{
+	@Test
+	public void extractTrigrams()
+	{
+		assertThat(TrigramIndex.extractTrigrams("abcab")).containsExactlyInAnyOrder("abc", "bca", "cab");
+		assertThat(TrigramIndex.extractTrigrams("abc")).containsExactly("abc");
+		assertThat(TrigramIndex.extractTrigrams("ab")).isEmpty();
+		assertThat(TrigramIndex.extractTrigrams("")).isEmpty();
+	}
+
+	@Test
+	public void idsHavingAllTrigrams()
+	{
+		final TrigramIndex index = TrigramIndex.builder()
+				.add(1, "schraube")
+				.add(2, "mutter")
+				.add(3, "schraube m8")
+				.add(4, "scheibe")
+				.build();
+
+		assertThat(index.getIdsHavingAllTrigrams(TrigramIndex.extractTrigrams("schr"))).containsExactly(1, 3);
+		assertThat(index.getIdsHavingAllTrigrams(TrigramIndex.extractTrigrams("sch"))).containsExactly(1, 3, 4);
+		assertThat(index.getIdsHavingAllTrigrams(TrigramIndex.extractTrigrams("be m8"))).containsExactly(3);
+		assertThat(index.getIdsHavingAllTrigrams(TrigramIndex.extractTrigrams("not existing"))).isEmpty();
+		assertThat(index.getIdsHavingAllTrigrams(ImmutableSet.of())).isEmpty();
+	}
+
+	@Test
+	public void idsAreSortedAndDistinct_whenAddedUnsortedAndMoreThanOnce()
+	{
+		final TrigramIndex index = TrigramIndex.builder()
+				.add(30, "abc")
+				.add(10, "abc")
+				.add(10, "xabc")
+				.add(20, "abcd")
+				.add(30, "abcabc")
+				.build();
+
+		assertThat(index.getIdsHavingAllTrigrams(ImmutableList.of("abc"))).containsExactly(10, 20, 30);
+	}
+}